@@ -8,7 +8,9 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.stereotype.Component;
+import org.tdl.vireo.model.repo.OrganizationRepo;
 import org.tdl.vireo.service.EntityControlledVocabularyService;
+import org.tdl.vireo.service.SubmissionListRowService;
 import org.tdl.vireo.service.SystemDataLoader;
 
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -22,17 +24,29 @@ public class ApplicationInitialization implements InitializingBean {
     @Autowired
     private SystemDataLoader systemDataLoader;
 
+    @Lazy
+    @Autowired
+    private OrganizationRepo organizationRepo;
+
     @Lazy
     @Autowired
     private EntityControlledVocabularyService entityControlledVocabularyService;
 
+    @Lazy
+    @Autowired
+    private SubmissionListRowService submissionListRowService;
+
     @Override
     public void afterPropertiesSet() throws Exception {
         if (env.acceptsProfiles(Profiles.of("!isolated-test"))) {
             // load defaults first
             systemDataLoader.loadSystemData();
+            // record organizations saved before the hierarchy was
+            organizationRepo.ensureHierarchy();
             // assumes one language defined in defaults
             entityControlledVocabularyService.scanForEntityControlledVocabularies();
+            // projected columns follow the submission list columns
+            submissionListRowService.ensureSchema();
         }
     }
 
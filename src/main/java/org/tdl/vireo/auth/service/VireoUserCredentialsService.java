@@ -1,17 +1,20 @@
 package org.tdl.vireo.auth.service;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.tdl.vireo.config.constant.ConfigurationName;
 import org.tdl.vireo.model.Role;
 import org.tdl.vireo.model.User;
 import org.tdl.vireo.model.repo.ConfigurationRepo;
 import org.tdl.vireo.model.repo.UserRepo;
+import org.tdl.vireo.service.ConfigurationCachingService;
 
 import edu.tamu.weaver.auth.model.Credentials;
 import edu.tamu.weaver.auth.service.UserCredentialsService;
@@ -30,6 +33,8 @@ public class VireoUserCredentialsService extends UserCredentialsService<User, Us
 
     private static final String SHIBBOLETH = "shibboleth";
 
+    private static final int IDENTITY_LOCK_STRIPES = 64;
+
     private static final Map<String, String> shibSettings = new HashMap<>();
 
     static {
@@ -43,20 +48,52 @@ public class VireoUserCredentialsService extends UserCredentialsService<User, Us
         shibSettings.put(INSTITUTIONAL_IDENTIFIER, "uin");
     }
 
+    // logins of one identity are serialized so its user is created once, logins of different identities run concurrently
+    private final Object[] identityLocks = new Object[IDENTITY_LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < identityLocks.length; i++) {
+            identityLocks[i] = new Object();
+        }
+    }
+
     @Autowired
     private ConfigurationRepo configurationRepo;
 
+    @Autowired
+    private ConfigurationCachingService configurationCachingService;
+
     @Value("${app.useNetidAsIdentifier:false}")
     private boolean useNetidAsIdentifier;
 
     @Override
-    public synchronized User updateUserByCredentials(Credentials credentials) {
-        Map<String, String> shibValues = new HashMap<>();
+    public User updateUserByCredentials(Credentials credentials) {
+        Map<String, String> shibValues = getShibbolethAttributes();
+
+        String identity = credentials.getAllCredentials().get(shibValues.get(useNetidAsIdentifier ? NETID : EMAIL));
 
-        shibSettings.forEach((k, v) ->
-            shibValues.put(k, configurationRepo.getValueByNameAndType(k, SHIBBOLETH) != null ? configurationRepo.getValueByNameAndType(k, SHIBBOLETH) : v)
-        );
+        synchronized (identityLocks[Math.floorMod(String.valueOf(identity).hashCode(), identityLocks.length)]) {
+            return updateUserByCredentials(credentials, shibValues);
+        }
+    }
+
+    /**
+     * Get the names of the shibboleth attributes holding each user property, configured or default.
+     *
+     * @return The attribute names by setting name, cached until the settings change or expire.
+     */
+    public Map<String, String> getShibbolethAttributes() {
+        return configurationCachingService.get("shibboleth-attributes", () -> {
+            Map<String, String> shibValues = new HashMap<>();
+            shibSettings.forEach((k, v) -> {
+                String value = configurationRepo.getValueByNameAndType(k, SHIBBOLETH);
+                shibValues.put(k, value != null ? value : v);
+            });
+            return Collections.unmodifiableMap(shibValues);
+        });
+    }
 
+    private User updateUserByCredentials(Credentials credentials, Map<String, String> shibValues) {
         String shibNetid = credentials.getAllCredentials().get(shibValues.get(NETID));
         String shibEmail = credentials.getAllCredentials().get(shibValues.get(EMAIL));
         String shibFirstName = credentials.getAllCredentials().get(shibValues.get(FIRST_NAME));
@@ -64,9 +101,7 @@ public class VireoUserCredentialsService extends UserCredentialsService<User, Us
         String shibLastName = credentials.getAllCredentials().get(shibValues.get(LAST_NAME));
         String shibOrcid = credentials.getAllCredentials().get(shibValues.get(ORCID));
 
-        User user = useNetidAsIdentifier
-            ? userRepo.findByNetid(shibNetid)
-            : userRepo.findByEmail(shibEmail);
+        User user = findUser(shibNetid, shibEmail);
 
         if (user == null) {
             Role role = Role.ROLE_STUDENT;
@@ -77,7 +112,15 @@ public class VireoUserCredentialsService extends UserCredentialsService<User, Us
                 }
             }
 
-            user = userRepo.create(shibEmail, shibFirstName, shibLastName, role);
+            try {
+                user = userRepo.create(shibEmail, shibFirstName, shibLastName, role);
+            } catch (DataIntegrityViolationException e) {
+                // another node created the user first
+                if (findUser(shibNetid, shibEmail) == null) {
+                    throw e;
+                }
+                return updateUserByCredentials(credentials, shibValues);
+            }
 
             user.setNetid(shibNetid);
             user.setMiddleName(shibMiddleName);
@@ -151,6 +194,10 @@ public class VireoUserCredentialsService extends UserCredentialsService<User, Us
         return user;
     }
 
+    private User findUser(String netid, String email) {
+        return useNetidAsIdentifier ? userRepo.findByNetid(netid) : userRepo.findByEmail(email);
+    }
+
     public User createUserFromRegistration(String email, String firstName, String lastName, String password) {
         Role role = Role.ROLE_STUDENT;
         for (String adminEmail : admins) {
@@ -9,8 +9,11 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.apache.commons.io.FileUtils;
 import org.tdl.vireo.model.User;
+import org.tdl.vireo.service.AssetBlobService;
 import org.tdl.vireo.service.CliService;
+import org.tdl.vireo.service.SubmissionListRowService;
 
 /**
  * Activate the Vireo command line interface by passing the console argument to Maven
@@ -29,6 +32,12 @@ public class Cli implements CommandLineRunner {
     @Autowired
     CliService cliService;
 
+    @Autowired
+    SubmissionListRowService submissionListRowService;
+
+    @Autowired
+    AssetBlobService assetBlobService;
+
     @Override
     public void run(String... args) throws Exception {
         boolean runConsole = false;
@@ -152,6 +161,22 @@ public class Cli implements CommandLineRunner {
 
                         break;
 
+                    case "rebuild_list_rows":
+                        if (submissionListRowService.isEnabled()) {
+                            System.out.println("\nProjected " + submissionListRowService.rebuild() + " submissions into the submission list rows.");
+                        } else {
+                            System.out.println("\nThe submission list projection is disabled, set app.submission.listProjection.enabled to use it.");
+                        }
+                        break;
+
+                    case "migrate_assets":
+                        System.out.println("\nMigrated " + assetBlobService.migrate() + " assets to the blob store.");
+                        break;
+
+                    case "gc_assets":
+                        System.out.println("\nReclaimed " + FileUtils.byteCountToDisplaySize(assetBlobService.collectGarbage()) + " from unreferenced blobs.");
+                        break;
+
                     case "":
                         break;
 
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.tdl.vireo.model.Configuration;
 import org.tdl.vireo.model.ManagedConfiguration;
 import org.tdl.vireo.model.repo.ConfigurationRepo;
+import org.tdl.vireo.service.ConfigurationCachingService;
 import org.tdl.vireo.service.VireoThemeManagerService;
 
 import edu.tamu.weaver.response.ApiResponse;
@@ -36,11 +37,20 @@ public class ConfigurableSettingsController {
     @Autowired
     private SimpMessagingTemplate simpMessagingTemplate;
 
+    @Autowired
+    private ConfigurationCachingService configurationCachingService;
+
     @RequestMapping("/all")
     public ApiResponse getSettings() {
         return new ApiResponse(SUCCESS, configurationRepo.getCurrentConfigurations());
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @RequestMapping("/cache-statistics")
+    public ApiResponse getCacheStatistics() {
+        return new ApiResponse(SUCCESS, configurationCachingService.getStatistics());
+    }
+
     @PreAuthorize("hasRole('MANAGER')")
     @RequestMapping(value = "/update", method = POST)
     @WeaverValidation(business = { @WeaverValidation.Business(value = UPDATE) })
@@ -80,7 +80,16 @@ public class DepositLocationController {
     public ApiResponse testConnection(@RequestBody Map<String, Object> depositLocationJson) {
         DepositLocation depositLocation = depositLocationRepo.createDetached(depositLocationJson);
         Depositor depositor = depositorService.getDepositor(depositLocation.getDepositorName());
-        return new ApiResponse(SUCCESS, depositor.getCollections(depositLocation));
+        // a test reaches the repository, rather than answering from a service document fetched before a change
+        return new ApiResponse(SUCCESS, depositor.refreshCollections(depositLocation));
+    }
+
+    @PreAuthorize("hasRole('MANAGER')")
+    @RequestMapping(value = "/refresh-collections", method = POST)
+    public ApiResponse refreshCollections(@RequestBody Map<String, Object> depositLocationJson) {
+        DepositLocation depositLocation = depositLocationRepo.createDetached(depositLocationJson);
+        Depositor depositor = depositorService.getDepositor(depositLocation.getDepositorName());
+        return new ApiResponse(SUCCESS, depositor.refreshCollections(depositLocation));
     }
 
 }
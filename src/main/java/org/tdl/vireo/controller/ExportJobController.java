@@ -0,0 +1,157 @@
+package org.tdl.vireo.controller;
+
+import static edu.tamu.weaver.response.ApiStatus.ERROR;
+import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.ExportJobState;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ExportJobRepo;
+import org.tdl.vireo.model.repo.NamedSearchFilterGroupRepo;
+import org.tdl.vireo.service.BatchExportService;
+import org.tdl.vireo.service.ExportJobService;
+import org.tdl.vireo.utility.FileDownloadUtility;
+
+import edu.tamu.weaver.auth.annotation.WeaverUser;
+import edu.tamu.weaver.response.ApiResponse;
+
+@RestController
+@RequestMapping("/export-job")
+public class ExportJobController {
+
+    @Autowired
+    private ExportJobRepo exportJobRepo;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private BatchExportService batchExportService;
+
+    @Autowired
+    private NamedSearchFilterGroupRepo namedSearchFilterGroupRepo;
+
+    @RequestMapping("/all")
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse getAllExportJobs(@WeaverUser User user) {
+        return new ApiResponse(SUCCESS, exportJobRepo.findAllByUserOrderByIdDesc(user));
+    }
+
+    @RequestMapping("/queue-depth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse getQueueDepth() {
+        return new ApiResponse(SUCCESS, exportJobService.getQueueDepth());
+    }
+
+    @RequestMapping(value = "/create/{packagerName}", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse createExportJob(@WeaverUser User user, @PathVariable String packagerName) {
+        return enqueue(user, packagerName, user.getActiveFilter());
+    }
+
+    @RequestMapping(value = "/create/{packagerName}/{filterId}", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse createExportJobWithFilter(@WeaverUser User user, @PathVariable String packagerName, @PathVariable Long filterId) {
+        Optional<NamedSearchFilterGroup> filter = namedSearchFilterGroupRepo.findById(filterId);
+
+        if (!filter.isPresent()) {
+            return new ApiResponse(ERROR, "Could not find a filter with ID " + filterId);
+        }
+
+        return enqueue(user, packagerName, filter.get());
+    }
+
+    @RequestMapping("/{exportJobId}")
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse getExportJob(@WeaverUser User user, @PathVariable Long exportJobId) {
+        Optional<ExportJob> exportJob = findOwnExportJob(user, exportJobId);
+
+        if (!exportJob.isPresent()) {
+            return new ApiResponse(ERROR, "Could not find an export job with ID " + exportJobId);
+        }
+
+        return new ApiResponse(SUCCESS, exportJob.get());
+    }
+
+    @RequestMapping(value = "/{exportJobId}/remove", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse removeExportJob(@WeaverUser User user, @PathVariable Long exportJobId) throws IOException {
+        Optional<ExportJob> exportJob = findOwnExportJob(user, exportJobId);
+
+        if (!exportJob.isPresent()) {
+            return new ApiResponse(ERROR, "Could not find an export job with ID " + exportJobId);
+        }
+
+        if (!exportJob.get().getState().isFinished()) {
+            return new ApiResponse(ERROR, "Export job " + exportJobId + " has not finished");
+        }
+
+        exportJobService.delete(exportJob.get());
+
+        return new ApiResponse(SUCCESS);
+    }
+
+    /**
+     * Download the export of a completed job.
+     *
+     * Range requests are answered with partial content, so an interrupted download can be resumed, and conditional
+     * requests for an unchanged export with 304 Not Modified, as for submission files.
+     */
+    @RequestMapping(value = "/{exportJobId}/download", method = { RequestMethod.GET, RequestMethod.HEAD })
+    @PreAuthorize("hasRole('REVIEWER')")
+    public void downloadExportJob(HttpServletRequest request, HttpServletResponse response, @WeaverUser User user, @PathVariable Long exportJobId) throws IOException {
+        Optional<ExportJob> exportJob = findOwnExportJob(user, exportJobId);
+
+        if (!exportJob.isPresent() || exportJob.get().getState() != ExportJobState.COMPLETED) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path path = exportJobService.getExportPath(exportJob.get());
+
+        if (!Files.exists(path)) {
+            response.sendError(HttpServletResponse.SC_GONE);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment").filename(exportJob.get().getFileName(), StandardCharsets.UTF_8).build().toString());
+        FileDownloadUtility.download(request, response, path, batchExportService.getMimeType(exportJob.get().getPackagerName()), null);
+    }
+
+    private ApiResponse enqueue(User user, String packagerName, NamedSearchFilterGroup filter) {
+        if (!batchExportService.isBatchExportable(packagerName)) {
+            return new ApiResponse(ERROR, "No packager " + packagerName + " found!");
+        }
+
+        ExportJob exportJob = exportJobService.enqueue(user, packagerName, filter);
+
+        if (exportJob.getState() == ExportJobState.FAILED) {
+            return new ApiResponse(ERROR, exportJob.getMessage());
+        }
+
+        return new ApiResponse(SUCCESS, exportJob);
+    }
+
+    private Optional<ExportJob> findOwnExportJob(User user, Long exportJobId) {
+        return exportJobRepo.findById(exportJobId).filter(exportJob -> exportJob.getUser().getId().equals(user.getId()));
+    }
+
+}
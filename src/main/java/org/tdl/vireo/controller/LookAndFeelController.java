@@ -57,7 +57,7 @@ public class LookAndFeelController {
 
         logger.info("Changing logo " + setting);
 
-        assetService.write(file.getBytes(), path);
+        assetService.store(file.getInputStream(), path);
 
         ManagedConfiguration configuration = configurationRepo.findByName(setting);
         if (configuration != null) {
@@ -40,7 +40,6 @@ import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.SubmissionStatusRepo;
 import org.tdl.vireo.model.repo.WorkflowStepRepo;
 import org.tdl.vireo.view.ShallowOrganizationView;
-import org.tdl.vireo.view.TreeOrganizationView;
 
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -93,7 +92,7 @@ public class OrganizationController {
     @PreAuthorize("hasRole('STUDENT')")
     public ApiResponse getSpecificAllOrganizations(@PathVariable String specific) {
         if ("tree".equalsIgnoreCase(specific)) {
-            return new ApiResponse(SUCCESS, organizationRepo.findViewAllByOrderByIdAsc(TreeOrganizationView.class));
+            return new ApiResponse(SUCCESS, organizationRepo.findTree());
         }
 
         if ("shallow".equalsIgnoreCase(specific)) {
@@ -119,7 +118,7 @@ public class OrganizationController {
         }
 
         if ("tree".equalsIgnoreCase(specific)) {
-            return new ApiResponse(SUCCESS, organizationRepo.findViewById(id, TreeOrganizationView.class));
+            return new ApiResponse(SUCCESS, organizationRepo.findTreeById(id));
         }
 
         if ("shallow".equalsIgnoreCase(specific)) {
@@ -289,8 +288,8 @@ public class OrganizationController {
             // TODO emailWorkflowRuleRepo.update(emailWorkflowRuleToUpdate);
             emailWorkflowRuleRepo.save(emailWorkflowRuleToUpdate);
 
-            // TODO: Is this needed?
-            organizationRepo.broadcast(requestingOrgId);
+            // descendants inherit the rule
+            organizationRepo.broadcastUpdate(organizationRepo.findById(requestingOrgId).get());
         }
 
         return response;
@@ -326,7 +325,7 @@ public class OrganizationController {
 
         emailWorkflowRuleRepo.save(rule);
 
-        organizationRepo.broadcast(requestingOrgId);
+        organizationRepo.broadcastUpdate(organizationRepo.findById(requestingOrgId).get());
 
         return new ApiResponse(SUCCESS);
     }
@@ -0,0 +1,73 @@
+package org.tdl.vireo.controller;
+
+import static edu.tamu.weaver.response.ApiStatus.ERROR;
+import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.OutboundEmailState;
+import org.tdl.vireo.model.repo.OutboundEmailRepo;
+import org.tdl.vireo.service.OutboundEmailService;
+
+import edu.tamu.weaver.response.ApiResponse;
+
+@RestController
+@RequestMapping("/outbound-email")
+public class OutboundEmailController {
+
+    @Autowired
+    private OutboundEmailRepo outboundEmailRepo;
+
+    @Autowired
+    private OutboundEmailService outboundEmailService;
+
+    @RequestMapping("/queue-depth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse getQueueDepth() {
+        return new ApiResponse(SUCCESS, outboundEmailService.getQueueDepth());
+    }
+
+    @RequestMapping("/failed")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse getFailedEmails() {
+        return new ApiResponse(SUCCESS, outboundEmailRepo.findAllByStateOrderByIdDesc(OutboundEmailState.FAILED));
+    }
+
+    @RequestMapping(value = "/{outboundEmailId}/retry", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse retryEmail(@PathVariable Long outboundEmailId) {
+        Optional<OutboundEmail> outboundEmail = findFailedEmail(outboundEmailId);
+
+        if (!outboundEmail.isPresent()) {
+            return new ApiResponse(ERROR, "Could not find a failed email with ID " + outboundEmailId);
+        }
+
+        return new ApiResponse(SUCCESS, outboundEmailService.retry(outboundEmail.get()));
+    }
+
+    @RequestMapping(value = "/{outboundEmailId}/remove", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResponse removeEmail(@PathVariable Long outboundEmailId) {
+        Optional<OutboundEmail> outboundEmail = findFailedEmail(outboundEmailId);
+
+        if (!outboundEmail.isPresent()) {
+            return new ApiResponse(ERROR, "Could not find a failed email with ID " + outboundEmailId);
+        }
+
+        outboundEmailRepo.delete(outboundEmail.get());
+
+        return new ApiResponse(SUCCESS);
+    }
+
+    private Optional<OutboundEmail> findFailedEmail(Long outboundEmailId) {
+        return outboundEmailRepo.findById(outboundEmailId).filter(outboundEmail -> outboundEmail.getState() == OutboundEmailState.FAILED);
+    }
+
+}
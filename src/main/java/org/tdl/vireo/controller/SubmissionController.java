@@ -4,16 +4,16 @@ import static edu.tamu.weaver.response.ApiStatus.ERROR;
 import static edu.tamu.weaver.response.ApiStatus.INVALID;
 import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
@@ -21,17 +21,12 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +36,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
@@ -53,7 +50,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
-import org.tdl.vireo.exception.DepositException;
 import org.tdl.vireo.exception.OrganizationDoesNotAcceptSubmissionsException;
 import org.tdl.vireo.model.CustomActionValue;
 import org.tdl.vireo.model.DepositLocation;
@@ -70,7 +66,6 @@ import org.tdl.vireo.model.User;
 import org.tdl.vireo.model.VocabularyWord;
 import org.tdl.vireo.model.depositor.Depositor;
 import org.tdl.vireo.model.export.ExportPackage;
-import org.tdl.vireo.model.packager.AbstractPackager;
 import org.tdl.vireo.model.repo.ActionLogRepo;
 import org.tdl.vireo.model.repo.ConfigurationRepo;
 import org.tdl.vireo.model.repo.CustomActionDefinitionRepo;
@@ -84,11 +79,17 @@ import org.tdl.vireo.model.repo.SubmissionFieldProfileRepo;
 import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.SubmissionStatusRepo;
 import org.tdl.vireo.model.repo.UserRepo;
+import org.tdl.vireo.model.response.KeysetPage;
 import org.tdl.vireo.model.response.Views;
 import org.tdl.vireo.model.validation.FieldValueValidator;
 import org.tdl.vireo.service.AssetService;
+import org.tdl.vireo.service.BatchDepositService;
+import org.tdl.vireo.service.BatchExportService;
 import org.tdl.vireo.service.DepositorService;
 import org.tdl.vireo.service.SubmissionEmailService;
+import org.tdl.vireo.service.SubmissionListRowService;
+import org.tdl.vireo.utility.FileDownloadUtility;
+import org.tdl.vireo.utility.FileHelperUtility;
 import org.tdl.vireo.utility.OrcidUtility;
 import org.tdl.vireo.utility.PackagerUtility;
 import org.tdl.vireo.utility.TemplateUtility;
@@ -102,6 +103,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tamu.weaver.auth.annotation.WeaverCredentials;
 import edu.tamu.weaver.auth.annotation.WeaverUser;
 import edu.tamu.weaver.auth.model.Credentials;
+import edu.tamu.weaver.auth.service.CryptoService;
 import edu.tamu.weaver.data.model.ApiPage;
 import edu.tamu.weaver.response.ApiResponse;
 import edu.tamu.weaver.validation.results.ValidationResults;
@@ -118,9 +120,16 @@ public class SubmissionController {
 
     private static final String CORRECTIONS_RECEIVED_SUBMISSION_STATUS_NAME = "Corrections Received";
 
+    private static final String FILE_LINK_TYPE = "FILE_LINK";
+
+    private final FileHelperUtility fileHelperUtility = new FileHelperUtility();
+
     @Autowired
     private UserRepo userRepo;
 
+    @Autowired
+    private CryptoService cryptoService;
+
     @Autowired
     private SubmissionRepo submissionRepo;
 
@@ -151,6 +160,12 @@ public class SubmissionController {
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private SubmissionListRowService submissionListRowService;
+
+    @Autowired
+    private BatchExportService batchExportService;
+
     @Autowired
     private ConfigurationRepo configurationRepo;
 
@@ -163,6 +178,9 @@ public class SubmissionController {
     @Autowired
     private DepositorService depositorService;
 
+    @Autowired
+    private BatchDepositService batchDepositService;
+
     @Autowired
     private PackagerUtility packagerUtility;
 
@@ -181,6 +199,12 @@ public class SubmissionController {
     @Value("${app.document.folder:private}")
     private String documentFolder;
 
+    @Value("${app.document.linkDuration:300000}")
+    private long fileLinkDuration;
+
+    @Value("${app.submission.seekMaxPageSize:1000}")
+    private int seekMaxPageSize;
+
     @Value("${app.documentType.rename:}")
     private String documentTypesToRename;
 
@@ -385,6 +409,9 @@ public class SubmissionController {
                     }
 
                 }
+
+                submissionListRowService.refresh(submission);
+
                 apiResponse = new ApiResponse(SUCCESS, fieldValue);
 
                 simpMessagingTemplate.convertAndSend("/channel/submission/" + submission.getId() + "/field-values", apiResponse);
@@ -468,11 +495,13 @@ public class SubmissionController {
     @RequestMapping("/batch-update-status/{submissionStatusName}")
     @PreAuthorize("hasRole('REVIEWER')")
     public ApiResponse batchUpdateSubmissionStatuses(@WeaverUser User user, @PathVariable String submissionStatusName) {
-        submissionRepo.batchDynamicSubmissionQuery(user.getActiveFilter(), user.getSubmissionViewColumns()).forEach(submission -> {
-            SubmissionStatus submissionStatus = submissionStatusRepo.findByName(submissionStatusName);
-            submission = submissionRepo.updateStatus(submission, submissionStatus, user);
-            submissionEmailService.sendWorkflowEmails(user, submission.getId());
-        });
+        SubmissionStatus submissionStatus = submissionStatusRepo.findByName(submissionStatusName);
+        if (submissionStatus == null) {
+            return new ApiResponse(ERROR, "Could not find a submission status name " + submissionStatusName);
+        }
+        List<Long> submissionIds = submissionRepo.batchDynamicSubmissionIdQuery(user.getActiveFilter(), user.getSubmissionViewColumns());
+        submissionRepo.batchUpdateStatus(submissionIds, submissionStatus, user);
+        submissionIds.forEach(submissionId -> submissionEmailService.sendWorkflowEmails(user, submissionId));
         return new ApiResponse(SUCCESS);
     }
 
@@ -531,269 +560,33 @@ public class SubmissionController {
         processBatchExport(response, user, packagerName, activeFilter);
     }
 
-    @SuppressWarnings("unchecked")
     private void processBatchExport(HttpServletResponse response, User user, String packagerName, NamedSearchFilterGroup filter) throws IOException {
-        AbstractPackager<?> packager = packagerUtility.getPackager(packagerName);
-
-        List<SubmissionListColumn> columns = filter.getColumnsFlag() ? filter.getSavedColumns() : user.getSubmissionViewColumns();
-        switch (packagerName.trim()) {
-        case "Excel":
-            List<Submission> submissions = submissionRepo.batchDynamicSubmissionQuery(filter, columns);
-
-            HSSFWorkbook workbook = new HSSFWorkbook();
-
-            HSSFSheet worksheet = workbook.createSheet();
-
-            int rowCount = 0;
-
-            HSSFRow header = worksheet.createRow(rowCount++);
-
-            for (int i = 0; i < columns.size(); i++) {
-                SubmissionListColumn column = columns.get(i);
-                header.createCell(i).setCellValue(column.getTitle());
-            }
-
-            for (Submission submission : submissions) {
-                ExportPackage exportPackage = packagerUtility.packageExport(packager, submission, columns);
-                if (exportPackage.isMap()) {
-                    Map<String, String> rowData = (Map<String, String>) exportPackage.getPayload();
-                    HSSFRow row = worksheet.createRow(rowCount++);
-                    for (int i = 0; i < columns.size(); i++) {
-                        SubmissionListColumn column = columns.get(i);
-                        row.createCell(i).setCellValue(rowData.get(column.getTitle()));
-                    }
-                }
-            }
-
-            for (int i = 0; i < columns.size(); i++) {
-                worksheet.autoSizeColumn(i);
-            }
-
-            response.setContentType(packager.getMimeType());
-            response.setHeader("Content-Disposition", "inline; filename=" + packagerName + "." + packager.getFileExtension());
-            workbook.write(response.getOutputStream());
-
-            break;
-        case "MarcXML21":
-        case "Marc21":
-            ServletOutputStream sos = response.getOutputStream();
-
-            try {
-                ZipOutputStream zos = new ZipOutputStream(sos, StandardCharsets.UTF_8);
-
-                for (Submission submission : submissionRepo.batchDynamicSubmissionQuery(filter, columns)) {
-
-                    StringBuilder contentsText = new StringBuilder();
-                    ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
-                    if (exportPackage.isMap()) {
-                        for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
-                            if (packagerName.equals("MarcXML21")) {
-                                zos.putNextEntry(new ZipEntry("MarcXML21/" + fileEntry.getKey()));
-                            } else {
-                                zos.putNextEntry(new ZipEntry(fileEntry.getKey()));
-                            }
-                            contentsText.append("MD " + fileEntry.getKey() + "\n");
-                            zos.write(Files.readAllBytes(fileEntry.getValue().toPath()));
-                            zos.closeEntry();
-                        }
-                    }
-                }
-                zos.close();
-
-                response.setContentType(packager.getMimeType());
-                response.setHeader("Content-Disposition", "inline; filename=" + packagerName + "." + packager.getFileExtension());
-            } catch (Exception e) {
-                LOG.info("Error With Export",e);
-                response.setContentType("application/json");
-                ApiResponse apiResponse = new ApiResponse(ERROR, "Something went wrong with the export!");
-                sos.print(objectMapper.writeValueAsString(apiResponse));
-                sos.close();
-            }
-            break;
-
-        case "ProQuest":
-            ServletOutputStream sos_pq = response.getOutputStream();
-
-            try {
-                ZipOutputStream zos = new ZipOutputStream(sos_pq, StandardCharsets.UTF_8);
-
-                for (Submission submission : submissionRepo.batchDynamicSubmissionQuery(filter, columns)) {
-                    List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue("first_name");
-                    Optional<String> firstNameOpt = fieldValues.size() > 0 ? Optional.of(fieldValues.get(0).getValue()) : Optional.empty();
-                    String firstName = firstNameOpt.isPresent() ? firstNameOpt.get() : "";
-                    firstName = firstName.substring(0,1).toUpperCase()+firstName.substring(1);
-                    fieldValues = submission.getFieldValuesByPredicateValue("last_name");
-                    Optional<String> lastNameOpt = fieldValues.size() > 0 ? Optional.of(fieldValues.get(0).getValue()) : Optional.empty();
-                    String lastName = lastNameOpt.isPresent() ? lastNameOpt.get() : "";
-                    lastName = lastName.substring(0,1).toUpperCase()+lastName.substring(1);
-                    String personName = lastName+"_"+firstName;
-
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    try (ZipOutputStream b = new ZipOutputStream(baos)){
-                        ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
-                        if (exportPackage.isMap()) {
-                            for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
-                                b.putNextEntry(new ZipEntry(personName+"_DATA.xml"));
-                                b.write(Files.readAllBytes(fileEntry.getValue().toPath()));
-                                b.closeEntry();
-                            }
-                        }
-                        // LICENSES
-                        for (FieldValue ldfv : submission.getLicenseDocumentFieldValues()) {
-                            Path path = assetService.getAssetsAbsolutePath(ldfv.getValue());
-                            byte[] fileBytes = Files.readAllBytes(path);
-                            int sfxIndx;
-                            String licFileName = ldfv.getFileName();
-                            if((sfxIndx = licFileName.indexOf("."))>0){
-                                licFileName = licFileName.substring(0,sfxIndx).toUpperCase()+licFileName.substring(sfxIndx);
-                            }
-                            b.putNextEntry(new ZipEntry(personName+"_permission/"+licFileName));
-                            b.write(fileBytes);
-                            b.closeEntry();
-                        }
-                        // PRIMARY_DOC
-                        FieldValue primaryDoc = submission.getPrimaryDocumentFieldValue();
-                        Path path = assetService.getAssetsAbsolutePath(primaryDoc.getValue());
-                        byte[] fileBytes = Files.readAllBytes(path);
-                        String fName = primaryDoc.getFileName();
-                        int fNameIndx = fName.indexOf(".");
-                        String fType = "";//default
-                        if(fNameIndx>0){
-                            fType = fName.substring(fNameIndx);
-                        }
-                        b.putNextEntry(new ZipEntry(personName+fType));
-                        b.write(fileBytes);
-                        b.closeEntry();
-
-                    }catch(IOException ioe){
-                        ioe.printStackTrace();
-                    }
-                    zos.putNextEntry(new ZipEntry("upload_"+personName+".zip"));
-                    baos.close();
-                    zos.write(baos.toByteArray());
-                    zos.closeEntry();
-                }
-                zos.close();
-
-                response.setContentType(packager.getMimeType());
-                response.setHeader("Content-Disposition", "inline; filename=" + packagerName + "." + packager.getFileExtension());
-            } catch (Exception e) {
-                LOG.info("Error With Export",e);
-                response.setContentType("application/json");
-                ApiResponse apiResponse = new ApiResponse(ERROR, "Something went wrong with the export!");
-                sos_pq.print(objectMapper.writeValueAsString(apiResponse));
-                sos_pq.close();
-            }
-            break;
-        case "DSpaceMETS":
-            ServletOutputStream sos_mets = response.getOutputStream();
-
-            try {
-                ZipOutputStream zos = new ZipOutputStream(sos_mets);
-
-                for (Submission submission : submissionRepo.batchDynamicSubmissionQuery(filter, columns)) {
-                    ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
-                    File exportFile = (File) exportPackage.getPayload();
-                    byte[] fileBytes =  FileUtils.readFileToByteArray(exportFile);
-                    zos.putNextEntry(new ZipEntry(exportFile.getName()));
-                    zos.write(fileBytes);
-                    zos.closeEntry();
-                }
-                zos.close();
-
-                response.setContentType(packager.getMimeType());
-                response.setHeader("Content-Disposition", "inline; filename=" + packagerName + "." + packager.getFileExtension());
-            } catch (Exception e) {
-                LOG.info("Error With Export",e);
-                response.setContentType("application/json");
-                ApiResponse apiResponse = new ApiResponse(ERROR, "Something went wrong with the export!");
-                sos_mets.print(objectMapper.writeValueAsString(apiResponse));
-                sos_mets.close();
-            }
-            break;
-        case "DSpaceSimple":
-            ServletOutputStream sosDss = response.getOutputStream();
-            try {
-                ZipOutputStream zos = new ZipOutputStream(sosDss);
-                for (Submission submission : submissionRepo.batchDynamicSubmissionQuery(filter, columns)) {
-                    String submissionName = "submission_" + submission.getId() + "/";
-                    zos.putNextEntry(new ZipEntry(submissionName));
-
-                    StringBuilder contentsText = new StringBuilder();
-
-                    ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
-
-                    //METADATA
-                    if (exportPackage.isMap()) {
-                        for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
-                            zos.putNextEntry(new ZipEntry(submissionName + fileEntry.getKey()));
-                            contentsText.append(fileEntry.getKey()+"\n");
-                            zos.write(Files.readAllBytes(fileEntry.getValue().toPath()));
-                            zos.closeEntry();
-                        }
-                    }
-
-                    // LICENSES
-                    for (FieldValue ldfv : submission.getLicenseDocumentFieldValues()) {
-                        Path path = assetService.getAssetsAbsolutePath(ldfv.getValue());
-                        byte[] fileBytes = Files.readAllBytes(path);
-                        zos.putNextEntry(new ZipEntry(submissionName + ldfv.getFileName()));
-                        contentsText.append(ldfv.getFileName()+"\tBUNDLE:LICENSE\n");
-                        zos.write(fileBytes);
-                        zos.closeEntry();
-                    }
-
-                    // PRIMARY_DOC
-                    FieldValue primaryDoc = submission.getPrimaryDocumentFieldValue();
-                    Path path = assetService.getAssetsAbsolutePath(primaryDoc.getValue());
-                    byte[] fileBytes = Files.readAllBytes(path);
-                    zos.putNextEntry(new ZipEntry(submissionName+primaryDoc.getFileName()));
-                    contentsText.append(primaryDoc.getFileName()+"\tBUNDLE:CONTENT\tprimary:true\n");
-                    zos.write(fileBytes);
-                    zos.closeEntry();
-
-                    // SUPPLEMENTAL_DOCS
-                    List<FieldValue> supplDocs = submission.getSupplementalAndSourceDocumentFieldValues();
-                    for (FieldValue supplDoc : supplDocs) {
-                        Path supplPath = assetService.getAssetsAbsolutePath(supplDoc.getValue());
-                        byte[] supplFileBytes = Files.readAllBytes(supplPath);
-                        zos.putNextEntry(new ZipEntry(submissionName+supplDoc.getFileName()));
-                        contentsText.append(supplDoc.getFileName()+"\tBUNDLE:CONTENT\n");
-                        zos.write(supplFileBytes);
-                        zos.closeEntry();
-                    }
-
-                    // CONTENTS_FILE
-                    zos.putNextEntry(new ZipEntry(submissionName + "contents"));
-                    zos.write(contentsText.toString().getBytes());
-                    zos.closeEntry();
-
-                    zos.closeEntry();
-
-                }
-                zos.close();
-
-                response.setContentType(packager.getMimeType());
-                response.setHeader("Content-Disposition", "inline; filename=" + packagerName + "." + packager.getFileExtension());
-            } catch (Exception e) {
-                LOG.info("Error With Export",e);
-                response.setContentType("application/json");
-                ApiResponse apiResponse = new ApiResponse(ERROR, "Something went wrong with the export!");
-                sosDss.print(objectMapper.writeValueAsString(apiResponse));
-                sosDss.close();
-            }
-            break;
-
-        default:
+        if (!batchExportService.isBatchExportable(packagerName)) {
             response.setContentType("application/json");
 
             ApiResponse apiResponse = new ApiResponse(ERROR, "No packager " + packagerName + " found!");
             PrintWriter out = response.getWriter();
             out.print(objectMapper.writeValueAsString(apiResponse));
             out.close();
+            return;
         }
 
-        response.getOutputStream().close();
+        ServletOutputStream sos = response.getOutputStream();
+
+        // headers go out before the export is streamed
+        response.setContentType(batchExportService.getMimeType(packagerName));
+        response.setHeader("Content-Disposition", "inline; filename=" + batchExportService.getFileName(packagerName));
+
+        try {
+            batchExportService.export(packagerName, user, filter, sos, null);
+        } catch (Exception e) {
+            LOG.info("Error With Export",e);
+            response.setContentType("application/json");
+            ApiResponse apiResponse = new ApiResponse(ERROR, "Something went wrong with the export!");
+            sos.print(objectMapper.writeValueAsString(apiResponse));
+        }
+
+        sos.close();
     }
 
     @RequestMapping(value = "/batch-assign-to", method = RequestMethod.POST)
@@ -818,16 +611,8 @@ public class SubmissionController {
             if (depositLocation != null) {
                 Depositor depositor = depositorService.getDepositor(depositLocation.getDepositorName());
                 if (depositor != null) {
-                    for (Submission submission : submissionRepo.batchDynamicSubmissionQuery(user.getActiveFilter(), user.getSubmissionViewColumns())) {
-                        try {
-                            ExportPackage exportPackage = packagerUtility.packageExport(depositLocation.getPackager(), submission);
-                            String depositURL = depositor.deposit(depositLocation, exportPackage);
-                            submission.setDepositURL(depositURL);
-                            submission = submissionRepo.updateStatus(submission, submissionStatus, user);
-                        } catch (Exception e) {
-                            throw new DepositException("Failed package export on submission " + submission.getId());
-                        }
-                    }
+                    List<Long> submissionIds = submissionRepo.batchDynamicSubmissionIdQuery(user.getActiveFilter(), user.getSubmissionViewColumns());
+                    response = new ApiResponse(SUCCESS, batchDepositService.deposit(user, depositLocation, depositor, submissionStatus, submissionIds));
                 } else {
                     response = new ApiResponse(ERROR, "Could not find a depositor name " + depositLocation.getDepositorName());
                 }
@@ -899,6 +684,7 @@ public class SubmissionController {
         Submission submission = submissionRepo.read(submissionId);
         submission.removeFieldValue(fieldValue);
         submission = submissionRepo.save(submission);
+        submissionListRowService.refresh(submission);
         simpMessagingTemplate.convertAndSend("/channel/submission/" + submission.getId() + "/removed-field-value", new ApiResponse(SUCCESS, fieldValue));
         return new ApiResponse(SUCCESS, submission);
     }
@@ -963,12 +749,112 @@ public class SubmissionController {
         return new ApiResponse(SUCCESS, new ApiPage<Submission>(submissions));
     }
 
+    @Transactional(readOnly = true)
+    @JsonView(Views.SubmissionList.class)
+    @RequestMapping(value = "/query/seek/{size}", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('REVIEWER')")
+    public ApiResponse seekSubmission(@WeaverUser User user, @PathVariable Integer size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "false") boolean count, @RequestBody List<SubmissionListColumn> submissionListColumns) {
+        if (size < 1) {
+            return new ApiResponse(ERROR, "Page size must be at least 1");
+        }
+
+        long startTime = System.nanoTime();
+        NamedSearchFilterGroup activeFilter = user.getActiveFilter();
+        KeysetPage<Submission> submissions = submissionRepo.keysetDynamicSubmissionQuery(activeFilter, activeFilter.getColumnsFlag() ? activeFilter.getSavedColumns() : submissionListColumns, cursor, Math.min(size, seekMaxPageSize), count);
+        long endTime = System.nanoTime();
+        long duration = (endTime - startTime);
+        LOG.info("Dynamic keyset query took " + duration / 1000000000.0 + " seconds");
+        return new ApiResponse(SUCCESS, submissions);
+    }
+
+    /**
+     * Download a submission file.
+     *
+     * Conditional and range requests are answered, so a viewer seeking through a large file or a resumed download only
+     * fetches what it is missing. Files with a recorded checksum use it as their ETag.
+     */
     @RequestMapping("/file")
-    public void submissionFile(HttpServletResponse response, @RequestHeader String uri) throws IOException {
+    public void submissionFile(HttpServletRequest request, HttpServletResponse response, @RequestHeader String uri) throws IOException {
         response.addHeader("Content-Disposition", "attachment");
+        sendSubmissionFile(request, response, uri);
+    }
+
+    /**
+     * Issue a link token for a submission file, to reviewers and to the submitter of the submission.
+     *
+     * The token names the file in place of its path and expires after the link duration, so a link to it cannot be
+     * followed to the file for long, or turned into a link to another file.
+     */
+    @RequestMapping(value = "/{submissionId}/file-link", method = RequestMethod.POST)
+    @PreAuthorize("hasRole('STUDENT')")
+    public ApiResponse submissionFileLink(@WeaverUser User user, @PathVariable Long submissionId, @RequestBody Map<String, String> requestData) {
+        String uri = requestData.get("uri");
+        Submission submission = null;
+        if (user.getRole().ordinal() <= Role.ROLE_REVIEWER.ordinal()) {
+            submission = submissionRepo.read(submissionId);
+        } else {
+            submission = submissionRepo.findOneBySubmitterAndId(user, submissionId);
+        }
+
+        if (submission == null) {
+            return new ApiResponse(ERROR, "Submission not found");
+        }
+
+        if (uri == null || !isDocumentUri(uri) || submission.getFieldValues().stream().noneMatch(fieldValue -> uri.equals(fieldValue.getValue()))) {
+            return new ApiResponse(ERROR, "File not found");
+        }
+
+        String content = Base64.getUrlEncoder().withoutPadding().encodeToString(uri.getBytes(StandardCharsets.UTF_8));
+        try {
+            return new ApiResponse(SUCCESS, cryptoService.generateGenericToken(content, FILE_LINK_TYPE));
+        } catch (GeneralSecurityException e) {
+            LOG.debug("Unable to generate file link token!", e);
+            return new ApiResponse(ERROR, "Unable to generate file link!");
+        }
+    }
+
+    /**
+     * Download a submission file from a link, named by a token issued to the user with access to it.
+     *
+     * The browser, or its PDF viewer, fetches the file itself, so it can request ranges and keep the file out of the
+     * memory of the page, and the file is saved under its name.
+     */
+    @RequestMapping(value = "/file/download", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void downloadSubmissionFile(HttpServletRequest request, HttpServletResponse response, @RequestParam String token) throws IOException {
+        String uri = readFileLinkToken(token);
+        if (uri == null || !isDocumentUri(uri)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment").filename(assetService.getAssetFileName(uri), StandardCharsets.UTF_8).build().toString());
+        sendSubmissionFile(request, response, uri);
+    }
+
+    private void sendSubmissionFile(HttpServletRequest request, HttpServletResponse response, String uri) throws IOException {
         Path path = assetService.getAssetsAbsolutePath(uri);
-        Files.copy(path, response.getOutputStream());
-        response.getOutputStream().flush();
+        String etag = assetService.getStoredAsset(uri).map(storedAsset -> "\"" + storedAsset.getSha256() + "\"").orElse(null);
+        FileDownloadUtility.download(request, response, path, fileHelperUtility.getMimeType(path.toString()), etag);
+    }
+
+    // the uri of the file a link token names, or null if the token is not one or has expired
+    private String readFileLinkToken(String token) {
+        try {
+            String[] content = cryptoService.validateGenericToken(token, FILE_LINK_TYPE);
+            if (System.currentTimeMillis() - Long.valueOf(content[0]) > fileLinkDuration) {
+                return null;
+            }
+            return new String(Base64.getUrlDecoder().decode(content[1]), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            LOG.debug("Unable to validate file link token!", e);
+            return null;
+        }
+    }
+
+    // only submission documents are linked, never a path out of their folder
+    private boolean isDocumentUri(String uri) {
+        Path path = assetService.getAssetsAbsolutePath(uri).normalize();
+        return path.startsWith(assetService.getAssetsAbsolutePath(documentFolder).normalize()) && !uri.contains("..");
     }
 
     @RequestMapping(value = "/{submissionId}/file-info", method = RequestMethod.POST)
@@ -997,7 +883,7 @@ public class SubmissionController {
         }
 
         String uri = documentFolder + File.separator + hash + File.separator + System.currentTimeMillis() + "-" + fileName;
-        assetService.write(file.getBytes(), uri);
+        assetService.store(file.getInputStream(), uri);
         JsonNode fileInfo = assetService.getAssetFileInfo(uri, submission);
         actionLogRepo.createPublicLog(submission, user, documentType + " file " + fileInfo.get("name").asText() + " (" + fileInfo.get("readableSize").asText() + ") uploaded");
         return new ApiResponse(SUCCESS, uri);
@@ -1114,6 +1000,8 @@ public class SubmissionController {
             submission.clearApproveEmbargo();
         }
 
+        submission = submissionRepo.update(submission);
+
         if (message != null) {
             actionLogRepo.createAdvisorPublicLog(submission, "Advisor comments : " + message);
         }
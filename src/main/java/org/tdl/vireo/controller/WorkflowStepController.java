@@ -125,8 +125,8 @@ public class WorkflowStepController {
         if (persistedFieldProfile.getOriginatingWorkflowStep().getId().equals(workflowStep.get().getId()) && workflowStep.get().getOriginatingOrganization().getId().equals(requestingOrgId)) {
             fieldProfileRepo.delete(persistedFieldProfile);
         } else {
-            // only broadcast when not deleting field profile as it broadcasts ordered organizations
-            organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+            // only broadcast when not deleting field profile as deleting broadcasts the change itself
+            organizationRepo.broadcastUpdate(organization.get());
         }
 
         return new ApiResponse(SUCCESS);
@@ -160,8 +160,8 @@ public class WorkflowStepController {
         if (fieldProfile.get().getOriginatingWorkflowStep().getId().equals(workflowStepId) && workflowStep.get().getOriginatingOrganization().getId().equals(requestingOrgId)) {
             fieldProfileRepo.delete(fieldProfile.get());
         } else {
-            // only broadcast when not deleting field profile as it broadcasts ordered organizations
-            organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+            // only broadcast when not deleting field profile as deleting broadcasts the change itself
+            organizationRepo.broadcastUpdate(organization.get());
         }
 
         return new ApiResponse(SUCCESS);
@@ -172,8 +172,9 @@ public class WorkflowStepController {
     @WeaverValidation(method = { @WeaverValidation.Method(value = LIST_REORDER, model = FieldProfile.class, params = { "2", "3", "1", "aggregateFieldProfiles" }) })
     public ApiResponse reorderFieldProfiles(@PathVariable Long requestingOrgId, @PathVariable Long workflowStepId, @PathVariable Integer src, @PathVariable Integer dest) throws WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
         WorkflowStep workflowStep = workflowStepRepo.findById(workflowStepId).get();
-        workflowStepRepo.reorderFieldProfiles(organizationRepo.findById(requestingOrgId).get(), workflowStep, src, dest);
-        organizationRepo.broadcast(requestingOrgId);
+        Organization requestingOrganization = organizationRepo.findById(requestingOrgId).get();
+        workflowStepRepo.reorderFieldProfiles(requestingOrganization, workflowStep, src, dest);
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return new ApiResponse(SUCCESS);
     }
 
@@ -187,7 +188,7 @@ public class WorkflowStepController {
             workflowStep = workflowStepRepo.update(workflowStep, requestingOrganization);
         }
         noteRepo.create(workflowStep, note.getName(), note.getText(), note.getOverrideable());
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return new ApiResponse(SUCCESS);
     }
 
@@ -195,8 +196,9 @@ public class WorkflowStepController {
     @RequestMapping(value = "/{requestingOrgId}/{workflowStepId}/update-note", method = POST)
     @WeaverValidation(business = { @WeaverValidation.Business(value = UPDATE) })
     public ApiResponse updateNote(@PathVariable Long requestingOrgId, @PathVariable Long workflowStepId, @WeaverValidatedModel Note note) throws WorkflowStepNonOverrideableException, HeritableModelNonOverrideableException, ComponentNotPresentOnOrgException {
-        noteRepo.update(note, organizationRepo.findById(requestingOrgId).get());
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        Organization requestingOrganization = organizationRepo.findById(requestingOrgId).get();
+        noteRepo.update(note, requestingOrganization);
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return new ApiResponse(SUCCESS);
     }
 
@@ -206,11 +208,12 @@ public class WorkflowStepController {
     public ApiResponse removeNote(@PathVariable Long requestingOrgId, @PathVariable Long workflowStepId, @WeaverValidatedModel Note note) throws NumberFormatException, WorkflowStepNonOverrideableException, HeritableModelNonOverrideableException, ComponentNotPresentOnOrgException {
         WorkflowStep workflowStep = workflowStepRepo.findById(workflowStepId).get();
         Note persistedNote = noteRepo.findById(note.getId()).get();
-        noteRepo.removeFromWorkflowStep(organizationRepo.findById(requestingOrgId).get(), workflowStep, persistedNote);
+        Organization requestingOrganization = organizationRepo.findById(requestingOrgId).get();
+        noteRepo.removeFromWorkflowStep(requestingOrganization, workflowStep, persistedNote);
         if (persistedNote.getOriginatingWorkflowStep().getId().equals(workflowStep.getId())) {
             noteRepo.delete(persistedNote);
         }
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return new ApiResponse(SUCCESS);
     }
 
@@ -219,8 +222,9 @@ public class WorkflowStepController {
     @WeaverValidation(method = { @WeaverValidation.Method(value = LIST_REORDER, model = WorkflowStep.class, params = { "2", "3", "1", "aggregateNotes" }) })
     public ApiResponse reorderNotes(@PathVariable Long requestingOrgId, @PathVariable Long workflowStepId, @PathVariable Integer src, @PathVariable Integer dest) throws NumberFormatException, WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
         WorkflowStep workflowStep = workflowStepRepo.findById(workflowStepId).get();
-        workflowStepRepo.reorderNotes(organizationRepo.findById(requestingOrgId).get(), workflowStep, src, dest);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        Organization requestingOrganization = organizationRepo.findById(requestingOrgId).get();
+        workflowStepRepo.reorderNotes(requestingOrganization, workflowStep, src, dest);
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return new ApiResponse(SUCCESS);
     }
 
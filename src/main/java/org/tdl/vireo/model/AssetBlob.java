@@ -0,0 +1,82 @@
+package org.tdl.vireo.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+import edu.tamu.weaver.data.model.BaseEntity;
+
+/**
+ * A file of the content-addressed blob store, stored once however many assets have its content.
+ *
+ * Assets are hard links to their blob, and the blob counts the assets linked to it. A blob no asset references is
+ * left for the garbage collection sweep to remove.
+ */
+@Entity
+public class AssetBlob extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private long referenceCount;
+
+    public AssetBlob() {
+        super();
+    }
+
+    public AssetBlob(String sha256, long size, long referenceCount) {
+        this();
+        setSha256(sha256);
+        setSize(size);
+        setReferenceCount(referenceCount);
+    }
+
+    /**
+     * @return the hex encoded SHA-256 digest of the blob's content, which is also its name in the blob store
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @param sha256
+     *            the sha256 to set
+     */
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    /**
+     * @return the size of the blob in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @param size
+     *            the size to set
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the number of assets linked to the blob
+     */
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * @param referenceCount
+     *            the referenceCount to set
+     */
+    public void setReferenceCount(long referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+}
@@ -7,9 +7,11 @@ import static javax.persistence.FetchType.EAGER;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 
+import org.tdl.vireo.model.listener.EmailWorkflowRuleListener;
 import org.tdl.vireo.model.validation.EmailWorkflowRuleValidator;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
@@ -20,6 +22,7 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import edu.tamu.weaver.validation.model.ValidatingBaseEntity;
 
 @Entity
+@EntityListeners(EmailWorkflowRuleListener.class)
 public class EmailWorkflowRule extends ValidatingBaseEntity {
 
     @Column
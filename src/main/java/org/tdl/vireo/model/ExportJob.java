@@ -0,0 +1,285 @@
+package org.tdl.vireo.model;
+
+import java.util.Calendar;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.ManyToOne;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.tdl.vireo.model.validation.ExportJobValidator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import edu.tamu.weaver.validation.model.ValidatingBaseEntity;
+
+/**
+ * A batch export running in the background, written to a file in the export spool folder.
+ */
+@Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+public class ExportJob extends ValidatingBaseEntity {
+
+    // prefix of the name of the copy of the filter exported by a job
+    public static final String FILTER_NAME_PREFIX = "export-job-";
+
+    @JsonIgnore
+    @ManyToOne(optional = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String packagerName;
+
+    @Column(nullable = false)
+    private Long filterId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExportJobState state;
+
+    @Column(nullable = false)
+    private int processed;
+
+    @Column(nullable = false)
+    private int total;
+
+    @JsonIgnore
+    @Column(nullable = true)
+    private String spoolPath;
+
+    @Column(nullable = true)
+    private String fileName;
+
+    @Column(nullable = true, columnDefinition = "text")
+    private String message;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar createdDate;
+
+    @Column(nullable = true)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar finishedDate;
+
+    @JsonIgnore
+    @Column(nullable = true)
+    private String owner;
+
+    @JsonIgnore
+    @Column(nullable = true)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar heartbeatDate;
+
+    public ExportJob() {
+        setModelValidator(new ExportJobValidator());
+    }
+
+    public ExportJob(User user, String packagerName, Long filterId) {
+        this();
+        setUser(user);
+        setPackagerName(packagerName);
+        setFilterId(filterId);
+        setState(ExportJobState.QUEUED);
+        setCreatedDate(Calendar.getInstance());
+    }
+
+    /**
+     * @return the user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * @param user
+     *            the user to set
+     */
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    /**
+     * @return the packagerName
+     */
+    public String getPackagerName() {
+        return packagerName;
+    }
+
+    /**
+     * @param packagerName
+     *            the packagerName to set
+     */
+    public void setPackagerName(String packagerName) {
+        this.packagerName = packagerName;
+    }
+
+    /**
+     * @return the id of the copy of the named search filter group selecting the submissions, taken when the job was created
+     */
+    public Long getFilterId() {
+        return filterId;
+    }
+
+    /**
+     * @param filterId
+     *            the filterId to set
+     */
+    public void setFilterId(Long filterId) {
+        this.filterId = filterId;
+    }
+
+    /**
+     * @return the state
+     */
+    public ExportJobState getState() {
+        return state;
+    }
+
+    /**
+     * @param state
+     *            the state to set
+     */
+    public void setState(ExportJobState state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the number of submissions exported so far
+     */
+    public int getProcessed() {
+        return processed;
+    }
+
+    /**
+     * @param processed
+     *            the processed to set
+     */
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+
+    /**
+     * @return the number of submissions to export
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @param total
+     *            the total to set
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * @return the path of the export, relative to the assets
+     */
+    public String getSpoolPath() {
+        return spoolPath;
+    }
+
+    /**
+     * @param spoolPath
+     *            the spoolPath to set
+     */
+    public void setSpoolPath(String spoolPath) {
+        this.spoolPath = spoolPath;
+    }
+
+    /**
+     * @return the file name the export is downloaded as
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @param fileName
+     *            the fileName to set
+     */
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * @return the reason the job failed
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @param message
+     *            the message to set
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return the createdDate
+     */
+    public Calendar getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * @param createdDate
+     *            the createdDate to set
+     */
+    public void setCreatedDate(Calendar createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    /**
+     * @return the finishedDate
+     */
+    public Calendar getFinishedDate() {
+        return finishedDate;
+    }
+
+    /**
+     * @param finishedDate
+     *            the finishedDate to set
+     */
+    public void setFinishedDate(Calendar finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    /**
+     * @return the instance running the job
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @param owner
+     *            the owner to set
+     */
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return when the owner last reported it was still running the job
+     */
+    public Calendar getHeartbeatDate() {
+        return heartbeatDate;
+    }
+
+    /**
+     * @param heartbeatDate
+     *            the heartbeatDate to set
+     */
+    public void setHeartbeatDate(Calendar heartbeatDate) {
+        this.heartbeatDate = heartbeatDate;
+    }
+
+}
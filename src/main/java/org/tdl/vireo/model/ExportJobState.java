@@ -0,0 +1,13 @@
+package org.tdl.vireo.model;
+
+public enum ExportJobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+
+}
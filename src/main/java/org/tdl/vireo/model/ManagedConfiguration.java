@@ -2,9 +2,11 @@ package org.tdl.vireo.model;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.tdl.vireo.model.listener.ManagedConfigurationListener;
 import org.tdl.vireo.model.validation.ManagedConfigurationValidator;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -16,6 +18,7 @@ import edu.tamu.weaver.validation.model.ValidatingBaseEntity;
  *
  */
 @Entity
+@EntityListeners(ManagedConfigurationListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "name" }))
 public class ManagedConfiguration extends ValidatingBaseEntity implements Configuration {
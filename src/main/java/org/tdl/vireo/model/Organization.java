@@ -4,9 +4,12 @@ import static javax.persistence.CascadeType.MERGE;
 import static javax.persistence.CascadeType.REFRESH;
 import static javax.persistence.CascadeType.REMOVE;
 import static javax.persistence.FetchType.EAGER;
+import static javax.persistence.FetchType.LAZY;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -15,8 +18,12 @@ import javax.persistence.CollectionTable;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderColumn;
 import javax.persistence.Table;
@@ -27,6 +34,7 @@ import org.hibernate.annotations.Fetch;
 import org.hibernate.annotations.FetchMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.tdl.vireo.model.listener.OrganizationListener;
 import org.tdl.vireo.model.response.Views;
 import org.tdl.vireo.model.validation.OrganizationValidator;
 
@@ -41,8 +49,18 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import edu.tamu.weaver.validation.model.ValidatingBaseEntity;
 
 @Entity
+@EntityListeners(OrganizationListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "name", "category_id", "parent_organization_id" }))
+@NamedEntityGraphs({
+    @NamedEntityGraph(
+        name = "graph.Organization.Tree",
+        attributeNodes = {
+            @NamedAttributeNode(value = "category"),
+            @NamedAttributeNode(value = "childrenOrganizations"),
+        }
+    )
+})
 public class Organization extends ValidatingBaseEntity {
 
     @Transient
@@ -80,7 +98,7 @@ public class Organization extends ValidatingBaseEntity {
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     @JsonView(Views.Partial.class)
-    @OneToMany(cascade = { REFRESH, MERGE }, fetch = EAGER)
+    @OneToMany(cascade = { REFRESH, MERGE }, fetch = LAZY)
     @Fetch(FetchMode.SELECT)
     private Set<Organization> childrenOrganizations;
 
@@ -446,51 +464,56 @@ public class Organization extends ValidatingBaseEntity {
         getEmailWorkflowRules().remove(emailWorkflowRule);
     }
 
+    /**
+     * Get the email workflow rules of this organization and its ancestors.
+     *
+     * An ancestor's rule is left out when a closer organization already has a rule with the same recipient and
+     * template names.
+     *
+     * @return The rules, closest organization first.
+     */
     @JsonIgnore
     public List<EmailWorkflowRule> getAggregateEmailWorkflowRules() {
 
-        List<EmailWorkflowRule> aggregateEmailWorkflowRules = new ArrayList<EmailWorkflowRule>();
-        List<EmailWorkflowRule> newRules = new ArrayList<EmailWorkflowRule>();
+        List<EmailWorkflowRule> aggregateEmailWorkflowRules = new ArrayList<EmailWorkflowRule>(getEmailWorkflowRules());
 
-        aggregateEmailWorkflowRules.addAll(getEmailWorkflowRules());
+        Organization ancestor = getParentOrganization();
 
-        if (getParentOrganization() != null) {
-            for (EmailWorkflowRule potentialEmailWorkflowRule : getParentOrganization().getAggregateEmailWorkflowRules()) {
-                System.out.println("At the ancestor organization " + getParentOrganization().getName() + " considering addition of the rule " + potentialEmailWorkflowRule + " to pass back to caller (org's child or submission controller)");
-
-                boolean rejectDuplicateRule = false;
-                for (EmailWorkflowRule currentEmailWorkflowRule : aggregateEmailWorkflowRules) {
-                    String currentEmailRecipientName = ((AbstractEmailRecipient) currentEmailWorkflowRule.getEmailRecipient()).getName();
-                    String potentialEmailRecipientName = ((AbstractEmailRecipient) potentialEmailWorkflowRule.getEmailRecipient()).getName();
-
-                    String currentEmailTemplateName = currentEmailWorkflowRule.getEmailTemplate().getName();
-                    String potentialEmailTemplateName = potentialEmailWorkflowRule.getEmailTemplate().getName();
-
-                    LOG.debug("Current email recepient name: " + currentEmailRecipientName);
-                    LOG.debug("Potential email recepient name: " + potentialEmailRecipientName);
+        if (ancestor == null) {
+            return aggregateEmailWorkflowRules;
+        }
 
-                    LOG.debug("Current email template name: " + currentEmailTemplateName);
-                    LOG.debug("Potential email template name: " + potentialEmailTemplateName);
+        Set<List<String>> overridden = new HashSet<List<String>>();
+        addEmailWorkflowRuleKeys(overridden, getEmailWorkflowRules());
 
-                    if ((currentEmailRecipientName.equals(potentialEmailRecipientName) & currentEmailTemplateName.equals(potentialEmailTemplateName))) {
-                        LOG.debug("Potential matches a current one for both recipient and template - must reject");
-                        rejectDuplicateRule = true;
-                    }
-                }
-                if (!rejectDuplicateRule) {
-                    LOG.debug("\tThe rule was not a duplicate - adding rule " + potentialEmailWorkflowRule);
-                    newRules.add(potentialEmailWorkflowRule);
-                } else {
+        while (ancestor != null && !ancestor.equals(this)) {
+            for (EmailWorkflowRule potentialEmailWorkflowRule : ancestor.getEmailWorkflowRules()) {
+                if (overridden.contains(getEmailWorkflowRuleKey(potentialEmailWorkflowRule))) {
                     LOG.debug("\tThe rule was a duplicate - ignoring rule " + potentialEmailWorkflowRule);
+                } else {
+                    aggregateEmailWorkflowRules.add(potentialEmailWorkflowRule);
                 }
-
             }
-            aggregateEmailWorkflowRules.addAll(newRules);
+            // rules of the same organization do not override each other
+            addEmailWorkflowRuleKeys(overridden, ancestor.getEmailWorkflowRules());
+            ancestor = ancestor.getParentOrganization();
         }
 
         return aggregateEmailWorkflowRules;
     }
 
+    private static void addEmailWorkflowRuleKeys(Set<List<String>> keys, List<EmailWorkflowRule> emailWorkflowRules) {
+        for (EmailWorkflowRule emailWorkflowRule : emailWorkflowRules) {
+            keys.add(getEmailWorkflowRuleKey(emailWorkflowRule));
+        }
+    }
+
+    private static List<String> getEmailWorkflowRuleKey(EmailWorkflowRule emailWorkflowRule) {
+        String emailRecipientName = ((AbstractEmailRecipient) emailWorkflowRule.getEmailRecipient()).getName();
+        String emailTemplateName = emailWorkflowRule.getEmailTemplate().getName();
+        return Arrays.asList(emailRecipientName, emailTemplateName);
+    }
+
     @JsonIgnore
     public List<Organization> getAncestorOrganizations() {
 
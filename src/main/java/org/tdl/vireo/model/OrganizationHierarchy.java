@@ -0,0 +1,88 @@
+package org.tdl.vireo.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import edu.tamu.weaver.data.model.BaseEntity;
+
+/**
+ * A row of the organization closure table, linking an organization to one of its ancestors, or to itself at depth
+ * zero.
+ *
+ * The rows are kept in step with the organizations' children by the organization repo, so descendant and ancestor
+ * lookups are single indexed queries rather than walks of the organization graph. They hold ids rather than
+ * organizations so reading them never loads the eagerly fetched organization graph.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "ancestor_id", "descendant_id" }), indexes = { @Index(columnList = "descendant_id, depth", name = "organization_hierarchy_descendant_idx") })
+public class OrganizationHierarchy extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long ancestorId;
+
+    @Column(nullable = false)
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    public OrganizationHierarchy() {
+        super();
+    }
+
+    public OrganizationHierarchy(Long ancestorId, Long descendantId, int depth) {
+        this();
+        setAncestorId(ancestorId);
+        setDescendantId(descendantId);
+        setDepth(depth);
+    }
+
+    /**
+     * @return the ancestorId
+     */
+    public Long getAncestorId() {
+        return ancestorId;
+    }
+
+    /**
+     * @param ancestorId
+     *            the ancestorId to set
+     */
+    public void setAncestorId(Long ancestorId) {
+        this.ancestorId = ancestorId;
+    }
+
+    /**
+     * @return the descendantId
+     */
+    public Long getDescendantId() {
+        return descendantId;
+    }
+
+    /**
+     * @param descendantId
+     *            the descendantId to set
+     */
+    public void setDescendantId(Long descendantId) {
+        this.descendantId = descendantId;
+    }
+
+    /**
+     * @return the number of levels between the ancestor and the descendant
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param depth
+     *            the depth to set
+     */
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+}
@@ -0,0 +1,252 @@
+package org.tdl.vireo.model;
+
+import java.util.Calendar;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.tdl.vireo.model.validation.OutboundEmailValidator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import edu.tamu.weaver.validation.model.ValidatingBaseEntity;
+
+/**
+ * An email waiting in the outbound queue to be sent by the dispatcher.
+ *
+ * A dispatcher claims an email before sending it, so it is sent by one instance only. Sent emails are removed from the
+ * queue. Emails that could not be sent after the last attempt are kept as failed.
+ */
+@Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+@Table(indexes = { @Index(columnList = "state, next_attempt_date", name = "outbound_email_state_idx") })
+public class OutboundEmail extends ValidatingBaseEntity {
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String recipients;
+
+    @Column(nullable = true, columnDefinition = "text")
+    private String ccRecipients;
+
+    @Column(nullable = true, columnDefinition = "text")
+    private String bccRecipients;
+
+    @Column(nullable = true, columnDefinition = "text")
+    private String subject;
+
+    @JsonIgnore
+    @Column(nullable = true, columnDefinition = "text")
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboundEmailState state;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar createdDate;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar nextAttemptDate;
+
+    @Column(nullable = true)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Calendar claimedDate;
+
+    @Column(nullable = true, columnDefinition = "text")
+    private String lastError;
+
+    public OutboundEmail() {
+        setModelValidator(new OutboundEmailValidator());
+    }
+
+    public OutboundEmail(String recipients, String ccRecipients, String bccRecipients, String subject, String content) {
+        this();
+        setRecipients(recipients);
+        setCcRecipients(ccRecipients);
+        setBccRecipients(bccRecipients);
+        setSubject(subject);
+        setContent(content);
+        setState(OutboundEmailState.QUEUED);
+        setAttempts(0);
+        setCreatedDate(Calendar.getInstance());
+        setNextAttemptDate(getCreatedDate());
+    }
+
+    /**
+     * @return the comma separated to addresses
+     */
+    public String getRecipients() {
+        return recipients;
+    }
+
+    /**
+     * @param recipients
+     *            the comma separated to addresses to set
+     */
+    public void setRecipients(String recipients) {
+        this.recipients = recipients;
+    }
+
+    /**
+     * @return the comma separated cc addresses
+     */
+    public String getCcRecipients() {
+        return ccRecipients;
+    }
+
+    /**
+     * @param ccRecipients
+     *            the comma separated cc addresses to set
+     */
+    public void setCcRecipients(String ccRecipients) {
+        this.ccRecipients = ccRecipients;
+    }
+
+    /**
+     * @return the comma separated bcc addresses
+     */
+    public String getBccRecipients() {
+        return bccRecipients;
+    }
+
+    /**
+     * @param bccRecipients
+     *            the comma separated bcc addresses to set
+     */
+    public void setBccRecipients(String bccRecipients) {
+        this.bccRecipients = bccRecipients;
+    }
+
+    /**
+     * @return the subject
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @param subject
+     *            the subject to set
+     */
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    /**
+     * @return the content
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * @param content
+     *            the content to set
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    /**
+     * @return the state
+     */
+    public OutboundEmailState getState() {
+        return state;
+    }
+
+    /**
+     * @param state
+     *            the state to set
+     */
+    public void setState(OutboundEmailState state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the attempts
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @param attempts
+     *            the attempts to set
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return the createdDate
+     */
+    public Calendar getCreatedDate() {
+        return createdDate;
+    }
+
+    /**
+     * @param createdDate
+     *            the createdDate to set
+     */
+    public void setCreatedDate(Calendar createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    /**
+     * @return the nextAttemptDate
+     */
+    public Calendar getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    /**
+     * @param nextAttemptDate
+     *            the nextAttemptDate to set
+     */
+    public void setNextAttemptDate(Calendar nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    /**
+     * @return the date a dispatcher claimed the email for sending, null unless it is being sent
+     */
+    public Calendar getClaimedDate() {
+        return claimedDate;
+    }
+
+    /**
+     * @param claimedDate
+     *            the claimedDate to set
+     */
+    public void setClaimedDate(Calendar claimedDate) {
+        this.claimedDate = claimedDate;
+    }
+
+    /**
+     * @return the lastError
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * @param lastError
+     *            the lastError to set
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+}
@@ -0,0 +1,7 @@
+package org.tdl.vireo.model;
+
+public enum OutboundEmailState {
+    QUEUED,
+    SENDING,
+    FAILED
+}
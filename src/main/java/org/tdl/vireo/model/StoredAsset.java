@@ -0,0 +1,101 @@
+package org.tdl.vireo.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+import edu.tamu.weaver.data.model.BaseEntity;
+
+/**
+ * The checksum and size of an asset, computed while it was written so its integrity can be checked later without
+ * reading it again at upload.
+ *
+ * A deduplicated asset is a hard link to the blob named by its checksum and counted in the blob's references. Assets
+ * recorded before the blob store, not yet migrated to it, or stored where the assets cannot be links to it, are not.
+ */
+@Entity
+public class StoredAsset extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 1024)
+    private String uri;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = true)
+    private Boolean deduplicated;
+
+    public StoredAsset() {
+        super();
+    }
+
+    public StoredAsset(String uri, String sha256, long size) {
+        this();
+        setUri(uri);
+        setSha256(sha256);
+        setSize(size);
+    }
+
+    /**
+     * @return the asset path, relative to the assets
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * @param uri
+     *            the uri to set
+     */
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 digest of the asset's content
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @param sha256
+     *            the sha256 to set
+     */
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    /**
+     * @return the size of the asset in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @param size
+     *            the size to set
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * @return whether the asset is linked to its blob and counted in the blob's references
+     */
+    public boolean isDeduplicated() {
+        return deduplicated != null && deduplicated;
+    }
+
+    /**
+     * @param deduplicated
+     *            the deduplicated to set
+     */
+    public void setDeduplicated(boolean deduplicated) {
+        this.deduplicated = deduplicated;
+    }
+
+}
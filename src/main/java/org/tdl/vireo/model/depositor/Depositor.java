@@ -9,6 +9,8 @@ public interface Depositor {
 
     public Map<String, String> getCollections(DepositLocation depLocation);
 
+    public Map<String, String> refreshCollections(DepositLocation depLocation);
+
     public String getName();
 
     public String deposit(DepositLocation depLocation, ExportPackage exportPackage);
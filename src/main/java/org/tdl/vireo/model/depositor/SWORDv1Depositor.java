@@ -6,9 +6,19 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.purl.sword.base.Collection;
 import org.purl.sword.base.DepositResponse;
 import org.purl.sword.base.Service;
@@ -38,25 +48,85 @@ import org.tdl.vireo.utility.FileHelperUtility;
 
 public class SWORDv1Depositor implements Depositor {
 
+    // connections kept open to each deposit location, enough for a batch publish to deposit concurrently
+    public static final int MAX_CONNECTIONS_PER_LOCATION = 8;
+
+    // milliseconds a fetched service document is used for before it is fetched again
+    public static final long DEFAULT_SERVICE_DOCUMENT_TTL = 600000;
+
+    // locks a service document fetch waits on, shared by the repositories and credentials hashed to them
+    private static final int SERVICE_DOCUMENT_LOCKS = 32;
+
     private String name;
 
     private final String USER_AGENT = "Vireo Sword 1.0 Depositor";
 
-    private final int DEFAULT_TIMEOUT = 60000;
-
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    // deposit location id, or repository URL for an unsaved location, to the connections kept open to it
+    private final ConcurrentMap<String, PooledConnections> connections = new ConcurrentHashMap<String, PooledConnections>();
+
+    // digest of the repository URL and credentials to the collections of the service document fetched with them
+    private final ConcurrentMap<String, CachedServiceDocument> serviceDocuments = new ConcurrentHashMap<String, CachedServiceDocument>();
+
+    private final Object[] serviceDocumentLocks = new Object[SERVICE_DOCUMENT_LOCKS];
+
+    private final long serviceDocumentTtl;
+
     public SWORDv1Depositor() {
+        this(DEFAULT_SERVICE_DOCUMENT_TTL);
+    }
+
+    public SWORDv1Depositor(long serviceDocumentTtl) {
+        this.serviceDocumentTtl = serviceDocumentTtl;
+        for (int i = 0; i < serviceDocumentLocks.length; i++) {
+            serviceDocumentLocks[i] = new Object();
+        }
         setName("SWORDv1Depositor");
     }
 
+    /**
+     * Get the collections of the deposit location's repository.
+     *
+     * The service document is fetched once and its collections used until it expires or is refreshed, as a large
+     * repository can take seconds to build it. Requests for an expired service document wait on a single fetch.
+     */
     public Map<String, String> getCollections(DepositLocation depLocation) {
         if (depLocation == null || depLocation.getRepository() == null) {
             throw new SwordDepositInternalServerErrorException("Bad deposit location or repository URL when trying to getCollections().");
         }
 
+        String key = getServiceDocumentKey(depLocation);
+
+        CachedServiceDocument cached = serviceDocuments.get(key);
+        if (cached != null && !cached.isExpired()) {
+            return new HashMap<String, String>(cached.getCollections());
+        }
+
+        synchronized (serviceDocumentLocks[Math.floorMod(key.hashCode(), serviceDocumentLocks.length)]) {
+            cached = serviceDocuments.get(key);
+            if (cached == null || cached.isExpired()) {
+                cached = new CachedServiceDocument(fetchCollections(depLocation), System.currentTimeMillis() + serviceDocumentTtl);
+
+                serviceDocuments.values().removeIf(CachedServiceDocument::isExpired);
+                serviceDocuments.put(key, cached);
+            }
+        }
+
+        return new HashMap<String, String>(cached.getCollections());
+    }
+
+    public Map<String, String> refreshCollections(DepositLocation depLocation) {
+        if (depLocation != null && depLocation.getRepository() != null) {
+            serviceDocuments.remove(getServiceDocumentKey(depLocation));
+        }
+        return getCollections(depLocation);
+    }
+
+    private Map<String, String> fetchCollections(DepositLocation depLocation) {
         ServiceDocument serviceDocument = null;
         String serviceDocumentUrl = depLocation.getRepository();
+        PooledConnections pooledConnections = null;
 
         try {
             Map<String, String> foundCollections = new HashMap<String, String>();
@@ -65,18 +135,8 @@ public class SWORDv1Depositor implements Depositor {
 
             URL repositoryURL = new URL(serviceDocumentUrl);
 
-            // Building the client
-            Client client = new Client();
-            // get the timeout from the location, or default it to the default
-            client.setSocketTimeout(depLocation.getTimeout() == null ? DEFAULT_TIMEOUT : (depLocation.getTimeout() * 1000));
-
-            client.setServer(repositoryURL.getHost(), repositoryURL.getPort());
-            client.setUserAgent(USER_AGENT);
-
-            // If the credentials include a username and password, set those on the client.
-            if (depLocation.getUsername() != null && depLocation.getPassword() != null) {
-                setAuthentication(client, depLocation);
-            }
+            pooledConnections = acquireConnections(depLocation, repositoryURL.getHost(), repositoryURL.getPort());
+            Client client = buildClient(depLocation, repositoryURL.getHost(), repositoryURL.getPort(), pooledConnections);
 
             // Obtaining the service document
             // If the credentials contain an onbehalfof user, retrieve the service document on
@@ -134,6 +194,10 @@ public class SWORDv1Depositor implements Depositor {
             }
 
             throw new SwordDepositBadRequestException(message, re);
+        } finally {
+            if (pooledConnections != null) {
+                pooledConnections.release();
+            }
         }
     }
 
@@ -142,6 +206,12 @@ public class SWORDv1Depositor implements Depositor {
             throw new SwordDepositInternalServerErrorException("Bad deposit location or repository URL when trying to deposit().");
         }
 
+        // answered from the service document when it has already been fetched, a deposit does not fetch it
+        CachedServiceDocument cached = serviceDocuments.get(getServiceDocumentKey(depLocation));
+        if (cached != null && !cached.isExpired() && !cached.getCollections().containsValue(depLocation.getCollection())) {
+            throw new SwordDepositNotFoundException("Collection " + depLocation.getCollection() + " is not in the service document of " + depLocation.getRepository() + ", refresh the collections if it was added since.");
+        }
+
         // Only the host and port are used from the repository URL for sword depositing.
         URI sword = null;
         String depositUrl = null;
@@ -155,22 +225,14 @@ public class SWORDv1Depositor implements Depositor {
             throw new SwordDepositBadRequestException("Unable to publish, cannot parse URI from repository URL: " + depLocation.getRepository(), e);
         }
 
+        PooledConnections pooledConnections = acquireConnections(depLocation, sword.getHost(), sword.getPort());
+
         try {
             FileHelperUtility fileHelperUtility = new FileHelperUtility();
             File exportFile = (File) exportPackage.getPayload();
             String exportMimeType = fileHelperUtility.getMimeType(exportFile);
 
-            // Building the client
-            Client client = new Client();
-            // get the timeout from the location, or default it to the default
-            client.setSocketTimeout(depLocation.getTimeout() == null ? DepositLocation.DEFAULT_TIMEOUT : (depLocation.getTimeout() * 1000));
-            client.setServer(sword.getHost(), sword.getPort());
-            client.setUserAgent(USER_AGENT);
-
-            // If the credentials include a username and password, set those on the client.
-            if (depLocation.getUsername() != null && depLocation.getPassword() != null) {
-                setAuthentication(client, depLocation);
-            }
+            Client client = buildClient(depLocation, sword.getHost(), sword.getPort(), pooledConnections);
 
             PostMessage message = new PostMessage();
             message.setFilepath(exportFile.getAbsolutePath());
@@ -237,6 +299,8 @@ public class SWORDv1Depositor implements Depositor {
             }
 
             throw new SwordDepositBadRequestException(message, re);
+        } finally {
+            pooledConnections.release();
         }
     }
 
@@ -244,17 +308,78 @@ public class SWORDv1Depositor implements Depositor {
         return message.contains("Code: " + code) || message.contains("HTTP Status [" + code + "]");
     }
 
-    private void setAuthentication(Client client, DepositLocation depLocation) {
-        client.setCredentials(depLocation.getUsername(), depLocation.getPassword());
+    private String getServiceDocumentKey(DepositLocation depLocation) {
+        return digest(depLocation.getRepository(), depLocation.getUsername(), depLocation.getPassword(), depLocation.getOnBehalfOf());
+    }
+
+    /**
+     * Digest the values identifying a cached service document or connections, so the password is not kept in memory
+     * as part of a key.
+     */
+    private static String digest(Object... values) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object value : values) {
+                digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                // separates the values, so a value ending with the start of the next is not read as another
+                digest.update((byte) 0);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Build a SWORD client using the connections kept open to the deposit location.
+     *
+     * The SWORD client itself holds the state of a single request, so one is built for each request while the HTTP
+     * client beneath it, with its connections and preemptive authentication, is shared by all requests to the location.
+     */
+    private Client buildClient(DepositLocation depLocation, String host, int port, PooledConnections pooledConnections) {
+        Client client = new Client();
+
         try {
             Field httpClientField = client.getClass().getDeclaredField("client");
             httpClientField.setAccessible(true);
-            HttpClient httpClient = (HttpClient) httpClientField.get(client);
-            httpClient.getParams().setAuthenticationPreemptive(true);
+            httpClientField.set(client, pooledConnections.getHttpClient());
         } catch (NoSuchFieldException | SecurityException | IllegalArgumentException | IllegalAccessException e) {
             logger.debug(e.getMessage(), e);
             throw new SwordDepositException(e.getMessage(), e);
         }
+
+        client.setServer(host, port);
+        client.setUserAgent(USER_AGENT);
+
+        // If the credentials include a username and password, set those on the client.
+        if (depLocation.getUsername() != null && depLocation.getPassword() != null) {
+            client.setCredentials(depLocation.getUsername(), depLocation.getPassword());
+        }
+
+        return client;
+    }
+
+    /**
+     * Get the connections kept open to the deposit location for a request, replacing them when the location has been
+     * changed. The connections must be released once the request is done.
+     */
+    private PooledConnections acquireConnections(DepositLocation depLocation, String host, int port) {
+        String key = depLocation.getId() != null ? depLocation.getId().toString() : depLocation.getRepository();
+        String signature = digest(host, port, depLocation.getUsername(), depLocation.getPassword(), depLocation.getTimeout());
+
+        // acquired while mapped, so replaced connections are not acquired again
+        return connections.compute(key, (k, existing) -> {
+            if (existing == null || !existing.getSignature().equals(signature)) {
+                if (existing != null) {
+                    // requests in progress finish on the replaced connections, which are shut down once they have
+                    existing.retire();
+                }
+                existing = new PooledConnections(signature, depLocation, host, port);
+            }
+            existing.acquire();
+            return existing;
+        });
     }
 
     public String getName() {
@@ -265,4 +390,96 @@ public class SWORDv1Depositor implements Depositor {
         this.name = name;
     }
 
+    /**
+     * The HTTP connections kept open to a deposit location, shared by the requests made to it.
+     */
+    private static class PooledConnections {
+
+        private final String signature;
+
+        private final MultiThreadedHttpConnectionManager connectionManager;
+
+        private final HttpClient httpClient;
+
+        private int requests;
+
+        private boolean retired;
+
+        PooledConnections(String signature, DepositLocation depLocation, String host, int port) {
+            this.signature = signature;
+
+            // get the timeout from the location, or default it to the default
+            int timeout = (depLocation.getTimeout() == null ? DepositLocation.DEFAULT_TIMEOUT : depLocation.getTimeout()) * 1000;
+
+            connectionManager = new MultiThreadedHttpConnectionManager();
+
+            HttpConnectionManagerParams params = connectionManager.getParams();
+            params.setDefaultMaxConnectionsPerHost(MAX_CONNECTIONS_PER_LOCATION);
+            params.setMaxTotalConnections(MAX_CONNECTIONS_PER_LOCATION);
+            params.setConnectionTimeout(timeout);
+            params.setSoTimeout(timeout);
+            params.setStaleCheckingEnabled(true);
+
+            httpClient = new HttpClient(connectionManager);
+            httpClient.getParams().setSoTimeout(timeout);
+
+            // If the credentials include a username and password, send them with every request.
+            if (depLocation.getUsername() != null && depLocation.getPassword() != null) {
+                httpClient.getState().setCredentials(new AuthScope(host, port), new UsernamePasswordCredentials(depLocation.getUsername(), depLocation.getPassword()));
+                httpClient.getParams().setAuthenticationPreemptive(true);
+            }
+        }
+
+        String getSignature() {
+            return signature;
+        }
+
+        HttpClient getHttpClient() {
+            return httpClient;
+        }
+
+        synchronized void acquire() {
+            requests++;
+        }
+
+        synchronized void release() {
+            requests--;
+            if (retired && requests == 0) {
+                connectionManager.shutdown();
+            }
+        }
+
+        synchronized void retire() {
+            retired = true;
+            if (requests == 0) {
+                connectionManager.shutdown();
+            }
+        }
+
+    }
+
+    /**
+     * The collections of a fetched service document, used until it expires.
+     */
+    private static class CachedServiceDocument {
+
+        private final Map<String, String> collections;
+
+        private final long expires;
+
+        CachedServiceDocument(Map<String, String> collections, long expires) {
+            this.collections = collections;
+            this.expires = expires;
+        }
+
+        Map<String, String> getCollections() {
+            return collections;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+
+    }
+
 }
@@ -0,0 +1,107 @@
+package org.tdl.vireo.model.inheritance;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The changes an update to a heritable component makes to the workflow steps and components inheriting it.
+ *
+ * The changes are collected before any is applied, so they can be written with one statement per replaced component
+ * rather than by saving each workflow step and component.
+ */
+public class HeritableChangeSet {
+
+    // replaced component id to replacement component id to the ids of the workflow steps aggregating it
+    private final Map<Long, Map<Long, Set<Long>>> replacements = new LinkedHashMap<Long, Map<Long, Set<Long>>>();
+
+    // component id to the ids of the workflow steps to add it to
+    private final Map<Long, Set<Long>> additions = new LinkedHashMap<Long, Set<Long>>();
+
+    // originating component id to the ids of the components to now originate from it
+    private final Map<Long, Set<Long>> originatings = new LinkedHashMap<Long, Set<Long>>();
+
+    /**
+     * Replace a component aggregated by a workflow step, keeping its position.
+     *
+     * @param workflowStepId
+     *            The workflow step id.
+     * @param componentId
+     *            The id of the component to replace.
+     * @param replacementId
+     *            The id of the component to replace it with.
+     */
+    public void replace(Long workflowStepId, Long componentId, Long replacementId) {
+        replacements.computeIfAbsent(componentId, id -> new LinkedHashMap<Long, Set<Long>>()).computeIfAbsent(replacementId, id -> new LinkedHashSet<Long>()).add(workflowStepId);
+    }
+
+    /**
+     * Add a component to the end of a workflow step's aggregate components.
+     *
+     * @param workflowStepId
+     *            The workflow step id.
+     * @param componentId
+     *            The id of the component to add.
+     */
+    public void add(Long workflowStepId, Long componentId) {
+        additions.computeIfAbsent(componentId, id -> new LinkedHashSet<Long>()).add(workflowStepId);
+    }
+
+    /**
+     * Have a component originate from another.
+     *
+     * @param componentId
+     *            The component id.
+     * @param originatingId
+     *            The id of the component it now originates from.
+     */
+    public void reoriginate(Long componentId, Long originatingId) {
+        originatings.computeIfAbsent(originatingId, id -> new LinkedHashSet<Long>()).add(componentId);
+    }
+
+    /**
+     * @return the ids of the workflow steps whose aggregate components change
+     */
+    public Set<Long> getWorkflowStepIds() {
+        Set<Long> workflowStepIds = new LinkedHashSet<Long>();
+        replacements.values().forEach(replacement -> replacement.values().forEach(workflowStepIds::addAll));
+        additions.values().forEach(workflowStepIds::addAll);
+        return workflowStepIds;
+    }
+
+    /**
+     * @return the ids of the components that now originate from another
+     */
+    public Set<Long> getReoriginatedIds() {
+        Set<Long> componentIds = new LinkedHashSet<Long>();
+        originatings.values().forEach(componentIds::addAll);
+        return componentIds;
+    }
+
+    public boolean isEmpty() {
+        return replacements.isEmpty() && additions.isEmpty() && originatings.isEmpty();
+    }
+
+    /**
+     * @return replaced component id to replacement component id to the ids of the workflow steps aggregating it
+     */
+    public Map<Long, Map<Long, Set<Long>>> getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * @return component id to the ids of the workflow steps to add it to
+     */
+    public Map<Long, Set<Long>> getAdditions() {
+        return additions;
+    }
+
+    /**
+     * @return originating component id to the ids of the components to now originate from it
+     */
+    public Map<Long, Set<Long>> getOriginatings() {
+        return originatings;
+    }
+
+}
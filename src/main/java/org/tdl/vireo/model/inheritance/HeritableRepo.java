@@ -1,7 +1,13 @@
 package org.tdl.vireo.model.inheritance;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import edu.tamu.weaver.data.model.repo.WeaverRepo;
 
 @SuppressWarnings("rawtypes")
@@ -9,4 +15,28 @@ public interface HeritableRepo<M extends HeritableComponent> extends WeaverRepo<
 
     public List<M> findByOriginating(M originating);
 
+    /**
+     * Returns the ids of the components originating from a component that are original to workflow steps of an organization's descendants.
+     *
+     * @param originating The originating component.
+     * @param ancestorId ID representing the organization.
+     *
+     * @return The component ids.
+     */
+    @Query("SELECT h.id FROM #{#entityName} h WHERE h.originating = :originating AND h.originatingWorkflowStep.originatingOrganization.id IN (SELECT d.descendantId FROM OrganizationHierarchy d WHERE d.ancestorId = :ancestor_id AND d.depth > 0)")
+    public List<Long> findIdsByOriginatingUnderOrganization(@Param("originating") M originating, @Param("ancestor_id") Long ancestorId);
+
+    /**
+     * Sets the component that components originate from without loading them.
+     *
+     * @param ids IDs representing the components.
+     * @param originating The component they now originate from.
+     *
+     * @return Number of components updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE #{#entityName} h SET h.originating = :originating WHERE h.id IN :ids")
+    public int updateOriginating(@Param("ids") Collection<Long> ids, @Param("originating") M originating);
+
 }
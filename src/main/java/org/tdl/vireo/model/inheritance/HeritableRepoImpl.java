@@ -1,14 +1,23 @@
 package org.tdl.vireo.model.inheritance;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.tdl.vireo.exception.ComponentNotPresentOnOrgException;
 import org.tdl.vireo.exception.HeritableModelNonOverrideableException;
 import org.tdl.vireo.exception.WorkflowStepNonOverrideableException;
@@ -33,6 +42,12 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
     @Autowired
     private OrganizationRepo organizationRepo;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public void removeFromWorkflowStep(Organization requestingOrganization, WorkflowStep pendingWorkflowStep, M heritableModelToRemove) throws WorkflowStepNonOverrideableException, HeritableModelNonOverrideableException, ComponentNotPresentOnOrgException {
 
         // if requesting organization originates the workflow step or the workflow step is overrideable,
@@ -79,7 +94,7 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
                         heritableRepo.delete(heritableModelToRemove);
                     }
                 }
-                organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+                organizationRepo.broadcastUpdate(requestingOrganization);
             } // workflow step doesn't originate the heritableModel and it is non-overrideable
             else {
                 throw new HeritableModelNonOverrideableException();
@@ -175,32 +190,27 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
                 // TODO: test
                 // in component aggregations at descendants of the WS, make components derived from pendingHeritableModel now originate from the clone
 
-                Set<M> componentsToChangeInheritance = new HashSet<M>();
+                HeritableChangeSet changeSet = new HeritableChangeSet();
                 for (WorkflowStep workflowStep : workflowStepRepo.getDescendantsOfStepUnderOrganization(stepS, requestingOrganization)) {
-                    logger.info("\tWS " + workflowStep.getName() + "(" + workflowStep.getId() + ") descends from stepS " + stepS.getName() + "(" + stepS.getId() + " under requesting org " + requestingOrganization.getName() + "(" + requestingOrganization.getId() + ")");
+                    logger.debug("\tWS " + workflowStep.getName() + "(" + workflowStep.getId() + ") descends from stepS " + stepS.getName() + "(" + stepS.getId() + " under requesting org " + requestingOrganization.getName() + "(" + requestingOrganization.getId() + ")");
                     List<M> aggregatedComponents = workflowStep.getAggregateHeritableModels(componentC.getClass());
                     for (M component : aggregatedComponents) {
-                        logger.info("\t\tComponent " + component.getId() + " is aggregated there.");
                         if (component.getOriginating() != null && component.getOriginating().equals(componentC)) {
-                            logger.info("It originated at the component being overridden, so setting it's new originator to the override.");
-                            componentsToChangeInheritance.add(component);
+                            logger.debug("\t\tComponent " + component.getId() + " originated at the component being overridden, so setting it's new originator to the override.");
+                            changeSet.reoriginate(component.getId(), newHeritableComponent.getId());
                         }
                     }
 
                 }
 
-                for (M component : componentsToChangeInheritance) {
-                    component.setOriginating(newHeritableComponent);
-                    heritableRepo.save(component);
-                }
-
                 // replace descendants of the persisted (original) M with our new M at subordinate organizations
                 // replace the heritableModel on all descendant orgs aggregate workflows
                 for (WorkflowStep workflowStep : getContainingDescendantWorkflowStep(requestingOrganization, componentC)) {
-                    workflowStep.replaceAggregateHeritableModel(componentC, newHeritableComponent);
-                    workflowStepRepo.save(workflowStep);
+                    changeSet.replace(workflowStep.getId(), componentC.getId(), newHeritableComponent.getId());
                 }
 
+                applyChanges(changeSet);
+
                 // if change to non-overrideable, replace descendants of originating heritableModel in subordinate orgs
                 if (componentIsOverrideable && !newHeritableComponent.getOverrideable()) {
                     reInheritDescendantsOfHeritableModelWithAnotherHeritableModelUnderWS(componentC, newHeritableComponent, stepS, requestingOrganization);
@@ -243,37 +253,23 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
 
             // TODO: test
             // in component aggregations at descendants of new WS under descendants of requesting org, make components derived from the pending now inherit from the clone
-            Set<M> componentsToChangeInheritance = new HashSet<M>();
-            for (Organization descendantOrg : organizationRepo.getDescendantOrganizations(requestingOrganization)) {
-                logger.info("\tProcessing descendants of Org " + requestingOrganization.getName());
-                for (WorkflowStep descendantStep : descendantOrg.getOriginalWorkflowSteps()) {
-                    logger.info("\t\tProcessing descendant org's  WS " + descendantStep.getName());
-                    List<M> components = descendantStep.getOriginalHeritableModels(componentCWithChanges.getClass());
-                    for (M component : components) {
-                        M originating = (M) component.getOriginating();
-                        logger.info("\t\t\tProcessing components of type " + component.getClass().getName() + " id " + component.getId() + " originated by " + (originating != null ? originating.getId() : "none"));
-                        if (originating != null && originating.equals(componentC) && component.getId() != newHeritableModel.getId()) {
-                            logger.info("\t\t\t\tComponent " + component.getId() + " originated at the overridden heritable model, make it's new orignator the new heritable model with id " + newHeritableModel.getId());
-                            componentsToChangeInheritance.add(component);
-                        }
-
-                    }
+            HeritableChangeSet changeSet = new HeritableChangeSet();
+            for (Long componentId : heritableRepo.findIdsByOriginatingUnderOrganization(componentC, requestingOrganization.getId())) {
+                if (!componentId.equals(newHeritableModel.getId())) {
+                    logger.debug("\tComponent " + componentId + " originated at the overridden heritable model, make it's new orignator the new heritable model with id " + newHeritableModel.getId());
+                    changeSet.reoriginate(componentId, newHeritableModel.getId());
                 }
             }
-            for (M component : componentsToChangeInheritance) {
-                component.setOriginating(newHeritableModel);
-                heritableRepo.save(component);
-            }
 
             // replace the heritableModel on all descendant orgs aggregate workflows
 
             for (WorkflowStep workflowStep : getContainingDescendantWorkflowStep(requestingOrganization, componentC)) {
-                logger.info("Replacing component " + componentC.getId() + " with new component " + newHeritableModel.getId() + " on WS " + workflowStep.getId());
-                workflowStep.replaceAggregateHeritableModel(componentC, newHeritableModel);
-                // TODO:
-                workflowStepRepo.save(workflowStep);
+                logger.debug("Replacing component " + componentC.getId() + " with new component " + newHeritableModel.getId() + " on WS " + workflowStep.getId());
+                changeSet.replace(workflowStep.getId(), componentC.getId(), newHeritableModel.getId());
             }
 
+            applyChanges(changeSet);
+
             // if change to non-overrideable, replace descendants of originating heritableModel in subordinate orgs
             if (componentIsOverrideable && !newHeritableModel.getOverrideable()) {
                 reInheritDescendantsOfHeritableModelWithAnotherHeritableModelUnderWS(componentC, newHeritableModel, stepS, requestingOrganization);
@@ -281,12 +277,20 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
 
             resultingHeritableModel = newHeritableModel;
         }
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return resultingHeritableModel;
     }
 
-    @SuppressWarnings("unchecked")
     public void delete(M heritableModel) {
+        WorkflowStep originatingWorkflowStep = heritableModel.getOriginatingWorkflowStep();
+        if (remove(heritableModel)) {
+            // descendants of the model are on steps of descendant organizations
+            organizationRepo.broadcastUpdate(originatingWorkflowStep.getOriginatingOrganization());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean remove(M heritableModel) {
 
         // allows for delete by iterating through findAll, while still deleting descendents
         if (heritableRepo.findById(heritableModel.getId()).isPresent()) {
@@ -311,14 +315,17 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
             deleteDescendantsOfHeritableModel(heritableModel);
 
             heritableRepo.deleteById(heritableModel.getId());
-            organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+
+            return true;
         }
+
+        return false;
     }
 
     private void deleteDescendantsOfHeritableModel(M heritableModel) {
         heritableRepo.findByOriginating(heritableModel).forEach(desendantHeritableModel -> {
             logger.info("Deleting component " + desendantHeritableModel.getId() + " off step  " + desendantHeritableModel.getOriginatingWorkflowStep().getName());
-            delete(desendantHeritableModel);
+            remove(desendantHeritableModel);
         });
     }
 
@@ -330,15 +337,18 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
      * @return
      */
     private List<WorkflowStep> getContainingDescendantWorkflowStep(Organization organization, M heritableModel) {
-        List<WorkflowStep> descendantWorkflowStepsContainingHeritableModel = new ArrayList<WorkflowStep>();
-        organization.getAggregateWorkflowSteps().forEach(ws -> {
-            if (ws.getAggregateHeritableModels(heritableModel.getClass()).contains(heritableModel)) {
-                descendantWorkflowStepsContainingHeritableModel.add(ws);
-            }
-        });
-        organization.getChildrenOrganizations().forEach(descendantOrganization -> {
-            descendantWorkflowStepsContainingHeritableModel.addAll(getContainingDescendantWorkflowStep(descendantOrganization, heritableModel));
+        Map<Long, WorkflowStep> workflowStepsContainingHeritableModel = new HashMap<Long, WorkflowStep>();
+        workflowStepRepo.findByAggregateHeritableModel(heritableModel).forEach(ws -> {
+            workflowStepsContainingHeritableModel.put(ws.getId(), ws);
         });
+        List<WorkflowStep> descendantWorkflowStepsContainingHeritableModel = new ArrayList<WorkflowStep>();
+        if (!workflowStepsContainingHeritableModel.isEmpty()) {
+            workflowStepRepo.findAggregateIdsInSubtree(organization.getId()).forEach(workflowStepId -> {
+                if (workflowStepsContainingHeritableModel.containsKey(workflowStepId)) {
+                    descendantWorkflowStepsContainingHeritableModel.add(workflowStepsContainingHeritableModel.get(workflowStepId));
+                }
+            });
+        }
         return descendantWorkflowStepsContainingHeritableModel;
     }
 
@@ -365,42 +375,161 @@ public abstract class HeritableRepoImpl<M extends HeritableComponent, R extends
 
         // For every workflow step derived off the step in question...
 
-        // for(WorkflowStep ws : workflowStepRepo.getDescendantsOfStep(workflowStepWithHeritableModelOnRequestingOrganization)) {
+        HeritableChangeSet changeSet = new HeritableChangeSet();
+
         List<M> heritableModelsToDelete = new ArrayList<M>();
 
         for (WorkflowStep ws : workflowStepRepo.getDescendantsOfStepUnderOrganization(workflowStepWithHeritableModelOnRequestingOrganization, requestingOrganization)) {
 
-            boolean aggregatesHeritableModelOrDescendant = ws.getAggregateHeritableModels(replacementHeritableModel.getClass()).contains(replacementHeritableModel);
-
-            // For every heritableModel on that step (the aggregates will include the originals)
-            List<M> copyOfAggregatedHeritableModels = new ArrayList<M>();
+            List<M> aggregatedHeritableModels = ws.getAggregateHeritableModels(replacementHeritableModel.getClass());
 
-            copyOfAggregatedHeritableModels.addAll(ws.getAggregateHeritableModels(replacementHeritableModel.getClass()));
+            boolean aggregatesHeritableModelOrDescendant = aggregatedHeritableModels.contains(replacementHeritableModel);
 
-            for (M n : copyOfAggregatedHeritableModels) {
+            // For every heritableModel on that step (the aggregates will include the originals)
+            for (M n : aggregatedHeritableModels) {
 
                 // If that heritableModel is a descendant of the heritableModel in question, replace it with the heritableModel in question and get rid of it
                 if (descendantHeritableModels.contains(n) && !replacementHeritableModel.equals(n)) {
-
-                    if (ws.replaceAggregateHeritableModel(n, replacementHeritableModel)) {
-                        ws.removeOriginalHeritableModel(n);
-                        heritableModelsToDelete.add(n);
-                        aggregatesHeritableModelOrDescendant = true;
-                    }
+                    changeSet.replace(ws.getId(), n.getId(), replacementHeritableModel.getId());
+                    heritableModelsToDelete.add(n);
+                    aggregatesHeritableModelOrDescendant = true;
                 }
             }
 
             // If the heritableModel was not found on the aggregates at all, then add it back in
             if (!aggregatesHeritableModelOrDescendant) {
-                ws.addAggregateHeritableModel(replacementHeritableModel);
+                changeSet.add(ws.getId(), replacementHeritableModel.getId());
             }
-
-            workflowStepRepo.save(ws);
         }
 
+        applyChanges(changeSet);
+
         for (M n : heritableModelsToDelete) {
-            delete(n);
+            remove(n);
+        }
+    }
+
+    /**
+     * Write a change set with one statement per replaced, added and re-originated component, all in one transaction.
+     *
+     * The workflow steps and components the statements change are refreshed if loaded, so the models held by the caller
+     * stay managed and current.
+     *
+     * @param changeSet
+     */
+    private void applyChanges(HeritableChangeSet changeSet) {
+        if (changeSet.isEmpty()) {
+            return;
+        }
+
+        String joinTable = "workflow_step_" + getAggregateProperty();
+        String idColumn = getAggregateProperty() + "_id";
+        String orderColumn = getAggregateProperty() + "_order";
+
+        int updated = new TransactionTemplate(transactionManager).execute(status -> {
+            // write pending changes before the statements
+            entityManager.flush();
+
+            int rows = 0;
+            for (Map.Entry<Long, Map<Long, Set<Long>>> replacement : changeSet.getReplacements().entrySet()) {
+                for (Map.Entry<Long, Set<Long>> replacementWorkflowSteps : replacement.getValue().entrySet()) {
+                    Set<Long> workflowStepIds = new HashSet<Long>(replacementWorkflowSteps.getValue());
+
+                    // a workflow step already aggregating the replacement only loses the replaced component
+                    for (Object workflowStepId : entityManager.createNativeQuery("SELECT workflow_step_id FROM " + joinTable + " WHERE " + idColumn + " = :replacement_id AND workflow_step_id IN (:workflow_step_ids)")
+                        .setParameter("replacement_id", replacementWorkflowSteps.getKey())
+                        .setParameter("workflow_step_ids", workflowStepIds)
+                        .getResultList()) {
+                        Long id = ((Number) workflowStepId).longValue();
+                        rows += removeAggregate(joinTable, idColumn, orderColumn, id, replacement.getKey());
+                        workflowStepIds.remove(id);
+                    }
+
+                    if (!workflowStepIds.isEmpty()) {
+                        rows += entityManager.createNativeQuery("UPDATE " + joinTable + " SET " + idColumn + " = :replacement_id WHERE " + idColumn + " = :component_id AND workflow_step_id IN (:workflow_step_ids)")
+                            .setParameter("replacement_id", replacementWorkflowSteps.getKey())
+                            .setParameter("component_id", replacement.getKey())
+                            .setParameter("workflow_step_ids", workflowStepIds)
+                            .executeUpdate();
+                    }
+                }
+            }
+
+            for (Map.Entry<Long, Set<Long>> addition : changeSet.getAdditions().entrySet()) {
+                for (Long workflowStepId : addition.getValue()) {
+                    // appended unless the workflow step already aggregates it
+                    rows += entityManager.createNativeQuery("INSERT INTO " + joinTable + " (workflow_step_id, " + idColumn + ", " + orderColumn + ") SELECT :workflow_step_id, :component_id, COALESCE(MAX(" + orderColumn + ") + 1, 0) FROM " + joinTable + " WHERE workflow_step_id = :workflow_step_id HAVING COALESCE(SUM(CASE WHEN " + idColumn + " = :component_id THEN 1 ELSE 0 END), 0) = 0")
+                        .setParameter("workflow_step_id", workflowStepId)
+                        .setParameter("component_id", addition.getKey())
+                        .executeUpdate();
+                }
+            }
+
+            for (Map.Entry<Long, Set<Long>> originating : changeSet.getOriginatings().entrySet()) {
+                rows += heritableRepo.updateOriginating(originating.getValue(), heritableRepo.findById(originating.getKey()).get());
+            }
+
+            refreshChanged(changeSet);
+
+            return rows;
+        });
+
+        logger.info("Propagated heritable component changes in " + updated + " rows");
+    }
+
+    /**
+     * Remove a component from a workflow step's aggregate components, closing the gap it leaves in their order.
+     */
+    private int removeAggregate(String joinTable, String idColumn, String orderColumn, Long workflowStepId, Long componentId) {
+        List<?> orders = entityManager.createNativeQuery("SELECT " + orderColumn + " FROM " + joinTable + " WHERE workflow_step_id = :workflow_step_id AND " + idColumn + " = :component_id")
+            .setParameter("workflow_step_id", workflowStepId)
+            .setParameter("component_id", componentId)
+            .getResultList();
+
+        int rows = 0;
+        for (Object order : orders) {
+            int position = ((Number) order).intValue();
+
+            rows += entityManager.createNativeQuery("DELETE FROM " + joinTable + " WHERE workflow_step_id = :workflow_step_id AND " + orderColumn + " = :position")
+                .setParameter("workflow_step_id", workflowStepId)
+                .setParameter("position", position)
+                .executeUpdate();
+
+            // shifted through negative positions, so no row collides with the key of another while it moves
+            entityManager.createNativeQuery("UPDATE " + joinTable + " SET " + orderColumn + " = -" + orderColumn + " WHERE workflow_step_id = :workflow_step_id AND " + orderColumn + " > :position")
+                .setParameter("workflow_step_id", workflowStepId)
+                .setParameter("position", position)
+                .executeUpdate();
+            entityManager.createNativeQuery("UPDATE " + joinTable + " SET " + orderColumn + " = -" + orderColumn + " - 1 WHERE workflow_step_id = :workflow_step_id AND " + orderColumn + " < 0")
+                .setParameter("workflow_step_id", workflowStepId)
+                .executeUpdate();
+        }
+        return rows;
+    }
+
+    /**
+     * Refresh the loaded workflow steps and components a change set changed, leaving the rest of the persistence context
+     * untouched.
+     */
+    @SuppressWarnings("unchecked")
+    private void refreshChanged(HeritableChangeSet changeSet) {
+        Set<Long> workflowStepIds = changeSet.getWorkflowStepIds();
+        Set<Long> componentIds = changeSet.getReoriginatedIds();
+
+        Session session = entityManager.unwrap(Session.class);
+        for (EntityKey entityKey : new ArrayList<EntityKey>((Set<EntityKey>) session.getStatistics().getEntityKeys())) {
+            Class<?> mappedClass = entityKey.getPersister().getMappedClass();
+            Object id = entityKey.getIdentifier();
+            boolean changed = WorkflowStep.class.isAssignableFrom(mappedClass) ? workflowStepIds.contains(id) : HeritableComponent.class.isAssignableFrom(mappedClass) && componentIds.contains(id);
+            if (changed) {
+                entityManager.refresh(entityManager.getReference(mappedClass, id));
+            }
         }
     }
 
+    /**
+     * @return the name of the workflow step property aggregating the components, as named in the database
+     */
+    protected abstract String getAggregateProperty();
+
 }
@@ -0,0 +1,27 @@
+package org.tdl.vireo.model.listener;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.tdl.vireo.model.ManagedConfiguration;
+import org.tdl.vireo.service.ConfigurationCachingService;
+
+@Component
+public class ManagedConfigurationListener {
+
+    @Lazy
+    @Autowired
+    private ConfigurationCachingService configurationCachingService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    private void afterChange(ManagedConfiguration configuration) {
+        configurationCachingService.clearCache();
+    }
+
+}
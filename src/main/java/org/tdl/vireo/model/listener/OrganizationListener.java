@@ -0,0 +1,27 @@
+package org.tdl.vireo.model.listener;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.tdl.vireo.model.Organization;
+import org.tdl.vireo.service.EmailWorkflowRuleCachingService;
+
+@Component
+public class OrganizationListener {
+
+    @Lazy
+    @Autowired
+    private EmailWorkflowRuleCachingService emailWorkflowRuleCachingService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    private void afterChange(Organization organization) {
+        emailWorkflowRuleCachingService.clearCache();
+    }
+
+}
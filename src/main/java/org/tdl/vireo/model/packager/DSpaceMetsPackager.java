@@ -46,34 +46,24 @@ public class DSpaceMetsPackager extends AbstractPackager<ZipExportPackage> {
 
             pkg = File.createTempFile(packageName, ".zip");
 
-            FileOutputStream fos = new FileOutputStream(pkg);
-            ZipOutputStream zos = new ZipOutputStream(fos);
+            try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(pkg))) {
 
-            // Copy the manifest
-            File manifestFile = File.createTempFile(manifestName, null);
-            FileUtils.writeStringToFile(manifestFile, manifest, StandardCharsets.UTF_8);
-
-            // Add manifest to zip
-            zos.putNextEntry(new ZipEntry(manifestName));
-            zos.write(Files.readAllBytes(manifestFile.toPath()));
-            zos.closeEntry();
-
-            manifestFile.delete();
-
-            List<FieldValue> documentFieldValues = submission.getAllDocumentFieldValues();
-            for (FieldValue documentFieldValue : documentFieldValues) {
-                // TODO: add file whitelist for publish
+                // Add manifest to zip
+                zos.putNextEntry(new ZipEntry(manifestName));
+                zos.write(manifest.getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
 
-                File exportFile = getAbsolutePath(documentFieldValue.getValue()).toFile();
+                List<FieldValue> documentFieldValues = submission.getAllDocumentFieldValues();
+                for (FieldValue documentFieldValue : documentFieldValues) {
+                    // TODO: add file whitelist for publish
 
-                zos.putNextEntry(new ZipEntry(documentFieldValue.getExportFileName()));
-                zos.write(Files.readAllBytes(exportFile.toPath()));
-                zos.closeEntry();
+                    // streamed, so large documents are not held in memory
+                    zos.putNextEntry(new ZipEntry(documentFieldValue.getExportFileName()));
+                    Files.copy(getAbsolutePath(documentFieldValue.getValue()), zos);
+                    zos.closeEntry();
+                }
             }
 
-            zos.close();
-            fos.close();
-
         } catch (IOException ioe) {
             throw new RuntimeException("Unable to generate package", ioe);
         }
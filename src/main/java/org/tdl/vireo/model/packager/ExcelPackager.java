@@ -32,7 +32,7 @@ public class ExcelPackager extends AbstractPackager<ExcelExportPackage> {
 
     private static final Logger logger = LoggerFactory.getLogger(ExcelPackager.class);
 
-    private static final DateFormat simpleDateFormat = new SimpleDateFormat("MM/dd/yyyy");
+    private static final ThreadLocal<DateFormat> simpleDateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("MM/dd/yyyy"));
 
     public ExcelPackager() {
 
@@ -89,10 +89,10 @@ public class ExcelPackager extends AbstractPackager<ExcelExportPackage> {
 
                         if (valueAsObject instanceof Calendar) {
                             Calendar calendar = (Calendar) valueAsObject;
-                            value = simpleDateFormat.format(calendar.getTime());
+                            value = simpleDateFormat.get().format(calendar.getTime());
                         } else if (valueAsObject instanceof Date) {
                             Date date = (Date) valueAsObject;
-                            value = simpleDateFormat.format(date);
+                            value = simpleDateFormat.get().format(date);
                         } else if (valueAsObject instanceof Set && ((Set<?>) valueAsObject).stream().allMatch(o -> o instanceof CustomActionValue)) {
                             StringBuilder sb = new StringBuilder();
                             ((Set<?>) valueAsObject).forEach(o -> {
@@ -4,8 +4,10 @@ import edu.tamu.weaver.data.model.repo.WeaverRepo;
 import java.util.Calendar;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.tdl.vireo.model.ActionLog;
 import org.tdl.vireo.model.SubmissionStatus;
 import org.tdl.vireo.model.User;
@@ -53,4 +55,19 @@ public interface ActionLogRepo extends WeaverRepo<ActionLog>, ActionLogRepoCusto
     @Query(value = "SELECT al.* FROM action_log AS al INNER JOIN submission AS s ON al.action_logs_id = s.id WHERE s.advisor_access_hash = :advisor_access_hash AND al.private_flag = :private_flag", nativeQuery = true)
     public Page<ActionLog> getAllActionLogs(@Param("advisor_access_hash") String advisorAccessHash, @Param("private_flag") Boolean privateFlag, Pageable pageable);
 
+    /**
+     * Sets the submission an action log belongs to without loading or writing the submission's action log collection.
+     *
+     * Column action_logs_id is join column representing submission id.
+     *
+     * @param actionLogId ID representing the action log.
+     * @param submissionId ID representing the submission.
+     *
+     * @return Number of action logs updated.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE action_log SET action_logs_id = :submission_id WHERE id = :action_log_id", nativeQuery = true)
+    public int updateSubmissionId(@Param("action_log_id") Long actionLogId, @Param("submission_id") Long submissionId);
+
 }
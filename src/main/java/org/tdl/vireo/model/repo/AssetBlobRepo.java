@@ -0,0 +1,60 @@
+package org.tdl.vireo.model.repo;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.AssetBlob;
+
+/**
+ * The blobs of the content-addressed asset store and their reference counts, maintained by the asset blob service.
+ *
+ * References are only added to and swept from a blob by conditional updates, so every instance sharing the assets agrees
+ * on whether a blob is in use. A reference count of -1 marks a blob being swept.
+ */
+public interface AssetBlobRepo extends JpaRepository<AssetBlob, Long> {
+
+    public Optional<AssetBlob> findBySha256(String sha256);
+
+    public List<AssetBlob> findByReferenceCountLessThanEqual(long referenceCount);
+
+    /**
+     * Add a reference to the blob, unless it is being swept.
+     *
+     * @return 1 when the reference was added, 0 when there is no such blob or it is being swept
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AssetBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.sha256 = :sha256 AND b.referenceCount >= 0")
+    public int addReference(@Param("sha256") String sha256);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AssetBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.sha256 = :sha256 AND b.referenceCount > 0")
+    public int removeReference(@Param("sha256") String sha256);
+
+    /**
+     * Mark the blob as being swept if it is still unreferenced, after which no reference can be added to it.
+     *
+     * @return 1 when the blob was marked, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AssetBlob b SET b.referenceCount = -1 WHERE b.sha256 = :sha256 AND b.referenceCount = 0")
+    public int markSwept(@Param("sha256") String sha256);
+
+    /**
+     * Delete the blob marked as being swept, once its file is removed.
+     *
+     * @return 1 when the blob was deleted, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AssetBlob b WHERE b.sha256 = :sha256 AND b.referenceCount = -1")
+    public int deleteSwept(@Param("sha256") String sha256);
+
+}
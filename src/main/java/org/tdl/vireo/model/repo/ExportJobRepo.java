@@ -0,0 +1,45 @@
+package org.tdl.vireo.model.repo;
+
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.ExportJobState;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.custom.ExportJobRepoCustom;
+
+import edu.tamu.weaver.data.model.repo.WeaverRepo;
+
+public interface ExportJobRepo extends WeaverRepo<ExportJob>, ExportJobRepoCustom {
+
+    public List<ExportJob> findAllByUserOrderByIdDesc(User user);
+
+    public List<ExportJob> findAllByStateInOrderByIdAsc(Collection<ExportJobState> states);
+
+    /**
+     * Claim an unfinished job for an instance, unless another instance owns it and has reported it was still running
+     * the job since the given date.
+     *
+     * @return 1 when the job was claimed, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.owner = :owner, j.heartbeatDate = :heartbeat_date WHERE j.id = :id AND j.state IN (org.tdl.vireo.model.ExportJobState.QUEUED, org.tdl.vireo.model.ExportJobState.RUNNING) AND (j.owner IS NULL OR (j.owner <> :owner AND j.heartbeatDate < :heartbeat_before))")
+    public int claim(@Param("id") Long id, @Param("owner") String owner, @Param("heartbeat_date") Calendar heartbeatDate, @Param("heartbeat_before") Calendar heartbeatBefore);
+
+    /**
+     * Report that an instance is still running the unfinished jobs it owns.
+     *
+     * @return the number of jobs owned by the instance
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.heartbeatDate = :heartbeat_date WHERE j.owner = :owner AND j.state IN (org.tdl.vireo.model.ExportJobState.QUEUED, org.tdl.vireo.model.ExportJobState.RUNNING)")
+    public int heartbeat(@Param("owner") String owner, @Param("heartbeat_date") Calendar heartbeatDate);
+
+}
@@ -0,0 +1,53 @@
+package org.tdl.vireo.model.repo;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.OrganizationHierarchy;
+
+/**
+ * The organization closure table, maintained by the organization repo.
+ */
+public interface OrganizationHierarchyRepo extends JpaRepository<OrganizationHierarchy, Long> {
+
+    /**
+     * @return The rows of the organization's subtree, the organization's own included.
+     */
+    public List<OrganizationHierarchy> findByAncestorId(Long ancestorId);
+
+    /**
+     * @return The rows of the organization's ancestors, the organization's own included.
+     */
+    public List<OrganizationHierarchy> findByDescendantId(Long descendantId);
+
+    public List<OrganizationHierarchy> findByAncestorIdAndDepthLessThanEqual(Long ancestorId, int depth);
+
+    @Query("SELECT h.descendantId FROM OrganizationHierarchy h WHERE h.ancestorId = :ancestor_id AND h.depth > 0")
+    public List<Long> findDescendantIds(@Param("ancestor_id") Long ancestorId);
+
+    @Query("SELECT h.ancestorId FROM OrganizationHierarchy h WHERE h.descendantId = :descendant_id AND h.depth > 0 ORDER BY h.depth")
+    public List<Long> findAncestorIds(@Param("descendant_id") Long descendantId);
+
+    /**
+     * Unlinks a subtree from the ancestors of its root, leaving the links within the subtree.
+     *
+     * @param subtreeIds IDs of every organization in the subtree.
+     *
+     * @return Number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrganizationHierarchy h WHERE h.descendantId IN :subtree_ids AND h.ancestorId NOT IN :subtree_ids")
+    public int deleteAncestorsOfSubtree(@Param("subtree_ids") Collection<Long> subtreeIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrganizationHierarchy h WHERE h.ancestorId = :organization_id OR h.descendantId = :organization_id")
+    public int deleteByOrganizationId(@Param("organization_id") Long organizationId);
+
+}
@@ -2,6 +2,9 @@ package org.tdl.vireo.model.repo;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.OrganizationCategory;
 import org.tdl.vireo.model.repo.custom.OrganizationRepoCustom;
@@ -16,14 +19,23 @@ public interface OrganizationRepo extends WeaverRepo<Organization>, Organization
 
     public <T> List<T> findViewAllByOrderByIdAsc(Class<T> type);
 
+    @EntityGraph(value = "graph.Organization.Tree")
     public List<Organization> findAllByOrderByIdAsc();
 
-    public List<Organization> findByAggregateWorkflowStepsId(Long workflowStepId);
-
     public List<Organization> findByOriginalWorkflowStepsId(Long workflowStepId);
 
     public List<Organization> findAllByNameAndCategory(String name, OrganizationCategory category);
 
     public Organization findByNameAndCategory(String name, OrganizationCategory category);
 
+    /**
+     * Returns the descendants of an organization, read through the organization closure table.
+     *
+     * @param ancestorId ID representing the organization.
+     *
+     * @return The organization's descendants, not including itself.
+     */
+    @Query("SELECT o FROM Organization o WHERE o.id IN (SELECT h.descendantId FROM OrganizationHierarchy h WHERE h.ancestorId = :ancestor_id AND h.depth > 0)")
+    public List<Organization> findDescendants(@Param("ancestor_id") Long ancestorId);
+
 }
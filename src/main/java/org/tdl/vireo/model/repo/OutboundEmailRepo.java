@@ -0,0 +1,45 @@
+package org.tdl.vireo.model.repo;
+
+import java.util.Calendar;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.OutboundEmailState;
+import org.tdl.vireo.model.repo.custom.OutboundEmailRepoCustom;
+
+import edu.tamu.weaver.data.model.repo.WeaverRepo;
+
+public interface OutboundEmailRepo extends WeaverRepo<OutboundEmail>, OutboundEmailRepoCustom {
+
+    public List<OutboundEmail> findByStateAndNextAttemptDateLessThanEqualOrderByIdAsc(OutboundEmailState state, Calendar date, Pageable pageable);
+
+    public List<OutboundEmail> findAllByStateOrderByIdDesc(OutboundEmailState state);
+
+    public long countByState(OutboundEmailState state);
+
+    /**
+     * Claim a queued email for sending, unless another dispatcher has claimed it first.
+     *
+     * @return 1 when the email was claimed, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.state = org.tdl.vireo.model.OutboundEmailState.SENDING, e.claimedDate = :claimed_date WHERE e.id = :id AND e.state = org.tdl.vireo.model.OutboundEmailState.QUEUED")
+    public int claim(@Param("id") Long id, @Param("claimed_date") Calendar claimedDate);
+
+    /**
+     * Queue the emails again whose dispatcher stopped before recording whether they were sent.
+     *
+     * @return the number of emails queued again
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.state = org.tdl.vireo.model.OutboundEmailState.QUEUED, e.claimedDate = NULL WHERE e.state = org.tdl.vireo.model.OutboundEmailState.SENDING AND e.claimedDate < :claimed_before")
+    public int releaseExpiredClaims(@Param("claimed_before") Calendar claimedBefore);
+
+}
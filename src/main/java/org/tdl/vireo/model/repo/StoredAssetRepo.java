@@ -0,0 +1,29 @@
+package org.tdl.vireo.model.repo;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.StoredAsset;
+
+/**
+ * The checksums of written assets, maintained by the asset blob service.
+ */
+public interface StoredAssetRepo extends JpaRepository<StoredAsset, Long> {
+
+    public Optional<StoredAsset> findByUri(String uri);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredAsset a SET a.uri = :new_uri WHERE a.uri = :old_uri")
+    public int updateUri(@Param("old_uri") String oldUri, @Param("new_uri") String newUri);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredAsset a WHERE a.uri = :uri")
+    public int deleteByUri(@Param("uri") String uri);
+
+}
@@ -4,6 +4,11 @@ import edu.tamu.weaver.data.model.repo.WeaverRepo;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.ActionLog;
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.User;
@@ -38,6 +43,11 @@ public interface SubmissionRepo extends WeaverRepo<Submission>, SubmissionRepoCu
 
     public Long countByOrganizationId(Long id);
 
+    @Modifying
+    @Transactional
+    @Query("UPDATE Submission s SET s.lastAction = :last_action WHERE s.id = :submission_id")
+    public int updateLastAction(@Param("submission_id") Long submissionId, @Param("last_action") ActionLog lastAction);
+
     @Override
     public Submission update(Submission submission);
 
@@ -2,6 +2,8 @@ package org.tdl.vireo.model.repo;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.WorkflowStep;
 import org.tdl.vireo.model.repo.custom.WorkflowStepRepoCustom;
@@ -22,4 +24,14 @@ public interface WorkflowStepRepo extends WeaverRepo<WorkflowStep>, WorkflowStep
 
     public WorkflowStep findByNameAndOriginatingOrganization(String name, Organization originatingOrganization);
 
+    /**
+     * Returns the ids of the workflow steps aggregated in an organization's subtree, read through the organization closure table.
+     *
+     * @param ancestorId ID representing the organization at the root of the subtree.
+     *
+     * @return The workflow step ids, those on organizations closest to the root first.
+     */
+    @Query("SELECT ws.id FROM Organization o JOIN o.aggregateWorkflowSteps ws, OrganizationHierarchy h WHERE h.descendantId = o.id AND h.ancestorId = :ancestor_id GROUP BY ws.id ORDER BY MIN(h.depth), ws.id")
+    public List<Long> findAggregateIdsInSubtree(@Param("ancestor_id") Long ancestorId);
+
 }
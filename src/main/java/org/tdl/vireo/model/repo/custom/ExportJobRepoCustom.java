@@ -0,0 +1,13 @@
+package org.tdl.vireo.model.repo.custom;
+
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.User;
+
+public interface ExportJobRepoCustom {
+
+    public ExportJob create(User user, String packagerName, NamedSearchFilterGroup filter);
+
+    public ExportJob update(ExportJob exportJob);
+
+}
@@ -1,10 +1,13 @@
 package org.tdl.vireo.model.repo.custom;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.OrganizationCategory;
 import org.tdl.vireo.model.WorkflowStep;
+import org.tdl.vireo.view.TreeOrganizationView;
 
 public interface OrganizationRepoCustom {
 
@@ -18,4 +21,126 @@ public interface OrganizationRepoCustom {
 
     public Set<Organization> getDescendantOrganizations(Organization org);
 
+    /**
+     * Read an organization along with its subtree, read through the organization closure table, so the children it
+     * passes workflow changes to and serializes can be navigated once the organization is detached.
+     *
+     * @param id
+     *            The organization id.
+     *
+     * @return The organization, if there is one with the id.
+     */
+    public Optional<Organization> findById(Long id);
+
+    /**
+     * Read the organizations that aggregate a workflow step, each along with its subtree.
+     *
+     * @param workflowStepId
+     *            ID representing the workflow step.
+     *
+     * @return The organizations.
+     */
+    public List<Organization> findByAggregateWorkflowStepsId(Long workflowStepId);
+
+    /**
+     * Read the organizations in an organization's subtree that aggregate a workflow step, each along with its
+     * subtree.
+     *
+     * @param ancestorId
+     *            ID representing the organization at the root of the subtree.
+     * @param workflowStepId
+     *            ID representing the workflow step.
+     *
+     * @return The organizations, the root included if it aggregates the workflow step.
+     */
+    public List<Organization> findSubtreeByAggregateWorkflowStepsId(Long ancestorId, Long workflowStepId);
+
+    /**
+     * Save an organization, recording any children added or removed in the organization hierarchy.
+     *
+     * @param organization
+     *            The organization to save.
+     *
+     * @return The saved organization.
+     */
+    public <S extends Organization> S save(S organization);
+
+    /**
+     * Save organizations, recording any children added or removed in the organization hierarchy.
+     *
+     * @param organizations
+     *            The organizations to save.
+     *
+     * @return The saved organizations.
+     */
+    public <S extends Organization> List<S> saveAll(Iterable<S> organizations);
+
+    /**
+     * Save an organization and flush it, recording any children added or removed in the organization hierarchy.
+     *
+     * @param organization
+     *            The organization to save.
+     *
+     * @return The saved organization.
+     */
+    public <S extends Organization> S saveAndFlush(S organization);
+
+    /**
+     * Delete an organization along with its rows in the organization hierarchy, without moving its children or
+     * submissions, see delete for that.
+     *
+     * @param id
+     *            The organization id.
+     */
+    public void deleteById(Long id);
+
+    /**
+     * Delete every organization along with the organization hierarchy.
+     */
+    public void deleteAll();
+
+    /**
+     * Rebuild the organization hierarchy from the organizations' children if any of its rows differ from them, as do
+     * the rows of organizations saved before the hierarchy was recorded or written around the organization repo.
+     */
+    public void ensureHierarchy();
+
+    /**
+     * Read the whole organization tree with a single query, without loading the organization entities.
+     *
+     * @return Every organization, ordered by id, each linked to its parent and children.
+     */
+    public List<TreeOrganizationView> findTree();
+
+    /**
+     * Read an organization and its subtree with a single query, without loading the organization entities.
+     *
+     * @param id
+     *            The organization id.
+     *
+     * @return The organization, or null if there is none with the id.
+     */
+    public TreeOrganizationView findTreeById(Long id);
+
+    /**
+     * Broadcast that an organization changed, along with its descendants, which inherit its workflow and email
+     * workflow rules.
+     *
+     * @param organization
+     *            The changed organization.
+     */
+    public void broadcastUpdate(Organization organization);
+
+    /**
+     * Broadcast a versioned change to the organization hierarchy, once the current transaction, if any, commits.
+     *
+     * @param created
+     *            The ids of the organizations created.
+     * @param updated
+     *            The ids of the organizations changed.
+     * @param deleted
+     *            The ids of the organizations deleted.
+     */
+    public void broadcastChange(Set<Long> created, Set<Long> updated, Set<Long> deleted);
+
 }
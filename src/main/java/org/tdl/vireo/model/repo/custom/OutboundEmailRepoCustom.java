@@ -0,0 +1,9 @@
+package org.tdl.vireo.model.repo.custom;
+
+import org.tdl.vireo.model.OutboundEmail;
+
+public interface OutboundEmailRepoCustom {
+
+    public OutboundEmail create(String[] to, String[] cc, String[] bcc, String subject, String content);
+
+}
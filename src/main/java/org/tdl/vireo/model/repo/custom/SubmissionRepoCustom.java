@@ -13,6 +13,7 @@ import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.SubmissionListColumn;
 import org.tdl.vireo.model.SubmissionStatus;
 import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.response.KeysetPage;
 
 public interface SubmissionRepoCustom {
 
@@ -24,8 +25,14 @@ public interface SubmissionRepoCustom {
 
     public Submission updateStatus(Submission submission, SubmissionStatus status, User user);
 
+    public int batchUpdateStatus(List<Long> submissionIds, SubmissionStatus status, User user);
+
     public Page<Submission> pageableDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColums, Pageable pageable) throws ExecutionException;
 
+    public KeysetPage<Submission> keysetDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColums, String cursor, int size, boolean count);
+
     public List<Submission> batchDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColums);
 
+    public List<Long> batchDynamicSubmissionIdQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColums);
+
 }
@@ -8,14 +8,17 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import org.tdl.vireo.model.ActionLog;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.User;
 import org.tdl.vireo.model.repo.ActionLogRepo;
 import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.custom.ActionLogRepoCustom;
+import org.tdl.vireo.service.SubmissionListRowService;
 
 import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
 import edu.tamu.weaver.response.ApiResponse;
@@ -31,24 +34,19 @@ public class ActionLogRepoImpl extends AbstractWeaverRepoImpl<ActionLog, ActionL
     @Autowired
     private SimpMessagingTemplate simpMessagingTemplate;
 
+    @Autowired
+    private SubmissionListRowService submissionListRowService;
+
     @Override
+    @Transactional
     public ActionLog create(Submission submission, User user, Calendar actionDate, String entry, boolean privateFlag) {
-        ActionLog log = actionLogRepo.save(new ActionLog(submission.getSubmissionStatus(), user, actionDate, entry, privateFlag));
-        submission.addActionLog(log);
-        submission.setLastAction(log);
-        submissionRepo.save(submission);
-        simpMessagingTemplate.convertAndSend("/channel/submission/" + submission.getId() + "/action-logs", new ApiResponse(SUCCESS, log));
-        return log;
+        return append(submission, new ActionLog(submission.getSubmissionStatus(), user, actionDate, entry, privateFlag));
     }
 
     @Override
+    @Transactional
     public ActionLog create(Submission submission, Calendar actionDate, String entry, boolean privateFlag) {
-        ActionLog log = actionLogRepo.save(new ActionLog(submission.getSubmissionStatus(), actionDate, entry, privateFlag));
-        submission.addActionLog(log);
-        submission.setLastAction(log);
-        submissionRepo.save(submission);
-        simpMessagingTemplate.convertAndSend("/channel/submission/" + submission.getId() + "/action-logs", new ApiResponse(SUCCESS, log));
-        return log;
+        return append(submission, new ActionLog(submission.getSubmissionStatus(), actionDate, entry, privateFlag));
     }
 
     @Override
@@ -82,6 +80,29 @@ public class ActionLogRepoImpl extends AbstractWeaverRepoImpl<ActionLog, ActionL
         }
 
         submissionRepo.save(submission);
+        submissionListRowService.refreshLastAction(submission.getId(), submission.getLastAction());
+    }
+
+    /**
+     * Insert the action log and point the submission at it with targeted updates, leaving the rest of the submission
+     * and its action log collection untouched so the cost of a log does not grow with the submission's history.
+     *
+     * Callers are responsible for saving any other changes made to the submission.
+     */
+    private ActionLog append(Submission submission, ActionLog log) {
+        log = actionLogRepo.saveAndFlush(log);
+        actionLogRepo.updateSubmissionId(log.getId(), submission.getId());
+        submissionRepo.updateLastAction(submission.getId(), log);
+
+        // keep an already loaded collection in step, otherwise a later merge would orphan the new log
+        if (Hibernate.isInitialized(submission.getActionLogs())) {
+            submission.addActionLog(log);
+        }
+        submission.setLastAction(log);
+
+        submissionListRowService.refreshLastAction(submission.getId(), log);
+        simpMessagingTemplate.convertAndSend("/channel/submission/" + submission.getId() + "/action-logs", new ApiResponse(SUCCESS, log));
+        return log;
     }
 
     @Override
@@ -12,6 +12,7 @@ import org.tdl.vireo.model.DefaultConfiguration;
 import org.tdl.vireo.model.ManagedConfiguration;
 import org.tdl.vireo.model.repo.ConfigurationRepo;
 import org.tdl.vireo.model.repo.custom.ConfigurationRepoCustom;
+import org.tdl.vireo.service.ConfigurationCachingService;
 import org.tdl.vireo.service.DefaultSettingsService;
 
 import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
@@ -24,6 +25,9 @@ public class ConfigurationRepoImpl extends AbstractWeaverRepoImpl<ManagedConfigu
     @Autowired
     private DefaultSettingsService defaultSettingsService;
 
+    @Autowired
+    private ConfigurationCachingService configurationCachingService;
+
     @Override
     public ManagedConfiguration create(String name, String value, String type) {
         return super.create(new ManagedConfiguration(name, value, type));
@@ -35,8 +39,16 @@ public class ConfigurationRepoImpl extends AbstractWeaverRepoImpl<ManagedConfigu
         return defaultSettingsService.getSettingByNameAndType(configuration.getName(), configuration.getType());
     }
 
+    /**
+     * The configuration returned is a copy, detached from the persistence context, so changes to it are neither saved
+     * nor seen by other callers. Use findByName to change a managed configuration.
+     */
     @Override
     public Configuration getByNameAndType(String name, String type) {
+        return copy(configurationCachingService.get("configuration:" + name + ":" + type, () -> copy(loadByNameAndType(name, type))));
+    }
+
+    private Configuration loadByNameAndType(String name, String type) {
         ManagedConfiguration configuration = configurationRepo.findByName(name);
         if (configuration != null) {
             return configuration;
@@ -44,6 +56,15 @@ public class ConfigurationRepoImpl extends AbstractWeaverRepoImpl<ManagedConfigu
         return defaultSettingsService.getSettingByNameAndType(name, type);
     }
 
+    private Configuration copy(Configuration configuration) {
+        if (configuration instanceof ManagedConfiguration) {
+            ManagedConfiguration copy = new ManagedConfiguration(configuration.getName(), configuration.getValue(), configuration.getType());
+            copy.setId(((ManagedConfiguration) configuration).getId());
+            return copy;
+        }
+        return configuration;
+    }
+
     /**
      * Gets a config value from the DB by name and type. If no value is found, it checks the DefaultSettingsService, which returns the default for that name and type if it exists, null otherwise.
      * 
@@ -53,6 +74,10 @@ public class ConfigurationRepoImpl extends AbstractWeaverRepoImpl<ManagedConfigu
      */
     @Override
     public String getValueByNameAndType(String name, String type) {
+        return configurationCachingService.get("value:" + name + ":" + type, () -> loadValueByNameAndType(name, type));
+    }
+
+    private String loadValueByNameAndType(String name, String type) {
         Configuration overrideConfig = configurationRepo.findByNameAndType(name, type);
         if (overrideConfig != null) {
             return overrideConfig.getValue();
@@ -67,6 +92,10 @@ public class ConfigurationRepoImpl extends AbstractWeaverRepoImpl<ManagedConfigu
 
     @Override
     public String getValueByName(String name) {
+        return configurationCachingService.get("value:" + name, () -> loadValueByName(name));
+    }
+
+    private String loadValueByName(String name) {
         Configuration overrideConfig = configurationRepo.findByName(name);
         if (overrideConfig != null) {
             return overrideConfig.getValue();
@@ -0,0 +1,63 @@
+package org.tdl.vireo.model.repo.impl;
+
+import static edu.tamu.weaver.response.ApiAction.UPDATE;
+import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ExportJobRepo;
+import org.tdl.vireo.model.repo.NamedSearchFilterGroupRepo;
+import org.tdl.vireo.model.repo.custom.ExportJobRepoCustom;
+
+import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
+import edu.tamu.weaver.response.ApiResponse;
+
+public class ExportJobRepoImpl extends AbstractWeaverRepoImpl<ExportJob, ExportJobRepo> implements ExportJobRepoCustom {
+
+    @Autowired
+    private ExportJobRepo exportJobRepo;
+
+    @Autowired
+    private NamedSearchFilterGroupRepo namedSearchFilterGroupRepo;
+
+    /**
+     * The job exports a copy of the filter, with the columns shown when it was created, so that editing the filter
+     * afterwards does not change what a queued job exports.
+     */
+    @Override
+    @Transactional
+    public ExportJob create(User user, String packagerName, NamedSearchFilterGroup filter) {
+        NamedSearchFilterGroup snapshot = new NamedSearchFilterGroup();
+        snapshot.setUser(user);
+        snapshot.setName(ExportJob.FILTER_NAME_PREFIX + UUID.randomUUID().toString());
+        namedSearchFilterGroupRepo.clone(snapshot, filter);
+        snapshot.setPublicFlag(false);
+        snapshot.setColumnsFlag(true);
+        snapshot.setSavedColumns(new ArrayList<>(filter.getColumnsFlag() ? filter.getSavedColumns() : user.getSubmissionViewColumns()));
+        snapshot = namedSearchFilterGroupRepo.save(snapshot);
+
+        return exportJobRepo.save(new ExportJob(user, packagerName, snapshot.getId()));
+    }
+
+    /**
+     * Progress is only of interest to the user who started the job, so it is sent on the channel of the job.
+     */
+    @Override
+    public ExportJob update(ExportJob exportJob) {
+        exportJob = exportJobRepo.save(exportJob);
+        simpMessagingTemplate.convertAndSend(getChannel() + "/" + exportJob.getId(), new ApiResponse(SUCCESS, UPDATE, exportJob));
+        return exportJob;
+    }
+
+    @Override
+    protected String getChannel() {
+        return "/channel/export-job";
+    }
+
+}
@@ -112,11 +112,16 @@ public class FieldProfileRepoImpl extends HeritableRepoImpl<FieldProfile, FieldP
             submissionListColumnRepo.create(gloss, Sort.NONE, fieldPredicate.getValue(), inputType);
         }
 
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(originatingWorkflowStep.getOriginatingOrganization());
 
         return fieldProfileRepo.findById(fieldProfile.getId()).get();
     }
 
+    @Override
+    protected String getAggregateProperty() {
+        return "aggregate_field_profiles";
+    }
+
     @Override
     protected String getChannel() {
         return "/channel/field-profile";
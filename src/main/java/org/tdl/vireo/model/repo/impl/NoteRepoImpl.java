@@ -25,7 +25,7 @@ public class NoteRepoImpl extends HeritableRepoImpl<Note, NoteRepo> implements N
         Note note = noteRepo.save(new Note(originatingWorkflowStep, name, text));
         originatingWorkflowStep.addOriginalNote(note);
         workflowStepRepo.save(originatingWorkflowStep);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(originatingWorkflowStep.getOriginatingOrganization());
         return noteRepo.findById(note.getId()).get();
     }
 
@@ -34,10 +34,15 @@ public class NoteRepoImpl extends HeritableRepoImpl<Note, NoteRepo> implements N
         Note note = noteRepo.save(new Note(originatingWorkflowStep, name, text, overrideable));
         originatingWorkflowStep.addOriginalNote(note);
         workflowStepRepo.save(originatingWorkflowStep);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(originatingWorkflowStep.getOriginatingOrganization());
         return noteRepo.findById(note.getId()).get();
     }
 
+    @Override
+    protected String getAggregateProperty() {
+        return "aggregate_notes";
+    }
+
     @Override
     protected String getChannel() {
         return "/channel/note";
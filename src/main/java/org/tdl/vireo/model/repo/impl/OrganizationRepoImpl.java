@@ -1,28 +1,48 @@
 package org.tdl.vireo.model.repo.impl;
 
 import static edu.tamu.weaver.response.ApiAction.BROADCAST;
+import static edu.tamu.weaver.response.ApiAction.READ;
 import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
 import static org.springframework.messaging.core.AbstractMessageSendingTemplate.CONVERSION_HINT_HEADER;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.OrganizationCategory;
+import org.tdl.vireo.model.OrganizationHierarchy;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.WorkflowStep;
+import org.tdl.vireo.model.repo.OrganizationHierarchyRepo;
 import org.tdl.vireo.model.repo.OrganizationRepo;
 import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.WorkflowStepRepo;
 import org.tdl.vireo.model.repo.custom.OrganizationRepoCustom;
+import org.tdl.vireo.model.response.OrganizationChange;
+import org.tdl.vireo.model.response.OrganizationTreeNode;
+import org.tdl.vireo.service.EmailWorkflowRuleCachingService;
+import org.tdl.vireo.view.TreeOrganizationView;
 
 import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
 import edu.tamu.weaver.response.ApiResponse;
@@ -32,15 +52,30 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
 
     final static Logger logger = LoggerFactory.getLogger(OrganizationRepoImpl.class);
 
+    // incremented for every change broadcast, so clients can detect a missed change
+    private final AtomicLong changeVersion = new AtomicLong();
+
+    // versions are counted by each instance, clients seeing another source cannot compare them
+    private final String changeSource = UUID.randomUUID().toString();
+
     @Autowired
     private OrganizationRepo organizationRepo;
 
+    @Autowired
+    private OrganizationHierarchyRepo organizationHierarchyRepo;
+
     @Autowired
     private WorkflowStepRepo workflowStepRepo;
 
     @Autowired
     private SubmissionRepo submissionRepo;
 
+    @Autowired
+    private EmailWorkflowRuleCachingService emailWorkflowRuleCachingService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public void broadcast(List<Organization> organizations) {
         Map<String, Object> headers = new HashMap<String, Object>();
@@ -48,19 +83,54 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
         simpMessagingTemplate.convertAndSend(getChannel(), new ApiResponse(SUCCESS, BROADCAST, organizations), headers);
     }
 
+    @Override
+    public void broadcastUpdate(Organization organization) {
+        Set<Long> updated = new HashSet<Long>();
+        updated.add(organization.getId());
+        updated.addAll(organizationHierarchyRepo.findDescendantIds(organization.getId()));
+        broadcastChange(Collections.emptySet(), updated, Collections.emptySet());
+    }
+
+    @Override
+    public void broadcastChange(Set<Long> created, Set<Long> updated, Set<Long> deleted) {
+        Set<Long> createdIds = new HashSet<Long>(created);
+        Set<Long> deletedIds = new HashSet<Long>(deleted);
+        Set<Long> updatedIds = new HashSet<Long>(updated);
+        updatedIds.removeAll(createdIds);
+        updatedIds.removeAll(deletedIds);
+
+        // clients reload what changed, so only tell them once the change is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sendChange(createdIds, updatedIds, deletedIds);
+                }
+            });
+        } else {
+            sendChange(createdIds, updatedIds, deletedIds);
+        }
+    }
+
+    private void sendChange(Set<Long> created, Set<Long> updated, Set<Long> deleted) {
+        OrganizationChange change = new OrganizationChange(changeSource, changeVersion.incrementAndGet(), created, updated, deleted);
+        simpMessagingTemplate.convertAndSend(getChannel(), new ApiResponse(SUCCESS, READ, change));
+    }
+
     @Override
     public Organization update(Organization organization) {
         organization = weaverRepo.save(organization);
-        Map<String, Object> headers = new HashMap<String, Object>();
-        headers.put(CONVERSION_HINT_HEADER, ApiView.Partial.class);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        // a change to the rules collection alone does not reach the entity listener
+        emailWorkflowRuleCachingService.clearCache();
+        // descendants inherit the email workflow rules
+        organizationRepo.broadcastUpdate(organization);
         return organization;
     }
 
     @Override
     public Organization create(String name, OrganizationCategory category) {
         Organization organization = organizationRepo.save(new Organization(name, category));
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastChange(Collections.singleton(organization.getId()), Collections.emptySet(), Collections.emptySet());
         return organization;
     }
 
@@ -77,14 +147,18 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
             });
         }
         Organization newOrg = organizationRepo.save(organization);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        Set<Long> updated = new HashSet<Long>();
+        if (parent != null) {
+            updated.add(parent.getId());
+        }
+        organizationRepo.broadcastChange(Collections.singleton(newOrg.getId()), updated, Collections.emptySet());
         return newOrg;
     }
 
     public Organization reorderWorkflowSteps(Organization organization, WorkflowStep ws1, WorkflowStep ws2) {
         organization.swapAggregateWorkflowStep(ws1, ws2);
         organization = organizationRepo.save(organization);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(organization);
         return organization;
     }
 
@@ -99,6 +173,8 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
 
         // Have all the parent organizations not have this one as their child anymore
         if (parentOrganization != null) {
+            // the parent is read for its children, which an organization's parent has not loaded
+            parentOrganization = organizationRepo.findById(parentOrganization.getId()).get();
             parentOrganization.removeChildOrganization(organization);
             parentOrganization = organizationRepo.save(parentOrganization);
             organization = organizationRepo.findById(orgId).get();
@@ -106,9 +182,16 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
 
         Set<Organization> childrenToRemove = new HashSet<Organization>();
 
+        // the parent and children are moved, the rest of the hierarchy is untouched
+        Set<Long> updated = new HashSet<Long>();
+        if (parentOrganization != null) {
+            updated.add(parentOrganization.getId());
+        }
+
         // Have all the child organizations get this one's parent as their parent
         for (Organization childOrganization : organization.getChildrenOrganizations()) {
             childrenToRemove.add(childOrganization);
+            updated.add(childOrganization.getId());
         }
 
         for (Organization childOrganization : childrenToRemove) {
@@ -162,7 +245,7 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
         }
 
         organizationRepo.deleteById(orgId);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastChange(Collections.emptySet(), updated, Collections.singleton(orgId));
     }
 
     @Override
@@ -184,31 +267,265 @@ public class OrganizationRepoImpl extends AbstractWeaverRepoImpl<Organization, O
             workflowStepRepo.delete(ws);
         }
         
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(organization);
         return organization;
     }
 
     @Override
     public Set<Organization> getDescendantOrganizations(Organization org) {
+        return new HashSet<Organization>(organizationRepo.findDescendants(org.getId()));
+    }
 
-        Set<Organization> descendants = new HashSet<Organization>();
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Organization> findById(Long id) {
+        return findWithSubtrees(Collections.singletonList(id)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Organization> findByAggregateWorkflowStepsId(Long workflowStepId) {
+        List<Long> ids = entityManager.createQuery(
+            "SELECT o.id FROM Organization o JOIN o.aggregateWorkflowSteps ws WHERE ws.id = :workflow_step_id",
+            Long.class
+        ).setParameter("workflow_step_id", workflowStepId).getResultList();
+
+        return findWithSubtrees(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Organization> findSubtreeByAggregateWorkflowStepsId(Long ancestorId, Long workflowStepId) {
+        List<Long> ids = entityManager.createQuery(
+            "SELECT o.id FROM Organization o JOIN o.aggregateWorkflowSteps ws, OrganizationHierarchy h WHERE ws.id = :workflow_step_id AND h.descendantId = o.id AND h.ancestorId = :ancestor_id",
+            Long.class
+        ).setParameter("workflow_step_id", workflowStepId).setParameter("ancestor_id", ancestorId).getResultList();
+
+        return findWithSubtrees(ids);
+    }
+
+    // workflow changes are passed down to the children, and organizations are serialized with them, after the transaction
+    private List<Organization> findWithSubtrees(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<Organization>();
+        }
+
+        // the subtrees share this persistence context, so the children fetched for one are the organizations of the next level
+        Map<Long, Organization> subtrees = new HashMap<Long, Organization>();
+        entityManager.createQuery(
+            "SELECT DISTINCT o FROM Organization o WHERE o.id IN (SELECT h.descendantId FROM OrganizationHierarchy h WHERE h.ancestorId IN :ancestor_ids)",
+            Organization.class
+        ).setParameter("ancestor_ids", ids)
+            .setHint("javax.persistence.fetchgraph", entityManager.getEntityGraph("graph.Organization.Tree"))
+            .getResultList()
+            .forEach(organization -> subtrees.put(organization.getId(), organization));
+
+        List<Organization> organizations = new ArrayList<Organization>();
+        for (Long id : ids) {
+            // an organization missing from the hierarchy is still read, until ensureHierarchy records it
+            Organization organization = subtrees.containsKey(id) ? subtrees.get(id) : entityManager.find(Organization.class, id);
+            if (organization != null) {
+                organizations.add(organization);
+            }
+        }
+        return organizations;
+    }
 
-        for (Organization child : org.getChildrenOrganizations()) {
-            descendants.add(child);
-            descendants.addAll(getDescendantOrganizations(descendants, child));
+    @Override
+    @Transactional
+    public <S extends Organization> S save(S organization) {
+        S savedOrganization;
+        if (organization.getId() == null) {
+            entityManager.persist(organization);
+            savedOrganization = organization;
+        } else {
+            savedOrganization = entityManager.merge(organization);
         }
+        updateHierarchy(savedOrganization);
+        return savedOrganization;
+    }
 
-        return descendants;
+    @Override
+    @Transactional
+    public <S extends Organization> List<S> saveAll(Iterable<S> organizations) {
+        List<S> savedOrganizations = new ArrayList<S>();
+        for (S organization : organizations) {
+            savedOrganizations.add(save(organization));
+        }
+        return savedOrganizations;
     }
 
-    private Set<Organization> getDescendantOrganizations(Set<Organization> descendants, Organization org) {
+    @Override
+    @Transactional
+    public <S extends Organization> S saveAndFlush(S organization) {
+        S savedOrganization = save(organization);
+        entityManager.flush();
+        return savedOrganization;
+    }
 
-        for (Organization child : org.getChildrenOrganizations()) {
-            descendants.add(child);
-            descendants.addAll(getDescendantOrganizations(descendants, child));
+    @Override
+    @Transactional
+    public void deleteById(Long id) {
+        Organization organization = entityManager.find(Organization.class, id);
+        if (organization == null) {
+            throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", Organization.class, id), 1);
+        }
+        organizationHierarchyRepo.deleteByOrganizationId(id);
+        entityManager.remove(organization);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll() {
+        for (Organization organization : organizationRepo.findAll()) {
+            entityManager.remove(organization);
+        }
+        organizationHierarchyRepo.deleteAllInBatch();
+    }
+
+    @Override
+    @Transactional
+    public void ensureHierarchy() {
+        Map<Long, Long> parentIds = new HashMap<Long, Long>();
+        for (Object[] row : entityManager.createQuery("SELECT o.id, c.id FROM Organization o JOIN o.childrenOrganizations c", Object[].class).getResultList()) {
+            parentIds.put((Long) row[1], (Long) row[0]);
+        }
+
+        List<OrganizationHierarchy> rows = new ArrayList<OrganizationHierarchy>();
+        for (Long id : entityManager.createQuery("SELECT o.id FROM Organization o", Long.class).getResultList()) {
+            Set<Long> ancestorIds = new HashSet<Long>();
+            Long ancestorId = id;
+            // the visited ids guard against a cycle in the children
+            while (ancestorId != null && ancestorIds.add(ancestorId)) {
+                rows.add(new OrganizationHierarchy(ancestorId, id, ancestorIds.size() - 1));
+                ancestorId = parentIds.get(ancestorId);
+            }
+        }
+
+        Set<List<Object>> expected = rows.stream().map(OrganizationRepoImpl::hierarchyKey).collect(Collectors.toSet());
+        Set<List<Object>> recorded = organizationHierarchyRepo.findAll().stream().map(OrganizationRepoImpl::hierarchyKey).collect(Collectors.toSet());
+        if (expected.equals(recorded)) {
+            return;
+        }
+
+        logger.info("Rebuilding the organization hierarchy");
+
+        organizationHierarchyRepo.deleteAllInBatch();
+        organizationHierarchyRepo.saveAll(rows);
+    }
+
+    private static List<Object> hierarchyKey(OrganizationHierarchy row) {
+        return Arrays.asList(row.getAncestorId(), row.getDescendantId(), row.getDepth());
+    }
+
+    // children are added and removed on the parent, so compare them to the children recorded in the hierarchy
+    private void updateHierarchy(Organization organization) {
+        Long organizationId = organization.getId();
+
+        boolean recorded = false;
+        Set<Long> recordedChildIds = new HashSet<Long>();
+        for (OrganizationHierarchy row : organizationHierarchyRepo.findByAncestorIdAndDepthLessThanEqual(organizationId, 1)) {
+            if (row.getDepth() == 0) {
+                recorded = true;
+            } else {
+                recordedChildIds.add(row.getDescendantId());
+            }
+        }
+
+        if (!recorded) {
+            organizationHierarchyRepo.save(new OrganizationHierarchy(organizationId, organizationId, 0));
+        }
+
+        Set<Long> childIds = new HashSet<Long>();
+        for (Organization child : organization.getChildrenOrganizations()) {
+            childIds.add(child.getId());
+            if (!recordedChildIds.contains(child.getId())) {
+                moveSubtree(child.getId(), organizationId);
+            }
+        }
+
+        for (Long recordedChildId : recordedChildIds) {
+            if (!childIds.contains(recordedChildId)) {
+                moveSubtree(recordedChildId, null);
+            }
+        }
+    }
+
+    private void moveSubtree(Long organizationId, Long parentId) {
+        List<OrganizationHierarchy> subtree = organizationHierarchyRepo.findByAncestorId(organizationId);
+        if (subtree.isEmpty()) {
+            subtree = Collections.singletonList(organizationHierarchyRepo.save(new OrganizationHierarchy(organizationId, organizationId, 0)));
+        }
+
+        Set<Long> subtreeIds = subtree.stream().map(OrganizationHierarchy::getDescendantId).collect(Collectors.toSet());
+
+        if (parentId != null && subtreeIds.contains(parentId)) {
+            logger.warn("Not moving organization " + organizationId + " under its own descendant " + parentId);
+            return;
+        }
+
+        organizationHierarchyRepo.deleteAncestorsOfSubtree(subtreeIds);
+
+        if (parentId != null) {
+            List<OrganizationHierarchy> rows = new ArrayList<OrganizationHierarchy>();
+            for (OrganizationHierarchy ancestor : organizationHierarchyRepo.findByDescendantId(parentId)) {
+                for (OrganizationHierarchy descendant : subtree) {
+                    rows.add(new OrganizationHierarchy(ancestor.getAncestorId(), descendant.getDescendantId(), ancestor.getDepth() + descendant.getDepth() + 1));
+                }
+            }
+            organizationHierarchyRepo.saveAll(rows);
+        }
+    }
+
+    @Override
+    public List<TreeOrganizationView> findTree() {
+        // only select the columns the tree needs, rather than loading each organization entity
+        List<Object[]> rows = entityManager.createQuery(
+            "SELECT o.id, o.name, c, o.acceptsSubmissions, p.id FROM Organization o JOIN o.category c LEFT JOIN o.parentOrganization p ORDER BY o.id",
+            Object[].class
+        ).getResultList();
+
+        return new ArrayList<TreeOrganizationView>(buildTree(rows).values());
+    }
+
+    @Override
+    public TreeOrganizationView findTreeById(Long id) {
+        // the closure table holds the subtree, so the rest of the tree is not read
+        List<Object[]> rows = entityManager.createQuery(
+            "SELECT o.id, o.name, c, o.acceptsSubmissions, p.id FROM Organization o JOIN o.category c LEFT JOIN o.parentOrganization p, OrganizationHierarchy h WHERE h.descendantId = o.id AND h.ancestorId = :ancestor_id ORDER BY o.id",
+            Object[].class
+        ).setParameter("ancestor_id", id).getResultList();
+
+        Map<Long, OrganizationTreeNode> nodes = buildTree(rows);
+        OrganizationTreeNode node = nodes.get(id);
+        if (node != null && node.getParentOrganization() == null) {
+            // the parent is serialized by its id only
+            rows.stream().filter(row -> id.equals(row[0]) && row[4] != null).findFirst().ifPresent(row -> {
+                new OrganizationTreeNode((Long) row[4], null, null, null).addChildOrganization(node);
+            });
+        }
+        return node;
+    }
+
+    private Map<Long, OrganizationTreeNode> buildTree(List<Object[]> rows) {
+        Map<Long, OrganizationTreeNode> nodes = new LinkedHashMap<Long, OrganizationTreeNode>();
+        Map<Long, Long> parentIds = new HashMap<Long, Long>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            nodes.put(id, new OrganizationTreeNode(id, (String) row[1], (OrganizationCategory) row[2], (Boolean) row[3]));
+            if (row[4] != null) {
+                parentIds.put(id, (Long) row[4]);
+            }
+        }
+
+        for (OrganizationTreeNode node : nodes.values()) {
+            OrganizationTreeNode parent = nodes.get(parentIds.get(node.getId()));
+            if (parent != null) {
+                parent.addChildOrganization(node);
+            }
         }
 
-        return descendants;
+        return nodes;
     }
 
     @Override
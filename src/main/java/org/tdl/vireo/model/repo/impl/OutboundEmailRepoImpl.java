@@ -0,0 +1,29 @@
+package org.tdl.vireo.model.repo.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.repo.OutboundEmailRepo;
+import org.tdl.vireo.model.repo.custom.OutboundEmailRepoCustom;
+
+import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
+
+public class OutboundEmailRepoImpl extends AbstractWeaverRepoImpl<OutboundEmail, OutboundEmailRepo> implements OutboundEmailRepoCustom {
+
+    @Autowired
+    private OutboundEmailRepo outboundEmailRepo;
+
+    @Override
+    public OutboundEmail create(String[] to, String[] cc, String[] bcc, String subject, String content) {
+        return outboundEmailRepo.save(new OutboundEmail(String.join(",", to), join(cc), join(bcc), subject, content));
+    }
+
+    private static String join(String[] addresses) {
+        return addresses == null || addresses.length == 0 ? null : String.join(",", addresses);
+    }
+
+    @Override
+    protected String getChannel() {
+        return "/channel/outbound-email";
+    }
+
+}
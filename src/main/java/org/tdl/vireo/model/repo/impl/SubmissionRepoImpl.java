@@ -5,18 +5,31 @@ import static edu.tamu.weaver.response.ApiAction.DELETE;
 import static edu.tamu.weaver.response.ApiAction.UPDATE;
 import static edu.tamu.weaver.response.ApiStatus.SUCCESS;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import javax.sql.DataSource;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,6 +40,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,10 +51,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.tdl.vireo.config.AppFilterConfig;
 import org.tdl.vireo.config.VireoDatabaseConfig;
 import org.tdl.vireo.exception.OrganizationDoesNotAcceptSubmissionsException;
+import org.tdl.vireo.model.ActionLog;
 import org.tdl.vireo.model.Configuration;
 import org.tdl.vireo.model.CustomActionDefinition;
 import org.tdl.vireo.model.FieldPredicate;
@@ -52,6 +69,7 @@ import org.tdl.vireo.model.Sort;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.SubmissionFieldProfile;
 import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.SubmissionState;
 import org.tdl.vireo.model.SubmissionStatus;
 import org.tdl.vireo.model.SubmissionWorkflowStep;
 import org.tdl.vireo.model.User;
@@ -65,7 +83,13 @@ import org.tdl.vireo.model.repo.SubmissionListColumnRepo;
 import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.SubmissionWorkflowStepRepo;
 import org.tdl.vireo.model.repo.custom.SubmissionRepoCustom;
+import org.tdl.vireo.model.response.KeysetPage;
 import org.tdl.vireo.service.AssetService;
+import org.tdl.vireo.service.SubmissionListRowService;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.tamu.weaver.auth.model.Credentials;
 import edu.tamu.weaver.data.model.repo.impl.AbstractWeaverRepoImpl;
@@ -75,6 +99,9 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
     final static Logger logger = LoggerFactory.getLogger(SubmissionRepoImpl.class);
 
+    // JDBC batch size of the action log inserts of a batch status update
+    private static final int ACTION_LOG_BATCH_SIZE = 50;
+
     @Value("${app.url}")
     private String url;
 
@@ -108,6 +135,9 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private SubmissionListRowService submissionListRowService;
+
     @Autowired
     private AppFilterConfig appFilterConfig;
 
@@ -119,10 +149,47 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     @Value("${app.document.path:private/}")
     private String documentPath;
 
+    @Value("${app.submission.queryShapeCache:256}")
+    private int queryShapeCacheSize;
+
+    private final Map<String, QueryShape> queryShapeCache = newLruCache();
+
+    @Value("${app.submission.countCacheDuration:60000}")
+    private long countCacheDuration;
+
+    private final Map<String, CachedCount> countCache = newLruCache();
+
+    private static final ObjectMapper cursorMapper = new ObjectMapper();
+
+    @Value("${app.submission.batchStatusChunkSize:500}")
+    private int batchStatusChunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     public SubmissionRepoImpl(DataSource dataSource) {
         jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
+    /**
+     * Create a cache holding at most app.submission.queryShapeCache entries, evicting the least recently used.
+     */
+    private <V> Map<String, V> newLruCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<String, V> eldest) {
+                return size() > queryShapeCacheSize;
+            }
+
+        });
+    }
+
     @Override
     @Transactional
     public Submission create(User submitter, Organization organization, SubmissionStatus startingStatus, Credentials credentials, List<CustomActionDefinition> customActions) throws OrganizationDoesNotAcceptSubmissionsException {
@@ -166,6 +233,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
         setCheckboxDefaultValue(submission, "INPUT_PROQUEST");
 
         submission = super.create(submission);
+        submissionListRowService.refresh(submission);
         simpMessagingTemplate.convertAndSendToUser(submitter.getUsername(), "/queue/submissions", new ApiResponse(SUCCESS, CREATE, submission));
         return submission;
     }
@@ -182,6 +250,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     @Override
     public Submission update(Submission submission) {
         submission = submissionRepo.save(submission);
+        submissionListRowService.refresh(submission);
         simpMessagingTemplate.convertAndSend(getChannel() + "/" + submission.getId(), new ApiResponse(SUCCESS, UPDATE, submission));
         simpMessagingTemplate.convertAndSendToUser(submission.getSubmitter().getUsername(), "/queue/submissions", new ApiResponse(SUCCESS, UPDATE, submission));
         return submission;
@@ -190,6 +259,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     @Override
     public void delete(Submission submission) {
         super.delete(submission);
+        submissionListRowService.remove(submission.getId());
         simpMessagingTemplate.convertAndSendToUser(submission.getSubmitter().getUsername(), "/queue/submissions", new ApiResponse(SUCCESS, DELETE, submission));
     }
 
@@ -215,34 +285,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
             submission.setSubmissionDate(Calendar.getInstance());
 
-            List<FieldValue> proquestFieldValues = submission.getFieldValuesByInputType(inputTypeRepo.findByName("INPUT_PROQUEST"));
-            List<FieldValue> defaultLicenseFieldValues = submission.getFieldValuesByInputType(inputTypeRepo.findByName("INPUT_LICENSE"));
-
-            boolean attachProquestLicense = true;
-            boolean attachDefaultLicenseFieldValues = true;
-
-            for (FieldValue fv : proquestFieldValues) {
-                attachProquestLicense = !fv.getValue().equals("false");
-
-                if (!attachProquestLicense)
-                    break;
-            }
-
-            for (FieldValue fv : defaultLicenseFieldValues) {
-                attachDefaultLicenseFieldValues = !fv.getValue().equals("false");
-                if (!attachDefaultLicenseFieldValues)
-                    break;
-            }
-
-            if (attachProquestLicense) {
-                removeLicenseFile(submission, "proquest_license");
-                writeLicenseFile(user, submission, "proquest_license", "proquest_license", "proquest_umi_degree_code");
-            }
-
-            if (attachDefaultLicenseFieldValues) {
-                removeLicenseFile(submission, "license");
-                writeLicenseFile(user, submission, "submit_license", "license", "submission");
-            }
+            attachLicenseFiles(user, submission);
             break;
         case APPROVED:
             submission.setApproveApplication(true);
@@ -275,6 +318,156 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
         return submission;
     }
 
+    /**
+     * Change the status of many submissions, app.submission.batchStatusChunkSize at a time, each chunk in its own
+     * transaction.
+     *
+     * The status and approval columns are set with one update per chunk, and the status change action logs are
+     * linked to their submissions with batched statements. Only a change to a submitted status loads the
+     * submissions, to write their license files. A single notification is sent once every chunk is done.
+     */
+    @Override
+    public int batchUpdateStatus(List<Long> submissionIds, SubmissionStatus submissionStatus, User user) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int updated = 0;
+        for (int i = 0; i < submissionIds.size(); i += batchStatusChunkSize) {
+            List<Long> chunk = submissionIds.subList(i, Math.min(i + batchStatusChunkSize, submissionIds.size()));
+            updated += transactionTemplate.execute(status -> updateStatusChunk(chunk, submissionStatus, user));
+            logger.debug("Changed the status of " + updated + " of " + submissionIds.size() + " submissions to " + submissionStatus.getName());
+        }
+
+        Map<String, Object> payload = new HashMap<String, Object>();
+        payload.put("submissionStatus", submissionStatus.getName());
+        payload.put("count", updated);
+        simpMessagingTemplate.convertAndSend(getChannel() + "/batch-update-status", new ApiResponse(SUCCESS, UPDATE, payload));
+
+        return updated;
+    }
+
+    private int updateStatusChunk(List<Long> submissionIds, SubmissionStatus submissionStatus, User user) {
+        Calendar now = Calendar.getInstance();
+
+        // the previous status names, for the action log entries
+        List<Object[]> previousStatuses = entityManager.createQuery("SELECT s.id, ss.name FROM Submission s JOIN s.submissionStatus ss WHERE s.id IN :ids", Object[].class)
+            .setParameter("ids", submissionIds)
+            .getResultList();
+
+        if (previousStatuses.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder update = new StringBuilder("UPDATE Submission s SET s.submissionStatus = :submissionStatus");
+        Map<String, Object> parameters = new HashMap<String, Object>();
+        parameters.put("submissionStatus", submissionStatus);
+
+        // as updateStatus does for a single submission
+        switch (submissionStatus.getSubmissionState()) {
+        case SUBMITTED:
+            update.append(", s.approveApplication = false, s.approveApplicationDate = NULL, s.submissionDate = :now");
+            parameters.put("now", now);
+            break;
+        case APPROVED:
+            update.append(", s.approveApplication = true, s.approveApplicationDate = :now");
+            parameters.put("now", now);
+            break;
+        case PENDING_PUBLICATION:
+        case PUBLISHED:
+        case WITHDRAWN:
+            break;
+        default:
+            update.append(", s.approveApplication = false, s.approveApplicationDate = NULL");
+            break;
+        }
+
+        update.append(" WHERE s.id IN :ids");
+        parameters.put("ids", submissionIds);
+
+        Query query = entityManager.createQuery(update.toString());
+        parameters.forEach(query::setParameter);
+        query.executeUpdate();
+
+        // drop any submission loaded before the update
+        entityManager.clear();
+
+        if (submissionStatus.getSubmissionState() == SubmissionState.SUBMITTED) {
+            for (Submission submission : submissionRepo.findAllById(submissionIds)) {
+                attachLicenseFiles(user, submission);
+                submissionListRowService.refresh(submissionRepo.save(submission));
+            }
+        }
+
+        // batch the action log inserts of this session only, other writes keep the configured behavior
+        Session session = entityManager.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(ACTION_LOG_BATCH_SIZE);
+
+        List<ActionLog> actionLogs = new ArrayList<ActionLog>(previousStatuses.size());
+        try {
+            for (Object[] previousStatus : previousStatuses) {
+                ActionLog actionLog = new ActionLog(submissionStatus, user, now, "Submission status was changed from " + previousStatus[1] + " to " + submissionStatus.getName(), false);
+                entityManager.persist(actionLog);
+                actionLogs.add(actionLog);
+            }
+            entityManager.flush();
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+
+        List<Object[]> actionLogLinks = new ArrayList<Object[]>(actionLogs.size());
+        List<Object[]> lastActionLinks = new ArrayList<Object[]>(actionLogs.size());
+        for (int i = 0; i < actionLogs.size(); i++) {
+            Long submissionId = (Long) previousStatuses.get(i)[0];
+            Long actionLogId = actionLogs.get(i).getId();
+            actionLogLinks.add(new Object[] { submissionId, actionLogId });
+            lastActionLinks.add(new Object[] { actionLogId, submissionId });
+        }
+        jdbcTemplate.batchUpdate("UPDATE action_log SET action_logs_id = ? WHERE id = ?", actionLogLinks);
+        jdbcTemplate.batchUpdate("UPDATE submission SET last_action_id = ? WHERE id = ?", lastActionLinks);
+
+        for (int i = 0; i < actionLogs.size(); i++) {
+            submissionListRowService.refreshLastAction((Long) previousStatuses.get(i)[0], actionLogs.get(i));
+        }
+
+        entityManager.clear();
+
+        return previousStatuses.size();
+    }
+
+    /**
+     * Write the license files of a submission being submitted, unless the submitter declined the license.
+     */
+    private void attachLicenseFiles(User user, Submission submission) {
+        List<FieldValue> proquestFieldValues = submission.getFieldValuesByInputType(inputTypeRepo.findByName("INPUT_PROQUEST"));
+        List<FieldValue> defaultLicenseFieldValues = submission.getFieldValuesByInputType(inputTypeRepo.findByName("INPUT_LICENSE"));
+
+        boolean attachProquestLicense = true;
+        boolean attachDefaultLicenseFieldValues = true;
+
+        for (FieldValue fv : proquestFieldValues) {
+            attachProquestLicense = !fv.getValue().equals("false");
+
+            if (!attachProquestLicense)
+                break;
+        }
+
+        for (FieldValue fv : defaultLicenseFieldValues) {
+            attachDefaultLicenseFieldValues = !fv.getValue().equals("false");
+            if (!attachDefaultLicenseFieldValues)
+                break;
+        }
+
+        if (attachProquestLicense) {
+            removeLicenseFile(submission, "proquest_license");
+            writeLicenseFile(user, submission, "proquest_license", "proquest_license", "proquest_umi_degree_code");
+        }
+
+        if (attachDefaultLicenseFieldValues) {
+            removeLicenseFile(submission, "license");
+            writeLicenseFile(user, submission, "submit_license", "license", "submission");
+        }
+    }
+
     private void removeLicenseFile(Submission submission, String fileName) {
         FieldPredicate licensePredicate = fieldPredicateRepo.findByValue("_doctype_license");
         List<FieldValue> fieldValues = submission.getFieldValuesByPredicate(licensePredicate);
@@ -341,13 +534,24 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
     @Override
     public List<Submission> batchDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColumns) {
-        QueryStrings queryBuilder = craftDynamicSubmissionQuery(activeFilter, submissionListColumns, null);
-        List<Long> ids = new ArrayList<Long>();
-        jdbcTemplate.queryForList(queryBuilder.getQuery()).forEach(row -> {
-            ids.add((Long) row.get("ID"));
-        });
+        return submissionRepo.findAllById(batchDynamicSubmissionIdQuery(activeFilter, submissionListColumns));
+    }
+
+    /**
+     * The ids of the submissions matching the filter, in query order, without loading the submissions.
+     *
+     * A submission with several values for a joined column is matched by a row per value, so only its first row is kept.
+     */
+    @Override
+    public List<Long> batchDynamicSubmissionIdQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColumns) {
+        QueryStrings queryBuilder = craftDynamicSubmissionQuery(activeFilter, submissionListColumns, new QueryPaging(null, null, null));
+
+        Set<Long> ids = new LinkedHashSet<Long>();
+        jdbcTemplate.query(queryBuilder.getQuery(), rs -> {
+            ids.add(rs.getLong("ID"));
+        }, queryBuilder.getParameters());
 
-        return submissionRepo.findAllById(ids);
+        return new ArrayList<Long>(ids);
     }
 
     @Override
@@ -356,7 +560,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
         QueryStrings queryBuilder = craftDynamicSubmissionQuery(activeFilter, new ArrayList<>(submissionListColumns), pageable);
 
-        Long total = jdbcTemplate.queryForObject(queryBuilder.getCountQuery(), Long.class);
+        Long total = jdbcTemplate.queryForObject(queryBuilder.getCountQuery(), Long.class, queryBuilder.getCountParameters());
 
         logger.debug("Count query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
         startTime = System.nanoTime();
@@ -365,14 +569,95 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
             public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
                 return rs.getLong("ID");
             }
-        });
+        }, queryBuilder.getParameters());
 
         logger.debug("ID query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
         startTime = System.nanoTime();
 
-        List<Submission> submissions = submissionRepo.findAllById(ids);
+        List<Submission> submissions = findAllInOrder(ids, submissionListColumns);
+
+        logger.debug("Find, sort and map query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+
+        int offset = pageable.getPageSize() * pageable.getPageNumber();
+        int limit = pageable.getPageSize();
+        return new PageImpl<Submission>(submissions, PageRequest.of((int) Math.floor(offset / limit), limit), total);
+    }
+
+    @Override
+    public KeysetPage<Submission> keysetDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColumns, String cursor, int size, boolean count) {
+        long startTime = System.nanoTime();
+
+        QueryStrings queryBuilder = craftDynamicSubmissionQuery(activeFilter, new ArrayList<>(submissionListColumns), new QueryPaging(null, cursor, size));
+
+        int keyCount = queryBuilder.getOrderKeys().size();
+
+        List<Object[]> rows = jdbcTemplate.query(queryBuilder.getQuery(), new RowMapper<>() {
+            public Object[] mapRow(ResultSet rs, int rowNum) throws SQLException {
+                Object[] row = new Object[keyCount + 1];
+                for (int k = 0; k < keyCount; k++) {
+                    row[k] = rs.getObject("k" + k);
+                }
+                row[keyCount] = rs.getLong("ID");
+                return row;
+            }
+        }, queryBuilder.getParameters());
+
+        logger.debug("Keyset query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+        startTime = System.nanoTime();
+
+        boolean last = rows.size() <= size;
+        if (!last) {
+            rows = rows.subList(0, size);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add((Long) row[keyCount]));
+
+        List<Submission> submissions = findAllInOrder(ids, submissionListColumns);
+
+        logger.debug("Find, sort and map query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+
+        String nextCursor = null;
+        if (!last && !rows.isEmpty()) {
+            nextCursor = encodeCursor(queryBuilder.getFingerprint(), Arrays.copyOf(rows.get(rows.size() - 1), keyCount));
+        }
+
+        Long total = count ? getCachedCount(queryBuilder) : null;
+
+        return new KeysetPage<Submission>(submissions, size, nextCursor, last, total);
+    }
+
+    /**
+     * Get the total count for a query, reusing a recent count of the same query and parameters.
+     *
+     * @param queryBuilder The query to count.
+     * @return The total count.
+     */
+    private Long getCachedCount(QueryStrings queryBuilder) {
+        String key = queryBuilder.getCountQuery() + Arrays.toString(queryBuilder.getCountParameters());
+        long now = System.currentTimeMillis();
+
+        CachedCount cachedCount = countCache.get(key);
+        if (cachedCount != null && now - cachedCount.getTimestamp() < countCacheDuration) {
+            return cachedCount.getTotal();
+        }
+
+        Long total = jdbcTemplate.queryForObject(queryBuilder.getCountQuery(), Long.class, queryBuilder.getCountParameters());
+
+        countCache.put(key, new CachedCount(total, now));
+
+        return total;
+    }
 
-        logger.debug("Find all query for dynamic query took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+    /**
+     * Load the submissions with the given ids, preserving the order of the ids, and map their column values.
+     *
+     * @param ids The submission ids in query order.
+     * @param submissionListColumns The submission list columns to map.
+     * @return The ordered submissions.
+     */
+    private List<Submission> findAllInOrder(List<Long> ids, List<SubmissionListColumn> submissionListColumns) {
+        List<Submission> submissions = submissionRepo.findAllById(ids);
 
         // order them
         Map<Long, Integer> idToIndexMap = new HashMap<>();
@@ -388,18 +673,109 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
             return Integer.compare(index1, index2);
         });
 
-        logger.debug("Sorting and mapping results took " + ((System.nanoTime() - startTime) / 1000000000.0) + " seconds");
+        return submissions;
+    }
 
-        int offset = pageable.getPageSize() * pageable.getPageNumber();
-        int limit = pageable.getPageSize();
-        return new PageImpl<Submission>(submissions, PageRequest.of((int) Math.floor(offset / limit), limit), total);
+    /**
+     * Encode the sort key values of the last row of a page as an opaque cursor.
+     *
+     * @param fingerprint The fingerprint of the query shape the values belong to.
+     * @param keyValues The sort key values.
+     * @return The cursor.
+     */
+    private static String encodeCursor(String fingerprint, Object[] keyValues) {
+        List<String> tokens = new ArrayList<>();
+        tokens.add(fingerprint);
+
+        for (Object value : keyValues) {
+            if (value == null) {
+                tokens.add("n");
+            } else if (value instanceof Timestamp) {
+                tokens.add("t" + value);
+            } else if (value instanceof Date) {
+                tokens.add("d" + value);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                tokens.add("l" + value);
+            } else if (value instanceof BigDecimal) {
+                tokens.add("b" + value);
+            } else if (value instanceof Boolean) {
+                tokens.add("z" + value);
+            } else {
+                tokens.add("s" + value);
+            }
+        }
+
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(cursorMapper.writeValueAsBytes(tokens));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode submission query cursor", e);
+        }
+    }
+
+    /**
+     * Decode a cursor created by encodeCursor().
+     *
+     * @param cursor The cursor, may be null.
+     * @param fingerprint The fingerprint of the current query shape.
+     * @param keyCount The number of sort keys of the current query shape.
+     * @return The sort key values, or null to start from the first page.
+     */
+    private static List<Object> decodeCursor(String cursor, String fingerprint, int keyCount) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+
+        List<String> tokens;
+        try {
+            tokens = cursorMapper.readValue(Base64.getUrlDecoder().decode(cursor), new TypeReference<List<String>>() {});
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Ignoring unreadable submission query cursor: " + e.getMessage());
+            return null;
+        }
+
+        // the sort or columns changed since the cursor was issued
+        if (tokens.size() != keyCount + 1 || !fingerprint.equals(tokens.get(0))) {
+            return null;
+        }
+
+        List<Object> values = new ArrayList<>();
+        for (String token : tokens.subList(1, tokens.size())) {
+            String value = token.substring(1);
+            switch (token.charAt(0)) {
+            case 't':
+                values.add(Timestamp.valueOf(value));
+                break;
+            case 'd':
+                values.add(Date.valueOf(value));
+                break;
+            case 'l':
+                values.add(Long.valueOf(value));
+                break;
+            case 'b':
+                values.add(new BigDecimal(value));
+                break;
+            case 'z':
+                values.add(Boolean.valueOf(value));
+                break;
+            case 's':
+                values.add(value);
+                break;
+            default:
+                values.add(null);
+                break;
+            }
+        }
+
+        return values;
     }
 
     private void mapColumnValues(Submission submission, List<SubmissionListColumn> submissionListColumns) {
         if (Objects.isNull(submission.getColumnValues())) {
             Map<Long, String> columnValues = new HashMap<>();
 
+            // joined in the order of their ids, as the submission list projection joins them
             Map<String, List<String>> groupedByPredicate = submission.getFieldValues().stream()
+                .sorted(Comparator.comparing(FieldValue::getId, Comparator.nullsLast(Comparator.naturalOrder())))
                 .collect(Collectors.groupingBy(
                     fv -> fv.getFieldPredicate().getValue(),
                     Collectors.mapping(FieldValue::getValue, Collectors.toList())
@@ -434,6 +810,10 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     }
 
     private QueryStrings craftDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColumns, Pageable pageable) {
+        return craftDynamicSubmissionQuery(activeFilter, submissionListColumns, new QueryPaging(pageable, null, null));
+    }
+
+    private QueryStrings craftDynamicSubmissionQuery(NamedSearchFilterGroup activeFilter, List<SubmissionListColumn> submissionListColumns, QueryPaging paging) {
 
         // set up storage for user's preferred columns
         Set<String> allColumnSearchFilters = new HashSet<>();
@@ -479,22 +859,106 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
             }
         });
 
+        // fix the filter ordering once so the query shape and its bound parameters agree
+        QueryInputs inputs = new QueryInputs(allSubmissionListColumns, allColumnSearchFilters, paging);
+
+        String shapeKey = buildQueryShapeKey(allSubmissionListColumns, inputs);
+
+        QueryShape queryShape = queryShapeCache.get(shapeKey);
+
+        if (queryShape == null) {
+            queryShape = compileQueryShape(shapeKey, allSubmissionListColumns, inputs);
+
+            queryShapeCache.put(shapeKey, queryShape);
+        } else {
+            logger.debug("Using cached query shape for dynamic query");
+        }
+
+        return queryShape.bind(inputs);
+    }
+
+    /**
+     * Build the key identifying the shape of a dynamic submission query.
+     *
+     * Two requests with the same key produce the same SQL text and differ only in their bound parameter values.
+     * The key is composed of the column definitions, the requested sort, the visible columns and the kind of each filter.
+     *
+     * @param allSubmissionListColumns All submission list columns, sorted and decorated with the request's filters.
+     * @param inputs The normalized filter inputs.
+     * @return The query shape key.
+     */
+    private String buildQueryShapeKey(List<SubmissionListColumn> allSubmissionListColumns, QueryInputs inputs) {
+        StringBuilder key = new StringBuilder(String.valueOf(vireoDatabaseConfig.getPlatform()));
+
+        key.append(inputs.isPaged() ? "|paged" : inputs.isKeyset() ? "|keyset" : "|unpaged");
+
+        for (SubmissionListColumn submissionListColumn : allSubmissionListColumns) {
+            key.append("|").append(submissionListColumn.getId())
+                .append(":").append(String.join(".", submissionListColumn.getValuePath()))
+                .append(":").append(submissionListColumn.getPredicate())
+                .append(":").append(submissionListColumn.getInputType() != null ? submissionListColumn.getInputType().getName() : null)
+                .append(":").append(submissionListColumn.getSort())
+                .append(":").append(submissionListColumn.getSortOrder())
+                .append(":").append(submissionListColumn.getVisible())
+                .append(":").append(submissionListColumn.getExactMatch());
+
+            for (String filterString : inputs.getFilters(submissionListColumn)) {
+                key.append(":").append(getFilterKind(filterString));
+            }
+        }
+
+        key.append("|").append(inputs.getAllColumnFilters().size());
+
+        key.append("|").append(submissionListRowService.getSchemaVersion());
+
+        return key.toString();
+    }
+
+    /**
+     * Classify a filter value by the characteristics that change the generated SQL.
+     *
+     * @param filterString The filter value.
+     * @return A short code describing the filter.
+     */
+    private String getFilterKind(String filterString) {
+        if (filterString == null) {
+            return "n";
+        }
+
+        StringBuilder kind = new StringBuilder(filterString.contains("|") ? "r" : "v");
+
+        if (Boolean.valueOf(filterString)) {
+            kind.append("t");
+        }
+
+        if (filterString.equalsIgnoreCase(appFilterConfig.getEmbargoTypeNone()) || filterString.equalsIgnoreCase(appFilterConfig.getSubmissionTypeNone())) {
+            kind.append("x");
+        }
+
+        return kind.toString();
+    }
+
+    private QueryShape compileQueryShape(String shapeKey, List<SubmissionListColumn> allSubmissionListColumns, QueryInputs inputs) {
+
+        List<String> allColumnSearchFilters = inputs.getAllColumnFilters();
+
         StringBuilder sqlSelectBuilder = new StringBuilder("SELECT DISTINCT ");
-        StringBuilder sqlCountSelectBuilder = new StringBuilder();
+        QueryFragment sqlCountSelectBuilder = new QueryFragment();
 
-        Map<Long, ArrayList<StringBuilder>> sqlColumnsBuilders = new HashMap<>();
-        Map<String, ArrayList<StringBuilder>> sqlCountWhereFilterBuilders = new HashMap<>();
-        Map<Long, StringBuilder> sqlCountWherePredicate = new HashMap<>();
+        Map<Long, ArrayList<QueryFragment>> sqlColumnsBuilders = new LinkedHashMap<>();
+        Map<String, ArrayList<QueryFragment>> sqlCountWhereFilterBuilders = new LinkedHashMap<>();
+        Map<Long, QueryFragment> sqlCountWherePredicate = new LinkedHashMap<>();
         List<String> sqlAliasBuilders = new ArrayList<>();
 
         StringBuilder sqlJoinsBuilder = new StringBuilder();
-        StringBuilder sqlBuilder;
-        StringBuilder sqlCountBuilder;
-        StringBuilder sqlWheresExcludeBuilder = new StringBuilder();
+        QueryFragment sqlBuilder;
+        QueryFragment sqlCountBuilder;
+        QueryFragment sqlWheresExcludeBuilder = new QueryFragment();
         StringBuilder sqlOrderBysBuilder = new StringBuilder();
+        List<OrderKey> orderKeys = new ArrayList<>();
 
-        ArrayList<StringBuilder> sqlWhereBuilderList;
-        ArrayList<StringBuilder> sqlAllColumnsWhereBuilderList = new ArrayList<>();
+        ArrayList<QueryFragment> sqlWhereBuilderList;
+        ArrayList<QueryFragment> sqlAllColumnsWhereBuilderList = new ArrayList<>();
 
         // Always have "s.id" alias.
         sqlAliasBuilders.add("s.id");
@@ -505,11 +969,14 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
         for (int i = 0; i < allSubmissionListColumns.size(); i++) {
             SubmissionListColumn submissionListColumn = allSubmissionListColumns.get(i);
 
-            if (submissionListColumn.getSortOrder() > 0 || submissionListColumn.getFilters().size() > 0 || allColumnSearchFilters.size() > 0 || submissionListColumn.getVisible()) {
-                if (sqlColumnsBuilders.containsKey(submissionListColumn.getId())) {
-                    sqlWhereBuilderList = sqlColumnsBuilders.get(submissionListColumn.getId());
+            Long columnId = submissionListColumn.getId();
+            List<String> filters = inputs.getFilters(submissionListColumn);
+
+            if (submissionListColumn.getSortOrder() > 0 || filters.size() > 0 || allColumnSearchFilters.size() > 0 || submissionListColumn.getVisible()) {
+                if (sqlColumnsBuilders.containsKey(columnId)) {
+                    sqlWhereBuilderList = sqlColumnsBuilders.get(columnId);
                 } else {
-                    sqlWhereBuilderList = new ArrayList<StringBuilder>();
+                    sqlWhereBuilderList = new ArrayList<QueryFragment>();
                 }
 
                 switch (String.join(".", submissionListColumn.getValuePath())) {
@@ -541,8 +1008,40 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                     Long predicateId = fieldPredicate.getId();
 
+                    // a sort, or filters matched with LIKE, read the projected value rather than joining the field values
+                    String projectedColumn = submissionListRowService.getProjectedColumn(fieldPredicate.getValue());
+
+                    if (projectedColumn != null && isProjectable(submissionListColumn, filters)) {
+                        if (submissionListColumn.getSortOrder() > 0) {
+                            joinSubmissionListRow(sqlJoinsBuilder, null);
+                            setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "slr." + submissionListRowService.getSortColumn(fieldPredicate.getValue()));
+                        }
+
+                        for (int f = 0; f < filters.size(); f++) {
+                            sqlBuilder = new QueryFragment();
+                            sqlBuilder.append("LOWER(slr.").append(projectedColumn).append(") LIKE ").bind(QueryParameter.like(columnId, f));
+                            sqlWhereBuilderList.add(sqlBuilder);
+                            getFromBuildersMap(sqlCountWhereFilterBuilders, projectedColumn).add(sqlBuilder);
+                        }
+
+                        if (filters.size() > 0) {
+                            joinSubmissionListRow(sqlJoinsBuilder, sqlCountSelectBuilder);
+                        }
+
+                        if (submissionListColumn.getSortOrder() > 0 || filters.size() > 0) {
+                            // all column search filter
+                            for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                                sqlBuilder = new QueryFragment();
+                                sqlBuilder.append("LOWER(slr.").append(projectedColumn).append(") LIKE ").bind(QueryParameter.allColumnLike(f));
+                                sqlAllColumnsWhereBuilderList.add(sqlBuilder);
+                            }
+                        }
+
+                        break;
+                    }
+
                     // @formatter:off
-                    if (submissionListColumn.getSortOrder() > 0 || submissionListColumn.getFilters().size() > 0) {
+                    if (submissionListColumn.getSortOrder() > 0 || filters.size() > 0) {
                         sqlJoinsBuilder
                             .append("\nLEFT JOIN")
                             .append("\n  (SELECT sfv").append(n).append(".submission_id, fv").append(n).append(".*")
@@ -555,60 +1054,62 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                     if (submissionListColumn.getSortOrder() > 0) {
                         if (submissionListColumn.getInputType().getName().equals("INPUT_DEGREEDATE")) {
-                            setColumnOrderingForMonthYearDateFormat(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "pfv" + n);
+                            setColumnOrderingForMonthYearDateFormat(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "pfv" + n);
                         } else {
-                            setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "pfv" + n + ".value");
+                            setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "pfv" + n + ".value");
                         }
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
-                        sqlCountBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        String filterString = filters.get(f);
+                        QueryParameter filterValue = QueryParameter.value(columnId, f);
+
+                        sqlBuilder = new QueryFragment();
+                        sqlCountBuilder = new QueryFragment();
 
                         switch (submissionListColumn.getInputType().getName()) {
                         case "INPUT_DEGREEDATE":
                             // Column's values are of type 'MMMM yyyy' (in SQL date format would be 'Month YYYY').
-                            sqlBuilder.append("LOWER(pfv").append(n).append(".value) = LOWER('").append(filterString).append("')");
-                            sqlCountBuilder.append("LOWER(fv.value) = LOWER('").append(filterString).append("')");
+                            sqlBuilder.append("LOWER(pfv").append(n).append(".value) = LOWER(").bind(filterValue).append(")");
+                            sqlCountBuilder.append("LOWER(fv.value) = LOWER(").bind(filterValue).append(")");
                             break;
                         case "INPUT_DATE":
                             // Column's values are of type 'yyyy-mm-dd' as required by the SQL standard to represent a date without time.
                             if (filterString.contains("|")) {
                                 // Date Range
-                                String[] dates = filterString.split(Pattern.quote("|"));
                                 sqlBuilder
                                     .append("CAST(pfv").append(n)
-                                    .append(".value AS DATE) BETWEEN CAST('").append(dates[0])
-                                    .append("' AS DATE) AND CAST('").append(dates[1])
-                                    .append("' AS DATE)");
+                                    .append(".value AS DATE) BETWEEN CAST(").bind(QueryParameter.rangeStart(columnId, f))
+                                    .append(" AS DATE) AND CAST(").bind(QueryParameter.rangeEnd(columnId, f))
+                                    .append(" AS DATE)");
                                 sqlCountBuilder
-                                    .append("CAST(fv.value AS DATE) BETWEEN CAST('").append(dates[0])
-                                    .append("' AS DATE) AND CAST('").append(dates[1])
-                                    .append("' AS DATE)");
+                                    .append("CAST(fv.value AS DATE) BETWEEN CAST(").bind(QueryParameter.rangeStart(columnId, f))
+                                    .append(" AS DATE) AND CAST(").bind(QueryParameter.rangeEnd(columnId, f))
+                                    .append(" AS DATE)");
                             } else {
                                 // Date Match
-                                sqlBuilder.append("pfv").append(n).append(".value = '").append(filterString).append("'");
-                                sqlCountBuilder.append("fv.value = '").append(filterString).append("'");
+                                sqlBuilder.append("pfv").append(n).append(".value = ").bind(filterValue);
+                                sqlCountBuilder.append("fv.value = ").bind(filterValue);
                             }
                             break;
                         case "INPUT_CHECKBOX":
-                            sqlBuilder.append("pfv").append(n).append(".value = '").append(filterString).append("'");
-                            sqlCountBuilder.append("fv.value = '").append(filterString).append("'");
+                            sqlBuilder.append("pfv").append(n).append(".value = ").bind(filterValue);
+                            sqlCountBuilder.append("fv.value = ").bind(filterValue);
 
                             // Column's values are a boolean
                             if (!Boolean.valueOf(filterString)) {
                                 sqlWhereBuilderList.add(sqlBuilder);
 
                                 if (!sqlCountWherePredicate.containsKey(predicateId)) {
-                                    sqlCountWherePredicate.put(predicateId, new StringBuilder());
+                                    sqlCountWherePredicate.put(predicateId, new QueryFragment());
                                 }
 
                                 sqlCountWherePredicate.get(predicateId).append(" (").append(sqlCountBuilder).append(") OR");
 
-                                sqlBuilder = new StringBuilder();
+                                sqlBuilder = new QueryFragment();
                                 sqlBuilder.append(" pfv").append(n).append(".value IS NULL");
 
-                                sqlCountBuilder = new StringBuilder();
+                                sqlCountBuilder = new QueryFragment();
                                 sqlCountBuilder.append(" fv.value IS NULL");
                             }
 
@@ -617,12 +1118,12 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                             // Column's values can be handled by this default
                             if (submissionListColumn.getExactMatch()) {
                                 // perform exact match
-                                sqlBuilder.append("pfv").append(n).append(".value = '").append(filterString).append("'");
-                                sqlCountBuilder.append("fv.value = '").append(filterString).append("'");
+                                sqlBuilder.append("pfv").append(n).append(".value = ").bind(filterValue);
+                                sqlCountBuilder.append("fv.value = ").bind(filterValue);
                             } else {
                                 // perform like when input from text field
-                                sqlBuilder.append("LOWER(pfv").append(n).append(".value) LIKE '%").append(escapeString(filterString)).append("%'");
-                                sqlCountBuilder.append("LOWER(fv.value) LIKE '%").append(escapeString(filterString)).append("%'");
+                                sqlBuilder.append("LOWER(pfv").append(n).append(".value) LIKE ").bind(QueryParameter.like(columnId, f));
+                                sqlCountBuilder.append("LOWER(fv.value) LIKE ").bind(QueryParameter.like(columnId, f));
                             }
 
                             break;
@@ -633,18 +1134,18 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                             sqlWhereBuilderList.add(sqlBuilder);
 
                             if (!sqlCountWherePredicate.containsKey(predicateId)) {
-                                sqlCountWherePredicate.put(predicateId, new StringBuilder());
+                                sqlCountWherePredicate.put(predicateId, new QueryFragment());
                             }
 
                             sqlCountWherePredicate.get(predicateId).append(" (").append(sqlCountBuilder).append(") OR");
                         }
                     }
 
-                    if (submissionListColumn.getSortOrder() > 0 || submissionListColumn.getFilters().size() > 0) {
+                    if (submissionListColumn.getSortOrder() > 0 || filters.size() > 0) {
                         // all column search filter
-                        for (String filterString : allColumnSearchFilters) {
-                            sqlBuilder = new StringBuilder();
-                            sqlBuilder.append("LOWER(pfv").append(n).append(".value) LIKE '%").append(escapeString(filterString)).append("%'");
+                        for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                            sqlBuilder = new QueryFragment();
+                            sqlBuilder.append("LOWER(pfv").append(n).append(".value) LIKE ").bind(QueryParameter.allColumnLike(f));
                             sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                         }
 
@@ -660,12 +1161,13 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                         Sort sort = submissionListColumn.getSort();
                         if (sort == Sort.ASC || sort == Sort.DESC) {
                             sqlOrderBysBuilder.append(" s.id ").append(sort.name()).append(",");
+                            orderKeys.add(new OrderKey("s.id", sort));
                         }
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("s.id = ").append(filterString);
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("s.id = ").bind(QueryParameter.id(columnId, f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "id").add(sqlBuilder);
                     }
@@ -673,24 +1175,21 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     break;
 
                 case "submissionStatus.name":
-                    sqlBuilder = new StringBuilder()
-                        .append("\nLEFT JOIN submission_status ss ON ss.id=s.submission_status_id");
-
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    sqlJoinsBuilder.append("\nLEFT JOIN submission_status ss ON ss.id=s.submission_status_id");
+                    sqlCountSelectBuilder.append("\nLEFT JOIN submission_status ss ON ss.id=s.submission_status_id");
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "ss.name");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "ss.name");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
 
                         if (submissionListColumn.getExactMatch()) {
-                            sqlBuilder.append("ss.name = '").append(filterString).append("'");
+                            sqlBuilder.append("ss.name = ").bind(QueryParameter.value(columnId, f));
                         } else {
                             // TODO: determine if status will ever be search using a like
-                            sqlBuilder.append("LOWER(ss.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                            sqlBuilder.append("LOWER(ss.name) LIKE ").bind(QueryParameter.like(columnId, f));
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -698,9 +1197,9 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(ss.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(ss.name) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
@@ -709,25 +1208,22 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "organization.name":
 
                     if (sqlJoinsBuilder.indexOf("LEFT JOIN organization o ON o.id=s.organization_id") == -1) {
-                        sqlBuilder = new StringBuilder()
-                            .append("\nLEFT JOIN organization o ON o.id=s.organization_id");
-
-                        sqlJoinsBuilder.append(sqlBuilder);
-                        sqlCountSelectBuilder.append(sqlBuilder);
+                        sqlJoinsBuilder.append("\nLEFT JOIN organization o ON o.id=s.organization_id");
+                        sqlCountSelectBuilder.append("\nLEFT JOIN organization o ON o.id=s.organization_id");
                     }
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "o.name");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "o.name");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
 
                         if (submissionListColumn.getExactMatch()) {
-                            sqlBuilder.append("o.name = '").append(filterString).append("'");
+                            sqlBuilder.append("o.name = ").bind(QueryParameter.value(columnId, f));
                         } else {
                             // TODO: determine if organization name will ever be search using a like
-                            sqlBuilder.append("LOWER(o.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                            sqlBuilder.append("LOWER(o.name) LIKE ").bind(QueryParameter.like(columnId, f));
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -735,37 +1231,37 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(o.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(o.name) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
                     break;
 
                 case "organization.category.name":
-                    sqlBuilder = new StringBuilder();
+                    StringBuilder categoryJoinBuilder = new StringBuilder();
 
                     if (sqlJoinsBuilder.indexOf("LEFT JOIN organization o ON o.id=s.organization_id") == -1) {
-                        sqlBuilder.append("\nLEFT JOIN organization o ON o.id=s.organization_id");
+                        categoryJoinBuilder.append("\nLEFT JOIN organization o ON o.id=s.organization_id");
                     }
-                    sqlBuilder.append("\nLEFT JOIN organization_category oc ON oc.id=o.category_id");
+                    categoryJoinBuilder.append("\nLEFT JOIN organization_category oc ON oc.id=o.category_id");
 
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    sqlJoinsBuilder.append(categoryJoinBuilder);
+                    sqlCountSelectBuilder.append(categoryJoinBuilder);
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "oc.name");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "oc.name");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
                         if (submissionListColumn.getExactMatch()) {
-                            sqlBuilder.append("oc.name = '").append(filterString).append("'");
+                            sqlBuilder.append("oc.name = ").bind(QueryParameter.value(columnId, f));
                         } else {
                             // TODO: determine if organization category name
                             // will ever be search using a like
-                            sqlBuilder.append("LOWER(oc.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                            sqlBuilder.append("LOWER(oc.name) LIKE ").bind(QueryParameter.like(columnId, f));
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -773,34 +1269,31 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(oc.name) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(oc.name) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
                     break;
 
                 case "assignee.email":
-                    sqlBuilder = new StringBuilder()
-                        .append("\nLEFT JOIN weaver_users a ON a.id=s.assignee_id");
-
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    sqlJoinsBuilder.append("\nLEFT JOIN weaver_users a ON a.id=s.assignee_id");
+                    sqlCountSelectBuilder.append("\nLEFT JOIN weaver_users a ON a.id=s.assignee_id");
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "a.email");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "a.email");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
 
-                        if (filterString == null) {
+                        if (filters.get(f) == null) {
                             sqlBuilder.append("a.email IS NULL");
                         } else if (submissionListColumn.getExactMatch()) {
-                            sqlBuilder.append("a.email = '").append(filterString).append("'");
+                            sqlBuilder.append("a.email = ").bind(QueryParameter.value(columnId, f));
                         } else {
-                            sqlBuilder.append("LOWER(a.email) LIKE '%").append(escapeString(filterString)).append("%'");
+                            sqlBuilder.append("LOWER(a.email) LIKE ").bind(QueryParameter.like(columnId, f));
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -808,36 +1301,30 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(a.email) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(a.email) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
                     break;
 
                 case "lastAction.entry":
-                    sqlBuilder = new StringBuilder();
-                    if (!sqlJoinsBuilder.toString().contains("LEFT JOIN action_log al ON al.id=s.last_action_id")) {
-                        sqlBuilder.append("\nLEFT JOIN action_log al ON al.id=s.last_action_id");
-                    }
-
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    String lastActionEntry = joinLastAction(sqlJoinsBuilder, sqlCountSelectBuilder) ? "slr.last_action_entry" : "al.entry";
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "al.entry");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, lastActionEntry);
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
 
-                        if (filterString == null) {
-                            sqlBuilder.append("al.entry IS NULL");
+                        if (filters.get(f) == null) {
+                            sqlBuilder.append(lastActionEntry).append(" IS NULL");
                         } else if (submissionListColumn.getExactMatch()) {
-                            sqlBuilder.append("al.entry = '").append(filterString).append("'");
+                            sqlBuilder.append(lastActionEntry).append(" = ").bind(QueryParameter.value(columnId, f));
                         } else {
-                            sqlBuilder.append("LOWER(al.entry) LIKE '%").append(escapeString(filterString)).append("%'");
+                            sqlBuilder.append("LOWER(").append(lastActionEntry).append(") LIKE ").bind(QueryParameter.like(columnId, f));
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -845,40 +1332,33 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(al.entry) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(").append(lastActionEntry).append(") LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
                     break;
 
                 case "lastAction.actionDate":
-                    sqlBuilder = new StringBuilder();
-                    if (!sqlJoinsBuilder.toString().contains("LEFT JOIN action_log al ON al.id=s.last_action_id")) {
-                        sqlBuilder.append("\nLEFT JOIN action_log al ON al.id=s.last_action_id");
-                    }
-
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    String lastActionDate = joinLastAction(sqlJoinsBuilder, sqlCountSelectBuilder) ? "slr.last_action_date" : "al.action_date";
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "al.action_date");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, lastActionDate);
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        if (filterString.contains("|")) {
-                            String[] dates = filterString.split(Pattern.quote("|"));
-                            sqlBuilder = new StringBuilder()
-                                .append("al.action_date")
-                                .append(" BETWEEN CAST('").append(dates[0])
-                                .append("' AS DATE) AND CAST('").append(dates[1])
-                                .append("' AS DATE)");
+                    for (int f = 0; f < filters.size(); f++) {
+                        if (filters.get(f).contains("|")) {
+                            sqlBuilder = new QueryFragment()
+                                .append(lastActionDate)
+                                .append(" BETWEEN CAST(").bind(QueryParameter.rangeStart(columnId, f))
+                                .append(" AS DATE) AND CAST(").bind(QueryParameter.rangeEnd(columnId, f))
+                                .append(" AS DATE)");
                         } else {
-                            sqlBuilder = new StringBuilder()
-                                .append("al.action_date")
-                                .append(" = CAST('").append(filterString)
-                                .append("' AS DATE)");
+                            sqlBuilder = new QueryFragment()
+                                .append(lastActionDate)
+                                .append(" = CAST(").bind(QueryParameter.value(columnId, f))
+                                .append(" AS DATE)");
                         }
 
                         sqlWhereBuilderList.add(sqlBuilder);
@@ -889,15 +1369,17 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                 case "embargoTypes.name":
                     // This is not a select column but is instead only a custom filter.
-                    if (submissionListColumn.getFilters().size() > 0) {
-                        sqlBuilder = new StringBuilder();
+                    if (filters.size() > 0) {
+                        sqlBuilder = new QueryFragment();
                         sqlBuilder.append("s.id IN (SELECT submission_id FROM submission_field_values WHERE field_values_id IN (select id FROM field_value WHERE field_predicate_id IN (SELECT id FROM field_predicate WHERE value IN ('default_embargos', 'proquest_embargos')) and (");
 
                         // Note that the OR query is used inside the column, represented by both default_embargos and proquest_embargos.
                         boolean hasNone = false;
-                        for (String filterString : submissionListColumn.getFilters()) {
+                        for (int f = 0; f < filters.size(); f++) {
+                            String filterString = filters.get(f);
+
                             if (filterString != null) {
-                                sqlBuilder.append(" value = '").append(escapeString(filterString, false, true)).append("' OR");
+                                sqlBuilder.append(" value = ").bind(QueryParameter.value(columnId, f)).append(" OR");
                             }
 
                             if (appFilterConfig.getEmbargoTypeNone() != null) {
@@ -921,15 +1403,17 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                 case "submissionTypes.name":
                     // This is not a select column but is instead only a custom filter.
-                    if (submissionListColumn.getFilters().size() > 0) {
-                        sqlBuilder = new StringBuilder();
+                    if (filters.size() > 0) {
+                        sqlBuilder = new QueryFragment();
                         sqlBuilder.append("s.id IN (SELECT submission_id FROM submission_field_values WHERE field_values_id IN (select id FROM field_value WHERE field_predicate_id IN (SELECT id FROM field_predicate WHERE value = 'submission_type') and (");
 
                         // Note that the OR query is used inside the column, represented by submission_type.
                         boolean hasNone = false;
-                        for (String filterString : submissionListColumn.getFilters()) {
+                        for (int f = 0; f < filters.size(); f++) {
+                            String filterString = filters.get(f);
+
                             if (filterString != null) {
-                                sqlBuilder.append(" value = '").append(escapeString(filterString, false, true)).append("' OR");
+                                sqlBuilder.append(" value = ").bind(QueryParameter.value(columnId, f)).append(" OR");
                             }
 
                             if (appFilterConfig.getSubmissionTypeNone() != null) {
@@ -955,14 +1439,14 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "exclude":
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.id");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.id");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
+                    for (int f = 0; f < filters.size(); f++) {
                         if (sqlWheresExcludeBuilder.length() > 0) {
-                            sqlWheresExcludeBuilder.append(" AND s.id <> ").append(filterString);
+                            sqlWheresExcludeBuilder.append(" AND s.id <> ").bind(QueryParameter.id(columnId, f));
                         } else {
-                            sqlWheresExcludeBuilder.append(" s.id <> ").append(filterString);
+                            sqlWheresExcludeBuilder.append(" s.id <> ").bind(QueryParameter.id(columnId, f));
                         }
                     }
 
@@ -970,11 +1454,11 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "submissionDate":
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.submission_date");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.submission_date");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = buildSubmissionDateFieldString("submission_date", filterString);
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = buildSubmissionDateFieldString("submission_date", columnId, f, filters.get(f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "submissionDate").add(sqlBuilder);
                     }
@@ -983,11 +1467,11 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "approveApplicationDate":
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.approve_application_date");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.approve_application_date");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = buildSubmissionDateFieldString("approve_application_date", filterString);
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = buildSubmissionDateFieldString("approve_application_date", columnId, f, filters.get(f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "approveApplicationDate").add(sqlBuilder);
                     }
@@ -996,11 +1480,11 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "approveAdvisorDate":
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.approve_advisor_date");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.approve_advisor_date");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = buildSubmissionDateFieldString("approve_advisor_date", filterString);
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = buildSubmissionDateFieldString("approve_advisor_date", columnId, f, filters.get(f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "approveAdvisorDate").add(sqlBuilder);
                     }
@@ -1009,18 +1493,18 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 case "approveEmbargoDate":
 
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.approve_embargo_date");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.approve_embargo_date");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = buildSubmissionDateFieldString("approve_embargo_date", filterString);
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = buildSubmissionDateFieldString("approve_embargo_date", columnId, f, filters.get(f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "approveEmbargoDate").add(sqlBuilder);
                     }
 
                     break;
                 case "customActionValues":
-                    sqlBuilder = new StringBuilder()
+                    StringBuilder customActionJoinBuilder = new StringBuilder()
                         .append("\nLEFT JOIN")
                         .append("\n   (SELECT submission_id, value, label")
                         .append("\n   FROM submission_custom_action_values scav")
@@ -1028,12 +1512,12 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                         .append("\n   LEFT JOIN custom_action_definition cad ON cav.definition_id = cad.id) scavcavcad")
                         .append("\n   ON scavcavcad.submission_id = s.id");
 
-                    sqlJoinsBuilder.append(sqlBuilder);
-                    sqlCountSelectBuilder.append(sqlBuilder);
+                    sqlJoinsBuilder.append(customActionJoinBuilder);
+                    sqlCountSelectBuilder.append(customActionJoinBuilder);
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("scavcavcad.value = true AND scavcavcad.label = '" + filterString + "'");
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("scavcavcad.value = true AND scavcavcad.label = ").bind(QueryParameter.value(columnId, f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "customActionValues").add(sqlBuilder);
                     }
@@ -1042,20 +1526,20 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                 case "depositURL":
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.depositurl");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.depositurl");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(s.depositurl) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(s.depositurl) LIKE ").bind(QueryParameter.like(columnId, f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "depositurl").add(sqlBuilder);
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(s.depositurl) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(s.depositurl) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
@@ -1063,20 +1547,20 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
                 case "reviewerNotes":
                     if (submissionListColumn.getSortOrder() > 0) {
-                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, "s.reviewer_notes");
+                        setColumnOrdering(submissionListColumn.getSort(), sqlAliasBuilders, sqlOrderBysBuilder, orderKeys, "s.reviewer_notes");
                     }
 
-                    for (String filterString : submissionListColumn.getFilters()) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(s.reviewer_notes) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < filters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(s.reviewer_notes) LIKE ").bind(QueryParameter.like(columnId, f));
                         sqlWhereBuilderList.add(sqlBuilder);
                         getFromBuildersMap(sqlCountWhereFilterBuilders, "reviewer_notes").add(sqlBuilder);
                     }
 
                     // all column search filter
-                    for (String filterString : allColumnSearchFilters) {
-                        sqlBuilder = new StringBuilder();
-                        sqlBuilder.append("LOWER(s.reviewer_notes) LIKE '%").append(escapeString(filterString)).append("%'");
+                    for (int f = 0; f < allColumnSearchFilters.size(); f++) {
+                        sqlBuilder = new QueryFragment();
+                        sqlBuilder.append("LOWER(s.reviewer_notes) LIKE ").bind(QueryParameter.allColumnLike(f));
                         sqlAllColumnsWhereBuilderList.add(sqlBuilder);
                     }
 
@@ -1086,11 +1570,16 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
                 }
 
                 if (sqlWhereBuilderList.size() > 0) {
-                    sqlColumnsBuilders.put(submissionListColumn.getId(), sqlWhereBuilderList);
+                    sqlColumnsBuilders.put(columnId, sqlWhereBuilderList);
                 }
             }
         }
 
+        // when seeking, s.id is the final tie breaker
+        if (inputs.isKeyset() && orderKeys.stream().noneMatch(orderKey -> orderKey.getExpression().equals("s.id"))) {
+            orderKeys.add(new OrderKey("s.id", Sort.ASC));
+        }
+
         // Complete the select clause.
         sqlAliasBuilders.forEach(string -> {
             sqlSelectBuilder.append(string).append(", ");
@@ -1105,14 +1594,14 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
         }
 
         // build WHERE query such that OR is used for conditions inside a column and AND is used across each different column.
-        sqlBuilder = new StringBuilder();
+        sqlBuilder = new QueryFragment();
         if (sqlColumnsBuilders.size() > 0 || sqlAllColumnsWhereBuilderList.size() > 0 || sqlWheresExcludeBuilder.length() > 0) {
             sqlBuilder.append("\nWHERE ");
 
-            for (Entry<Long, ArrayList<StringBuilder>> list : sqlColumnsBuilders.entrySet()) {
+            for (Entry<Long, ArrayList<QueryFragment>> list : sqlColumnsBuilders.entrySet()) {
                 sqlBuilder.append("(");
 
-                for (StringBuilder builder : list.getValue()) {
+                for (QueryFragment builder : list.getValue()) {
                     sqlBuilder.append("(").append(builder).append(") OR ");
                 }
 
@@ -1125,7 +1614,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
             if (sqlAllColumnsWhereBuilderList.size() > 0) {
                 sqlBuilder.append("(");
 
-                for (StringBuilder builder : sqlAllColumnsWhereBuilderList) {
+                for (QueryFragment builder : sqlAllColumnsWhereBuilderList) {
                     sqlBuilder.append("(").append(builder).append(") OR ");
                 }
 
@@ -1189,36 +1678,118 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
             }
         }
 
-        String sqlQuery = sqlSelectBuilder.toString() + sqlJoinsBuilder.toString() + sqlBuilder.toString();
-        String sqlCountQuery = "SELECT COUNT(DISTINCT s.id) FROM submission s";
+        QueryFragment sqlQuery = new QueryFragment()
+            .append(sqlSelectBuilder)
+            .append(sqlJoinsBuilder)
+            .append(sqlBuilder);
+
+        QueryFragment sqlCountQuery = new QueryFragment()
+            .append("SELECT COUNT(DISTINCT s.id) FROM submission s");
 
         // Use count query optimization only when there are fewer than 2 field values in the where clause.
         if (totalFieldValueConditions > 1) {
-            sqlCountQuery += sqlJoinsBuilder.toString() + sqlBuilder.toString();
+            sqlCountQuery.append(sqlJoinsBuilder).append(sqlBuilder);
         } else {
-            sqlCountQuery += sqlCountSelectBuilder.toString();
+            sqlCountQuery.append(sqlCountSelectBuilder);
         }
 
-        if (pageable != null) {
-            // determine the offset and limit of the query
-            int offset = pageable.getPageSize() * pageable.getPageNumber();
-            int limit = pageable.getPageSize();
-            sqlQuery += sqlOrderBysBuilder.toString() + "\nLIMIT " + limit + " OFFSET " + offset + ";";
+        if (inputs.isPaged()) {
+            // the offset and limit of the query are bound per request
+            sqlQuery.append(sqlOrderBysBuilder)
+                .append("\nLIMIT ").bind(QueryParameter.limit())
+                .append(" OFFSET ").bind(QueryParameter.offset());
         }
 
         logger.debug("QUERY:\n" + sqlQuery);
 
         logger.debug("COUNT QUERY:\n" + sqlCountQuery);
 
-        return new QueryStrings(sqlCountQuery, sqlQuery);
+        if (inputs.isKeyset()) {
+            // a multi-valued join gives a submission a row per value, so group the rows into one per submission with
+            // the first of its values in sort order as its key, which DISTINCT would not, repeating it across pages
+            QueryFragment sqlKeysetQuery = new QueryFragment().append("SELECT * FROM (SELECT s.id AS id");
+            StringBuilder sqlKeysetOrderBysBuilder = new StringBuilder("\nORDER BY");
+
+            for (int k = 0; k < orderKeys.size(); k++) {
+                OrderKey orderKey = orderKeys.get(k);
+
+                sqlKeysetQuery.append(orderKey.getSort() == Sort.DESC ? ", MAX(" : ", MIN(").append(orderKey.getExpression()).append(") AS k" + k);
+
+                // nulls are always ordered last so that the seek condition is the same on every database
+                sqlKeysetOrderBysBuilder.append(" CASE WHEN k").append(k).append(" IS NULL THEN 1 ELSE 0 END, k").append(k).append(" ").append(orderKey.getSort().name()).append(",");
+            }
+
+            sqlKeysetOrderBysBuilder.setLength(sqlKeysetOrderBysBuilder.length() - 1);
+
+            sqlKeysetQuery.append(" FROM submission s")
+                .append(sqlJoinsBuilder)
+                .append(sqlBuilder)
+                .append("\nGROUP BY s.id) q");
+
+            logger.debug("KEYSET QUERY:\n" + sqlKeysetQuery);
+
+            // the seek condition, order and limit are appended when bound
+            return new QueryShape(shapeKey, sqlCountQuery, sqlKeysetQuery, orderKeys, sqlKeysetOrderBysBuilder.toString());
+        }
+
+        return new QueryShape(shapeKey, sqlCountQuery, sqlQuery);
+    }
+
+    /**
+     * Whether a field value column can be sorted and filtered on its projected value.
+     *
+     * Degree dates sort by their parsed month and year, and date, checkbox and exact match filters compare each value
+     * on its own, so those keep joining the field values. A LIKE filter matches the joined values when it matches any
+     * one of them, except for a filter spanning the separator between two values.
+     */
+    private boolean isProjectable(SubmissionListColumn submissionListColumn, List<String> filters) {
+        String inputType = submissionListColumn.getInputType().getName();
+
+        if (inputType.equals("INPUT_DEGREEDATE")) {
+            return false;
+        }
+
+        return filters.isEmpty() || (!submissionListColumn.getExactMatch() && !inputType.equals("INPUT_DATE") && !inputType.equals("INPUT_CHECKBOX"));
+    }
+
+    /**
+     * Join the last action, from the submission list projection when it is enabled.
+     *
+     * @return true when the projection is joined, false when the action log is joined.
+     */
+    private boolean joinLastAction(StringBuilder sqlJoinsBuilder, QueryFragment sqlCountSelectBuilder) {
+        if (submissionListRowService.isEnabled()) {
+            joinSubmissionListRow(sqlJoinsBuilder, sqlCountSelectBuilder);
+            return true;
+        }
+
+        if (!sqlJoinsBuilder.toString().contains("LEFT JOIN action_log al ON al.id=s.last_action_id")) {
+            sqlJoinsBuilder.append("\nLEFT JOIN action_log al ON al.id=s.last_action_id");
+            sqlCountSelectBuilder.append("\nLEFT JOIN action_log al ON al.id=s.last_action_id");
+        }
+
+        return false;
+    }
+
+    private void joinSubmissionListRow(StringBuilder sqlJoinsBuilder, QueryFragment sqlCountSelectBuilder) {
+        String join = "\nLEFT JOIN " + SubmissionListRowService.TABLE + " slr ON slr.submission_id=s.id";
+
+        if (!sqlJoinsBuilder.toString().contains(join)) {
+            sqlJoinsBuilder.append(join);
+        }
+
+        if (sqlCountSelectBuilder != null && !sqlCountSelectBuilder.toString().contains(join)) {
+            sqlCountSelectBuilder.append(join);
+        }
     }
 
-    public void setColumnOrdering(Sort sort, List<String> sqlAliasBuilders, StringBuilder sqlOrderBysBuilder, String value) {
+    private void setColumnOrdering(Sort sort, List<String> sqlAliasBuilders, StringBuilder sqlOrderBysBuilder, List<OrderKey> orderKeys, String value) {
         if (sort == Sort.ASC || sort == Sort.DESC) {
             if (!sqlAliasBuilders.contains(value)) {
                 sqlAliasBuilders.add(value);
             }
             sqlOrderBysBuilder.append("\n ").append(value).append(" ").append(sort.name()).append(",");
+            orderKeys.add(new OrderKey(value, sort));
         }
     }
 
@@ -1239,19 +1810,23 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
      * @param sort The sort direction.
      * @param sqlAliasBuilders The SQL select alias builder string.
      * @param sqlOrderBysBuilder The SQL order by builder string.
+     * @param orderKeys The sort keys, used when seeking through the results.
      * @param table The table to select from when joining on the assumption that the value is "table".value.
      */
-    public void setColumnOrderingForMonthYearDateFormat(Sort sort, List<String> sqlAliasBuilders, StringBuilder sqlOrderBysBuilder, String table) {
+    private void setColumnOrderingForMonthYearDateFormat(Sort sort, List<String> sqlAliasBuilders, StringBuilder sqlOrderBysBuilder, List<OrderKey> orderKeys, String table) {
         if (sort == Sort.ASC || sort == Sort.DESC) {
             StringBuilder value = new StringBuilder(table).append(".value, ");
+            StringBuilder date = new StringBuilder();
 
             if ("h2".equals(vireoDatabaseConfig.getPlatform())) {
-                value.append("PARSEDATETIME(").append(table).append(".value, 'MMM yyyy') AS ");
+                date.append("PARSEDATETIME(").append(table).append(".value, 'MMM yyyy')");
             } else {
-                value.append("CAST(REPLACE(").append(table).append(".value, ' ', ' 1, ') AS DATE) AS ");
+                date.append("CAST(REPLACE(").append(table).append(".value, ' ', ' 1, ') AS DATE)");
             }
 
-            value.append(table).append("_date");
+            value.append(date).append(" AS ").append(table).append("_date");
+
+            orderKeys.add(new OrderKey(date.toString(), sort));
 
             if (!sqlAliasBuilders.contains(value.toString())) {
                 sqlAliasBuilders.add(value.toString());
@@ -1267,27 +1842,28 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
     }
 
     /**
-     * Build a submission date field string given some filter.
+     * Build a submission date field condition given some filter.
      *
      * This is form submission date fields that are already stored in the SQL date format.
      *
      * @param column The column name to filter.
+     * @param columnId The submission list column id the filter belongs to.
+     * @param index The position of the filter within the column's filters.
      * @param filter The filter.
-     * @return A constructed string builder appropriately casting the date.
+     * @return A constructed query fragment appropriately casting the date.
      */
-    private StringBuilder buildSubmissionDateFieldString(String column, String filter) {
+    private QueryFragment buildSubmissionDateFieldString(String column, Long columnId, int index, String filter) {
         if (filter.contains("|")) {
-            String[] dates = filter.split(Pattern.quote("|"));
-            return new StringBuilder()
+            return new QueryFragment()
                 .append("s.").append(column)
-                .append(" BETWEEN CAST('").append(dates[0])
-                .append("' AS DATE) AND CAST('").append(dates[1])
-                .append("' AS DATE)");
+                .append(" BETWEEN CAST(").bind(QueryParameter.rangeStart(columnId, index))
+                .append(" AS DATE) AND CAST(").bind(QueryParameter.rangeEnd(columnId, index))
+                .append(" AS DATE)");
         }
-        return new StringBuilder()
+        return new QueryFragment()
             .append("s.").append(column)
-            .append(" = CAST('").append(filter)
-            .append("' AS DATE)");
+            .append(" = CAST(").bind(QueryParameter.value(columnId, index))
+            .append(" AS DATE)");
     }
 
     /**
@@ -1298,14 +1874,27 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
      *
      * @return An array of the builders for the given key.
      */
-    private ArrayList<StringBuilder> getFromBuildersMap(Map<String, ArrayList<StringBuilder>> map, String key) {
+    private ArrayList<QueryFragment> getFromBuildersMap(Map<String, ArrayList<QueryFragment>> map, String key) {
         if (!map.containsKey(key)) {
-            map.put(key, new ArrayList<StringBuilder>());
+            map.put(key, new ArrayList<QueryFragment>());
         }
 
         return map.get(key);
     }
 
+    /**
+     * Digest a query shape key into a cursor fingerprint, which unlike a hash code does not collide between shapes.
+     */
+    private static String digest(String shapeKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest(shapeKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Add SQL escape protection for string, defaulting to forcing lower case.
      *
@@ -1316,7 +1905,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
      * @return
      *   An escaped string.
      */
-    private String escapeString(String original) {
+    private static String escapeString(String original) {
         return escapeString(original, true, false);
     }
 
@@ -1332,7 +1921,7 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
      * @return
      *   An escaped string.
      */
-    private String escapeString(String original, boolean lower, boolean quoted) {
+    private static String escapeString(String original, boolean lower, boolean quoted) {
         String escaped = original.replace("\\", "\\\\");
 
         if (!quoted) {
@@ -1347,21 +1936,385 @@ public class SubmissionRepoImpl extends AbstractWeaverRepoImpl<Submission, Submi
 
         private final String countQuery;
 
+        private final Object[] countParameters;
+
         private final String query;
 
-        private QueryStrings(String countQuery, String query) {
+        private final Object[] parameters;
+
+        private final List<OrderKey> orderKeys;
+
+        private final String fingerprint;
+
+        private QueryStrings(String countQuery, Object[] countParameters, String query, Object[] parameters) {
+            this(countQuery, countParameters, query, parameters, Collections.emptyList(), null);
+        }
+
+        private QueryStrings(String countQuery, Object[] countParameters, String query, Object[] parameters, List<OrderKey> orderKeys, String fingerprint) {
             this.countQuery = countQuery;
+            this.countParameters = countParameters;
             this.query = query;
+            this.parameters = parameters;
+            this.orderKeys = orderKeys;
+            this.fingerprint = fingerprint;
         }
 
         public String getCountQuery() {
             return countQuery;
         }
 
+        public Object[] getCountParameters() {
+            return countParameters;
+        }
+
         public String getQuery() {
             return query;
         }
 
+        public Object[] getParameters() {
+            return parameters;
+        }
+
+        public List<OrderKey> getOrderKeys() {
+            return orderKeys;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+    }
+
+    /**
+     * A compiled dynamic submission query whose filter values are supplied as bind parameters.
+     *
+     * The SQL text of a shape never changes, allowing the database to reuse its prepared statement plans.
+     */
+    private class QueryShape {
+
+        private final String fingerprint;
+
+        private final String countQuery;
+
+        private final List<QueryParameter> countParameters;
+
+        private final String query;
+
+        private final List<QueryParameter> parameters;
+
+        private final List<OrderKey> orderKeys;
+
+        private final String keysetOrderBy;
+
+        private QueryShape(String shapeKey, QueryFragment countQuery, QueryFragment query) {
+            this(shapeKey, countQuery, query, null, null);
+        }
+
+        private QueryShape(String shapeKey, QueryFragment countQuery, QueryFragment query, List<OrderKey> orderKeys, String keysetOrderBy) {
+            this.fingerprint = digest(shapeKey);
+            this.countQuery = countQuery.toString();
+            this.countParameters = List.copyOf(countQuery.getParameters());
+            this.query = query.toString();
+            this.parameters = List.copyOf(query.getParameters());
+            this.orderKeys = orderKeys != null ? List.copyOf(orderKeys) : null;
+            this.keysetOrderBy = keysetOrderBy;
+        }
+
+        private QueryStrings bind(QueryInputs inputs) {
+            Object[] countValues = resolve(countParameters, inputs);
+            Object[] values = resolve(parameters, inputs);
+
+            if (orderKeys == null) {
+                return new QueryStrings(countQuery, countValues, query, values);
+            }
+
+            StringBuilder keysetQuery = new StringBuilder(query);
+            List<Object> keysetValues = new ArrayList<>(Arrays.asList(values));
+
+            List<Object> cursorValues = decodeCursor(inputs.getCursor(), fingerprint, orderKeys.size());
+            if (cursorValues != null) {
+                keysetQuery.append("\nWHERE ").append(buildSeekCondition(cursorValues, keysetValues));
+            }
+
+            // fetch one extra row to learn whether another page follows
+            keysetQuery.append(keysetOrderBy).append("\nLIMIT ?");
+            keysetValues.add(inputs.getSize() + 1);
+
+            return new QueryStrings(countQuery, countValues, keysetQuery.toString(), keysetValues.toArray(), orderKeys, fingerprint);
+        }
+
+        /**
+         * Build the condition selecting rows ordered after the cursor.
+         *
+         * Expands to (k0 after v0) OR (k0 = v0 AND k1 after v1) OR ..., where nulls are ordered last.
+         * As nothing orders after a null within an equal prefix, a key whose cursor value is null contributes no term.
+         *
+         * @param cursorValues The sort key values of the last row of the previous page.
+         * @param values The bound parameters, to which the cursor values are appended.
+         * @return The seek condition.
+         */
+        private String buildSeekCondition(List<Object> cursorValues, List<Object> values) {
+            StringBuilder seek = new StringBuilder("(");
+
+            for (int i = 0; i < orderKeys.size(); i++) {
+                Object cursorValue = cursorValues.get(i);
+
+                if (cursorValue == null) {
+                    continue;
+                }
+
+                seek.append("(");
+
+                for (int j = 0; j < i; j++) {
+                    if (cursorValues.get(j) == null) {
+                        seek.append("k").append(j).append(" IS NULL AND ");
+                    } else {
+                        seek.append("k").append(j).append(" = ? AND ");
+                        values.add(cursorValues.get(j));
+                    }
+                }
+
+                seek.append("(k").append(i).append(orderKeys.get(i).getSort() == Sort.DESC ? " < ?" : " > ?")
+                    .append(" OR k").append(i).append(" IS NULL)) OR ");
+                values.add(cursorValue);
+            }
+
+            // remove last " OR "
+            seek.setLength(seek.length() - 4);
+
+            return seek.append(")").toString();
+        }
+
+        private Object[] resolve(List<QueryParameter> queryParameters, QueryInputs inputs) {
+            Object[] values = new Object[queryParameters.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = queryParameters.get(i).resolve(inputs);
+            }
+            return values;
+        }
+
+    }
+
+    /**
+     * A piece of SQL text along with the parameters bound to its placeholders, in order.
+     */
+    private static class QueryFragment {
+
+        private final StringBuilder sql = new StringBuilder();
+
+        private final List<QueryParameter> parameters = new ArrayList<>();
+
+        private QueryFragment append(Object value) {
+            sql.append(value);
+            return this;
+        }
+
+        private QueryFragment append(QueryFragment fragment) {
+            sql.append(fragment.sql);
+            parameters.addAll(fragment.parameters);
+            return this;
+        }
+
+        private QueryFragment bind(QueryParameter parameter) {
+            sql.append("?");
+            parameters.add(parameter);
+            return this;
+        }
+
+        private int length() {
+            return sql.length();
+        }
+
+        /**
+         * Trim trailing SQL text, such as a dangling " OR ". Never removes a placeholder.
+         */
+        private void setLength(int length) {
+            sql.setLength(length);
+        }
+
+        private List<QueryParameter> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            return sql.toString();
+        }
+
+    }
+
+    /**
+     * The filter values of a single request, in the order used when compiling and binding a query shape.
+     */
+    private static class QueryInputs {
+
+        private final Map<Long, List<String>> columnFilters = new HashMap<>();
+
+        private final List<String> allColumnFilters;
+
+        private final QueryPaging paging;
+
+        private QueryInputs(List<SubmissionListColumn> submissionListColumns, Set<String> allColumnSearchFilters, QueryPaging paging) {
+            submissionListColumns.forEach(submissionListColumn -> {
+                columnFilters.put(submissionListColumn.getId(), new ArrayList<>(submissionListColumn.getFilters()));
+            });
+            this.allColumnFilters = new ArrayList<>(allColumnSearchFilters);
+            this.paging = paging;
+        }
+
+        private List<String> getFilters(SubmissionListColumn submissionListColumn) {
+            return columnFilters.getOrDefault(submissionListColumn.getId(), Collections.emptyList());
+        }
+
+        private String getFilter(Long columnId, int index) {
+            return columnFilters.get(columnId).get(index);
+        }
+
+        private List<String> getAllColumnFilters() {
+            return allColumnFilters;
+        }
+
+        private boolean isPaged() {
+            return paging.getPageable() != null;
+        }
+
+        private boolean isKeyset() {
+            return paging.getSize() != null;
+        }
+
+        private Pageable getPageable() {
+            return paging.getPageable();
+        }
+
+        private String getCursor() {
+            return paging.getCursor();
+        }
+
+        private Integer getSize() {
+            return paging.getSize();
+        }
+
+    }
+
+    /**
+     * How a dynamic query is paged: by page offset, by seeking from a cursor, or not at all.
+     */
+    private static class QueryPaging {
+
+        private final Pageable pageable;
+
+        private final String cursor;
+
+        private final Integer size;
+
+        private QueryPaging(Pageable pageable, String cursor, Integer size) {
+            this.pageable = pageable;
+            this.cursor = cursor;
+            this.size = size;
+        }
+
+        private Pageable getPageable() {
+            return pageable;
+        }
+
+        private String getCursor() {
+            return cursor;
+        }
+
+        private Integer getSize() {
+            return size;
+        }
+
+    }
+
+    /**
+     * A sort key of a dynamic query, as an expression usable in the WHERE clause.
+     */
+    private static class OrderKey {
+
+        private final String expression;
+
+        private final Sort sort;
+
+        private OrderKey(String expression, Sort sort) {
+            this.expression = expression;
+            this.sort = sort;
+        }
+
+        private String getExpression() {
+            return expression;
+        }
+
+        private Sort getSort() {
+            return sort;
+        }
+
+    }
+
+    /**
+     * The total count of a dynamic query, along with when it was counted.
+     */
+    private static class CachedCount {
+
+        private final Long total;
+
+        private final long timestamp;
+
+        private CachedCount(Long total, long timestamp) {
+            this.total = total;
+            this.timestamp = timestamp;
+        }
+
+        private Long getTotal() {
+            return total;
+        }
+
+        private long getTimestamp() {
+            return timestamp;
+        }
+
+    }
+
+    /**
+     * Resolves the value of a single bind parameter from the inputs of a request.
+     */
+    @FunctionalInterface
+    private interface QueryParameter {
+
+        Object resolve(QueryInputs inputs);
+
+        static QueryParameter value(Long columnId, int index) {
+            return inputs -> inputs.getFilter(columnId, index);
+        }
+
+        static QueryParameter like(Long columnId, int index) {
+            return inputs -> "%" + escapeString(inputs.getFilter(columnId, index)) + "%";
+        }
+
+        static QueryParameter id(Long columnId, int index) {
+            return inputs -> Long.valueOf(inputs.getFilter(columnId, index).trim());
+        }
+
+        static QueryParameter rangeStart(Long columnId, int index) {
+            return inputs -> inputs.getFilter(columnId, index).split(Pattern.quote("|"))[0];
+        }
+
+        static QueryParameter rangeEnd(Long columnId, int index) {
+            return inputs -> inputs.getFilter(columnId, index).split(Pattern.quote("|"))[1];
+        }
+
+        static QueryParameter allColumnLike(int index) {
+            return inputs -> "%" + escapeString(inputs.getAllColumnFilters().get(index)) + "%";
+        }
+
+        static QueryParameter limit() {
+            return inputs -> inputs.getPageable().getPageSize();
+        }
+
+        static QueryParameter offset() {
+            return inputs -> inputs.getPageable().getPageSize() * inputs.getPageable().getPageNumber();
+        }
+
     }
 
 }
@@ -17,6 +17,7 @@ import org.tdl.vireo.model.WorkflowStep;
 import org.tdl.vireo.model.inheritance.HeritableComponent;
 import org.tdl.vireo.model.repo.FieldProfileRepo;
 import org.tdl.vireo.model.repo.NoteRepo;
+import org.tdl.vireo.model.repo.OrganizationHierarchyRepo;
 import org.tdl.vireo.model.repo.OrganizationRepo;
 import org.tdl.vireo.model.repo.WorkflowStepRepo;
 import org.tdl.vireo.model.repo.custom.WorkflowStepRepoCustom;
@@ -39,12 +40,15 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
     @Autowired
     private OrganizationRepo organizationRepo;
 
+    @Autowired
+    private OrganizationHierarchyRepo organizationHierarchyRepo;
+
     @Override
     public WorkflowStep create(String name, Organization originatingOrganization) {
         WorkflowStep workflowStep = workflowStepRepo.save(new WorkflowStep(name, originatingOrganization));
         originatingOrganization.addOriginalWorkflowStep(workflowStep);
         organizationRepo.save(originatingOrganization);
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(originatingOrganization);
         return workflowStepRepo.findById(workflowStep.getId()).get();
     }
 
@@ -136,7 +140,7 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
             organizationRepo.save(requestingOrg);
         }
 
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(requestingOrg);
     }
 
     public WorkflowStep update(WorkflowStep pendingWorkflowStep, Organization requestingOrganization) throws WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
@@ -255,7 +259,8 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
                 // in descendant organizations, have WSs that originated from
                 // the step being overridden now originate from the override
                 logger.info("In descendant orgs, have WSs that originated from the step being overridden now originate from the override:");
-                for (Organization organization : organizationRepo.getDescendantOrganizations(requestingOrganization)) {
+                Set<Organization> descendantOrganizations = organizationRepo.getDescendantOrganizations(requestingOrganization);
+                for (Organization organization : descendantOrganizations) {
                     logger.info("\t" + organization.getName() + "(" + organization.getId() + ").  Therein orginate WSs: ");
                     for (WorkflowStep ws : organization.getOriginalWorkflowSteps()) {
                         logger.info("\t\t" + ws.getName() + "(" + ws.getId() + ")");
@@ -263,7 +268,7 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
                 }
 
                 Set<WorkflowStep> workflowStepsToSave = new HashSet<WorkflowStep>();
-                for (Organization organization : organizationRepo.getDescendantOrganizations(requestingOrganization)) {
+                for (Organization organization : descendantOrganizations) {
                     for (WorkflowStep ws : organization.getOriginalWorkflowSteps()) {
                         if (ws.getOriginatingWorkflowStep() != null && ws.getOriginatingWorkflowStep().equals(persistedWorkflowStep)) {
                             ws.setOriginatingWorkflowStep(newWorkflowStep);
@@ -304,7 +309,7 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
             }
 
         }
-        organizationRepo.broadcast(organizationRepo.findAllByOrderByIdAsc());
+        organizationRepo.broadcastUpdate(requestingOrganization);
         return resultingWorkflowStep;
     }
 
@@ -314,7 +319,8 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
         // allows for delete by iterating through findAll, while still deleting descendents
         if (workflowStepRepo.findById(workflowStep.getId()).isPresent()) {
 
-            Organization originatingOrganization = workflowStep.getOriginatingOrganization();
+            // the organization is read for its subtree, the workflow step's organization has not loaded its children
+            Organization originatingOrganization = organizationRepo.findById(workflowStep.getOriginatingOrganization().getId()).get();
 
             originatingOrganization.removeOriginalWorkflowStep(workflowStep);
 
@@ -381,21 +387,13 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
     @Override
     public List<WorkflowStep> getDescendantsOfStepUnderOrganization(WorkflowStep workflowStep, Organization organization) {
 
-        List<WorkflowStep> allDescendants = getDescendantsOfStep(workflowStep);
+        Set<Long> descendantOrganizationIds = new HashSet<Long>(organizationHierarchyRepo.findDescendantIds(organization.getId()));
 
         List<WorkflowStep> localDescendants = new ArrayList<WorkflowStep>();
 
-        for (Organization org : organization.getChildrenOrganizations()) {
-            for (WorkflowStep ws : org.getOriginalWorkflowSteps()) {
-                if (allDescendants.contains(ws) && !localDescendants.contains(ws)) {
-                    localDescendants.add(ws);
-                }
-            }
-
-            for (WorkflowStep candidateDescendant : getDescendantsOfStepUnderOrganization(workflowStep, org)) {
-                if (!localDescendants.contains(candidateDescendant)) {
-                    localDescendants.add(candidateDescendant);
-                }
+        for (WorkflowStep ws : getDescendantsOfStep(workflowStep)) {
+            if (descendantOrganizationIds.contains(ws.getOriginatingOrganization().getId()) && !localDescendants.contains(ws)) {
+                localDescendants.add(ws);
             }
         }
 
@@ -404,14 +402,7 @@ public class WorkflowStepRepoImpl extends AbstractWeaverRepoImpl<WorkflowStep, W
 
     @Override
     public List<Organization> getContainingDescendantOrganization(Organization organization, WorkflowStep workflowStep) {
-        List<Organization> descendantOrganizationsContainingWorkflowStep = new ArrayList<Organization>();
-        if (organization.getAggregateWorkflowSteps().contains(workflowStep)) {
-            descendantOrganizationsContainingWorkflowStep.add(organization);
-        }
-        organization.getChildrenOrganizations().forEach(descendantOrganization -> {
-            descendantOrganizationsContainingWorkflowStep.addAll(getContainingDescendantOrganization(descendantOrganization, workflowStep));
-        });
-        return descendantOrganizationsContainingWorkflowStep;
+        return organizationRepo.findSubtreeByAggregateWorkflowStepsId(organization.getId(), workflowStep.getId());
     }
 
     @Override
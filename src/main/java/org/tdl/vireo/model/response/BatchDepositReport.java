@@ -0,0 +1,106 @@
+package org.tdl.vireo.model.response;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import edu.tamu.weaver.response.ApiView;
+
+/**
+ * The outcome of a batch publish, with the result of each submission in the order they were queried.
+ *
+ * A submission failing to deposit does not stop the others, so the report may hold both deposited and failed
+ * submissions.
+ */
+public class BatchDepositReport {
+
+    @JsonView(ApiView.Partial.class)
+    private final List<SubmissionResult> results;
+
+    public BatchDepositReport(List<SubmissionResult> results) {
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    public List<SubmissionResult> getResults() {
+        return results;
+    }
+
+    @JsonView(ApiView.Partial.class)
+    public long getDeposited() {
+        return results.stream().filter(SubmissionResult::isDeposited).count();
+    }
+
+    @JsonView(ApiView.Partial.class)
+    public long getFailed() {
+        return results.size() - getDeposited();
+    }
+
+    /**
+     * The result of depositing a single submission.
+     */
+    public static class SubmissionResult {
+
+        @JsonView(ApiView.Partial.class)
+        private final Long submissionId;
+
+        @JsonView(ApiView.Partial.class)
+        private final boolean deposited;
+
+        @JsonView(ApiView.Partial.class)
+        private final String depositUrl;
+
+        @JsonView(ApiView.Partial.class)
+        private final int attempts;
+
+        @JsonView(ApiView.Partial.class)
+        private final String message;
+
+        private SubmissionResult(Long submissionId, boolean deposited, String depositUrl, int attempts, String message) {
+            this.submissionId = submissionId;
+            this.deposited = deposited;
+            this.depositUrl = depositUrl;
+            this.attempts = attempts;
+            this.message = message;
+        }
+
+        public static SubmissionResult deposited(Long submissionId, String depositUrl, int attempts) {
+            return new SubmissionResult(submissionId, true, depositUrl, attempts, null);
+        }
+
+        public static SubmissionResult failed(Long submissionId, int attempts, String message) {
+            return new SubmissionResult(submissionId, false, null, attempts, message);
+        }
+
+        public Long getSubmissionId() {
+            return submissionId;
+        }
+
+        public boolean isDeposited() {
+            return deposited;
+        }
+
+        /**
+         * @return the URL of the deposited item, null when the deposit failed
+         */
+        public String getDepositUrl() {
+            return depositUrl;
+        }
+
+        /**
+         * @return the number of times the deposit was attempted, 0 when the submission could not be packaged
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * @return why the deposit failed, null when it succeeded
+         */
+        public String getMessage() {
+            return message;
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.tdl.vireo.model.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import edu.tamu.weaver.response.ApiView;
+
+/**
+ * A page of results selected by seeking from a cursor rather than by offset.
+ *
+ * The cursor is opaque to clients and is passed back to request the following page.
+ */
+public class KeysetPage<T> {
+
+    @JsonView(ApiView.Partial.class)
+    private final List<T> content;
+
+    @JsonView(ApiView.Partial.class)
+    private final int size;
+
+    @JsonView(ApiView.Partial.class)
+    private final String cursor;
+
+    @JsonView(ApiView.Partial.class)
+    private final boolean last;
+
+    @JsonView(ApiView.Partial.class)
+    private final Long totalElements;
+
+    public KeysetPage(List<T> content, int size, String cursor, boolean last, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.cursor = cursor;
+        this.last = last;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the cursor of the following page, null when this is the last page
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    /**
+     * @return the total number of results, null when not requested
+     */
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+}
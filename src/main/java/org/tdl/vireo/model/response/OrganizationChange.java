@@ -0,0 +1,74 @@
+package org.tdl.vireo.model.response;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonView;
+
+import edu.tamu.weaver.response.ApiView;
+
+/**
+ * A change to the organization hierarchy, broadcast in place of the whole hierarchy.
+ *
+ * Versions increase by one with every change an instance broadcasts, so a client that sees a version skipped knows it
+ * missed a change and should reload the organizations. Each instance counts its own versions, from its own broker, so a
+ * client that sees a change from another source, as after reconnecting to another instance or a restart, reloads too.
+ */
+public class OrganizationChange {
+
+    @JsonView(ApiView.Partial.class)
+    private final String source;
+
+    @JsonView(ApiView.Partial.class)
+    private final long version;
+
+    @JsonView(ApiView.Partial.class)
+    private final Set<Long> created;
+
+    @JsonView(ApiView.Partial.class)
+    private final Set<Long> updated;
+
+    @JsonView(ApiView.Partial.class)
+    private final Set<Long> deleted;
+
+    public OrganizationChange(String source, long version, Set<Long> created, Set<Long> updated, Set<Long> deleted) {
+        this.source = source;
+        this.version = version;
+        this.created = Collections.unmodifiableSet(created);
+        this.updated = Collections.unmodifiableSet(updated);
+        this.deleted = Collections.unmodifiableSet(deleted);
+    }
+
+    /**
+     * @return the instance that broadcast the change, whose versions it is numbered in
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the ids of the organizations created
+     */
+    public Set<Long> getCreated() {
+        return created;
+    }
+
+    /**
+     * @return the ids of the organizations whose own or inherited properties changed
+     */
+    public Set<Long> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return the ids of the organizations deleted
+     */
+    public Set<Long> getDeleted() {
+        return deleted;
+    }
+
+}
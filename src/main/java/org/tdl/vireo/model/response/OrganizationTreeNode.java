@@ -0,0 +1,75 @@
+package org.tdl.vireo.model.response;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.tdl.vireo.model.OrganizationCategory;
+import org.tdl.vireo.view.TreeOrganizationView;
+
+/**
+ * An organization in the organization tree, built from a single query over the hierarchy rather than by loading each
+ * organization entity.
+ */
+public class OrganizationTreeNode implements TreeOrganizationView {
+
+    private final Long id;
+
+    private final String name;
+
+    private final OrganizationCategory category;
+
+    private final Boolean acceptsSubmissions;
+
+    private TreeOrganizationView parentOrganization;
+
+    private final Set<TreeOrganizationView> childrenOrganizations = new LinkedHashSet<TreeOrganizationView>();
+
+    public OrganizationTreeNode(Long id, String name, OrganizationCategory category, Boolean acceptsSubmissions) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.acceptsSubmissions = acceptsSubmissions;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public OrganizationCategory getCategory() {
+        return category;
+    }
+
+    @Override
+    public Boolean getAcceptsSubmissions() {
+        return acceptsSubmissions;
+    }
+
+    @Override
+    public TreeOrganizationView getParentOrganization() {
+        return parentOrganization;
+    }
+
+    @Override
+    public Set<TreeOrganizationView> getChildrenOrganizations() {
+        return childrenOrganizations;
+    }
+
+    /**
+     * Attach a child, setting this node as its parent.
+     *
+     * @param child
+     *            The child node.
+     */
+    public void addChildOrganization(OrganizationTreeNode child) {
+        child.parentOrganization = this;
+        childrenOrganizations.add(child);
+    }
+
+}
@@ -0,0 +1,23 @@
+package org.tdl.vireo.model.validation;
+
+import edu.tamu.weaver.validation.model.InputValidationType;
+import edu.tamu.weaver.validation.validators.BaseModelValidator;
+import edu.tamu.weaver.validation.validators.InputValidator;
+
+public class ExportJobValidator extends BaseModelValidator {
+
+    public ExportJobValidator() {
+        String userProperty = "user";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Export Job requires a user", userProperty, true));
+
+        String packagerNameProperty = "packagerName";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Export Job requires a packager name", packagerNameProperty, true));
+
+        String filterIdProperty = "filterId";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Export Job requires a filter", filterIdProperty, true));
+
+        String stateProperty = "state";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Export Job requires a state", stateProperty, true));
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.tdl.vireo.model.validation;
+
+import edu.tamu.weaver.validation.model.InputValidationType;
+import edu.tamu.weaver.validation.validators.BaseModelValidator;
+import edu.tamu.weaver.validation.validators.InputValidator;
+
+public class OutboundEmailValidator extends BaseModelValidator {
+
+    public OutboundEmailValidator() {
+        String recipientsProperty = "recipients";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Outbound Email requires recipients", recipientsProperty, true));
+
+        String stateProperty = "state";
+        this.addInputValidator(new InputValidator(InputValidationType.required, "Outbound Email requires a state", stateProperty, true));
+    }
+
+}
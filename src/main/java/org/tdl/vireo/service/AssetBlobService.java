@@ -0,0 +1,476 @@
+package org.tdl.vireo.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.tdl.vireo.model.AssetBlob;
+import org.tdl.vireo.model.StoredAsset;
+import org.tdl.vireo.model.repo.AssetBlobRepo;
+import org.tdl.vireo.model.repo.StoredAssetRepo;
+import org.tdl.vireo.utility.FileHelperUtility;
+
+/**
+ * Stores asset content once in a content-addressed blob store, however many assets have it.
+ *
+ * Blobs are named by the SHA-256 of their content and sharded into directories by its first two bytes. Assets stay at
+ * their own paths as hard links to their blob, so they are read as before, and are recorded with the blob they link
+ * to. Each blob counts the assets linked to it; a blob no longer referenced is removed by the garbage collection sweep.
+ *
+ * The reference counts are kept in the database and only changed by conditional updates, so instances sharing the
+ * assets agree on them: a reference is added before an asset is linked to its blob, and a sweep first marks an
+ * unreferenced blob as swept, after which no reference can be added to it until it is removed.
+ *
+ * Where the assets cannot be hard links to the blob store, as a copy of each blob would double the space used, assets
+ * are stored as plain files with their checksum recorded, and are not migrated into the blob store.
+ */
+@Service
+public class AssetBlobService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssetBlobService.class);
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // attempts to reference a blob while it is being swept, waiting a little longer after each
+    private static final int CLAIM_ATTEMPTS = 10;
+
+    private static final long CLAIM_RETRY_DELAY = 100;
+
+    // temporary files older than this were left by writes interrupted by a restart
+    private static final long ABANDONED_TEMPORARY_FILE_AGE = 24 * 60 * 60 * 1000L;
+
+    @Value("${app.assets.blobFolder:blobs}")
+    private String blobFolder;
+
+    @Value("${app.document.folder:private}")
+    private String documentFolder;
+
+    @Autowired
+    private AssetBlobRepo assetBlobRepo;
+
+    @Autowired
+    private StoredAssetRepo storedAssetRepo;
+
+    // whether assets can be hard links to their blobs, checked on first use
+    private volatile Boolean linkSupported;
+
+    /**
+     * Stream the content into the blob store and link the asset to its blob.
+     *
+     * The content is hashed while it is written to a temporary file in the blob store, which becomes the blob unless
+     * one with the same content is already stored. The asset is then replaced by a link to the blob in a single move,
+     * so it never exists partly written. Where links are not supported the temporary file becomes the asset instead.
+     *
+     * @param inputStream The content, closed once read.
+     * @param relativePath The asset path, relative to the assets.
+     * @param path The absolute path of the asset.
+     *
+     * @return The recorded checksum and size of the asset.
+     */
+    public StoredAsset store(InputStream inputStream, String relativePath, Path path) throws IOException {
+        boolean deduplicated = isLinkSupported();
+
+        Path temporaryPath;
+        if (deduplicated) {
+            temporaryPath = createTemporaryFile();
+        } else {
+            Files.createDirectories(path.getParent());
+            temporaryPath = Files.createTempFile(path.getParent(), ".upload-", ".tmp");
+        }
+
+        MessageDigest digest = newDigest();
+        long size;
+
+        try {
+            try (InputStream in = inputStream; OutputStream out = Files.newOutputStream(temporaryPath)) {
+                size = copy(in, out, digest);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+
+        String sha256 = toHex(digest.digest());
+
+        if (!deduplicated) {
+            try {
+                move(temporaryPath, path);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporaryPath);
+                throw e;
+            }
+
+            return record(relativePath, sha256, size, false);
+        }
+
+        try {
+            claim(sha256, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+
+        try {
+            Path blobPath = getBlobPath(sha256);
+            if (Files.exists(blobPath)) {
+                Files.delete(temporaryPath);
+            } else {
+                Files.createDirectories(blobPath.getParent());
+                move(temporaryPath, blobPath);
+            }
+
+            link(blobPath, path);
+        } catch (IOException | RuntimeException e) {
+            release(sha256);
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+
+        return record(relativePath, sha256, size, true);
+    }
+
+    /**
+     * @return the recorded checksum and size of the asset, empty when it was not written by {@link #store}
+     */
+    public Optional<StoredAsset> getStoredAsset(String relativePath) {
+        return storedAssetRepo.findByUri(relativePath);
+    }
+
+    /**
+     * Record that the asset was moved, replacing any asset at the new path.
+     */
+    public void rename(String oldRelativePath, String newRelativePath) {
+        unlink(newRelativePath);
+        storedAssetRepo.updateUri(oldRelativePath, newRelativePath);
+    }
+
+    /**
+     * Record that the asset was removed, releasing its blob's reference.
+     */
+    public void unlink(String relativePath) {
+        Optional<StoredAsset> storedAsset = storedAssetRepo.findByUri(relativePath);
+
+        if (storedAsset.isPresent()) {
+            if (storedAsset.get().isDeduplicated()) {
+                release(storedAsset.get().getSha256());
+            }
+            storedAssetRepo.deleteByUri(relativePath);
+        }
+    }
+
+    /**
+     * Move the document assets written before the blob store into it.
+     *
+     * Each asset not yet linked to a blob is hashed. It becomes the blob when its content is not stored yet, sharing
+     * its file with the blob without copying it, and is replaced by a link to the stored blob when it is a duplicate.
+     * Assets already migrated are skipped, so the migration can be run again after an interruption.
+     *
+     * @return The number of assets migrated.
+     * @throws IllegalStateException when the assets cannot be hard links to the blob store, as every asset would then
+     *             be stored twice
+     */
+    public int migrate() throws IOException {
+        if (!isLinkSupported()) {
+            throw new IllegalStateException("The assets cannot be hard links to the blob store at " + getBlobRoot() + ", migrating them would store each twice. Place the blob store on the file system of the assets.");
+        }
+
+        Path documents = Paths.get(FileHelperUtility.getAssetAbsolutePath(documentFolder));
+
+        if (!Files.isDirectory(documents)) {
+            return 0;
+        }
+
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(documents)) {
+            paths = walk.filter(Files::isRegularFile).filter(p -> !p.getFileName().toString().startsWith(".")).collect(Collectors.toList());
+        }
+
+        int migrated = 0;
+
+        for (Path path : paths) {
+            String relativePath = documentFolder + File.separator + documents.relativize(path).toString();
+
+            Optional<StoredAsset> storedAsset = storedAssetRepo.findByUri(relativePath);
+            if (storedAsset.isPresent() && storedAsset.get().isDeduplicated()) {
+                continue;
+            }
+
+            migrate(path, relativePath);
+            migrated++;
+
+            if (migrated % 1000 == 0) {
+                LOG.info("Migrated " + migrated + " of " + paths.size() + " assets to the blob store");
+            }
+        }
+
+        LOG.info("Migrated " + migrated + " assets to the blob store");
+
+        return migrated;
+    }
+
+    /**
+     * Remove the blobs no asset references, and the temporary files of interrupted writes.
+     *
+     * @return The number of bytes reclaimed.
+     */
+    public long collectGarbage() throws IOException {
+        long reclaimed = 0;
+        int removed = 0;
+
+        for (AssetBlob assetBlob : assetBlobRepo.findByReferenceCountLessThanEqual(0)) {
+            String sha256 = assetBlob.getSha256();
+
+            // referenced again since it was listed, or being swept by another instance; one marked by a sweep that was
+            // interrupted is swept again
+            if (assetBlob.getReferenceCount() < 0 || assetBlobRepo.markSwept(sha256) > 0) {
+                boolean deleted = Files.deleteIfExists(getBlobPath(sha256));
+                if (assetBlobRepo.deleteSwept(sha256) > 0 && deleted) {
+                    reclaimed += assetBlob.getSize();
+                    removed++;
+                }
+            }
+        }
+
+        Path temporaryFolder = getTemporaryFolder();
+
+        if (Files.isDirectory(temporaryFolder)) {
+            long abandoned = System.currentTimeMillis() - ABANDONED_TEMPORARY_FILE_AGE;
+
+            List<Path> temporaryPaths;
+            try (Stream<Path> list = Files.list(temporaryFolder)) {
+                temporaryPaths = list.collect(Collectors.toList());
+            }
+
+            for (Path temporaryPath : temporaryPaths) {
+                if (Files.getLastModifiedTime(temporaryPath).toMillis() < abandoned) {
+                    long size = Files.size(temporaryPath);
+                    if (Files.deleteIfExists(temporaryPath)) {
+                        reclaimed += size;
+                    }
+                }
+            }
+        }
+
+        LOG.info("Removed " + removed + " unreferenced blobs, reclaiming " + reclaimed + " bytes");
+
+        return reclaimed;
+    }
+
+    public Path getBlobPath(String sha256) {
+        return getBlobRoot().resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private void migrate(Path path, String relativePath) throws IOException {
+        MessageDigest digest = newDigest();
+        long size;
+
+        try (InputStream in = Files.newInputStream(path)) {
+            size = copy(in, null, digest);
+        }
+
+        String sha256 = toHex(digest.digest());
+
+        claim(sha256, size);
+
+        try {
+            Path blobPath = getBlobPath(sha256);
+            if (!Files.exists(blobPath)) {
+                Files.createDirectories(blobPath.getParent());
+                try {
+                    Files.createLink(blobPath, path);
+                } catch (FileAlreadyExistsException e) {
+                    // placed by another instance since
+                }
+            }
+            if (!Files.isSameFile(blobPath, path)) {
+                // a duplicate, its space is reclaimed by linking it to the stored blob instead
+                link(blobPath, path);
+            }
+        } catch (IOException | RuntimeException e) {
+            release(sha256);
+            throw e;
+        }
+
+        record(relativePath, sha256, size, true);
+    }
+
+    private StoredAsset record(String relativePath, String sha256, long size, boolean deduplicated) {
+        StoredAsset storedAsset = storedAssetRepo.findByUri(relativePath).orElse(new StoredAsset());
+
+        // the content replaced no longer references its blob
+        if (storedAsset.isDeduplicated()) {
+            release(storedAsset.getSha256());
+        }
+
+        storedAsset.setUri(relativePath);
+        storedAsset.setSha256(sha256);
+        storedAsset.setSize(size);
+        storedAsset.setDeduplicated(deduplicated);
+
+        return storedAssetRepo.save(storedAsset);
+    }
+
+    /**
+     * Whether the assets can be hard links to the blob store, checked once by linking a file into the documents.
+     */
+    boolean isLinkSupported() throws IOException {
+        Boolean supported = linkSupported;
+
+        if (supported == null) {
+            Path documents = Paths.get(FileHelperUtility.getAssetAbsolutePath(documentFolder));
+            Files.createDirectories(documents);
+
+            Path probePath = createTemporaryFile();
+            Path linkPath = documents.resolve("." + UUID.randomUUID() + ".link");
+
+            try {
+                Files.createLink(linkPath, probePath);
+                supported = true;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                LOG.warn("The assets cannot be hard links to the blob store at " + getBlobRoot() + ", they are stored without deduplication", e);
+                supported = false;
+            } finally {
+                Files.deleteIfExists(linkPath);
+                Files.deleteIfExists(probePath);
+            }
+
+            linkSupported = supported;
+        }
+
+        return supported;
+    }
+
+    /**
+     * Add a reference to the blob, recording the blob when it is new. A blob being swept cannot be referenced until
+     * the sweep has removed it, after which it is recorded again.
+     */
+    private void claim(String sha256, long size) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            if (assetBlobRepo.addReference(sha256) > 0) {
+                return;
+            }
+
+            try {
+                assetBlobRepo.save(new AssetBlob(sha256, size, 1));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // recorded by another instance since, or still being swept
+                if (attempt >= CLAIM_ATTEMPTS) {
+                    throw new IOException("Unable to reference blob " + sha256 + ", it is being swept", e);
+                }
+            }
+
+            try {
+                Thread.sleep(CLAIM_RETRY_DELAY * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for blob " + sha256 + " to be swept");
+            }
+        }
+    }
+
+    private void release(String sha256) {
+        assetBlobRepo.removeReference(sha256);
+    }
+
+    /**
+     * Replace the asset with a link to the blob.
+     */
+    private void link(Path blobPath, Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+
+        Path linkPath = path.resolveSibling("." + UUID.randomUUID() + ".link");
+
+        try {
+            Files.createLink(linkPath, blobPath);
+            move(linkPath, path);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(linkPath);
+            throw e;
+        }
+    }
+
+    private Path getBlobRoot() {
+        return Paths.get(FileHelperUtility.getAssetAbsolutePath(blobFolder));
+    }
+
+    private Path getTemporaryFolder() {
+        return getBlobRoot().resolve(".tmp");
+    }
+
+    private Path createTemporaryFile() throws IOException {
+        Path temporaryFolder = getTemporaryFolder();
+        Files.createDirectories(temporaryFolder);
+        return Files.createTempFile(temporaryFolder, "upload-", ".tmp");
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copy the stream to the output, if any, updating the digest with what is read.
+     *
+     * @return the number of bytes read
+     */
+    private static long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            if (out != null) {
+                out.write(buffer, 0, read);
+            }
+            size += read;
+        }
+        return size;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+}
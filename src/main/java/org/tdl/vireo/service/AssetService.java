@@ -8,6 +8,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
@@ -27,6 +28,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import javax.imageio.ImageIO;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -39,6 +41,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.tdl.vireo.model.ActionLog;
+import org.tdl.vireo.model.StoredAsset;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.repo.ActionLogRepo;
 import org.tdl.vireo.utility.FileHelperUtility;
@@ -59,8 +62,33 @@ public class AssetService {
     @Autowired
     private ResourcePatternResolver resourcePatternResolver;
 
+    @Autowired
+    private AssetBlobService assetBlobService;
+
     public void write(byte[] data, String relativePath) throws IOException {
-        Files.write(processAssetsRelativePath(relativePath), data);
+        store(new ByteArrayInputStream(data), relativePath);
+    }
+
+    /**
+     * Stream the content to the asset, recording its SHA-256 checksum and size.
+     *
+     * The content is hashed while it is streamed into the blob store, so it is never held in memory, and the asset is
+     * stored as a link to the blob with its content. The asset never exists partly written.
+     *
+     * @param inputStream The content, closed once read.
+     * @param relativePath The asset path, relative to the assets.
+     *
+     * @return The recorded checksum and size of the asset.
+     */
+    public StoredAsset store(InputStream inputStream, String relativePath) throws IOException {
+        return assetBlobService.store(inputStream, relativePath, processAssetsRelativePath(relativePath));
+    }
+
+    /**
+     * @return the recorded checksum and size of the asset, empty when it was not written by {@link #store}
+     */
+    public Optional<StoredAsset> getStoredAsset(String relativePath) {
+        return assetBlobService.getStoredAsset(relativePath);
     }
 
     public void rename(String oldRelativePath, String newRelativePath) throws IOException {
@@ -73,6 +101,8 @@ public class AssetService {
         Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
 
         Files.setAttribute(newPath, "creationTime", FileTime.fromMillis(creationTime));
+
+        assetBlobService.rename(oldRelativePath, newRelativePath);
     }
 
     public String find(String relativeFolderPath, String name) {
@@ -94,14 +124,14 @@ public class AssetService {
         } else {
             LOG.warn("File not found while trying to delete at path: '" + path.getFileName().toString() + "'");
         }
+        assetBlobService.unlink(relativePath);
     }
 
     public String write(InputStream is, String relativePath) throws IOException {
-        Path path = processAssetsRelativePath(relativePath);
         String[] rawFileData = IOUtils.toString(is, StandardCharsets.UTF_8).split(";");
         String[] encodedData = rawFileData[1].split(",");
         byte[] fileData = Base64.getDecoder().decode(encodedData[1]);
-        Files.write(path, fileData);
+        store(new ByteArrayInputStream(fileData), relativePath);
         return relativePath;
     }
 
@@ -113,7 +143,12 @@ public class AssetService {
         String fileExtension = mimeData[1].split("/")[1];
         BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(encodedData[1])));
         Path path = processAssetsRelativePath(relativePath);
-        ImageIO.write(image, fileExtension, Files.newOutputStream(path));
+        // the image may be a link to a blob shared with other assets, which must not be overwritten in place
+        assetBlobService.unlink(relativePath);
+        Files.deleteIfExists(path);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            ImageIO.write(image, fileExtension, out);
+        }
     }
 
     /**
@@ -0,0 +1,260 @@
+package org.tdl.vireo.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.httpclient.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.tdl.vireo.exception.SwordDepositForbiddenException;
+import org.tdl.vireo.exception.SwordDepositServiceUnavailableException;
+import org.tdl.vireo.model.DepositLocation;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionStatus;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.depositor.Depositor;
+import org.tdl.vireo.model.export.ExportPackage;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.model.response.BatchDepositReport;
+import org.tdl.vireo.model.response.BatchDepositReport.SubmissionResult;
+import org.tdl.vireo.utility.PackagerUtility;
+
+/**
+ * Publishes a batch of submissions to a deposit location.
+ *
+ * Submissions are packaged and deposited concurrently by a pool of deposit workers. Each submission is packaged once
+ * and its deposit retried, with a growing delay, while the deposit location is unavailable or cannot be connected to.
+ * A submission failing does not stop the others, the outcome of each is reported instead.
+ */
+@Service
+public class BatchDepositService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchDepositService.class);
+
+    @Value("${app.deposit.workers:4}")
+    private int depositWorkers;
+
+    @Value("${app.deposit.attempts:3}")
+    private int depositAttempts;
+
+    @Value("${app.deposit.retryDelay:2000}")
+    private long retryDelay;
+
+    @Autowired
+    private SubmissionRepo submissionRepo;
+
+    @Autowired
+    private PackagerUtility packagerUtility;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService depositExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        depositExecutor = Executors.newFixedThreadPool(Math.max(depositWorkers, 1), runnable -> {
+            Thread thread = new Thread(runnable, "batch-deposit-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        depositExecutor.shutdownNow();
+    }
+
+    /**
+     * Deposit the submissions and change the status of those deposited.
+     *
+     * @param user The user publishing, recorded in the action log of each submission.
+     * @param depositLocation The deposit location to deposit to.
+     * @param depositor The depositor of the deposit location.
+     * @param submissionStatus The status to change deposited submissions to.
+     * @param submissionIds The ids of the submissions to deposit.
+     * @return the result of each submission, in the order of the ids
+     */
+    public BatchDepositReport deposit(User user, DepositLocation depositLocation, Depositor depositor, SubmissionStatus submissionStatus, List<Long> submissionIds) {
+        List<Future<SubmissionResult>> pending = new ArrayList<>(submissionIds.size());
+
+        for (Long submissionId : submissionIds) {
+            pending.add(depositExecutor.submit(() -> depositSubmission(user, depositLocation, depositor, submissionStatus, submissionId)));
+        }
+
+        List<SubmissionResult> results = new ArrayList<>(submissionIds.size());
+
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                results.add(await(pending.get(i), submissionIds.get(i)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            for (int i = results.size(); i < pending.size(); i++) {
+                pending.get(i).cancel(true);
+                results.add(SubmissionResult.failed(submissionIds.get(i), 0, "Batch publish was interrupted."));
+            }
+        }
+
+        BatchDepositReport report = new BatchDepositReport(results);
+
+        LOG.info("Batch publish to " + depositLocation.getName() + " deposited " + report.getDeposited() + " of " + results.size() + " submissions");
+
+        return report;
+    }
+
+    private SubmissionResult await(Future<SubmissionResult> future, Long submissionId) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            LOG.error("Unable to publish submission " + submissionId, e.getCause());
+            return SubmissionResult.failed(submissionId, 0, e.getCause().getMessage());
+        }
+    }
+
+    private SubmissionResult depositSubmission(User user, DepositLocation depositLocation, Depositor depositor, SubmissionStatus submissionStatus, Long submissionId) {
+        ExportPackage exportPackage;
+
+        try {
+            exportPackage = packageSubmission(depositLocation, submissionId);
+        } catch (Exception e) {
+            LOG.error("Failed package export on submission " + submissionId, e);
+            return SubmissionResult.failed(submissionId, 0, "Failed package export on submission " + submissionId + ".");
+        }
+
+        // deleted since the batch was queried
+        if (exportPackage == null) {
+            return SubmissionResult.failed(submissionId, 0, "Submission " + submissionId + " no longer exists.");
+        }
+
+        try {
+            int attempt = 0;
+
+            while (true) {
+                attempt++;
+
+                String depositUrl;
+
+                try {
+                    depositUrl = depositor.deposit(depositLocation, exportPackage);
+                } catch (RuntimeException e) {
+                    if (attempt >= depositAttempts || !isTransient(e)) {
+                        LOG.error("Unable to publish submission " + submissionId + " after " + attempt + " attempts", e);
+                        return SubmissionResult.failed(submissionId, attempt, e.getMessage());
+                    }
+
+                    long delay = getRetryDelay(attempt);
+
+                    LOG.warn("Retrying publish of submission " + submissionId + " in " + delay + "ms: " + e.getMessage());
+
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return SubmissionResult.failed(submissionId, attempt, "Batch publish was interrupted.");
+                    }
+
+                    continue;
+                }
+
+                updateStatus(user, submissionStatus, submissionId, depositUrl);
+
+                return SubmissionResult.deposited(submissionId, depositUrl, attempt);
+            }
+        } finally {
+            deletePackage(exportPackage);
+        }
+    }
+
+    private ExportPackage packageSubmission(DepositLocation depositLocation, Long submissionId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return transactionTemplate.execute(status -> {
+            Optional<Submission> submission = submissionRepo.findById(submissionId);
+
+            if (!submission.isPresent()) {
+                return null;
+            }
+
+            try {
+                return packagerUtility.packageExport(depositLocation.getPackager(), submission.get());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private void updateStatus(User user, SubmissionStatus submissionStatus, Long submissionId, String depositUrl) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            submissionRepo.findById(submissionId).ifPresent(submission -> {
+                submission.setDepositURL(depositUrl);
+                submissionRepo.updateStatus(submission, submissionStatus, user);
+            });
+        });
+    }
+
+    private void deletePackage(ExportPackage exportPackage) {
+        if (exportPackage.isFile()) {
+            File file = (File) exportPackage.getPayload();
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                LOG.warn("Unable to delete deposit package " + file, e);
+            }
+        }
+    }
+
+    /**
+     * The delay before the next attempt, doubling with each attempt and spread out so deposits failing together are not
+     * all retried together.
+     */
+    private long getRetryDelay(int attempt) {
+        long delay = retryDelay * (1L << Math.min(attempt - 1, 10));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Whether a failed deposit can be attempted again without depositing the submission twice: the deposit location
+     * was unavailable, or refused or timed out the connection, so the package was not taken. A deposit failing once the
+     * package was sent, by a timeout or a dropped connection, may have been made and is reported instead.
+     */
+    static boolean isTransient(Throwable exception) {
+        if (exception instanceof SwordDepositServiceUnavailableException || exception instanceof SwordDepositForbiddenException) {
+            return true;
+        }
+
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
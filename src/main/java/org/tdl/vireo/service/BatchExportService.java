@@ -0,0 +1,510 @@
+package org.tdl.vireo.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.export.ExportPackage;
+import org.tdl.vireo.model.packager.AbstractPackager;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.utility.PackagerUtility;
+
+/**
+ * Writes the batch export of the submissions matching a filter.
+ *
+ * Used both by the synchronous batch export endpoints and by export jobs.
+ *
+ * Submissions are packaged concurrently by a pool of packaging workers, each in its own read-only transaction. The
+ * calling thread writes the packaged submissions to the export in query order, keeping a bounded number of
+ * submissions packaged ahead of the one being written.
+ */
+@Service
+public class BatchExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchExportService.class);
+
+    private static final List<String> BATCH_PACKAGERS = Arrays.asList("Excel", "MarcXML21", "Marc21", "ProQuest", "DSpaceMETS", "DSpaceSimple");
+
+    @Value("${app.export.packagingWorkers:2}")
+    private int packagingWorkers;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Autowired
+    private SubmissionRepo submissionRepo;
+
+    @Autowired
+    private PackagerUtility packagerUtility;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService packagingExecutor;
+
+    private int packagingConcurrency;
+
+    /**
+     * Receives the progress of an export.
+     */
+    @FunctionalInterface
+    public interface ExportProgress {
+
+        public void update(int processed, int total);
+
+    }
+
+    @PostConstruct
+    void init() {
+        // each worker holds a connection while packaging, leave at least half of the pool to the rest of the application
+        int maximumConcurrency = Math.max(1, maximumPoolSize / 2);
+
+        packagingConcurrency = Math.max(1, Math.min(packagingWorkers, maximumConcurrency));
+
+        if (packagingWorkers > maximumConcurrency) {
+            LOG.warn("Limiting export packaging workers to " + packagingConcurrency + ", half of the " + maximumPoolSize + " database connections");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+
+        packagingExecutor = Executors.newFixedThreadPool(packagingConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "export-packaging-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        packagingExecutor.shutdownNow();
+    }
+
+    public boolean isBatchExportable(String packagerName) {
+        return packagerName != null && BATCH_PACKAGERS.contains(packagerName.trim());
+    }
+
+    public String getFileName(String packagerName) {
+        return packagerName + "." + packagerUtility.getPackager(packagerName).getFileExtension();
+    }
+
+    public String getMimeType(String packagerName) {
+        return packagerUtility.getPackager(packagerName).getMimeType();
+    }
+
+    /**
+     * Write the export of the submissions matching the filter.
+     *
+     * The output stream is left open.
+     *
+     * @param packagerName The name of a batch exportable packager.
+     * @param user The user exporting, whose columns are used when the filter has none saved.
+     * @param filter The filter selecting the submissions.
+     * @param out The stream to write the export to.
+     * @param progress Receives the progress after each submission, may be null.
+     */
+    public void export(String packagerName, User user, NamedSearchFilterGroup filter, OutputStream out, ExportProgress progress) throws Exception {
+        String name = packagerName.trim();
+
+        if (!isBatchExportable(name)) {
+            throw new IllegalArgumentException("No packager " + packagerName + " found!");
+        }
+
+        List<SubmissionListColumn> columns = filter.getColumnsFlag() ? filter.getSavedColumns() : user.getSubmissionViewColumns();
+
+        List<Long> ids = submissionRepo.batchDynamicSubmissionIdQuery(filter, columns);
+
+        if (name.equals("Excel")) {
+            HSSFWorkbook workbook = new HSSFWorkbook();
+
+            HSSFSheet worksheet = workbook.createSheet();
+
+            int[] rowCount = { 0 };
+
+            HSSFRow header = worksheet.createRow(rowCount[0]++);
+
+            for (int i = 0; i < columns.size(); i++) {
+                SubmissionListColumn column = columns.get(i);
+                header.createCell(i).setCellValue(column.getTitle());
+            }
+
+            process(name, ids, columns, progress, packaged -> {
+                if (packaged.getRow() != null) {
+                    HSSFRow row = worksheet.createRow(rowCount[0]++);
+                    for (int i = 0; i < columns.size(); i++) {
+                        SubmissionListColumn column = columns.get(i);
+                        row.createCell(i).setCellValue(packaged.getRow().get(column.getTitle()));
+                    }
+                }
+            });
+
+            for (int i = 0; i < columns.size(); i++) {
+                worksheet.autoSizeColumn(i);
+            }
+
+            workbook.write(out);
+        } else {
+            ZipOutputStream zos = name.equals("DSpaceMETS") || name.equals("DSpaceSimple") ? new ZipOutputStream(out) : new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+            process(name, ids, columns, progress, packaged -> {
+                for (PackagedEntry entry : packaged.getEntries()) {
+                    zos.putNextEntry(new ZipEntry(entry.getName()));
+                    if (entry.getFile() != null) {
+                        Files.copy(entry.getFile(), zos);
+                    } else if (entry.getContent() != null) {
+                        zos.write(entry.getContent());
+                    }
+                    zos.closeEntry();
+                }
+            });
+
+            zos.finish();
+        }
+    }
+
+    /**
+     * Package the submissions concurrently and hand them to the writer in the order of the ids.
+     */
+    private void process(String packagerName, List<Long> ids, List<SubmissionListColumn> columns, ExportProgress progress, PackagedWriter writer) throws Exception {
+        int window = packagingConcurrency * 2;
+
+        Deque<Future<PackagedSubmission>> pending = new ArrayDeque<>();
+
+        int next = 0;
+        int processed = 0;
+
+        try {
+            while (next < ids.size() || !pending.isEmpty()) {
+                while (next < ids.size() && pending.size() < window) {
+                    Long id = ids.get(next++);
+                    pending.add(packagingExecutor.submit(() -> packageSubmission(packagerName, id, columns)));
+                }
+
+                PackagedSubmission packaged = await(pending.poll());
+
+                try {
+                    writer.write(packaged);
+                } finally {
+                    packaged.cleanup();
+                }
+
+                processed++;
+
+                if (progress != null) {
+                    progress.update(processed, ids.size());
+                }
+            }
+        } finally {
+            // stop packaging ahead of a failed export and remove what was already packaged
+            for (Future<PackagedSubmission> future : pending) {
+                if (!future.cancel(true) && !future.isCancelled()) {
+                    try {
+                        future.get().cleanup();
+                    } catch (Exception e) {
+                        // already failed, nothing was left behind
+                    }
+                }
+            }
+        }
+    }
+
+    private PackagedSubmission await(Future<PackagedSubmission> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PackagingException) {
+                throw (Exception) e.getCause().getCause();
+            }
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private PackagedSubmission packageSubmission(String packagerName, Long submissionId, List<SubmissionListColumn> columns) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return transactionTemplate.execute(status -> {
+            Optional<Submission> submission = submissionRepo.findById(submissionId);
+
+            // deleted since the export was queried
+            if (!submission.isPresent()) {
+                return new PackagedSubmission();
+            }
+
+            AbstractPackager<?> packager = packagerUtility.getPackager(packagerName);
+
+            PackagedSubmission packaged = new PackagedSubmission();
+
+            try {
+                packageSubmission(packagerName, packager, submission.get(), columns, packaged);
+            } catch (Exception e) {
+                packaged.cleanup();
+                throw new PackagingException(e);
+            }
+
+            return packaged;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void packageSubmission(String packagerName, AbstractPackager<?> packager, Submission submission, List<SubmissionListColumn> columns, PackagedSubmission packaged) throws Exception {
+        switch (packagerName) {
+        case "Excel": {
+            ExportPackage exportPackage = packagerUtility.packageExport(packager, submission, columns);
+            if (exportPackage.isMap()) {
+                packaged.setRow((Map<String, String>) exportPackage.getPayload());
+            }
+            break;
+        }
+        case "MarcXML21":
+        case "Marc21": {
+            ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
+            if (exportPackage.isMap()) {
+                for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
+                    String entryName = packagerName.equals("MarcXML21") ? "MarcXML21/" + fileEntry.getKey() : fileEntry.getKey();
+                    packaged.addTemporaryFile(entryName, fileEntry.getValue().toPath());
+                }
+            }
+            break;
+        }
+        case "ProQuest": {
+            List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue("first_name");
+            Optional<String> firstNameOpt = fieldValues.size() > 0 ? Optional.of(fieldValues.get(0).getValue()) : Optional.empty();
+            String firstName = firstNameOpt.isPresent() ? firstNameOpt.get() : "";
+            firstName = firstName.substring(0,1).toUpperCase()+firstName.substring(1);
+            fieldValues = submission.getFieldValuesByPredicateValue("last_name");
+            Optional<String> lastNameOpt = fieldValues.size() > 0 ? Optional.of(fieldValues.get(0).getValue()) : Optional.empty();
+            String lastName = lastNameOpt.isPresent() ? lastNameOpt.get() : "";
+            lastName = lastName.substring(0,1).toUpperCase()+lastName.substring(1);
+            String personName = lastName+"_"+firstName;
+
+            // the package of a submission is spooled to disk rather than held in memory
+            Path packagePath = Files.createTempFile("upload_" + submission.getId() + "_", ".zip");
+            packaged.addTemporaryFile("upload_"+personName+".zip", packagePath);
+
+            try (ZipOutputStream b = new ZipOutputStream(Files.newOutputStream(packagePath))){
+                ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
+                if (exportPackage.isMap()) {
+                    for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
+                        b.putNextEntry(new ZipEntry(personName+"_DATA.xml"));
+                        Files.copy(fileEntry.getValue().toPath(), b);
+                        b.closeEntry();
+                        Files.deleteIfExists(fileEntry.getValue().toPath());
+                    }
+                }
+                // LICENSES
+                for (FieldValue ldfv : submission.getLicenseDocumentFieldValues()) {
+                    Path path = assetService.getAssetsAbsolutePath(ldfv.getValue());
+                    int sfxIndx;
+                    String licFileName = ldfv.getFileName();
+                    if((sfxIndx = licFileName.indexOf("."))>0){
+                        licFileName = licFileName.substring(0,sfxIndx).toUpperCase()+licFileName.substring(sfxIndx);
+                    }
+                    b.putNextEntry(new ZipEntry(personName+"_permission/"+licFileName));
+                    Files.copy(path, b);
+                    b.closeEntry();
+                }
+                // PRIMARY_DOC
+                FieldValue primaryDoc = submission.getPrimaryDocumentFieldValue();
+                Path path = assetService.getAssetsAbsolutePath(primaryDoc.getValue());
+                String fName = primaryDoc.getFileName();
+                int fNameIndx = fName.indexOf(".");
+                String fType = "";//default
+                if(fNameIndx>0){
+                    fType = fName.substring(fNameIndx);
+                }
+                b.putNextEntry(new ZipEntry(personName+fType));
+                Files.copy(path, b);
+                b.closeEntry();
+
+            }catch(IOException ioe){
+                LOG.error("Error packaging submission " + submission.getId() + " for ProQuest export", ioe);
+            }
+            break;
+        }
+        case "DSpaceMETS": {
+            ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
+            File exportFile = (File) exportPackage.getPayload();
+            packaged.addTemporaryFile(exportFile.getName(), exportFile.toPath());
+            break;
+        }
+        case "DSpaceSimple": {
+            String submissionName = "submission_" + submission.getId() + "/";
+            packaged.addContent(submissionName, null);
+
+            StringBuilder contentsText = new StringBuilder();
+
+            ExportPackage exportPackage = packagerUtility.packageExport(packager, submission);
+
+            //METADATA
+            if (exportPackage.isMap()) {
+                for (Map.Entry<String, File> fileEntry : ((Map<String, File>) exportPackage.getPayload()).entrySet()) {
+                    packaged.addTemporaryFile(submissionName + fileEntry.getKey(), fileEntry.getValue().toPath());
+                    contentsText.append(fileEntry.getKey()+"\n");
+                }
+            }
+
+            // LICENSES
+            for (FieldValue ldfv : submission.getLicenseDocumentFieldValues()) {
+                packaged.addFile(submissionName + ldfv.getFileName(), assetService.getAssetsAbsolutePath(ldfv.getValue()));
+                contentsText.append(ldfv.getFileName()+"\tBUNDLE:LICENSE\n");
+            }
+
+            // PRIMARY_DOC
+            FieldValue primaryDoc = submission.getPrimaryDocumentFieldValue();
+            packaged.addFile(submissionName+primaryDoc.getFileName(), assetService.getAssetsAbsolutePath(primaryDoc.getValue()));
+            contentsText.append(primaryDoc.getFileName()+"\tBUNDLE:CONTENT\tprimary:true\n");
+
+            // SUPPLEMENTAL_DOCS
+            List<FieldValue> supplDocs = submission.getSupplementalAndSourceDocumentFieldValues();
+            for (FieldValue supplDoc : supplDocs) {
+                packaged.addFile(submissionName+supplDoc.getFileName(), assetService.getAssetsAbsolutePath(supplDoc.getValue()));
+                contentsText.append(supplDoc.getFileName()+"\tBUNDLE:CONTENT\n");
+            }
+
+            // CONTENTS_FILE
+            packaged.addContent(submissionName + "contents", contentsText.toString().getBytes());
+            break;
+        }
+        default:
+            throw new IllegalArgumentException("No packager " + packagerName + " found!");
+        }
+    }
+
+    @FunctionalInterface
+    private interface PackagedWriter {
+
+        public void write(PackagedSubmission packaged) throws IOException;
+
+    }
+
+    /**
+     * Carries a checked exception out of a packaging transaction.
+     */
+    private static class PackagingException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        PackagingException(Exception cause) {
+            super(cause);
+        }
+
+    }
+
+    /**
+     * The export entries of a packaged submission, ready to be written.
+     */
+    private static class PackagedSubmission {
+
+        private final List<PackagedEntry> entries = new ArrayList<>();
+
+        private final List<Path> temporaryFiles = new ArrayList<>();
+
+        private Map<String, String> row;
+
+        public List<PackagedEntry> getEntries() {
+            return entries;
+        }
+
+        public Map<String, String> getRow() {
+            return row;
+        }
+
+        public void setRow(Map<String, String> row) {
+            this.row = row;
+        }
+
+        public void addFile(String name, Path file) {
+            entries.add(new PackagedEntry(name, file, null));
+        }
+
+        public void addTemporaryFile(String name, Path file) {
+            addFile(name, file);
+            temporaryFiles.add(file);
+        }
+
+        public void addContent(String name, byte[] content) {
+            entries.add(new PackagedEntry(name, null, content));
+        }
+
+        public void cleanup() {
+            for (Path file : temporaryFiles) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.warn("Unable to delete temporary export file " + file, e);
+                }
+            }
+        }
+
+    }
+
+    private static class PackagedEntry {
+
+        private final String name;
+
+        private final Path file;
+
+        private final byte[] content;
+
+        PackagedEntry(String name, Path file, byte[] content) {
+            this.name = name;
+            this.file = file;
+            this.content = content;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.tdl.vireo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service to cache the current settings, managed configurations merged over their defaults.
+ *
+ * Settings are read far more often than they change, notably once per setting per exported submission and per
+ * shibboleth attribute on login. The whole cache is cleared whenever a managed configuration is created, updated or
+ * deleted, and again once the change is committed. Changes made by other instances are not seen until the cached
+ * settings expire, after app.configuration.cacheDuration.
+ *
+ * Loaders should return values that are not managed by the persistence context, as cached values are shared across
+ * threads and requests.
+ */
+@Service
+public class ConfigurationCachingService {
+
+    @Value("${app.configuration.cacheDuration:60000}")
+    private long cacheDuration;
+
+    private final Map<String, CachedSetting> cache = new ConcurrentHashMap<String, CachedSetting>();
+
+    // incremented on every clear, so a value loaded across a clear is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Get a cached setting, loading it on a miss.
+     *
+     * @param key
+     *            The key of the lookup, unique to the method and its arguments.
+     * @param loader
+     *            Loads the setting, may return null.
+     *
+     * @return The setting, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        CachedSetting cached = cache.get(key);
+        if (cached != null && !cached.isExpired()) {
+            hits.incrementAndGet();
+            return (T) cached.value;
+        }
+        misses.incrementAndGet();
+        long loadedGeneration = generation.get();
+        T value = loader.get();
+        if (loadedGeneration == generation.get()) {
+            cache.put(key, new CachedSetting(value, System.currentTimeMillis() + cacheDuration));
+        }
+        return value;
+    }
+
+    /**
+     * Clear the cache, now and after the current transaction commits so values read in between are not kept.
+     */
+    public void clearCache() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * @return the number of hits, misses and cached settings
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new HashMap<String, Long>();
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        statistics.put("size", (long) cache.size());
+        return statistics;
+    }
+
+    private static class CachedSetting {
+
+        private final Object value;
+
+        private final long expires;
+
+        private CachedSetting(Object value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+
+    }
+
+}
@@ -7,6 +7,7 @@ import javax.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.tdl.vireo.model.depositor.Depositor;
 import org.tdl.vireo.model.depositor.SWORDv1Depositor;
@@ -18,10 +19,13 @@ public class DepositorService {
 
     private final Map<String, Depositor> depositors;
 
+    @Value("${app.deposit.serviceDocumentTtl:600000}")
+    private long serviceDocumentTtl;
+
     @PostConstruct
     void init() {
         logger.info("Loading SWORDv1 depositor");
-        addDepositor(new SWORDv1Depositor());
+        addDepositor(new SWORDv1Depositor(serviceDocumentTtl));
     }
 
     DepositorService() {
@@ -0,0 +1,115 @@
+package org.tdl.vireo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.tdl.vireo.model.EmailWorkflowRule;
+import org.tdl.vireo.model.Organization;
+import org.tdl.vireo.model.SubmissionStatus;
+import org.tdl.vireo.model.repo.EmailWorkflowRuleRepo;
+
+/**
+ * Service to cache the enabled email workflow rules of each organization, its ancestors' included, by submission
+ * status.
+ *
+ * The index holds rule ids, so the rules are always read fresh. The whole cache is cleared whenever an email workflow
+ * rule or an organization is created, updated or deleted, and again once the change is committed.
+ */
+@Service
+public class EmailWorkflowRuleCachingService {
+
+    // organization id to submission status id to rule ids
+    private final Map<Long, Map<Long, List<Long>>> cache = new ConcurrentHashMap<Long, Map<Long, List<Long>>>();
+
+    // incremented on every clear, so an index built across a clear is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    private EmailWorkflowRuleRepo emailWorkflowRuleRepo;
+
+    /**
+     * Get the enabled email workflow rules that fire when a submission of the organization reaches a status.
+     *
+     * @param organization
+     *            The submission's organization.
+     * @param submissionStatus
+     *            The submission's new status.
+     *
+     * @return The rules, closest organization first.
+     */
+    public List<EmailWorkflowRule> getEnabledRules(Organization organization, SubmissionStatus submissionStatus) {
+        List<Long> ruleIds = getIndex(organization).getOrDefault(submissionStatus.getId(), Collections.emptyList());
+
+        if (ruleIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, EmailWorkflowRule> rules = new HashMap<Long, EmailWorkflowRule>();
+        emailWorkflowRuleRepo.findAllById(ruleIds).forEach(rule -> rules.put(rule.getId(), rule));
+
+        List<EmailWorkflowRule> enabledRules = new ArrayList<EmailWorkflowRule>(ruleIds.size());
+        for (Long ruleId : ruleIds) {
+            EmailWorkflowRule rule = rules.get(ruleId);
+            // skip a rule deleted since the index was built
+            if (rule != null) {
+                enabledRules.add(rule);
+            }
+        }
+
+        return enabledRules;
+    }
+
+    /**
+     * Clear the cache, now and after the current transaction commits so indexes built in between are not kept.
+     */
+    public void clearCache() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private Map<Long, List<Long>> getIndex(Organization organization) {
+        Map<Long, List<Long>> index = cache.get(organization.getId());
+        if (index == null) {
+            long builtGeneration = generation.get();
+            index = buildIndex(organization);
+            if (builtGeneration == generation.get()) {
+                cache.putIfAbsent(organization.getId(), index);
+            }
+        }
+        return index;
+    }
+
+    private static Map<Long, List<Long>> buildIndex(Organization organization) {
+        Map<Long, List<Long>> index = new LinkedHashMap<Long, List<Long>>();
+        for (EmailWorkflowRule rule : organization.getAggregateEmailWorkflowRules()) {
+            if (!rule.isDisabled()) {
+                index.computeIfAbsent(rule.getSubmissionStatus().getId(), statusId -> new ArrayList<Long>()).add(rule.getId());
+            }
+        }
+        index.replaceAll((statusId, ruleIds) -> Collections.unmodifiableList(ruleIds));
+        return Collections.unmodifiableMap(index);
+    }
+
+}
@@ -0,0 +1,307 @@
+package org.tdl.vireo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.ExportJobState;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ExportJobRepo;
+import org.tdl.vireo.model.repo.NamedSearchFilterGroupRepo;
+
+/**
+ * Runs batch exports in the background on a bounded pool of workers.
+ *
+ * Each export is written to a file in the export folder under the assets path. Progress is saved on the job and sent
+ * on the channel of the job. A job is owned by the instance that queued it, which reports it is still running the job
+ * every app.export.heartbeatInterval. Jobs whose owner has not reported for app.export.heartbeatLease, because it
+ * stopped, are claimed by one other instance, or by the owner once restarted, and started over, or failed when
+ * app.export.resumeOnRestart is false.
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportJobService.class);
+
+    // minimum milliseconds between progress updates of a job
+    private static final long PROGRESS_INTERVAL = 1000;
+
+    @Value("${app.export.workers:2}")
+    private int workers;
+
+    @Value("${app.export.queueCapacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.export.folder:exports}")
+    private String exportFolder;
+
+    @Value("${app.export.resumeOnRestart:true}")
+    private boolean resumeOnRestart;
+
+    @Value("${app.export.heartbeatLease:300000}")
+    private long heartbeatLease;
+
+    @Autowired
+    private ExportJobRepo exportJobRepo;
+
+    @Autowired
+    private NamedSearchFilterGroupRepo namedSearchFilterGroupRepo;
+
+    @Autowired
+    private BatchExportService batchExportService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "export-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // interrupted jobs are picked up again on the next start
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a batch export of the submissions matching a filter.
+     *
+     * @param user The user exporting.
+     * @param packagerName The name of a batch exportable packager.
+     * @param filter The filter selecting the submissions.
+     * @return The job, failed when the queue is full.
+     */
+    public ExportJob enqueue(User user, String packagerName, NamedSearchFilterGroup filter) {
+        ExportJob exportJob = exportJobRepo.create(user, packagerName, filter);
+
+        Calendar now = Calendar.getInstance();
+
+        // another instance recovering jobs may have claimed the job first, and runs it instead
+        if (exportJobRepo.claim(exportJob.getId(), instanceId, now, now) == 0) {
+            return exportJob;
+        }
+
+        return submit(exportJob);
+    }
+
+    /**
+     * @return the number of jobs waiting for a worker
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public Path getExportPath(ExportJob exportJob) {
+        return assetService.getAssetsAbsolutePath(exportJob.getSpoolPath());
+    }
+
+    /**
+     * Delete a job and its export.
+     *
+     * @param exportJob The job, which must be finished.
+     */
+    public void delete(ExportJob exportJob) throws IOException {
+        if (exportJob.getSpoolPath() != null) {
+            Files.deleteIfExists(getExportPath(exportJob));
+        }
+
+        exportJobRepo.delete(exportJob);
+    }
+
+    @Scheduled(fixedDelayString = "${app.export.heartbeatInterval:60000}")
+    public void heartbeat() {
+        exportJobRepo.heartbeat(instanceId, Calendar.getInstance());
+        recover();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Calendar heartbeatBefore = Calendar.getInstance();
+        heartbeatBefore.setTimeInMillis(heartbeatBefore.getTimeInMillis() - heartbeatLease);
+
+        for (ExportJob exportJob : exportJobRepo.findAllByStateInOrderByIdAsc(Arrays.asList(ExportJobState.QUEUED, ExportJobState.RUNNING))) {
+            if (exportJobRepo.claim(exportJob.getId(), instanceId, Calendar.getInstance(), heartbeatBefore) == 0) {
+                continue;
+            }
+
+            deletePartial(exportJob);
+
+            if (resumeOnRestart) {
+                LOG.info("Restarting export job " + exportJob.getId());
+                exportJob = exportJobRepo.findById(exportJob.getId()).get();
+                exportJob.setState(ExportJobState.QUEUED);
+                exportJob.setProcessed(0);
+                submit(exportJobRepo.update(exportJob));
+            } else {
+                fail(exportJob.getId(), "Export was interrupted by a restart");
+            }
+        }
+    }
+
+    private ExportJob submit(ExportJob exportJob) {
+        Long exportJobId = exportJob.getId();
+
+        try {
+            executor.execute(() -> run(exportJobId));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Export job " + exportJobId + " rejected, " + getQueueDepth() + " jobs are queued");
+            exportJob = fail(exportJobId, "Too many exports are queued, try again later");
+        }
+
+        return exportJob;
+    }
+
+    private void run(Long exportJobId) {
+        ExportJob exportJob = exportJobRepo.findById(exportJobId).orElse(null);
+
+        if (exportJob == null || exportJob.getState() != ExportJobState.QUEUED) {
+            return;
+        }
+
+        String fileName = batchExportService.getFileName(exportJob.getPackagerName());
+
+        exportJob.setState(ExportJobState.RUNNING);
+        exportJob.setFileName(fileName);
+        exportJob.setSpoolPath(exportFolder + "/" + exportJobId + "-" + fileName);
+        exportJob = exportJobRepo.update(exportJob);
+
+        Long filterId = exportJob.getFilterId();
+        Path exportPath = getExportPath(exportJob);
+        Path partialPath = getPartialPath(exportJob);
+
+        long[] lastProgress = { 0 };
+
+        try {
+            Files.createDirectories(exportPath.getParent());
+
+            TransactionTemplate filterTemplate = new TransactionTemplate(transactionManager);
+            filterTemplate.setReadOnly(true);
+
+            // only the filter is read here, each submission is packaged in a transaction of its own
+            NamedSearchFilterGroup filter = filterTemplate.execute(status -> {
+                NamedSearchFilterGroup snapshot = namedSearchFilterGroupRepo.findById(filterId)
+                    .orElseThrow(() -> new IllegalStateException("The filter of the export no longer exists"));
+                snapshot.getSavedColumns().size();
+                return snapshot;
+            });
+
+            try (OutputStream out = Files.newOutputStream(partialPath)) {
+                batchExportService.export(exportJob.getPackagerName(), exportJob.getUser(), filter, out, (processed, total) -> {
+                    long now = System.currentTimeMillis();
+                    if (now - lastProgress[0] >= PROGRESS_INTERVAL || processed == total) {
+                        lastProgress[0] = now;
+                        progress(exportJobId, processed, total);
+                    }
+                });
+            }
+
+            Files.move(partialPath, exportPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            newTransaction().execute(status -> {
+                ExportJob completedJob = exportJobRepo.findById(exportJobId).get();
+                completedJob.setState(ExportJobState.COMPLETED);
+                completedJob.setFinishedDate(Calendar.getInstance());
+                deleteFilter(completedJob);
+                return exportJobRepo.update(completedJob);
+            });
+        } catch (Exception e) {
+            if (executor.isShutdown()) {
+                // left running to be picked up on the next start
+                LOG.info("Export job " + exportJobId + " interrupted by shutdown");
+                return;
+            }
+
+            LOG.error("Export job " + exportJobId + " failed", e);
+            deletePartial(exportJob);
+            fail(exportJobId, "Something went wrong with the export!");
+        }
+    }
+
+    private void progress(Long exportJobId, int processed, int total) {
+        newTransaction().execute(status -> {
+            ExportJob exportJob = exportJobRepo.findById(exportJobId).get();
+            exportJob.setProcessed(processed);
+            exportJob.setTotal(total);
+            return exportJobRepo.update(exportJob);
+        });
+    }
+
+    private ExportJob fail(Long exportJobId, String message) {
+        return newTransaction().execute(status -> {
+            ExportJob exportJob = exportJobRepo.findById(exportJobId).get();
+            exportJob.setState(ExportJobState.FAILED);
+            exportJob.setMessage(message);
+            exportJob.setFinishedDate(Calendar.getInstance());
+            deleteFilter(exportJob);
+            return exportJobRepo.update(exportJob);
+        });
+    }
+
+    private void deleteFilter(ExportJob exportJob) {
+        // jobs created before filters were copied refer to the filter of the user
+        namedSearchFilterGroupRepo.findById(exportJob.getFilterId())
+            .filter(filter -> filter.getName() != null && filter.getName().startsWith(ExportJob.FILTER_NAME_PREFIX))
+            .ifPresent(namedSearchFilterGroupRepo::delete);
+    }
+
+    private void deletePartial(ExportJob exportJob) {
+        if (exportJob.getSpoolPath() != null) {
+            try {
+                Files.deleteIfExists(getPartialPath(exportJob));
+            } catch (IOException e) {
+                LOG.warn("Unable to delete partial export of job " + exportJob.getId(), e);
+            }
+        }
+    }
+
+    private Path getPartialPath(ExportJob exportJob) {
+        return assetService.getAssetsAbsolutePath(exportJob.getSpoolPath() + ".part");
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+}
@@ -0,0 +1,307 @@
+package org.tdl.vireo.service;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.OutboundEmailState;
+import org.tdl.vireo.model.repo.OutboundEmailRepo;
+
+/**
+ * Queues outbound emails in the database and sends them in the background.
+ *
+ * A single dispatcher thread sends the queued emails in batches, each batch over one connection to the mail server.
+ * Emails the server does not accept are retried with an exponential backoff, and kept as failed after the last
+ * attempt. The dispatcher wakes when emails are queued, once their transaction commits, and otherwise polls the
+ * queue, so emails queued by another instance or left by a restart are sent as well.
+ *
+ * Every instance runs a dispatcher. Each claims the emails it sends in the database first, so an email is sent once.
+ * A claim not resolved within the lease, because its instance stopped while sending, is queued again.
+ */
+@Service
+public class OutboundEmailService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboundEmailService.class);
+
+    @Value("${app.email.queue.batchSize:50}")
+    private int batchSize;
+
+    @Value("${app.email.queue.pollInterval:30000}")
+    private long pollInterval;
+
+    @Value("${app.email.queue.maxAttempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.queue.retryDelay:60000}")
+    private long retryDelay;
+
+    @Value("${app.email.queue.claimLease:600000}")
+    private long claimLease;
+
+    @Autowired
+    private OutboundEmailRepo outboundEmailRepo;
+
+    @Autowired
+    private VireoEmailSender emailSender;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    void init() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatchSafely, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // queued emails are sent after the next start
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Queue an email, in the caller's transaction if any.
+     *
+     * @param to The to addresses.
+     * @param cc The cc addresses, may be empty.
+     * @param bcc The bcc addresses, may be empty.
+     * @param subject The subject.
+     * @param content The plain text content.
+     * @return The queued email.
+     */
+    public OutboundEmail enqueue(String[] to, String[] cc, String[] bcc, String subject, String content) {
+        OutboundEmail outboundEmail = outboundEmailRepo.create(to, cc, bcc, subject, content);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+
+        return outboundEmail;
+    }
+
+    /**
+     * @return the number of queued, sending and failed emails
+     */
+    public Map<String, Long> getQueueDepth() {
+        Map<String, Long> depth = new HashMap<String, Long>();
+        depth.put("queued", outboundEmailRepo.countByState(OutboundEmailState.QUEUED));
+        depth.put("sending", outboundEmailRepo.countByState(OutboundEmailState.SENDING));
+        depth.put("failed", outboundEmailRepo.countByState(OutboundEmailState.FAILED));
+        return depth;
+    }
+
+    /**
+     * Queue a failed email again, for another round of attempts.
+     *
+     * @param outboundEmail The failed email.
+     * @return The queued email.
+     */
+    public OutboundEmail retry(OutboundEmail outboundEmail) {
+        outboundEmail.setState(OutboundEmailState.QUEUED);
+        outboundEmail.setAttempts(0);
+        outboundEmail.setNextAttemptDate(Calendar.getInstance());
+        outboundEmail = outboundEmailRepo.save(outboundEmail);
+        wake();
+        return outboundEmail;
+    }
+
+    /**
+     * Send every email that is due, batch by batch.
+     *
+     * @return The number of emails sent.
+     */
+    public int dispatch() {
+        int[] sent = { 0 };
+        while (dispatchBatch(sent) == batchSize && !Thread.currentThread().isInterrupted()) {
+            // a full batch, there may be more due
+        }
+        return sent[0];
+    }
+
+    private void wake() {
+        // one pending wake covers every email queued before it runs
+        if (!dispatcher.isShutdown() && wakeScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                wakeScheduled.set(false);
+                dispatchSafely();
+            });
+        }
+    }
+
+    private void dispatchSafely() {
+        try {
+            int sent = dispatch();
+            if (sent > 0) {
+                LOG.info("Sent " + sent + " queued emails");
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Unable to dispatch queued emails", e);
+        }
+    }
+
+    /**
+     * Send one batch of due emails over a single connection.
+     *
+     * The emails are claimed in one transaction, sent outside of any, and the outcome recorded in another, so no
+     * connection or lock is held while the mail server is talked to.
+     *
+     * @param sent Incremented by the number of emails sent.
+     * @return The number of due emails found for the batch, sent or not.
+     */
+    private int dispatchBatch(int[] sent) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        List<OutboundEmail> due = new ArrayList<OutboundEmail>();
+        List<OutboundEmail> claimed = new ArrayList<OutboundEmail>();
+
+        transactionTemplate.execute(status -> {
+            Calendar now = Calendar.getInstance();
+
+            Calendar claimedBefore = Calendar.getInstance();
+            claimedBefore.setTimeInMillis(now.getTimeInMillis() - claimLease);
+            int released = outboundEmailRepo.releaseExpiredClaims(claimedBefore);
+            if (released > 0) {
+                LOG.warn("Queued " + released + " emails again whose dispatcher stopped while sending them, they may be sent twice");
+            }
+
+            due.addAll(outboundEmailRepo.findByStateAndNextAttemptDateLessThanEqualOrderByIdAsc(OutboundEmailState.QUEUED, now, PageRequest.of(0, batchSize)));
+
+            for (OutboundEmail outboundEmail : due) {
+                // another instance may have claimed it since it was found
+                if (outboundEmailRepo.claim(outboundEmail.getId(), now) == 1) {
+                    outboundEmail.setState(OutboundEmailState.SENDING);
+                    outboundEmail.setClaimedDate(now);
+                    claimed.add(outboundEmail);
+                }
+            }
+            return null;
+        });
+
+        if (claimed.isEmpty()) {
+            return due.size();
+        }
+
+        Map<OutboundEmail, String> errors = send(claimed);
+
+        transactionTemplate.execute(status -> {
+            for (OutboundEmail outboundEmail : claimed) {
+                if (errors.containsKey(outboundEmail)) {
+                    reschedule(outboundEmail, errors.get(outboundEmail));
+                } else {
+                    outboundEmailRepo.delete(outboundEmail);
+                    sent[0]++;
+                }
+            }
+            return null;
+        });
+
+        return due.size();
+    }
+
+    /**
+     * Send the emails over a single connection.
+     *
+     * @param outboundEmails The claimed emails.
+     * @return The error of each email that was not sent.
+     */
+    private Map<OutboundEmail, String> send(List<OutboundEmail> outboundEmails) {
+        emailSender.loadConfiguration();
+
+        Map<MimeMessage, OutboundEmail> messages = new LinkedHashMap<MimeMessage, OutboundEmail>();
+        Map<OutboundEmail, String> errors = new IdentityHashMap<OutboundEmail, String>();
+
+        for (OutboundEmail outboundEmail : outboundEmails) {
+            try {
+                messages.put(emailSender.buildEmail(split(outboundEmail.getRecipients()), split(outboundEmail.getCcRecipients()), split(outboundEmail.getBccRecipients()), outboundEmail.getSubject(), outboundEmail.getContent()), outboundEmail);
+            } catch (MessagingException e) {
+                // malformed addresses will not get any better
+                outboundEmail.setAttempts(maxAttempts - 1);
+                errors.put(outboundEmail, e.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                emailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // includes every message when the connection failed, none when only closing it failed
+                e.getFailedMessages().forEach((message, exception) -> {
+                    OutboundEmail outboundEmail = messages.get(message);
+                    if (outboundEmail != null) {
+                        errors.put(outboundEmail, exception.getMessage());
+                    }
+                });
+            } catch (MailException e) {
+                messages.values().forEach(outboundEmail -> errors.put(outboundEmail, e.getMessage()));
+            }
+        }
+
+        return errors;
+    }
+
+    private void reschedule(OutboundEmail outboundEmail, String error) {
+        int attempts = outboundEmail.getAttempts() + 1;
+        outboundEmail.setAttempts(attempts);
+        outboundEmail.setLastError(error);
+        outboundEmail.setState(OutboundEmailState.QUEUED);
+        outboundEmail.setClaimedDate(null);
+
+        if (attempts >= maxAttempts) {
+            LOG.warn("Giving up on email " + outboundEmail.getId() + " to " + outboundEmail.getRecipients() + " after " + attempts + " attempts: " + error);
+            outboundEmail.setState(OutboundEmailState.FAILED);
+        } else {
+            // 1, 2, 4, 8... times the retry delay
+            Calendar nextAttemptDate = Calendar.getInstance();
+            nextAttemptDate.setTimeInMillis(nextAttemptDate.getTimeInMillis() + (retryDelay << Math.min(attempts - 1, 16)));
+            outboundEmail.setNextAttemptDate(nextAttemptDate);
+        }
+
+        outboundEmailRepo.save(outboundEmail);
+    }
+
+    private static String[] split(String addresses) {
+        return addresses == null || addresses.isEmpty() ? new String[] {} : addresses.split(",");
+    }
+
+}
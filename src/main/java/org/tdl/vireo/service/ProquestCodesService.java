@@ -5,7 +5,10 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.annotation.PostConstruct;
 
@@ -21,6 +24,12 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads the ProQuest language, degree and subject codes.
+ *
+ * Each type of code is indexed both ways once loaded, code to description and description to code, so neither
+ * lookup scans the codes. Descriptions are matched ignoring case and surrounding whitespace.
+ */
 @Service
 public class ProquestCodesService {
 
@@ -28,11 +37,14 @@ public class ProquestCodesService {
 
     private final Map<String, Map<String, String>> codes;
 
+    private final Map<String, Map<String, String>> codesByDescription;
+
     @Autowired
     private ResourcePatternResolver resourcePatternResolver;
 
     ProquestCodesService() {
         codes = new HashMap<String, Map<String, String>>();
+        codesByDescription = new HashMap<String, Map<String, String>>();
     }
 
     @PostConstruct
@@ -43,8 +55,24 @@ public class ProquestCodesService {
     }
 
     public Map<String, String> getCodes(String key) {
-        checkCreateCodes(key);
-        return Collections.unmodifiableMap(codes.get(key));
+        return codes.getOrDefault(key, Collections.emptyMap());
+    }
+
+    /**
+     * Find the code of a description.
+     *
+     * @param key
+     *            The type of code, languages, degrees or subjects.
+     * @param description
+     *            The description, in any case.
+     *
+     * @return The code, empty when no code has the description. When several do, the first in the code file.
+     */
+    public Optional<String> getCodeByDescription(String key, String description) {
+        if (description == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(codesByDescription.getOrDefault(key, Collections.emptyMap()).get(normalize(description)));
     }
 
     private void loadProquestLanguageCodes() throws IOException {
@@ -63,18 +91,19 @@ public class ProquestCodesService {
     }
 
     private void setCodes(String key, Map<String, String> codes) {
-        checkCreateCodes(key);
-        this.codes.put(key, codes);
+        Map<String, String> byDescription = new HashMap<String, String>();
+        codes.forEach((code, description) -> byDescription.putIfAbsent(normalize(description), code));
+
+        this.codes.put(key, Collections.unmodifiableMap(codes));
+        this.codesByDescription.put(key, Collections.unmodifiableMap(byDescription));
     }
 
-    private void checkCreateCodes(String key) {
-        if (this.codes.get(key) == null) {
-            this.codes.put(key, new HashMap<String, String>());
-        }
+    private static String normalize(String description) {
+        return description.trim().toLowerCase(Locale.ROOT);
     }
 
     private Map<String, String> getProquestCodes(String xslFileName) throws IOException {
-        Map<String, String> proquestCodes = new HashMap<String, String>();
+        Map<String, String> proquestCodes = new LinkedHashMap<String, String>();
 
         Resource resource = resourcePatternResolver.getResource("classpath:/proquest/" + xslFileName);
 
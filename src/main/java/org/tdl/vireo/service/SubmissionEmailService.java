@@ -71,6 +71,12 @@ public class SubmissionEmailService {
     @Autowired
     private VireoEmailSender emailSender;
 
+    @Autowired
+    private OutboundEmailService outboundEmailService;
+
+    @Autowired
+    private EmailWorkflowRuleCachingService emailWorkflowRuleCachingService;
+
     /**
      * Manually send the e-mails to the advisors for a given Submission.
      *
@@ -179,7 +185,9 @@ public class SubmissionEmailService {
     }
 
     /**
-     * Process workflow and send e-mails as needed for the given submission.
+     * Process workflow and queue e-mails as needed for the given submission.
+     *
+     * The e-mails are sent in the background by the OutboundEmailService.
      *
      * @param user Associated User.
      * @param submissionId The ID of the submission.
@@ -187,46 +195,37 @@ public class SubmissionEmailService {
     public void sendWorkflowEmails(User user, Long submissionId) {
         Submission submission = submissionRepo.findById(submissionId).get();
 
-        List<EmailWorkflowRule> rules = submission.getOrganization().getAggregateEmailWorkflowRules();
-        Map<Long, List<String>> recipientLists = new HashMap<>();
+        List<EmailWorkflowRule> rules = emailWorkflowRuleCachingService.getEnabledRules(submission.getOrganization(), submission.getSubmissionStatus());
+        Map<Long, List<String>> queuedRecipients = new HashMap<>();
 
         for (EmailWorkflowRule rule : rules) {
             LOG.debug("Email Workflow Rule " + rule.getId() + " firing for submission " + submission.getId());
 
-            if (rule.getSubmissionStatus().equals(submission.getSubmissionStatus()) && !rule.isDisabled()) {
-                Long templateId = rule.getEmailTemplate().getId();
+            Long templateId = rule.getEmailTemplate().getId();
 
-                if (!recipientLists.containsKey(templateId)) {
-                    recipientLists.put(templateId, new ArrayList<>());
-                }
+            if (!queuedRecipients.containsKey(templateId)) {
+                queuedRecipients.put(templateId, new ArrayList<>());
+            }
 
-                // TODO: Not all variables are currently being replaced.
-                String subject = templateUtility.compileString(rule.getEmailTemplate().getSubject(), submission);
-                String content = templateUtility.compileTemplate(rule.getEmailTemplate(), submission);
+            // TODO: Not all variables are currently being replaced.
+            String subject = templateUtility.compileString(rule.getEmailTemplate().getSubject(), submission);
+            String content = templateUtility.compileTemplate(rule.getEmailTemplate(), submission);
 
-                for (String email : rule.getEmailRecipient().getEmails(submission)) {
-                    if (recipientLists.get(templateId).contains(email)) {
-                        LOG.debug("\tSkipping (already sent) email to recipient at address " + email);
-                        continue;
-                    }
+            for (String email : rule.getEmailRecipient().getEmails(submission)) {
+                if (queuedRecipients.get(templateId).contains(email)) {
+                    LOG.debug("\tSkipping (already queued) email to recipient at address " + email);
+                    continue;
+                }
 
-                    recipientLists.get(templateId).add(email);
+                queuedRecipients.get(templateId).add(email);
 
-                    try {
-                        if ("true".equals(user.getSetting("ccEmail"))) {
-                            String preferedEmail = user.getSetting("preferedEmail");
-                            String bcc = preferedEmail == null ? user.getEmail() : preferedEmail;
-                            emailSender.sendEmail(email, new String[] { bcc }, subject, content);
-                        } else {
-                            emailSender.sendEmail(email, subject, content);
-                        }
-                    } catch (MessagingException me) {
-                        LOG.error("Problem sending email: " + me.getMessage());
-                        recipientLists.get(templateId).remove(email);
-                    }
+                String[] bcc = new String[] { };
+                if ("true".equals(user.getSetting("ccEmail"))) {
+                    String preferedEmail = user.getSetting("preferedEmail");
+                    bcc = new String[] { preferedEmail == null ? user.getEmail() : preferedEmail };
                 }
-            } else {
-                LOG.debug("\tRule disabled or of irrelevant status condition.");
+
+                outboundEmailService.enqueue(new String[] { email }, new String[] { }, bcc, subject, content);
             }
         }
     }
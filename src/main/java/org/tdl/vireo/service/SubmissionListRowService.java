@@ -0,0 +1,435 @@
+package org.tdl.vireo.service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.tdl.vireo.config.VireoDatabaseConfig;
+import org.tdl.vireo.model.ActionLog;
+import org.tdl.vireo.model.FieldPredicate;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.repo.FieldPredicateRepo;
+import org.tdl.vireo.model.repo.SubmissionListColumnRepo;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+
+/**
+ * Maintains the submission_list_row projection, a denormalized table with one row per submission.
+ *
+ * Each field predicate shown in a submission list column is projected into its own column, p_{predicate id},
+ * holding the submission's values for that predicate joined the same way the list displays them, in the order of
+ * their ids. As list values are unbounded text, an indexed s_{predicate id} column holds the first
+ * {@value #SORT_KEY_LENGTH} characters of the value to sort on. The last action entry and date are projected as well.
+ * The dynamic submission query can then sort and filter on a single table rather than joining field values once per
+ * column.
+ *
+ * The projection is only maintained and read when app.submission.listProjection.enabled is true. After enabling
+ * it, the rows must be backfilled with the rebuild_list_rows console command. Columns added later for a newly listed
+ * predicate are filled for the existing rows before the query reads them.
+ */
+@Service
+public class SubmissionListRowService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionListRowService.class);
+
+    public static final String TABLE = "submission_list_row";
+
+    public static final int SORT_KEY_LENGTH = 255;
+
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    @Value("${app.submission.listProjection.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private SubmissionListColumnRepo submissionListColumnRepo;
+
+    @Autowired
+    private FieldPredicateRepo fieldPredicateRepo;
+
+    @Autowired
+    private SubmissionRepo submissionRepo;
+
+    @Autowired
+    private VireoDatabaseConfig vireoDatabaseConfig;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // predicate value to the id of the field predicate projected, replaced as a whole whenever the schema changes
+    private volatile Map<String, Long> projectedPredicates = Collections.emptyMap();
+
+    // the predicates written by refresh, ahead of the projected ones while their new columns are being filled
+    private volatile Map<String, Long> maintainedPredicates = Collections.emptyMap();
+
+    private volatile int schemaVersion = 0;
+
+    public SubmissionListRowService(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return a number that changes whenever projected columns are added, -1 when the projection is disabled
+     */
+    public int getSchemaVersion() {
+        return enabled ? schemaVersion : -1;
+    }
+
+    /**
+     * Get the projected column for a field predicate.
+     *
+     * @param predicate The field predicate value.
+     * @return The column name, or null when the predicate is not projected or the projection is disabled.
+     */
+    public String getProjectedColumn(String predicate) {
+        Long predicateId = enabled ? projectedPredicates.get(predicate) : null;
+        return predicateId != null ? valueColumn(predicateId) : null;
+    }
+
+    /**
+     * Get the indexed column to sort on for a field predicate.
+     *
+     * @param predicate The field predicate value.
+     * @return The column name, or null when the predicate is not projected or the projection is disabled.
+     */
+    public String getSortColumn(String predicate) {
+        Long predicateId = enabled ? projectedPredicates.get(predicate) : null;
+        return predicateId != null ? sortColumn(predicateId) : null;
+    }
+
+    /**
+     * Create the projection table and add the value and sort columns for every field predicate used by a submission
+     * list column. A sort column added beside an existing value column is filled from it, and a value column added
+     * to existing rows is filled from their submissions before it is read.
+     */
+    public synchronized void ensureSchema() {
+        if (!enabled) {
+            return;
+        }
+
+        String valueType = "mysql".equals(vireoDatabaseConfig.getPlatform()) ? "TEXT" : "VARCHAR";
+
+        if (!tableExists()) {
+            jdbcTemplate.execute("CREATE TABLE " + TABLE + " (submission_id BIGINT NOT NULL PRIMARY KEY, last_action_entry " + valueType + ", last_action_date TIMESTAMP)");
+            jdbcTemplate.execute("CREATE INDEX " + TABLE + "_last_action_date ON " + TABLE + " (last_action_date)");
+            logger.info("Created " + TABLE + " projection table");
+        }
+
+        Set<String> existingColumns = getExistingColumns();
+
+        Map<String, Long> predicates = new HashMap<>();
+        Map<String, Long> addedPredicates = new HashMap<>();
+        for (String predicate : getListedPredicates()) {
+            FieldPredicate fieldPredicate = fieldPredicateRepo.findByValue(predicate);
+            if (fieldPredicate == null) {
+                continue;
+            }
+
+            String column = valueColumn(fieldPredicate.getId());
+            String sortColumn = sortColumn(fieldPredicate.getId());
+
+            boolean hasValues = existingColumns.contains(column);
+
+            if (!hasValues) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD " + column + " " + valueType);
+                existingColumns.add(column);
+                addedPredicates.put(predicate, fieldPredicate.getId());
+                logger.info("Added " + column + " to " + TABLE + " for predicate " + predicate);
+            }
+
+            if (!existingColumns.contains(sortColumn)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD " + sortColumn + " VARCHAR(" + SORT_KEY_LENGTH + ")");
+                if (hasValues) {
+                    jdbcTemplate.update("UPDATE " + TABLE + " SET " + sortColumn + " = SUBSTRING(" + column + ", 1, " + SORT_KEY_LENGTH + ")");
+                }
+                jdbcTemplate.execute("CREATE INDEX " + TABLE + "_" + sortColumn + " ON " + TABLE + " (" + sortColumn + ")");
+                existingColumns.add(sortColumn);
+                logger.info("Added " + sortColumn + " to " + TABLE + " for predicate " + predicate);
+            }
+
+            predicates.put(predicate, fieldPredicate.getId());
+        }
+
+        // submissions changed while the rows are filled write the added columns as well
+        maintainedPredicates = Collections.unmodifiableMap(predicates);
+
+        if (!addedPredicates.isEmpty()) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT submission_id FROM " + TABLE + " ORDER BY submission_id", Long.class);
+
+            logger.info("Filling " + addedPredicates.size() + " added columns of " + TABLE + " for " + ids.size() + " submissions");
+
+            project(ids, submission -> upsert(submission.getId(), getPredicateColumns(submission, addedPredicates)));
+        }
+
+        if (!maintainedPredicates.equals(projectedPredicates)) {
+            projectedPredicates = maintainedPredicates;
+            schemaVersion++;
+        }
+    }
+
+    /**
+     * Write the projection row of a submission from its current state.
+     *
+     * Participates in the caller's transaction, if any.
+     *
+     * @param submission The submission.
+     */
+    public void refresh(Submission submission) {
+        if (!enabled || submission == null || submission.getId() == null) {
+            return;
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        ActionLog lastAction = submission.getLastAction();
+        row.put("last_action_entry", lastAction != null ? lastAction.getEntry() : null);
+        row.put("last_action_date", lastAction != null && lastAction.getActionDate() != null ? new Timestamp(lastAction.getActionDate().getTimeInMillis()) : null);
+        row.putAll(getPredicateColumns(submission, maintainedPredicates));
+
+        upsert(submission.getId(), row);
+    }
+
+    /**
+     * Update only the last action columns of a submission's projection row.
+     *
+     * @param submissionId The submission id.
+     * @param lastAction The submission's new last action.
+     */
+    public void refreshLastAction(Long submissionId, ActionLog lastAction) {
+        if (!enabled || submissionId == null) {
+            return;
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("last_action_entry", lastAction != null ? lastAction.getEntry() : null);
+        row.put("last_action_date", lastAction != null && lastAction.getActionDate() != null ? new Timestamp(lastAction.getActionDate().getTimeInMillis()) : null);
+
+        upsert(submissionId, row);
+    }
+
+    /**
+     * Remove the projection row of a submission.
+     *
+     * @param submissionId The submission id.
+     */
+    public void remove(Long submissionId) {
+        if (!enabled || submissionId == null) {
+            return;
+        }
+
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE submission_id = ?", submissionId);
+    }
+
+    /**
+     * Rebuild every projection row, in chunks, each in its own transaction.
+     *
+     * @return The number of submissions projected.
+     */
+    public int rebuild() {
+        if (!enabled) {
+            logger.warn("Not rebuilding " + TABLE + ", the submission list projection is disabled");
+            return 0;
+        }
+
+        ensureSchema();
+
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE submission_id NOT IN (SELECT id FROM submission)");
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM submission ORDER BY id", Long.class);
+
+        project(ids, this::refresh);
+
+        return ids.size();
+    }
+
+    /**
+     * Load submissions in chunks, each in its own transaction, and project them.
+     *
+     * @param ids The submission ids.
+     * @param projection Writes the projection of a submission.
+     */
+    private void project(List<Long> ids, Consumer<Submission> projection) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < ids.size(); i += REBUILD_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(i, Math.min(i + REBUILD_CHUNK_SIZE, ids.size()));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                submissionRepo.findAllById(chunk).forEach(projection);
+                entityManager.clear();
+            });
+
+            logger.info("Projected " + Math.min(i + REBUILD_CHUNK_SIZE, ids.size()) + " of " + ids.size() + " submissions");
+        }
+    }
+
+    /**
+     * Get the value and sort columns of a submission for some projected predicates.
+     *
+     * @param submission The submission.
+     * @param predicates The predicate values to the ids of their field predicates.
+     * @return The values by column name, null when the submission has no value for the predicate.
+     */
+    private static Map<String, Object> getPredicateColumns(Submission submission, Map<String, Long> predicates) {
+        Map<String, String> values = getValuesByPredicate(submission, predicates.keySet());
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        predicates.forEach((predicate, predicateId) -> {
+            String value = values.get(predicate);
+            columns.put(valueColumn(predicateId), value);
+            columns.put(sortColumn(predicateId), StringUtils.left(value, SORT_KEY_LENGTH));
+        });
+
+        return columns;
+    }
+
+    /**
+     * Group a submission's field values by predicate, joining multiple values in the order of their ids as the
+     * submission list displays them.
+     *
+     * @param submission The submission.
+     * @param predicates The predicates of interest.
+     * @return The joined values by predicate value, absent when the submission has no value for the predicate.
+     */
+    private static Map<String, String> getValuesByPredicate(Submission submission, Collection<String> predicates) {
+        Map<String, List<String>> grouped = new HashMap<>();
+
+        List<FieldValue> fieldValues = new ArrayList<>(submission.getFieldValues());
+        fieldValues.sort(Comparator.comparing(FieldValue::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        for (FieldValue fieldValue : fieldValues) {
+            String predicate = fieldValue.getFieldPredicate().getValue();
+            if (predicates.contains(predicate)) {
+                grouped.computeIfAbsent(predicate, key -> new ArrayList<>()).add(fieldValue.getValue());
+            }
+        }
+
+        Map<String, String> values = new HashMap<>();
+        grouped.forEach((predicate, list) -> values.put(predicate, list.stream().map(Objects::toString).collect(Collectors.joining(", "))));
+
+        return values;
+    }
+
+    private static String valueColumn(Long predicateId) {
+        return "p_" + predicateId;
+    }
+
+    private static String sortColumn(Long predicateId) {
+        return "s_" + predicateId;
+    }
+
+    private void upsert(Long submissionId, Map<String, Object> row) {
+        List<String> columns = new ArrayList<>(row.keySet());
+        List<Object> values = new ArrayList<>(row.values());
+
+        String assignments = columns.stream().map(column -> column + " = ?").collect(Collectors.joining(", "));
+
+        List<Object> updateValues = new ArrayList<>(values);
+        updateValues.add(submissionId);
+
+        if (jdbcTemplate.update("UPDATE " + TABLE + " SET " + assignments + " WHERE submission_id = ?", updateValues.toArray()) > 0) {
+            return;
+        }
+
+        List<Object> insertValues = new ArrayList<>();
+        insertValues.add(submissionId);
+        insertValues.addAll(values);
+
+        String placeholders = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (submission_id, " + String.join(", ", columns) + ") VALUES (?, " + placeholders + ")", insertValues.toArray());
+        } catch (DuplicateKeyException e) {
+            // inserted concurrently, apply this state over it
+            jdbcTemplate.update("UPDATE " + TABLE + " SET " + assignments + " WHERE submission_id = ?", updateValues.toArray());
+        }
+    }
+
+    private Set<String> getListedPredicates() {
+        Set<String> predicates = new HashSet<>();
+
+        for (SubmissionListColumn submissionListColumn : submissionListColumnRepo.findAll()) {
+            if (StringUtils.isNotEmpty(submissionListColumn.getPredicate())) {
+                String predicate = submissionListColumn.getPredicate().trim();
+                predicates.add(predicate);
+
+                // space delimited set of predicates
+                if (predicate.contains(" ")) {
+                    for (String p : predicate.split(" ")) {
+                        predicates.add(p.replace(",", " ").trim());
+                    }
+                }
+            }
+        }
+
+        return predicates;
+    }
+
+    private boolean tableExists() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[] { TABLE, TABLE.toUpperCase(Locale.ROOT) }) {
+                try (ResultSet tables = metaData.getTables(null, null, name, new String[] { "TABLE" })) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    private Set<String> getExistingColumns() {
+        return jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Set<String> columns = new HashSet<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[] { TABLE, TABLE.toUpperCase(Locale.ROOT) }) {
+                try (ResultSet resultSet = metaData.getColumns(null, null, name, null)) {
+                    while (resultSet.next()) {
+                        columns.add(resultSet.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return columns;
+        });
+    }
+
+}
@@ -75,6 +75,18 @@ public class VireoEmailSender extends JavaMailSenderImpl implements EmailSender
     public void sendEmail(String[] to, String[] cc, String[] bcc, String subject, String content) throws MessagingException {
         loadConfiguration();
 
+        MimeMessage message = buildEmail(to, cc, bcc, subject, content);
+
+        LOG.debug("\tSending email with subject '" + subject + "' from " + vireoEmailConfig.getFrom() + " to: [ " + String.join("; ", to) + " ], cc: [ " + String.join(";", cc) + " ], bcc: [ " + String.join(";", bcc) + " ]; ");
+        send(message);
+    }
+
+    /**
+     * Build an email from the configured address, without sending it.
+     *
+     * The configuration must have been loaded with {@link #loadConfiguration()}.
+     */
+    public MimeMessage buildEmail(String[] to, String[] cc, String[] bcc, String subject, String content) throws MessagingException {
         MimeMessage message = createMimeMessage();
         MimeMessageHelper mm = new MimeMessageHelper(message);
 
@@ -87,8 +99,7 @@ public class VireoEmailSender extends JavaMailSenderImpl implements EmailSender
         mm.setSubject(subject);
         mm.setText(content, false);
 
-        LOG.debug("\tSending email with subject '" + subject + "' from " + vireoEmailConfig.getFrom() + " to: [ " + String.join("; ", to) + " ], cc: [ " + String.join(";", cc) + " ], bcc: [ " + String.join(";", bcc) + " ]; ");
-        send(message);
+        return message;
     }
 
 }
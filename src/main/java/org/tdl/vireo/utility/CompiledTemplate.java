@@ -0,0 +1,107 @@
+package org.tdl.vireo.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A template parsed once into literal text and {PLACEHOLDER} slots, so it can be rendered in a single pass.
+ *
+ * A placeholder is any text between braces that does not itself contain a brace. Placeholders without a value are
+ * rendered as they were written, braces included.
+ */
+public final class CompiledTemplate {
+
+    private final List<String> literals;
+
+    private final List<String> placeholders;
+
+    private final int length;
+
+    private CompiledTemplate(List<String> literals, List<String> placeholders, int length) {
+        this.literals = Collections.unmodifiableList(literals);
+        this.placeholders = Collections.unmodifiableList(placeholders);
+        this.length = length;
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @param template
+     *            The template text.
+     *
+     * @return The compiled template.
+     */
+    public static CompiledTemplate compile(String template) {
+        // literals and placeholders alternate, starting and ending with a literal
+        List<String> literals = new ArrayList<String>();
+        List<String> placeholders = new ArrayList<String>();
+
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < template.length()) {
+            int open = template.indexOf('{', position);
+            if (open < 0) {
+                break;
+            }
+            int close = template.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int nested = template.indexOf('{', open + 1);
+            if (nested >= 0 && nested < close) {
+                // not a placeholder, the next brace may open one
+                literal.append(template, position, nested);
+                position = nested;
+                continue;
+            }
+            if (close == open + 1) {
+                literal.append(template, position, close + 1);
+                position = close + 1;
+                continue;
+            }
+            literal.append(template, position, open);
+            literals.add(literal.toString());
+            placeholders.add(template.substring(open + 1, close));
+            literal.setLength(0);
+            position = close + 1;
+        }
+        literal.append(template, position, template.length());
+        literals.add(literal.toString());
+
+        return new CompiledTemplate(literals, placeholders, template.length());
+    }
+
+    /**
+     * @return the placeholder names, in order of appearance
+     */
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Render the template.
+     *
+     * @param values
+     *            Resolves a placeholder name to its value, or null to leave the placeholder as written.
+     *
+     * @return The rendered text.
+     */
+    public String render(Function<String, String> values) {
+        StringBuilder rendered = new StringBuilder(length + 16 * placeholders.size());
+        for (int i = 0; i < placeholders.size(); i++) {
+            rendered.append(literals.get(i));
+            String placeholder = placeholders.get(i);
+            String value = values.apply(placeholder);
+            if (value == null) {
+                rendered.append('{').append(placeholder).append('}');
+            } else {
+                rendered.append(value);
+            }
+        }
+        rendered.append(literals.get(placeholders.size()));
+        return rendered.toString();
+    }
+
+}
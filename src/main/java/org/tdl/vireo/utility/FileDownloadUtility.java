@@ -0,0 +1,352 @@
+package org.tdl.vireo.utility;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a file to a response, answering conditional and range requests.
+ *
+ * Responses carry an ETag and Last-Modified, so a client holding the file is answered with 304 Not Modified, and
+ * accept byte ranges, so a viewer seeking through the file or an interrupted download fetches only what it is missing.
+ * A single range is answered as partial content and several as multipart/byteranges. File content is transferred by
+ * the container's sendfile where it supports it, and with {@link FileChannel#transferTo} otherwise.
+ */
+public class FileDownloadUtility {
+
+    /**
+     * Requests for more ranges than this are answered with the whole file, as are ranges adding up to more than it.
+     */
+    public static final int MAX_RANGES = 16;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private FileDownloadUtility() {
+
+    }
+
+    /**
+     * Write the file, or the ranges of it requested, to the response.
+     *
+     * @param request The request, whose conditional and range headers are answered.
+     * @param response The response.
+     * @param path The file.
+     * @param contentType The media type of the file, application/octet-stream when null.
+     * @param etag The strong entity tag of the file, quoted, or null to use a weak one from its size and modification time.
+     */
+    public static void download(HttpServletRequest request, HttpServletResponse response, Path path, String contentType, String etag) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = Files.size(path);
+        // HTTP dates have a resolution of seconds
+        long lastModified = Files.getLastModifiedTime(path).toMillis() / 1000 * 1000;
+
+        if (etag == null) {
+            etag = "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+
+        if (contentType == null) {
+            contentType = DEFAULT_CONTENT_TYPE;
+        }
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+
+        if (!checkPreconditions(request, response, etag, lastModified)) {
+            return;
+        }
+
+        boolean head = "HEAD".equals(request.getMethod());
+
+        List<long[]> ranges = getRanges(request, etag, lastModified, size);
+
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            if (!head) {
+                transfer(request, response, path, 0, size);
+            }
+        } else if (ranges.isEmpty()) {
+            response.setHeader("Content-Range", "bytes */" + size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        } else if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader("Content-Range", contentRange(range, size));
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            if (!head) {
+                transfer(request, response, path, range[0], range[1] - range[0] + 1);
+            }
+        } else {
+            String boundary = UUID.randomUUID().toString().replace("-", "");
+
+            List<byte[]> partHeaders = new ArrayList<>();
+            long length = 0;
+            for (long[] range : ranges) {
+                byte[] partHeader = ("\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\nContent-Range: " + contentRange(range, size) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+                partHeaders.add(partHeader);
+                length += partHeader.length + range[1] - range[0] + 1;
+            }
+            byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            length += end.length;
+
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            response.setContentLengthLong(length);
+
+            if (!head) {
+                OutputStream out = response.getOutputStream();
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    WritableByteChannel target = Channels.newChannel(out);
+                    for (int i = 0; i < ranges.size(); i++) {
+                        long[] range = ranges.get(i);
+                        out.write(partHeaders.get(i));
+                        transfer(channel, target, range[0], range[1] - range[0] + 1);
+                    }
+                }
+                out.write(end);
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Answer If-Match, If-Unmodified-Since, If-None-Match and If-Modified-Since, in the order RFC 7232 evaluates them.
+     *
+     * @return whether the request should be answered with the file
+     */
+    private static boolean checkPreconditions(HttpServletRequest request, HttpServletResponse response, String etag, long lastModified) throws IOException {
+        String ifMatch = request.getHeader("If-Match");
+        if (ifMatch != null) {
+            if (!matches(ifMatch, etag, true)) {
+                response.sendError(HttpServletResponse.SC_PRECONDITION_FAILED);
+                return false;
+            }
+        } else {
+            long ifUnmodifiedSince = getDateHeader(request, "If-Unmodified-Since");
+            if (ifUnmodifiedSince >= 0 && lastModified > ifUnmodifiedSince) {
+                response.sendError(HttpServletResponse.SC_PRECONDITION_FAILED);
+                return false;
+            }
+        }
+
+        boolean safe = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            if (matches(ifNoneMatch, etag, false)) {
+                if (safe) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                } else {
+                    response.sendError(HttpServletResponse.SC_PRECONDITION_FAILED);
+                }
+                return false;
+            }
+        } else if (safe) {
+            long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+            if (ifModifiedSince >= 0 && lastModified <= ifModifiedSince) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the ranges requested, null when the whole file should be sent, empty when none can be satisfied
+     */
+    private static List<long[]> getRanges(HttpServletRequest request, String etag, long lastModified, long size) {
+        String range = request.getHeader("Range");
+
+        if (range == null || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return null;
+        }
+
+        // the ranges are of the representation the client holds, the whole file is sent when it has changed
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!matches(ifRange, etag, true)) {
+                    return null;
+                }
+            } else if (getDateHeader(request, "If-Range") != lastModified) {
+                return null;
+            }
+        }
+
+        List<long[]> ranges = parseRanges(range, size);
+
+        if (ranges != null && !ranges.isEmpty()) {
+            long length = 0;
+            for (long[] r : ranges) {
+                length += r[1] - r[0] + 1;
+            }
+            if (ranges.size() > MAX_RANGES || length > size) {
+                return null;
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Parse a byte ranges header into the satisfiable ranges, with their last positions inclusive.
+     *
+     * @return the satisfiable ranges, empty when there are none, or null when the header is not a valid byte ranges
+     *         header and should be ignored
+     */
+    static List<long[]> parseRanges(String range, long size) {
+        if (!range.startsWith("bytes=")) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        boolean specified = false;
+
+        for (String spec : range.substring("bytes=".length()).split(",")) {
+            spec = spec.trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            specified = true;
+
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            long start;
+            long end;
+
+            if (first.isEmpty()) {
+                long suffix = parsePosition(last);
+                if (suffix < 0) {
+                    return null;
+                }
+                if (suffix == 0) {
+                    continue;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = parsePosition(first);
+                end = last.isEmpty() ? size - 1 : parsePosition(last);
+                if (start < 0 || end < 0 || (!last.isEmpty() && end < start)) {
+                    return null;
+                }
+                end = Math.min(end, size - 1);
+            }
+
+            if (start < size) {
+                ranges.add(new long[] { start, end });
+            }
+        }
+
+        return specified ? ranges : null;
+    }
+
+    private static void transfer(HttpServletRequest request, HttpServletResponse response, Path path, long start, long length) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(channel, Channels.newChannel(out), start, length);
+        }
+        out.flush();
+    }
+
+    private static void transfer(FileChannel channel, WritableByteChannel target, long position, long length) throws IOException {
+        while (length > 0) {
+            long transferred = channel.transferTo(position, length, target);
+            if (transferred <= 0) {
+                throw new IOException("File was truncated while it was being sent");
+            }
+            position += transferred;
+            length -= transferred;
+        }
+    }
+
+    private static boolean matches(String header, String etag, boolean strong) {
+        if (header.trim().equals("*")) {
+            return true;
+        }
+        if (strong && etag.startsWith("W/")) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                if (strong) {
+                    continue;
+                }
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            // an unparsable date is ignored, as if the header was not sent
+            return -1;
+        }
+    }
+
+    private static long parsePosition(String position) {
+        if (position.isEmpty() || position.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < position.length(); i++) {
+            if (position.charAt(i) < '0' || position.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Long.parseLong(position);
+    }
+
+    private static String contentRange(long[] range, long size) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + size;
+    }
+
+}
@@ -1,12 +1,15 @@
 package org.tdl.vireo.utility;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-
-import javax.annotation.Resource;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.formatter.Formatter;
@@ -14,26 +17,69 @@ import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
 
+/**
+ * Renders the templates of export formatters.
+ *
+ * Each formatter gets its own template engine, configured once with the suffix and template mode of the formatter,
+ * so concurrent renders never reconfigure a shared resolver. The engines cache their parsed templates, and an engine
+ * is only replaced when the templates map of its formatter changes.
+ */
 @Service
 public class FormatterUtility {
 
-    @Resource(name = "templateResolver")
-    private SpringResourceTemplateResolver resolver;
+    private static final String TEMPLATE_PREFIX = "classpath:/formats/";
 
     @Autowired
-    private SpringTemplateEngine templateEngine;
+    private ApplicationContext applicationContext;
+
+    private final Map<String, FormatterEngine> engines = new ConcurrentHashMap<>();
 
     public Map<String, String> renderManifestMap(Formatter formatter, Submission submission) throws Exception {
-        resolver.setSuffix(formatter.getSuffix());
-        resolver.setTemplateMode(formatter.getTemplateMode());
         Map<String, String> renderMap = new HashMap<String, String>();
         Context context = new Context(Locale.getDefault());
         formatter.populateContext(context, submission);
         Map<String, String> templates = formatter.getTemplates();
+        SpringTemplateEngine templateEngine = getTemplateEngine(formatter, templates);
         for (Map.Entry<String, String> template : templates.entrySet()) {
             renderMap.put(template.getKey(), templateEngine.process(template.getValue(), context));
         }
         return renderMap;
     }
 
+    private SpringTemplateEngine getTemplateEngine(Formatter formatter, Map<String, String> templates) {
+        String key = formatter.getClass().getName() + ":" + formatter.getSuffix() + ":" + formatter.getTemplateMode();
+
+        FormatterEngine engine = engines.get(key);
+        if (engine == null || !engine.templates.equals(templates)) {
+            engine = engines.compute(key, (k, existing) -> existing != null && existing.templates.equals(templates) ? existing : new FormatterEngine(formatter, templates));
+        }
+
+        return engine.templateEngine;
+    }
+
+    private class FormatterEngine {
+
+        // copy of the templates map the engine was created for
+        private final Map<String, String> templates;
+
+        private final SpringTemplateEngine templateEngine;
+
+        private FormatterEngine(Formatter formatter, Map<String, String> templates) {
+            this.templates = Collections.unmodifiableMap(new HashMap<String, String>(templates));
+
+            SpringResourceTemplateResolver resolver = new SpringResourceTemplateResolver();
+            resolver.setApplicationContext(applicationContext);
+            resolver.setPrefix(TEMPLATE_PREFIX);
+            resolver.setSuffix(formatter.getSuffix());
+            resolver.setTemplateMode(formatter.getTemplateMode());
+            resolver.setCharacterEncoding(UTF_8.name());
+            resolver.setCheckExistence(true);
+            resolver.setCacheable(true);
+
+            templateEngine = new SpringTemplateEngine();
+            templateEngine.setTemplateResolver(resolver);
+        }
+
+    }
+
 }
@@ -1,9 +1,9 @@
 package org.tdl.vireo.utility;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,14 +29,14 @@ import org.apache.commons.lang3.time.DateUtils;
 
 public class SubmissionHelperUtility {
 
-    private final static SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
+    private final static ThreadLocal<SimpleDateFormat> dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("MM/dd/yyyy"));
 
-    private final static SimpleDateFormat yearFormat = new SimpleDateFormat("yyyy");
+    private final static ThreadLocal<SimpleDateFormat> yearFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy"));
 
-    private final static SimpleDateFormat yearMonthFormat = new SimpleDateFormat("yyyy-MM");
-    private final static SimpleDateFormat monthYearFormat = new SimpleDateFormat("MMMM yyyy");
+    private final static ThreadLocal<SimpleDateFormat> yearMonthFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM"));
+    private final static ThreadLocal<SimpleDateFormat> monthYearFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("MMMM yyyy"));
 
-    private final static SimpleDateFormat iso8601Format = new SimpleDateFormat("yyyy-MM-dd");
+    private final static ThreadLocal<SimpleDateFormat> iso8601Format = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd"));
 
     private final static PhoneNumberUtil phoneUtil = PhoneNumberUtil.getInstance();
 
@@ -114,14 +114,23 @@ public class SubmissionHelperUtility {
 
     private final Submission submission;
 
+    private final SubmissionSnapshot snapshot;
+
+    private ConfigurationRepo configurationRepo;
+
     public SubmissionHelperUtility(Submission submission) {
         this.submission = submission;
+        this.snapshot = new SubmissionSnapshot(submission);
     }
 
     public Submission getSubmission() {
         return submission;
     }
 
+    public SubmissionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     /**
      * Scott Phillips's address parsing algorithm.
      * 
@@ -197,19 +206,21 @@ public class SubmissionHelperUtility {
     // NOTE: these come from the submission
 
     public String getSubmissionDateString() {
-        return submission.getSubmissionDate() != null ? dateFormat.format(submission.getSubmissionDate().getTime()) : "";
+        return submission.getSubmissionDate() != null ? dateFormat.get().format(submission.getSubmissionDate().getTime()) : "";
     }
 
     public String getEmbargoApprovalDateString() {
-        return submission.getApproveEmbargoDate() != null ? dateFormat.format(submission.getApproveEmbargoDate().getTime()) : "";
+        return submission.getApproveEmbargoDate() != null ? dateFormat.get().format(submission.getApproveEmbargoDate().getTime()) : "";
     }
 
     public String getFormattedCommitteeApprovedEmbargoLiftDateString() {
-        Calendar appEmbDate = submission.getApproveEmbargoDate();
-        if(appEmbDate==null){
+        // a copy, the approval date of the submission must not be moved by the embargo
+        Optional<Calendar> approveEmbargoDate = snapshot.getApproveEmbargoDate();
+        if(!approveEmbargoDate.isPresent()){
             return "";
         }
-        Optional<FieldValue> defaultEmbargo = getFirstFieldValueByPredicateValue("default_embargos");
+        Calendar appEmbDate = approveEmbargoDate.get();
+        Optional<FieldValue> defaultEmbargo = snapshot.getFirstFieldValue(SubmissionSnapshot.DEFAULT_EMBARGO_PREDICATE);
         int monthIncr = 0;
         if(defaultEmbargo.isPresent()){
             String defEmbStr = defaultEmbargo.get().getValue();
@@ -226,15 +237,15 @@ public class SubmissionHelperUtility {
         if(monthIncr>0){
             appEmbDate.add(Calendar.MONTH,monthIncr);
         }
-        return dateFormat.format(appEmbDate.getTime());
+        return dateFormat.get().format(appEmbDate.getTime());
     }
 
     public String getAdvisorApprovalDateString() {
-        return submission.getApproveAdvisorDate() != null ? dateFormat.format(submission.getApproveAdvisorDate().getTime()) : "";
+        return submission.getApproveAdvisorDate() != null ? dateFormat.get().format(submission.getApproveAdvisorDate().getTime()) : "";
     }
 
     public String getApproveApplicationDate() {
-        return submission.getApproveApplicationDate() != null ? dateFormat.format(submission.getApproveApplicationDate().getTime()) : "";
+        return submission.getApproveApplicationDate() != null ? dateFormat.get().format(submission.getApproveApplicationDate().getTime()) : "";
     }
 
     public String getUserOrcid() {
@@ -244,80 +255,46 @@ public class SubmissionHelperUtility {
     }
 
     public List<FieldValue> getLicenseAgreementFieldValues() {
-        List<FieldValue> fieldValues = new ArrayList<FieldValue>();
-        for (FieldValue fieldValue : submission.getFieldValues()) {
-            if (fieldValue.getFieldPredicate().getValue().equals("license_agreement")) {
-                fieldValues.add(fieldValue);
-            }
-        }
-        return fieldValues;
+        return new ArrayList<FieldValue>(snapshot.getFieldValues("license_agreement"));
     }
 
     public Optional<String> getFieldValueByPredicateValue(String predicateValue) {
-        List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue(predicateValue);
-        return fieldValues.size() > 0 ? Optional.of(fieldValues.get(0).getValue()) : Optional.empty();
+        return snapshot.getFirstValue(predicateValue);
     }
 
     public Optional<String> getFieldValueIdentifierByPredicateValue(String predicateValue) {
-        List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue(predicateValue);
-        return fieldValues.size() > 0 && fieldValues.get(0).getIdentifier() != null ? Optional.of(fieldValues.get(0).getIdentifier()) : Optional.empty();
+        return snapshot.getFirstFieldValue(predicateValue).map(FieldValue::getIdentifier);
     }
 
     public Optional<String> getFieldValueDefinitionByPredicateValue(String predicateValue) {
-        List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue(predicateValue);
-        return fieldValues.size() > 0 && fieldValues.get(0).getDefinition() != null ? Optional.of(fieldValues.get(0).getDefinition()) : Optional.empty();
+        return snapshot.getFirstFieldValue(predicateValue).map(FieldValue::getDefinition);
     }
 
     public Optional<FieldValue> getFirstFieldValueByPredicateValue(String predicateValue) {
-        List<FieldValue> fieldValues = submission.getFieldValuesByPredicateValue(predicateValue);
-        return fieldValues.size() > 0 ? Optional.of(fieldValues.get(0)) : Optional.empty();
+        return snapshot.getFirstFieldValue(predicateValue);
     }
 
     // NOTE: uses hard coded predicate values
     public String getGraduationDateString() {
-        Optional<String> graduationDate = getFieldValueByPredicateValue("dc.date.issued");
-        String date = "";
-        if (graduationDate.isPresent()) {
-            try {
-                date = dateFormat.format(monthYearFormat.parse(graduationDate.get()));
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-        }
-        return date;
+        Optional<Date> dateIssued = snapshot.getDateIssued();
+        return dateIssued.isPresent() ? dateFormat.get().format(dateIssued.get()) : "";
     }
 
     // NOTE: uses hard coded predicate values
     public String getGraduationYearString() {
-        Optional<String> graduationYear = getFieldValueByPredicateValue("dc.date.issued");
-        String year = "";
-        if (graduationYear.isPresent()) {
-            try {
-                year = yearFormat.format(monthYearFormat.parse(graduationYear.get()));
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-        }
-        return year;
+        Optional<Date> dateIssued = snapshot.getDateIssued();
+        return dateIssued.isPresent() ? yearFormat.get().format(dateIssued.get()) : "";
     }
 
     // NOTE: uses hard coded predicate values
     public String getGraduationYearMonthString() {
-        Optional<String> graduationYearMonth = getFieldValueByPredicateValue("dc.date.issued");
-        String yearMonth = "";
-        if (graduationYearMonth.isPresent()) {
-            try {
-                yearMonth = yearMonthFormat.format(monthYearFormat.parse(graduationYearMonth.get()));
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-        }
-        return yearMonth;
+        Optional<Date> dateIssued = snapshot.getDateIssued();
+        return dateIssued.isPresent() ? yearMonthFormat.get().format(dateIssued.get()) : "";
     }
 
     // NOTE: uses hard coded predicate values
     public String getGraduationMonthYearString() {
-        Optional<String> graduationMonthYear = getFieldValueByPredicateValue("dc.date.issued");
+        Optional<String> graduationMonthYear = snapshot.getDateIssuedString();
         return graduationMonthYear.isPresent() ? graduationMonthYear.get() : "";
     }
 
@@ -542,7 +519,7 @@ public class SubmissionHelperUtility {
     }
 
     public List<FieldValue> getCommitteeChairFieldValues() {
-        return submission.getFieldValuesByPredicateValueStartsWith("dc.contributor.advisor");
+        return snapshot.getFieldValuesStartingWith("dc.contributor.advisor");
     }
 
     public String getFirstName(String name) {
@@ -573,15 +550,15 @@ public class SubmissionHelperUtility {
     }
 
     public List<FieldValue> getSubjectFieldValues() {
-        return submission.getFieldValuesByPredicateValue("dc.subject");
+        return snapshot.getFieldValues("dc.subject");
     }
 
     public List<FieldValue> getKeywordFieldValues() {
-        return submission.getFieldValuesByPredicateValue("keywords");
+        return snapshot.getFieldValues("keywords");
     }
 
     public List<FieldValue> getCommitteeMemberFieldValues() {
-        return submission.getFieldValuesByPredicateValueStartsWith("dc.contributor.committeeMember");
+        return snapshot.getFieldValuesStartingWith("dc.contributor.committeeMember");
     }
 
     public String getLanguageProQuestCode() {
@@ -602,7 +579,7 @@ public class SubmissionHelperUtility {
 
     public int getEmbargoCode() {
         int embargoCode = 0;
-        Optional<FieldValue> proquestEmbargo = getFirstFieldValueByPredicateValue("proquest_embargos");
+        Optional<FieldValue> proquestEmbargo = snapshot.getFirstFieldValue(SubmissionSnapshot.PROQUEST_EMBARGO_PREDICATE);
         if (proquestEmbargo.isPresent()) {
           embargoCode = 4;
         } else {
@@ -652,63 +629,27 @@ public class SubmissionHelperUtility {
     }
 
     public String getEmbargoLiftDate() {
-        String embargoLiftDateStr = null;
-        Optional<String> dateIssued = getFieldValueByPredicateValue("dc.date.issued");
-        if(dateIssued.isPresent()){
-            String dateIssuedStr = dateIssued.get();
-
-            Optional<FieldValue> proquestEmbargo = getFirstFieldValueByPredicateValue("proquest_embargos");
-            Optional<FieldValue> defaultEmbargo = getFirstFieldValueByPredicateValue("default_embargos");
-
-            Optional<FieldValue> embargo = Optional.empty();
-            
-            if (proquestEmbargo.isPresent() && Integer.valueOf(proquestEmbargo.get().getIdentifier()) > 0 &&
-                defaultEmbargo.isPresent() && Integer.valueOf(defaultEmbargo.get().getIdentifier()) > 0) {
-                embargo = Integer.valueOf(proquestEmbargo.get().getIdentifier()) >= Integer.valueOf(defaultEmbargo.get().getIdentifier())
-                    ? proquestEmbargo
-                    : defaultEmbargo;
-            } else if (proquestEmbargo.isPresent() && Integer.valueOf(proquestEmbargo.get().getIdentifier()) > 0) {
-                embargo = proquestEmbargo;
-            } else if (defaultEmbargo.isPresent() && Integer.valueOf(defaultEmbargo.get().getIdentifier()) > 0) {
-                embargo = defaultEmbargo;
-            }
+        Optional<Date> dateIssued = snapshot.getDateIssued();
+        if (!dateIssued.isPresent()) {
+            return null;
+        }
 
-            if (embargo.isPresent()) {
-                String embargoDuration = embargo.get().getIdentifier();
-                if (embargoDuration != null && embargoDuration.length() > 0) {
-                    int duration = Integer.valueOf(embargoDuration);
-                    try {
-                        java.util.Date embargoLiftDate = DateUtils.addMonths(monthYearFormat.parse(dateIssuedStr), duration);
-                        embargoLiftDateStr = iso8601Format.format(embargoLiftDate);
-                    } catch (ParseException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
+        // the longer of the ProQuest and default embargoes
+        int duration = Math.max(snapshot.getProquestEmbargoDuration().orElse(0), snapshot.getDefaultEmbargoDuration().orElse(0));
+        if (duration <= 0) {
+            return null;
         }
-        return embargoLiftDateStr;
-    }  
+
+        return iso8601Format.get().format(DateUtils.addMonths(dateIssued.get(), duration));
+    }
 
     public String getProQuestFormatRestrictionRemove() {
-        String proquestLiftDateStr = "";
-        Optional<String> dateIssued = getFieldValueByPredicateValue("dc.date.issued");
-        if(dateIssued.isPresent()){
-          String dateIssuedStr = dateIssued.get();
-          Optional<FieldValue> proquestEmbargo = getFirstFieldValueByPredicateValue("proquest_embargos");
-          if (proquestEmbargo.isPresent()) {
-            String proquestDuration = proquestEmbargo.get().getIdentifier();
-            if ((proquestDuration != null)&&(proquestDuration.length() > 0)) {
-                int d = Integer.valueOf(proquestDuration);
-                try {
-                  java.util.Date proquestLiftDate = DateUtils.addMonths(monthYearFormat.parse(dateIssuedStr),d);
-                  proquestLiftDateStr = dateFormat.format(proquestLiftDate);
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
-            }
-          }
+        Optional<Date> dateIssued = snapshot.getDateIssued();
+        Optional<Integer> proquestDuration = snapshot.getProquestEmbargoDuration();
+        if (!dateIssued.isPresent() || !proquestDuration.isPresent()) {
+            return "";
         }
-        return proquestLiftDateStr;
+        return dateFormat.get().format(DateUtils.addMonths(dateIssued.get(), proquestDuration.get()));
     }
 
     public String getProQuestInstitutionCode() {
@@ -718,23 +659,15 @@ public class SubmissionHelperUtility {
     // NOTE: used context to get the default settings service
 
     public Configuration getSettingByNameAndType(String name, String type) {
-        ConfigurationRepo configurationRepo = SpringContext.bean(ConfigurationRepo.class);
+        if (configurationRepo == null) {
+            configurationRepo = SpringContext.bean(ConfigurationRepo.class);
+        }
         return configurationRepo.getByNameAndType(name, type);
     }
 
     public Optional<String> getProQuestCodeByNameAndType(String name, String type) {
         ProquestCodesService proquestCodesService = SpringContext.bean(ProquestCodesService.class);
-        Map<String, String> codes = proquestCodesService.getCodes(type);
-        Optional<String> code = Optional.empty();
-        for (Map.Entry<String, String> entry : codes.entrySet()) {
-            String proquestCode = entry.getKey();
-            String description = entry.getValue();
-            if (description.equals(name)) {
-                code = Optional.of(proquestCode);
-                break;
-            }
-        }
-        return code;
+        return proquestCodesService.getCodeByDescription(type, name);
     }
 
 }
@@ -0,0 +1,149 @@
+package org.tdl.vireo.utility;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.Submission;
+
+/**
+ * An immutable, indexed view of a submission's field values for rendering an export.
+ *
+ * The field values are grouped by predicate value in a single pass over the submission, keeping their order within
+ * each predicate. Values that several formatter properties derive from, the issued date and the embargo durations,
+ * are parsed once.
+ *
+ * The field values themselves are shared with the submission, so the snapshot must not outlive the transaction the
+ * submission was loaded in.
+ */
+public final class SubmissionSnapshot {
+
+    public static final String DATE_ISSUED_PREDICATE = "dc.date.issued";
+
+    public static final String PROQUEST_EMBARGO_PREDICATE = "proquest_embargos";
+
+    public static final String DEFAULT_EMBARGO_PREDICATE = "default_embargos";
+
+    private final Submission submission;
+
+    private final Map<String, List<FieldValue>> fieldValuesByPredicate;
+
+    private final Optional<Date> dateIssued;
+
+    private final Optional<Integer> proquestEmbargoDuration;
+
+    private final Optional<Integer> defaultEmbargoDuration;
+
+    public SubmissionSnapshot(Submission submission) {
+        this.submission = submission;
+
+        Map<String, List<FieldValue>> grouped = new LinkedHashMap<String, List<FieldValue>>();
+        for (FieldValue fieldValue : submission.getFieldValues()) {
+            grouped.computeIfAbsent(fieldValue.getFieldPredicate().getValue(), predicate -> new ArrayList<FieldValue>()).add(fieldValue);
+        }
+        grouped.replaceAll((predicate, fieldValues) -> Collections.unmodifiableList(fieldValues));
+        fieldValuesByPredicate = Collections.unmodifiableMap(grouped);
+
+        dateIssued = getFirstValue(DATE_ISSUED_PREDICATE).map(SubmissionSnapshot::parseMonthYear);
+        proquestEmbargoDuration = getFirstFieldValue(PROQUEST_EMBARGO_PREDICATE).map(fieldValue -> parseDuration(fieldValue.getIdentifier()));
+        defaultEmbargoDuration = getFirstFieldValue(DEFAULT_EMBARGO_PREDICATE).map(fieldValue -> parseDuration(fieldValue.getIdentifier()));
+    }
+
+    public Submission getSubmission() {
+        return submission;
+    }
+
+    /**
+     * @param predicateValue The field predicate value.
+     * @return the field values of the predicate, in submission order, empty when there are none
+     */
+    public List<FieldValue> getFieldValues(String predicateValue) {
+        return fieldValuesByPredicate.getOrDefault(predicateValue, Collections.emptyList());
+    }
+
+    /**
+     * @param prefix The start of the field predicate values.
+     * @return the field values of every predicate starting with the prefix, grouped by predicate
+     */
+    public List<FieldValue> getFieldValuesStartingWith(String prefix) {
+        List<FieldValue> fieldValues = new ArrayList<FieldValue>();
+        fieldValuesByPredicate.forEach((predicate, values) -> {
+            if (predicate.startsWith(prefix)) {
+                fieldValues.addAll(values);
+            }
+        });
+        return fieldValues;
+    }
+
+    public Optional<FieldValue> getFirstFieldValue(String predicateValue) {
+        List<FieldValue> fieldValues = getFieldValues(predicateValue);
+        return fieldValues.isEmpty() ? Optional.empty() : Optional.of(fieldValues.get(0));
+    }
+
+    public Optional<String> getFirstValue(String predicateValue) {
+        return getFirstFieldValue(predicateValue).map(FieldValue::getValue);
+    }
+
+    /**
+     * @return the unparsed issued date, as month and year
+     */
+    public Optional<String> getDateIssuedString() {
+        return getFirstValue(DATE_ISSUED_PREDICATE);
+    }
+
+    /**
+     * @return the issued date, empty when missing or not a month and year
+     */
+    public Optional<Date> getDateIssued() {
+        return dateIssued;
+    }
+
+    /**
+     * @return the months of the ProQuest embargo, empty when there is none or it has no numeric duration
+     */
+    public Optional<Integer> getProquestEmbargoDuration() {
+        return proquestEmbargoDuration;
+    }
+
+    /**
+     * @return the months of the default embargo, empty when there is none or it has no numeric duration
+     */
+    public Optional<Integer> getDefaultEmbargoDuration() {
+        return defaultEmbargoDuration;
+    }
+
+    /**
+     * @return a copy of the embargo approval date, safe to modify
+     */
+    public Optional<Calendar> getApproveEmbargoDate() {
+        return Optional.ofNullable(submission.getApproveEmbargoDate()).map(date -> (Calendar) date.clone());
+    }
+
+    private static Date parseMonthYear(String monthYear) {
+        try {
+            return new SimpleDateFormat("MMMM yyyy").parse(monthYear);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseDuration(String identifier) {
+        if (identifier == null || identifier.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(identifier.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
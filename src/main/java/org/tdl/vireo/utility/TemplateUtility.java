@@ -2,7 +2,9 @@ package org.tdl.vireo.utility;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,22 +39,20 @@ public class TemplateUtility {
     private static final String SUBMISSION_ASSIGNED_TO = "SUBMISSION_ASSIGNED_TO";
     private static final String REGISTRATION_URL = "REGISTRATION_URL";
 
-    private final static SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-    private final static SimpleDateFormat sqlDateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    private final static SimpleDateFormat monthYearFormat = new SimpleDateFormat("MMMM yyyy");
+    private static final int MAX_COMPILED_TEMPLATES = 1000;
+
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<String, CompiledTemplate>();
 
     public String templateParameters(String content, Map<String, String> parameters) {
-        for (String name : parameters.keySet()) {
-            content = content.replaceAll("\\{" + name + "\\}", parameters.get(name));
-        }
-        return content;
+        return compile(content).render(parameters::get);
     }
 
     public String templateParameters(String content, String[][] parameters) {
+        Map<String, String> values = new HashMap<String, String>();
         for (String[] parameter : parameters) {
-            content = content.replaceAll("\\{" + parameter[0] + "\\}", parameter[1]);
+            values.putIfAbsent(parameter[0], parameter[1]);
         }
-        return content;
+        return templateParameters(content, values);
     }
 
     public String compileTemplate(EmailTemplate emailTemplate, Submission submission) {
@@ -60,57 +60,95 @@ public class TemplateUtility {
     }
 
     public String compileString(String preCompiled, Submission submission) {
+        CompiledTemplate template = compile(preCompiled);
+
+        if (template.getPlaceholders().isEmpty()) {
+            return preCompiled;
+        }
+
+        return template.render(buildValues(submission)::get);
+    }
+
+    /**
+     * Get the parsed template for a text, parsing it on first use.
+     *
+     * Templates are cached by their text, so an edited email template is parsed again and messages typed for a single
+     * submission are cached alongside the stored templates, within a bound.
+     */
+    private CompiledTemplate compile(String template) {
+        CompiledTemplate compiled = compiledTemplates.get(template);
+        if (compiled == null) {
+            compiled = CompiledTemplate.compile(template);
+            if (compiledTemplates.size() >= MAX_COMPILED_TEMPLATES) {
+                compiledTemplates.clear();
+            }
+            compiledTemplates.put(template, compiled);
+        }
+        return compiled;
+    }
 
+    private Map<String, String> buildValues(Submission submission) {
+        SubmissionSnapshot snapshot = new SubmissionSnapshot(submission);
         User submitter = submission.getSubmitter();
 
-        String compiled = preCompiled
-                .replaceAll("\\{" + FULL_NAME + "\\}", submitter.getSetting("displayName"))
-                .replaceAll("\\{" + FIRST_NAME + "\\}", submitter.getFirstName())
-                .replaceAll("\\{" + LAST_NAME + "\\}", submitter.getLastName())
+        Map<String, String> values = new HashMap<String, String>();
+
+        values.put(FULL_NAME, submitter.getSetting("displayName"));
+        values.put(FIRST_NAME, submitter.getFirstName());
+        values.put(LAST_NAME, submitter.getLastName());
 
-                // TODO: We should use a url builder service to create/retrieve these.
-                .replaceAll("\\{" + STUDENT_URL + "\\}", url + "/submission/" + submission.getId() + "/view")
-                .replaceAll("\\{" + SUBMISSION_URL + "\\}", url + "/submission/" + submission.getId())
-                .replaceAll("\\{" + ADVISOR_URL + "\\}", submission.getAdvisorReviewURL())
+        // TODO: We should use a url builder service to create/retrieve these.
+        values.put(STUDENT_URL, url + "/submission/" + submission.getId() + "/view");
+        values.put(SUBMISSION_URL, url + "/submission/" + submission.getId());
+        values.put(ADVISOR_URL, submission.getAdvisorReviewURL());
 
-                .replaceAll("\\{" + DOCUMENT_TITLE + "\\}", findValue("dc.title", submission))
-                .replaceAll("\\{" + SUBMISSION_TYPE + "\\}", findValue("submission_type", submission));
+        values.put(DOCUMENT_TITLE, findValue("dc.title", snapshot));
+        values.put(SUBMISSION_TYPE, findValue("submission_type", snapshot));
 
-                // This is being handled elswhere and may not be useful, since
-                // sending this uri from an email workflow rule seems illogical.
-                // This is because these rule trigger from submission state changes
-                // and a user must be registered already to have a submission.
-                //.replaceAll("\\{" + REGISTRATION_URL + "\\}", REGISTRATION_URL);
+        // REGISTRATION_URL is being handled elswhere and may not be useful, since
+        // sending this uri from an email workflow rule seems illogical.
+        // This is because these rule trigger from submission state changes
+        // and a user must be registered already to have a submission.
 
         //This template is often used before a DepositURL is set for the particular submission so we should check for null values
         if (submission.getDepositURL() != null) {
-            compiled = compiled.replaceAll("\\{" + DEPOSIT_URI + "\\}", submission.getDepositURL());
+            values.put(DEPOSIT_URI, submission.getDepositURL());
         }
 
         if (submission.getSubmissionStatus() != null) {
-            compiled = compiled.replaceAll("\\{" + SUBMISSION_STATUS + "\\}", submission.getSubmissionStatus().getName());
+            values.put(SUBMISSION_STATUS, submission.getSubmissionStatus().getName());
         }
 
         if (submission.getAssignee() != null) {
-            compiled = compiled.replaceAll("\\{" + SUBMISSION_ASSIGNED_TO + "\\}", submission.getAssignee().getSetting("displayName"));
+            values.put(SUBMISSION_ASSIGNED_TO, submission.getAssignee().getSetting("displayName"));
         }
 
-        compiled = replacePredicates(compiled, submission);
+        putPredicates(values, submission, snapshot);
 
-        return compiled;
+        return values;
     }
 
-    private String replacePredicates(String compiled, Submission submission) {
+    private void putPredicates(Map<String, String> values, Submission submission, SubmissionSnapshot snapshot) {
+        SimpleDateFormat dateFormat = null;
+        SimpleDateFormat sqlDateFormat = null;
 
         for (SubmissionWorkflowStep sws : submission.getSubmissionWorkflowSteps()) {
 
             for (SubmissionFieldProfile afp : sws.getAggregateFieldProfiles()) {
 
                 FieldPredicate fp = afp.getFieldPredicate();
-                String fieldValue = findValue(fp.getValue(), submission);
+                if (values.containsKey(fp.getValue())) {
+                    continue;
+                }
+
+                String fieldValue = findValue(fp.getValue(), snapshot);
 
                 // FIXME: The format needs to be customizable and not hardcoded.
                 if (afp.getInputType().getName().equalsIgnoreCase("INPUT_DATE") && !fieldValue.isEmpty()) {
+                    if (dateFormat == null) {
+                        dateFormat = new SimpleDateFormat("MM/dd/yyyy");
+                        sqlDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+                    }
                     try {
                         fieldValue = dateFormat.format(sqlDateFormat.parse(fieldValue));
                     } catch (ParseException e) {
@@ -118,16 +156,14 @@ public class TemplateUtility {
                     }
                 }
 
-                compiled = compiled.replaceAll("\\{" + fp.getValue() + "\\}", fieldValue);
-            };
-
-        };
+                values.put(fp.getValue(), fieldValue);
+            }
 
-        return compiled;
+        }
     }
 
-    private String findValue(String predicateKey, Submission submission) {
-        return submission.getFieldValuesByPredicateValue(predicateKey)
+    private String findValue(String predicateKey, SubmissionSnapshot snapshot) {
+        return snapshot.getFieldValues(predicateKey)
             .stream()
             .map(v-> { return v.getValue(); })
             .collect(Collectors.joining(", "));
@@ -241,6 +241,11 @@ var apiMapping = {
             'endpoint': '/private/queue',
             'controller': 'settings/deposit-location',
             'method': 'test-connection'
+        },
+        refreshCollections: {
+            'endpoint': '/private/queue',
+            'controller': 'settings/deposit-location',
+            'method': 'refresh-collections'
         }
     },
     DocumentType: {
@@ -685,6 +690,11 @@ var apiMapping = {
             'controller': 'submission',
             'method': 'query'
         },
+        seek: {
+            'endpoint': '/private/queue',
+            'controller': 'submission',
+            'method': 'query/seek'
+        },
         saveFieldValue: {
             'endpoint': '/private/queue',
             'controller': 'submission'
@@ -731,6 +741,10 @@ var apiMapping = {
             'controller': 'submission',
             'method': 'file'
         },
+        fileLink: {
+            'endpoint': '/private/queue',
+            'controller': 'submission'
+        },
         renameFile: {
             'endpoint': '/private/queue',
             'controller': 'submission',
@@ -816,6 +830,10 @@ var apiMapping = {
             'controller': 'submission',
             'method': 'file'
         },
+        fileLink: {
+            'endpoint': '/private/queue',
+            'controller': 'submission'
+        },
         renameFile: {
             'endpoint': '/private/queue',
             'controller': 'submission',
@@ -96,16 +96,17 @@ vireo.controller("DepositLocationRepoController", function ($controller, $scope,
             container: '#deposit-locations'
         });
 
-        $scope.testDepositLocation = function () {
+        var loadCollections = function (fetch) {
             isTestDepositing = true;
 
             var testData = angular.copy($scope.modalData);
             delete testData.packager;
 
-            $scope.depositLocationRepo.testConnection(testData).then(function (response) {
+            fetch(testData).then(function (response) {
                 var apiRes = angular.fromJson(response.body);
 
                 if (apiRes.meta.status === 'SUCCESS') {
+                    $scope.collections.length = 0;
                     angular.forEach(apiRes.payload.HashMap, function (uri, name) {
                         $scope.collections.push({
                             "name": name,
@@ -118,6 +119,14 @@ vireo.controller("DepositLocationRepoController", function ($controller, $scope,
             });
         };
 
+        $scope.testDepositLocation = function () {
+            loadCollections($scope.depositLocationRepo.testConnection);
+        };
+
+        $scope.refreshCollections = function () {
+            loadCollections($scope.depositLocationRepo.refreshCollections);
+        };
+
         $scope.isTestDepositing = function () {
             return isTestDepositing;
         };
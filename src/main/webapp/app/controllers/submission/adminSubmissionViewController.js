@@ -267,11 +267,7 @@ vireo.controller("AdminSubmissionViewController", function ($anchorScroll, $cont
         };
 
         $scope.getFile = function (fieldValue) {
-            $scope.submission.file(fieldValue.value).then(function (data) {
-                saveAs(new Blob([data], {
-                    type: fieldValue.fileInfo.type
-                }), fieldValue.fileInfo.name);
-            });
+            $scope.submission.file(fieldValue.value);
         };
 
         $scope.getFileType = function (fieldPredicate) {
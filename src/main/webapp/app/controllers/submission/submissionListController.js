@@ -58,7 +58,12 @@ vireo.controller("SubmissionListController", function (NgTableParams, $controlle
 
         var start;
 
+        // the cursors returned with each page, keyed by the page size and the page they lead to
+        var pageCursors = {};
+
         var query = function () {
+            pageCursors = {};
+
             var sessionPageNumber = sessionStorage.getItem("list-page-number");
             var sessionPageSize = sessionStorage.getItem("list-page-size");
 
@@ -90,6 +95,29 @@ vireo.controller("SubmissionListController", function (NgTableParams, $controlle
                 requestPage = forcePageNumber;
             }
 
+            // the first page and the page after one already shown seek from a cursor, other pages are read by offset
+            var cursorKey = params.count() + ':' + requestPage;
+            if (forcePageNumber === undefined && (requestPage === 0 || angular.isDefined(pageCursors[cursorKey]))) {
+                return SubmissionRepo.seek($scope.userColumns, pageCursors[cursorKey], params.count(), requestPage === 0).then(function (response) {
+                    var keysetPage = angular.fromJson(response.body).payload.KeysetPage;
+
+                    if (keysetPage.cursor) {
+                        pageCursors[params.count() + ':' + (requestPage + 1)] = keysetPage.cursor;
+                    }
+
+                    // the total is only counted for the first page
+                    if (angular.isNumber(keysetPage.totalElements)) {
+                        $scope.page.totalElements = keysetPage.totalElements;
+                    }
+
+                    $scope.page.content = keysetPage.content;
+                    $scope.page.number = requestPage + 1;
+                    $scope.page.totalPages = Math.ceil($scope.page.totalElements / params.count());
+
+                    return showPage(params);
+                });
+            }
+
             return SubmissionRepo.query($scope.userColumns, requestPage, params.count()).then(function (response) {
                 var page = angular.fromJson(response.body).payload.ApiPage;
 
@@ -112,16 +140,20 @@ vireo.controller("SubmissionListController", function (NgTableParams, $controlle
                     $scope.page.number++;
                 }
 
-                params.total($scope.page.totalElements);
-                params.page($scope.page.number);
-                $scope.page.count = params.count();
-                sessionStorage.setItem("list-page-size", $scope.page.count);
-                sessionStorage.setItem("list-page-number", $scope.page.number);
-
-                return $scope.page.content;
+                return showPage(params);
             });
         }
 
+        var showPage = function (params) {
+            params.total($scope.page.totalElements);
+            params.page($scope.page.number);
+            $scope.page.count = params.count();
+            sessionStorage.setItem("list-page-size", $scope.page.count);
+            sessionStorage.setItem("list-page-number", $scope.page.number);
+
+            return $scope.page.content;
+        };
+
         var update = function (reloadList) {
             SavedFilterRepo.reset();
             ManagerFilterColumnRepo.reset();
@@ -77,11 +77,7 @@ vireo.controller("SubmissionViewController", function ($controller, $q, $routePa
         };
 
         $scope.getFile = function (fieldValue) {
-            $scope.submission.file(fieldValue.value).then(function (data) {
-                saveAs(new Blob([data], {
-                    type: fieldValue.fileInfo.type
-                }), fieldValue.fileInfo.name);
-            });
+            $scope.submission.file(fieldValue.value);
         };
 
         $scope.isPrimaryDocument = function (fieldPredicate) {
@@ -308,11 +308,7 @@ vireo.directive("field", function ($controller, $filter, $q, $timeout, Controlle
 
             $scope.getFile = function (fieldValue) {
                 if ($scope.hasFile(fieldValue)) {
-                    $scope.submission.file(fieldValue.value).then(function (data) {
-                        saveAs(new Blob([data], {
-                            type: fieldValue.fileInfo.type
-                        }), fieldValue.fileInfo.name);
-                    });
+                    $scope.submission.file(fieldValue.value);
                 } else {
                     saveAs(fieldValue.fileInfo);
                 }
@@ -56,15 +56,7 @@ vireo.directive('reviewsubmissionsfields', function ($location, InputTypes, Fiel
             };
 
             $scope.getFile = function (fieldValue) {
-                $scope.submission.fileInfo(fieldValue).then(function (data) {
-                    fieldValue.fileInfo = angular.fromJson(data.body).payload.ObjectNode;
-                    $scope.submission.file(fieldValue.value).then(function (data) {
-                        saveAs(new Blob([data], {
-                            type: fieldValue.fileInfo.type
-                        }), fieldValue.fileInfo.name);
-                    });
-
-                });
+                $scope.submission.file(fieldValue.value);
             };
 
             $scope.jumpToStep = function (wfs, hash) {
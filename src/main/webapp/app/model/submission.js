@@ -1,4 +1,4 @@
-var submissionModel = function ($filter, $q, ActionLog, FieldValue, FileService, Organization, EmailRecipient, EmailRecipientType, WsApi) {
+var submissionModel = function ($filter, $q, ActionLog, FieldValue, Organization, EmailRecipient, EmailRecipientType, WsApi) {
 
     return function Submission() {
 
@@ -532,16 +532,36 @@ var submissionModel = function ($filter, $q, ActionLog, FieldValue, FileService,
             return promise;
         };
 
-        submission.file = function (uri) {
-            angular.extend(this.getMapping().file, {
+        submission.fileLink = function (uri) {
+            angular.extend(this.getMapping().fileLink, {
+                method: submission.id + '/file-link',
                 data: {
                     'uri': uri
                 }
             });
-            var promise = FileService.anonymousDownload(this.getMapping().file);
+            var promise = WsApi.fetch(this.getMapping().fileLink);
             return promise;
         };
 
+        submission.fileUrl = function (token) {
+            return appConfig.webService + '/submission/file/download?token=' + encodeURIComponent(token);
+        };
+
+        submission.file = function (uri) {
+            return submission.fileLink(uri).then(function (response) {
+                var apiRes = angular.fromJson(response.body);
+                if (apiRes.meta.status === 'SUCCESS') {
+                    // follow a plain link so the browser streams the file to disk and can resume it
+                    var link = document.createElement('a');
+                    link.href = submission.fileUrl(apiRes.payload.String);
+                    link.setAttribute('download', '');
+                    document.body.appendChild(link);
+                    link.click();
+                    document.body.removeChild(link);
+                }
+            });
+        };
+
         submission.removeFile = function (fieldValue) {
             angular.extend(this.getMapping().removeFile, {
                 method: submission.id + '/' + fieldValue.id + '/remove-file'
@@ -11,6 +11,13 @@ vireo.repo("DepositLocationRepo", function DepositLocationRepo(DepositLocation,
         return WsApi.fetch(connection);
     };
 
+    depositLocationRepo.refreshCollections = function (data) {
+        var connection = angular.copy(new DepositLocation().getMapping().refreshCollections);
+        connection.data = data;
+
+        return WsApi.fetch(connection);
+    };
+
     return depositLocationRepo;
 
 });
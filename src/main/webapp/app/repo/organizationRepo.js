@@ -7,6 +7,41 @@ vireo.repo("OrganizationRepo", function OrganizationRepo($q, Organization, RestA
     var selectedId;
     var selectedOrganization;
 
+    var changeSource;
+    var changeVersion;
+
+    // Changes are broadcast with a version that goes up by one each time, a skipped version means a missed change.
+    // Each server instance counts its own versions, a change from another source cannot be compared with the last.
+    WsApi.listen({
+        'endpoint': '/channel',
+        'controller': 'organization'
+    }).then(null, null, function (res) {
+        var apiRes = !!res && !!res.body ? angular.fromJson(res.body) : {};
+
+        if (!apiRes.meta || apiRes.meta.status !== 'SUCCESS' || !apiRes.payload || !apiRes.payload.OrganizationChange) {
+            return;
+        }
+
+        var change = apiRes.payload.OrganizationChange;
+        var missed = changeVersion !== undefined && (change.source !== changeSource || change.version !== changeVersion + 1);
+
+        changeSource = change.source;
+        changeVersion = change.version;
+
+        if (missed || change.created.length > 0 || change.deleted.length > 0) {
+            organizationRepo.reset();
+            return;
+        }
+
+        for (var i = 0; i < change.updated.length; i++) {
+            var organization = organizationRepo.findById(change.updated[i]);
+
+            if (!!organization) {
+                organization.refresh();
+            }
+        }
+    });
+
     // additional repo methods and variables
 
     this.newOrganization = {};
@@ -47,6 +47,18 @@ vireo.repo("SubmissionRepo", function SubmissionRepo($q, FileService, Submission
         return promise;
     };
 
+    submissionRepo.seek = function (columns, cursor, size, count) {
+        angular.extend(submissionRepo.mapping.seek, {
+            'method': 'query/seek/' + size,
+            'query': {
+                'cursor': cursor ? cursor : '',
+                'count': count ? true : false
+            },
+            'data': columns
+        });
+        return WsApi.fetch(submissionRepo.mapping.seek);
+    };
+
     submissionRepo.batchExport = function (packager, filterId) {
         angular.extend(submissionRepo.mapping.batchExport, {
             'method': 'batch-export/' + packager.name + (filterId ? '/' + filterId : '')
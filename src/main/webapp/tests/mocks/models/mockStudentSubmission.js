@@ -152,6 +152,14 @@ var mockStudentSubmission = function($q) {
         return payloadPromise($q.defer());
     };
 
+    model.fileLink = function (uri) {
+        return payloadPromise($q.defer(), { String: "token" });
+    };
+
+    model.fileUrl = function (token) {
+        return appConfig.webService + "/submission/file/download?token=" + encodeURIComponent(token);
+    };
+
     model.fileInfo = function (fieldValue) {
         return payloadPromise($q.defer());
     };
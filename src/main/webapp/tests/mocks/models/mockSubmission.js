@@ -352,6 +352,14 @@ var mockSubmission = function($q) {
         return payloadPromise($q.defer());
     };
 
+    model.fileLink = function (uri) {
+        return payloadPromise($q.defer(), { String: "token" });
+    };
+
+    model.fileUrl = function (token) {
+        return appConfig.webService + "/submission/file/download?token=" + encodeURIComponent(token);
+    };
+
     model.fileInfo = function (fieldValue) {
         return payloadPromise($q.defer());
     };
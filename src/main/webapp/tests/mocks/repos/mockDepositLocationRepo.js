@@ -28,5 +28,9 @@ angular.module("mock.depositLocationRepo", []).service("DepositLocationRepo", fu
         return payloadPromise($q.defer(), testConnectionPayload);
     };
 
+    repo.refreshCollections = function() {
+        return payloadPromise($q.defer(), testConnectionPayload);
+    };
+
     return repo;
 });
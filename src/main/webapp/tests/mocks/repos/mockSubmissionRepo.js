@@ -57,5 +57,10 @@ angular.module("mock.submissionRepo", []).service("SubmissionRepo", function($q)
         return payloadPromise($q.defer(), payload);
     };
 
+    repo.seek = function (columns, cursor, size, count) {
+        var payload = {};
+        return payloadPromise($q.defer(), payload);
+    };
+
     return repo;
 });
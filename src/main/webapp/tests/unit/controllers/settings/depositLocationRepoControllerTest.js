@@ -100,6 +100,10 @@ describe("controller: DepositLocationRepoController", function () {
             expect(scope.selectDepositLocation).toBeDefined();
             expect(typeof scope.selectDepositLocation).toEqual("function");
         });
+        it("refreshCollections should be defined", function () {
+            expect(scope.refreshCollections).toBeDefined();
+            expect(typeof scope.refreshCollections).toEqual("function");
+        });
         it("testDepositLocation should be defined", function () {
             expect(scope.testDepositLocation).toBeDefined();
             expect(typeof scope.testDepositLocation).toEqual("function");
@@ -218,6 +222,20 @@ describe("controller: DepositLocationRepoController", function () {
             scope.testDepositLocation();
             scope.$digest();
         });
+        it("refreshCollections should replace the collections", function () {
+            DepositLocationRepo.mockTestConnectionPayload({ "Theses": "http://localhost/theses" });
+            spyOn(DepositLocationRepo, "refreshCollections").and.callThrough();
+
+            scope.resetDepositLocation();
+            scope.testDepositLocation();
+            scope.$digest();
+
+            scope.refreshCollections();
+            scope.$digest();
+
+            expect(DepositLocationRepo.refreshCollections).toHaveBeenCalled();
+            expect(scope.collections.length).toBe(1);
+        });
         it("isTestDepositing should return a boolean", function () {
             var response;
 
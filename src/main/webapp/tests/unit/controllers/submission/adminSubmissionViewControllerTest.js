@@ -626,17 +626,17 @@ describe("controller: AdminSubmissionViewController", function () {
 
             expect(typeof response).toBe("object");
         });
-        it("getFile should save a file", function () {
+        it("getFile should download a file", function () {
             var fieldValue = new mockFieldValue(q);
             fieldValue.fileInfo = {};
             scope.submission = mockSubmission(q);
 
-            // manually override the FileSaver.saveAs method, which is installed globally.
-            var _global = typeof window === "object" && window.window === window ? window : typeof self === "object" && self.self === self ? self : typeof global === "object" && global.global === global ? global : void 0;
-            _global.saveAs = function() { return true; };
+            spyOn(scope.submission, "file");
 
             scope.getFile(fieldValue);
             scope.$digest();
+
+            expect(scope.submission.file).toHaveBeenCalledWith(fieldValue.value);
         });
         it("getFileType should get a file type", function () {
             spyOn(FileUploadService, "getFileType");
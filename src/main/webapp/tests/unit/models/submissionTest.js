@@ -82,6 +82,14 @@ describe('model: Submission', function () {
             expect(model.file).toBeDefined();
             expect(typeof model.file).toEqual("function");
         });
+        it('fileLink should be defined', function () {
+            expect(model.fileLink).toBeDefined();
+            expect(typeof model.fileLink).toEqual("function");
+        });
+        it('fileUrl should be defined', function () {
+            expect(model.fileUrl).toBeDefined();
+            expect(typeof model.fileUrl).toEqual("function");
+        });
         it('fileInfo should be defined', function () {
             expect(model.fileInfo).toBeDefined();
             expect(typeof model.fileInfo).toEqual("function");
@@ -291,13 +299,36 @@ describe('model: Submission', function () {
             model.fetchDocumentTypeFileInfo();
             scope.$apply();
         });
-        it('file should call FileService', function () {
-            spyOn(FileService, "anonymousDownload");
+        it('file should follow a link to the file', function () {
+            WsApi.mockFetchResponse({ type: "payload", payload: { String: "a token" } });
+            spyOn(HTMLAnchorElement.prototype, "click");
+
+            model.file("private/a file.pdf");
+            scope.$apply();
+
+            expect(HTMLAnchorElement.prototype.click).toHaveBeenCalled();
+        });
+        it('file should not follow a link when none is issued', function () {
+            WsApi.mockFetchResponse({ type: "payload", messageStatus: "ERROR" });
+            spyOn(HTMLAnchorElement.prototype, "click");
+
+            model.file("private/a file.pdf");
+            scope.$apply();
+
+            expect(HTMLAnchorElement.prototype.click).not.toHaveBeenCalled();
+        });
+        it('fileLink should call WsApi', function () {
+            spyOn(WsApi, "fetch").and.callThrough();
 
-            model.file("uri");
+            model.fileLink("private/a file.pdf");
             scope.$apply();
 
-            expect(FileService.anonymousDownload).toHaveBeenCalled();
+            expect(WsApi.fetch).toHaveBeenCalled();
+        });
+        it('fileUrl should return a link to the file', function () {
+            var response = model.fileUrl("a token");
+
+            expect(response).toEqual(appConfig.webService + "/submission/file/download?token=a%20token");
         });
         it('fileInfo should call WsApi', function () {
             var fieldValue = new mockFieldValue(q);
@@ -75,6 +75,10 @@ describe("service: submissionRepo", function () {
             expect(repo.query).toBeDefined();
             expect(typeof repo.query).toEqual("function");
         });
+        it("seek should be defined", function () {
+            expect(repo.seek).toBeDefined();
+            expect(typeof repo.seek).toEqual("function");
+        });
     });
 
     describe("Do the repo methods work as expected", function () {
@@ -130,5 +134,20 @@ describe("service: submissionRepo", function () {
 
             // TODO
         });
+        it("seek should request the page after the cursor", function () {
+            WsApi.fetch = function() {
+                return payloadPromise(q.defer());
+            };
+            spyOn(WsApi, "fetch").and.callThrough();
+
+            repo.seek([], "cursor", 10, true);
+            scope.$digest();
+
+            expect(WsApi.fetch).toHaveBeenCalledWith(jasmine.objectContaining({
+                'method': 'query/seek/10',
+                'query': { 'cursor': 'cursor', 'count': true },
+                'data': []
+            }));
+        });
     });
 });
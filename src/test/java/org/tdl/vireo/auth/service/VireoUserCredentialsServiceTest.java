@@ -0,0 +1,106 @@
+package org.tdl.vireo.auth.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.tdl.vireo.model.Role;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ConfigurationRepo;
+import org.tdl.vireo.model.repo.UserRepo;
+import org.tdl.vireo.service.ConfigurationCachingService;
+
+import edu.tamu.weaver.auth.model.Credentials;
+
+@ExtendWith(MockitoExtension.class)
+public class VireoUserCredentialsServiceTest {
+
+    private static final int LOGINS = 8;
+
+    @Mock
+    private UserRepo userRepo;
+
+    @Mock
+    private ConfigurationRepo configurationRepo;
+
+    @Spy
+    private ConfigurationCachingService configurationCachingService;
+
+    @InjectMocks
+    private VireoUserCredentialsService vireoUserCredentialsService;
+
+    @Test
+    public void testLoginsOfDifferentUsersRunConcurrently() throws Exception {
+        CountDownLatch allLoggingIn = new CountDownLatch(LOGINS);
+        AtomicInteger concurrent = new AtomicInteger();
+
+        // each login waits for every other to be looking up its user, which a lock across all logins would never allow
+        when(userRepo.findByEmail(anyString())).thenAnswer(invocation -> {
+            allLoggingIn.countDown();
+            if (allLoggingIn.await(10, TimeUnit.SECONDS)) {
+                concurrent.incrementAndGet();
+            }
+            return new User(invocation.getArgument(0), "First", "Last", Role.ROLE_STUDENT);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(LOGINS);
+        try {
+            List<Future<User>> logins = new ArrayList<Future<User>>();
+            for (int i = 0; i < LOGINS; i++) {
+                Credentials credentials = getCredentials("user" + i + "@example.com");
+                logins.add(executor.submit(() -> vireoUserCredentialsService.updateUserByCredentials(credentials)));
+            }
+            for (int i = 0; i < LOGINS; i++) {
+                assertEquals("user" + i + "@example.com", logins.get(i).get(20, TimeUnit.SECONDS).getEmail());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(LOGINS, concurrent.get(), "The logins did not run concurrently!");
+    }
+
+    @Test
+    public void testShibbolethAttributesAreResolvedOnce() {
+        when(userRepo.findByEmail(anyString())).thenAnswer(invocation -> new User(invocation.getArgument(0), "First", "Last", Role.ROLE_STUDENT));
+
+        vireoUserCredentialsService.updateUserByCredentials(getCredentials("first@example.com"));
+        vireoUserCredentialsService.updateUserByCredentials(getCredentials("second@example.com"));
+
+        Map<String, String> attributes = vireoUserCredentialsService.getShibbolethAttributes();
+
+        assertEquals(8, attributes.size());
+        assertTrue(attributes.containsValue("email"), "The default email attribute is not mapped!");
+        verify(configurationRepo, times(attributes.size())).getValueByNameAndType(anyString(), eq("shibboleth"));
+    }
+
+    private Credentials getCredentials(String email) {
+        Map<String, Object> claims = new HashMap<String, Object>();
+        claims.put("email", email);
+        claims.put("firstName", "First");
+        claims.put("lastName", "Last");
+        return new Credentials(claims);
+    }
+
+}
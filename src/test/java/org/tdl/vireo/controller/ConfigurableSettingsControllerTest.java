@@ -23,6 +23,7 @@ import org.tdl.vireo.model.Configuration;
 import org.tdl.vireo.model.DefaultConfiguration;
 import org.tdl.vireo.model.ManagedConfiguration;
 import org.tdl.vireo.model.repo.ConfigurationRepo;
+import org.tdl.vireo.service.ConfigurationCachingService;
 import org.tdl.vireo.service.VireoThemeManagerService;
 
 @ActiveProfiles(value = { "test", "isolated-test" })
@@ -34,6 +35,9 @@ public class ConfigurableSettingsControllerTest extends AbstractControllerTest {
     @Mock
     private VireoThemeManagerService themeManagerService;
 
+    @Mock
+    private ConfigurationCachingService configurationCachingService;
+
     @InjectMocks
     private ConfigurableSettingsController configurableSettingsController;
 
@@ -143,4 +147,18 @@ public class ConfigurableSettingsControllerTest extends AbstractControllerTest {
         Mockito.verify(simpMessagingTemplate, Mockito.only()).convertAndSend(anyString(), any(ApiResponse.class));
     }
 
+    @Test
+    public void testGetCacheStatistics() {
+        Map<String, Long> statistics = new HashMap<>();
+        statistics.put("hits", 10L);
+        statistics.put("misses", 2L);
+        statistics.put("size", 2L);
+
+        when(configurationCachingService.getStatistics()).thenReturn(statistics);
+
+        ApiResponse response = configurableSettingsController.getCacheStatistics();
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        assertEquals(statistics, response.getPayload().get("HashMap"));
+    }
+
 }
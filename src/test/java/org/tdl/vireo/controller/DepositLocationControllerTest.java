@@ -122,7 +122,7 @@ public class DepositLocationControllerTest extends AbstractControllerTest {
 
         when(depositLocationRepo.createDetached(anyMap())).thenReturn(mockDepositLocation2);
         when(depositorService.getDepositor(any(String.class))).thenReturn(sWORDv1Depositor);
-        when(sWORDv1Depositor.getCollections(any(DepositLocation.class))).thenReturn(mapOut);
+        when(sWORDv1Depositor.refreshCollections(any(DepositLocation.class))).thenReturn(mapOut);
 
         ApiResponse response = depositLocationController.testConnection(mapIn);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
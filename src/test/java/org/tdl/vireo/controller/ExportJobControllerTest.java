@@ -0,0 +1,178 @@
+package org.tdl.vireo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.tamu.weaver.response.ApiResponse;
+import edu.tamu.weaver.response.ApiStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.ExportJobState;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Role;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ExportJobRepo;
+import org.tdl.vireo.model.repo.NamedSearchFilterGroupRepo;
+import org.tdl.vireo.service.BatchExportService;
+import org.tdl.vireo.service.ExportJobService;
+
+@ActiveProfiles(value = { "test", "isolated-test" })
+public class ExportJobControllerTest extends AbstractControllerTest {
+
+    @Mock
+    private ExportJobRepo exportJobRepo;
+
+    @Mock
+    private ExportJobService exportJobService;
+
+    @Mock
+    private BatchExportService batchExportService;
+
+    @Mock
+    private NamedSearchFilterGroupRepo namedSearchFilterGroupRepo;
+
+    @InjectMocks
+    private ExportJobController exportJobController;
+
+    private User user1;
+
+    private User user2;
+
+    private NamedSearchFilterGroup filter;
+
+    private ExportJob exportJob1;
+
+    @BeforeEach
+    public void setup() {
+        user1 = new User("user1@example.com", "User", "One", Role.ROLE_REVIEWER);
+        user1.setId(1L);
+
+        user2 = new User("user2@example.com", "User", "Two", Role.ROLE_REVIEWER);
+        user2.setId(2L);
+
+        filter = new NamedSearchFilterGroup();
+        filter.setId(1L);
+        user1.setActiveFilter(filter);
+
+        exportJob1 = new ExportJob(user1, "DSpaceSimple", filter.getId());
+        exportJob1.setId(1L);
+    }
+
+    @Test
+    public void testGetAllExportJobs() {
+        List<ExportJob> exportJobs = new ArrayList<>(Arrays.asList(exportJob1));
+
+        when(exportJobRepo.findAllByUserOrderByIdDesc(any(User.class))).thenReturn(exportJobs);
+
+        ApiResponse response = exportJobController.getAllExportJobs(user1);
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+
+        List<?> list = (ArrayList<?>) response.getPayload().get("ArrayList<ExportJob>");
+        assertEquals(exportJobs.size(), list.size());
+    }
+
+    @Test
+    public void testCreateExportJob() {
+        when(batchExportService.isBatchExportable("DSpaceSimple")).thenReturn(true);
+        when(exportJobService.enqueue(user1, "DSpaceSimple", filter)).thenReturn(exportJob1);
+
+        ApiResponse response = exportJobController.createExportJob(user1, "DSpaceSimple");
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        assertEquals(exportJob1, response.getPayload().get("ExportJob"));
+    }
+
+    @Test
+    public void testCreateExportJobWithUnknownPackager() {
+        when(batchExportService.isBatchExportable("Unknown")).thenReturn(false);
+
+        ApiResponse response = exportJobController.createExportJob(user1, "Unknown");
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+
+        verify(exportJobService, never()).enqueue(any(), any(), any());
+    }
+
+    @Test
+    public void testCreateExportJobWhenQueueIsFull() {
+        exportJob1.setState(ExportJobState.FAILED);
+        exportJob1.setMessage("Too many exports are queued, try again later");
+
+        when(batchExportService.isBatchExportable("DSpaceSimple")).thenReturn(true);
+        when(exportJobService.enqueue(user1, "DSpaceSimple", filter)).thenReturn(exportJob1);
+
+        ApiResponse response = exportJobController.createExportJob(user1, "DSpaceSimple");
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+    }
+
+    @Test
+    public void testGetExportJobOfAnotherUser() {
+        when(exportJobRepo.findById(exportJob1.getId())).thenReturn(Optional.of(exportJob1));
+
+        ApiResponse response = exportJobController.getExportJob(user2, exportJob1.getId());
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+    }
+
+    @Test
+    public void testDownloadUnfinishedExportJob() throws IOException {
+        exportJob1.setState(ExportJobState.RUNNING);
+
+        when(exportJobRepo.findById(exportJob1.getId())).thenReturn(Optional.of(exportJob1));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        exportJobController.downloadExportJob(new MockHttpServletRequest("GET", "/export-job/1/download"), response, user1, exportJob1.getId());
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    public void testDownloadExportJobRange(@TempDir Path folder) throws IOException {
+        Path path = folder.resolve("export.zip");
+        Files.write(path, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        exportJob1.setState(ExportJobState.COMPLETED);
+        exportJob1.setFileName("export.zip");
+
+        when(exportJobRepo.findById(exportJob1.getId())).thenReturn(Optional.of(exportJob1));
+        when(exportJobService.getExportPath(exportJob1)).thenReturn(path);
+        when(batchExportService.getMimeType("DSpaceSimple")).thenReturn("application/zip");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/export-job/1/download");
+        request.addHeader("Range", "bytes=5-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportJobController.downloadExportJob(request, response, user1, exportJob1.getId());
+
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals("application/zip", response.getContentType());
+        assertTrue(response.getHeader("Content-Disposition").contains("export.zip"));
+    }
+
+    @Test
+    public void testRemoveUnfinishedExportJob() throws Exception {
+        when(exportJobRepo.findById(exportJob1.getId())).thenReturn(Optional.of(exportJob1));
+
+        ApiResponse response = exportJobController.removeExportJob(user1, exportJob1.getId());
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+
+        verify(exportJobService, never()).delete(any(ExportJob.class));
+    }
+
+}
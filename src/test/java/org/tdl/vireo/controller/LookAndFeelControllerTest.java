@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import edu.tamu.weaver.response.ApiResponse;
 import edu.tamu.weaver.response.ApiStatus;
 import java.io.IOException;
+import java.io.InputStream;
 import javax.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,7 +46,7 @@ public class LookAndFeelControllerTest extends AbstractControllerTest {
         MultipartFile file = new MockMultipartFile("name", "originalName", "text/plain", "".getBytes());
 
         when(configurationRepo.getByNameAndType(anyString(), anyString())).thenReturn(managedConfiguration);
-        doNothing().when(assetService).write(any(byte[].class), anyString());
+        when(assetService.store(any(InputStream.class), anyString())).thenReturn(null);
         when(configurationRepo.findByName(anyString())).thenReturn(managedConfiguration);
         when(configurationRepo.reset(any(ManagedConfiguration.class))).thenReturn(managedConfiguration);
         when(configurationRepo.create(anyString(), anyString(), anyString())).thenReturn(managedConfiguration);
@@ -61,7 +62,7 @@ public class LookAndFeelControllerTest extends AbstractControllerTest {
         MultipartFile file = new MockMultipartFile("name", "originalName", "text/plain", "".getBytes());
 
         when(configurationRepo.getByNameAndType(anyString(), anyString())).thenReturn(managedConfiguration);
-        doNothing().when(assetService).write(any(byte[].class), anyString());
+        when(assetService.store(any(InputStream.class), anyString())).thenReturn(null);
         when(configurationRepo.findByName(anyString())).thenReturn(null);
         when(configurationRepo.create(anyString(), anyString(), anyString())).thenReturn(managedConfiguration);
         doNothing().when(simpMessagingTemplate).convertAndSend(anyString(), any(ApiResponse.class));
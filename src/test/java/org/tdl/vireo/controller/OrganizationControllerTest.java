@@ -52,6 +52,8 @@ import org.tdl.vireo.model.repo.OrganizationRepo;
 import org.tdl.vireo.model.repo.SubmissionRepo;
 import org.tdl.vireo.model.repo.SubmissionStatusRepo;
 import org.tdl.vireo.model.repo.WorkflowStepRepo;
+import org.tdl.vireo.model.response.OrganizationTreeNode;
+import org.tdl.vireo.view.TreeOrganizationView;
 
 @ActiveProfiles(value = { "test", "isolated-test" })
 public class OrganizationControllerTest extends AbstractControllerTest {
@@ -147,13 +149,18 @@ public class OrganizationControllerTest extends AbstractControllerTest {
 
     @Test
     public void testAllSpecificOrganizationsSpecificTree() {
-        when(organizationRepo.findViewAllByOrderByIdAsc(Mockito.<Class<Organization>>any())).thenReturn(organizations);
+        OrganizationTreeNode parentNode = new OrganizationTreeNode(organization1.getId(), organization1.getName(), organization1.getCategory(), true);
+        OrganizationTreeNode childNode = new OrganizationTreeNode(organization2.getId(), organization2.getName(), organization2.getCategory(), true);
+        parentNode.addChildOrganization(childNode);
+        List<TreeOrganizationView> tree = new ArrayList<>(Arrays.asList(parentNode, childNode));
+
+        when(organizationRepo.findTree()).thenReturn(tree);
 
         ApiResponse response = organizationController.getSpecificAllOrganizations("tree");
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
 
-        List<?> got = (ArrayList<?>) response.getPayload().get("ArrayList<Organization>");
-        assertEquals(organizations.size(), got.size());
+        List<?> got = (ArrayList<?>) response.getPayload().values().iterator().next();
+        assertEquals(tree.size(), got.size());
     }
 
     @Test
@@ -405,7 +412,8 @@ public class OrganizationControllerTest extends AbstractControllerTest {
 
         if (emailRecipient != null) {
             when(emailWorkflowRuleRepo.save(any(EmailWorkflowRule.class))).thenReturn(emailWorkflowRule1);
-            doNothing().when(organizationRepo).broadcast(any(Long.class));
+            when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
+            doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
         }
 
         ApiResponse response = organizationController.editEmailWorkflowRule(organization1.getId(), emailWorkflowRule1.getId(), data);
@@ -453,7 +461,8 @@ public class OrganizationControllerTest extends AbstractControllerTest {
 
         when(emailWorkflowRuleRepo.findById(any(Long.class))).thenReturn(Optional.of(emailWorkflowRule1));
         when(emailWorkflowRuleRepo.save(any(EmailWorkflowRule.class))).thenReturn(emailWorkflowRule1);
-        doNothing().when(organizationRepo).broadcast(any(Long.class));
+        when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = organizationController.changeEmailWorkflowRuleActivation(organization1.getId(), emailWorkflowRule1.getId());
 
@@ -470,7 +479,8 @@ public class OrganizationControllerTest extends AbstractControllerTest {
 
         when(emailWorkflowRuleRepo.findById(any(Long.class))).thenReturn(Optional.of(emailWorkflowRule1));
         when(emailWorkflowRuleRepo.save(any(EmailWorkflowRule.class))).thenReturn(emailWorkflowRule1);
-        doNothing().when(organizationRepo).broadcast(any(Long.class));
+        when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = organizationController.changeEmailWorkflowRuleActivation(organization1.getId(), emailWorkflowRule1.getId());
 
@@ -0,0 +1,90 @@
+package org.tdl.vireo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.tamu.weaver.response.ApiResponse;
+import edu.tamu.weaver.response.ApiStatus;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.ActiveProfiles;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.OutboundEmailState;
+import org.tdl.vireo.model.repo.OutboundEmailRepo;
+import org.tdl.vireo.service.OutboundEmailService;
+
+@ActiveProfiles(value = { "test", "isolated-test" })
+public class OutboundEmailControllerTest extends AbstractControllerTest {
+
+    @Mock
+    private OutboundEmailRepo outboundEmailRepo;
+
+    @Mock
+    private OutboundEmailService outboundEmailService;
+
+    @InjectMocks
+    private OutboundEmailController outboundEmailController;
+
+    private OutboundEmail outboundEmail1;
+
+    @BeforeEach
+    public void setup() {
+        outboundEmail1 = new OutboundEmail("student@example.com", null, null, "Subject", "Content");
+        outboundEmail1.setId(1L);
+    }
+
+    @Test
+    public void testGetQueueDepth() {
+        Map<String, Long> depth = new HashMap<>();
+        depth.put("queued", 3L);
+        depth.put("failed", 1L);
+
+        when(outboundEmailService.getQueueDepth()).thenReturn(depth);
+
+        ApiResponse response = outboundEmailController.getQueueDepth();
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        assertEquals(depth, response.getPayload().get("HashMap"));
+    }
+
+    @Test
+    public void testRetryFailedEmail() {
+        outboundEmail1.setState(OutboundEmailState.FAILED);
+
+        when(outboundEmailRepo.findById(outboundEmail1.getId())).thenReturn(Optional.of(outboundEmail1));
+        when(outboundEmailService.retry(outboundEmail1)).thenReturn(outboundEmail1);
+
+        ApiResponse response = outboundEmailController.retryEmail(outboundEmail1.getId());
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+
+        verify(outboundEmailService).retry(outboundEmail1);
+    }
+
+    @Test
+    public void testRetryQueuedEmail() {
+        when(outboundEmailRepo.findById(outboundEmail1.getId())).thenReturn(Optional.of(outboundEmail1));
+
+        ApiResponse response = outboundEmailController.retryEmail(outboundEmail1.getId());
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+
+        verify(outboundEmailService, never()).retry(any(OutboundEmail.class));
+    }
+
+    @Test
+    public void testRemoveQueuedEmail() {
+        when(outboundEmailRepo.findById(outboundEmail1.getId())).thenReturn(Optional.of(outboundEmail1));
+
+        ApiResponse response = outboundEmailController.removeEmail(outboundEmail1.getId());
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+
+        verify(outboundEmailRepo, never()).delete(any(OutboundEmail.class));
+    }
+
+}
@@ -1,31 +1,59 @@
 package org.tdl.vireo.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edu.tamu.weaver.response.ApiResponse;
 import edu.tamu.weaver.response.ApiStatus;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.tdl.vireo.model.ActionLog;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
 import org.tdl.vireo.model.Role;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
 import org.tdl.vireo.model.SubmissionState;
 import org.tdl.vireo.model.SubmissionStatus;
 import org.tdl.vireo.model.User;
 import org.tdl.vireo.model.repo.ActionLogRepo;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.model.repo.SubmissionStatusRepo;
+import org.tdl.vireo.model.response.KeysetPage;
+import org.tdl.vireo.service.AssetService;
+import org.tdl.vireo.service.SubmissionEmailService;
 
 @ActiveProfiles(value = { "test", "isolated-test" })
 public class SubmissionControllerTest extends AbstractControllerTest {
@@ -38,6 +66,10 @@ public class SubmissionControllerTest extends AbstractControllerTest {
 
     private static final User TEST_USER_1 = new User(TEST_USER_1_EMAIL, TEST_USER_1_FIRST_NAME, TEST_USER_1_LAST_NAME, TEST_USER_1_ROLE);
 
+    private static final User TEST_STUDENT = new User("Student email", "Student first name", "Student last name", Role.ROLE_STUDENT);
+
+    private static final String TEST_DOCUMENT_URI = "private/1234/1600000000000-thesis.pdf";
+
     private static final Calendar TEST_CALENDAR_1 = GregorianCalendar.getInstance();
     private static final Calendar TEST_CALENDAR_2 = GregorianCalendar.getInstance();
     private static final Calendar TEST_CALENDAR_3 = GregorianCalendar.getInstance();
@@ -58,12 +90,32 @@ public class SubmissionControllerTest extends AbstractControllerTest {
     @Mock
     private ActionLogRepo actionLogRepo;
 
+    @Mock
+    private SubmissionRepo submissionRepo;
+
+    @Mock
+    private SubmissionStatusRepo submissionStatusRepo;
+
+    @Mock
+    private SubmissionEmailService submissionEmailService;
+
+    @Mock
+    private AssetService assetService;
+
     @InjectMocks
     private SubmissionController submissionController;
 
-    @BeforeEach
-    public void setup() {
+    @TempDir
+    Path assetsPath;
 
+    @BeforeEach
+    public void setup() throws Exception {
+        ReflectionTestUtils.setField(submissionController, "documentFolder", "private");
+        ReflectionTestUtils.setField(submissionController, "fileLinkDuration", 300000L);
+        ReflectionTestUtils.setField(submissionController, "seekMaxPageSize", 1000);
+        lenient().when(assetService.getAssetsAbsolutePath(anyString())).thenAnswer(invocation -> assetsPath.resolve((String) invocation.getArgument(0)));
+        lenient().when(cryptoService.generateGenericToken(anyString(), eq("FILE_LINK"))).thenAnswer(invocation -> System.currentTimeMillis() + ":" + invocation.getArgument(0));
+        lenient().when(cryptoService.validateGenericToken(anyString(), eq("FILE_LINK"))).thenAnswer(invocation -> ((String) invocation.getArgument(0)).split(":"));
     }
 
     @Test
@@ -88,4 +140,156 @@ public class SubmissionControllerTest extends AbstractControllerTest {
         assertEquals(pageable.getPageSize(), response.getPayload().size());
     }
 
+    @Test
+    public void testBatchUpdateSubmissionStatuses() {
+        List<Long> submissionIds = Arrays.asList(1L, 2L, 3L);
+
+        when(submissionStatusRepo.findByName(TEST_SUBMISSION_STATUS_3.getName())).thenReturn(TEST_SUBMISSION_STATUS_3);
+        when(submissionRepo.batchDynamicSubmissionIdQuery(any(), any())).thenReturn(submissionIds);
+        when(submissionRepo.batchUpdateStatus(submissionIds, TEST_SUBMISSION_STATUS_3, TEST_USER_1)).thenReturn(submissionIds.size());
+
+        ApiResponse response = submissionController.batchUpdateSubmissionStatuses(TEST_USER_1, TEST_SUBMISSION_STATUS_3.getName());
+
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        verify(submissionRepo).batchUpdateStatus(submissionIds, TEST_SUBMISSION_STATUS_3, TEST_USER_1);
+        verify(submissionRepo, never()).updateStatus(any(), any(), any());
+        submissionIds.forEach(submissionId -> verify(submissionEmailService).sendWorkflowEmails(TEST_USER_1, submissionId));
+    }
+
+    @Test
+    public void testBatchUpdateSubmissionStatusesWithUnknownStatus() {
+        when(submissionStatusRepo.findByName("Unknown")).thenReturn(null);
+
+        ApiResponse response = submissionController.batchUpdateSubmissionStatuses(TEST_USER_1, "Unknown");
+
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+        verify(submissionRepo, never()).batchUpdateStatus(any(), any(), any());
+    }
+
+    @Test
+    public void testSeekSubmissionRejectsEmptyPages() {
+        for (int size : new int[] { 0, -1 }) {
+            ApiResponse response = submissionController.seekSubmission(TEST_USER_1, size, null, false, new ArrayList<SubmissionListColumn>());
+
+            assertEquals(ApiStatus.ERROR, response.getMeta().getStatus(), "A page of " + size + " should be rejected");
+        }
+        verify(submissionRepo, never()).keysetDynamicSubmissionQuery(any(), any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void testSeekSubmissionCapsPageSize() {
+        User user = new User(TEST_USER_1_EMAIL, TEST_USER_1_FIRST_NAME, TEST_USER_1_LAST_NAME, TEST_USER_1_ROLE);
+        user.setActiveFilter(new NamedSearchFilterGroup());
+        when(submissionRepo.keysetDynamicSubmissionQuery(any(), any(), any(), anyInt(), anyBoolean())).thenReturn(new KeysetPage<Submission>(new ArrayList<Submission>(), 1000, null, true, null));
+
+        ApiResponse response = submissionController.seekSubmission(user, 1000000, null, false, new ArrayList<SubmissionListColumn>());
+
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        verify(submissionRepo).keysetDynamicSubmissionQuery(any(), any(), any(), eq(1000), eq(false));
+    }
+
+    @Test
+    public void testSubmissionFileLink() {
+        Submission submission = submissionWithDocument(TEST_DOCUMENT_URI);
+        when(submissionRepo.read(1L)).thenReturn(submission);
+
+        ApiResponse response = submissionController.submissionFileLink(TEST_USER_1, 1L, Collections.singletonMap("uri", TEST_DOCUMENT_URI));
+
+        assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
+        assertFalse(((String) response.getPayload().get("String")).contains(TEST_DOCUMENT_URI), "The link token should not expose the path of the file");
+    }
+
+    @Test
+    public void testSubmissionFileLinkOnlyForFilesOfTheSubmission() {
+        Submission submission = submissionWithDocument(TEST_DOCUMENT_URI);
+        when(submissionRepo.read(1L)).thenReturn(submission);
+
+        for (String uri : Arrays.asList("private/5678/1600000000000-other.pdf", "secret.txt")) {
+            ApiResponse response = submissionController.submissionFileLink(TEST_USER_1, 1L, Collections.singletonMap("uri", uri));
+
+            assertEquals(ApiStatus.ERROR, response.getMeta().getStatus(), "No link should be issued for " + uri);
+        }
+    }
+
+    @Test
+    public void testSubmissionFileLinkOnlyForTheSubmitter() {
+        when(submissionRepo.findOneBySubmitterAndId(TEST_STUDENT, 1L)).thenReturn(null);
+
+        ApiResponse response = submissionController.submissionFileLink(TEST_STUDENT, 1L, Collections.singletonMap("uri", TEST_DOCUMENT_URI));
+
+        assertEquals(ApiStatus.ERROR, response.getMeta().getStatus());
+        verify(submissionRepo, never()).read(any(Long.class));
+    }
+
+    @Test
+    public void testDownloadSubmissionFileFromLink() throws IOException {
+        Path path = assetsPath.resolve(TEST_DOCUMENT_URI);
+        Files.createDirectories(path.getParent());
+        Files.write(path, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        when(assetService.getAssetFileName(TEST_DOCUMENT_URI)).thenReturn("thesis.pdf");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/submission/file/download");
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        submissionController.downloadSubmissionFile(request, response, fileLinkToken(TEST_DOCUMENT_URI));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertTrue(response.getHeader("Content-Disposition").startsWith("attachment"));
+        assertTrue(response.getHeader("Content-Disposition").contains("thesis.pdf"));
+    }
+
+    @Test
+    public void testDownloadSubmissionFileOnlyServesDocuments() throws IOException {
+        Files.write(assetsPath.resolve("secret.txt"), "secret".getBytes(StandardCharsets.UTF_8));
+
+        for (String uri : Arrays.asList("secret.txt", "private/../secret.txt", "privateer/secret.txt")) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            submissionController.downloadSubmissionFile(new MockHttpServletRequest("GET", "/submission/file/download"), response, fileLinkToken(uri));
+
+            assertEquals(404, response.getStatus(), "Only files in the document folder should be served for " + uri);
+            assertEquals("", response.getContentAsString());
+        }
+    }
+
+    @Test
+    public void testDownloadSubmissionFileRefusesExpiredAndForgedLinks() throws IOException {
+        Path path = assetsPath.resolve(TEST_DOCUMENT_URI);
+        Files.createDirectories(path.getParent());
+        Files.write(path, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+        String expired = (System.currentTimeMillis() - 600000L) + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(TEST_DOCUMENT_URI.getBytes(StandardCharsets.UTF_8));
+
+        for (String token : Arrays.asList(expired, TEST_DOCUMENT_URI)) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            submissionController.downloadSubmissionFile(new MockHttpServletRequest("GET", "/submission/file/download"), response, token);
+
+            assertEquals(404, response.getStatus(), "The file should not be served for " + token);
+            assertEquals("", response.getContentAsString());
+        }
+    }
+
+    private Submission submissionWithDocument(String uri) {
+        FieldValue fieldValue = new FieldValue();
+        fieldValue.setValue(uri);
+        Submission submission = new Submission();
+        submission.addFieldValue(fieldValue);
+        return submission;
+    }
+
+    private String fileLinkToken(String uri) {
+        Submission submission = submissionWithDocument(uri);
+        lenient().when(submissionRepo.read(1L)).thenReturn(submission);
+        ApiResponse response = submissionController.submissionFileLink(TEST_USER_1, 1L, Collections.singletonMap("uri", uri));
+
+        // links are not issued for files out of the document folder, so forge one to show it would not be served either
+        return response.getMeta().getStatus() == ApiStatus.SUCCESS
+            ? (String) response.getPayload().get("String")
+            : System.currentTimeMillis() + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(uri.getBytes(StandardCharsets.UTF_8));
+    }
+
 }
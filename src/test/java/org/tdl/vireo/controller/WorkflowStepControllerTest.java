@@ -4,8 +4,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyList;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
@@ -229,8 +227,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(workflowStepRepo.findById(any(Long.class))).thenReturn(Optional.of(workflowStep2));
         when(fieldProfileRepo.findById(any(Long.class))).thenReturn(Optional.of(fieldProfile1));
         doNothing().when(fieldProfileRepo).removeFromWorkflowStep(any(Organization.class), any(WorkflowStep.class), any(FieldProfile.class));
-        when(organizationRepo.findAllByOrderByIdAsc()).thenReturn(organizations);
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.removeFieldProfile(organization1.getId(), workflowStep1.getId(), fieldProfile1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -268,8 +265,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(workflowStepRepo.findById(any(Long.class))).thenReturn(Optional.of(workflowStep2));
         when(fieldProfileRepo.findById(any(Long.class))).thenReturn(Optional.of(fieldProfile1));
         doNothing().when(fieldProfileRepo).removeFromWorkflowStep(any(Organization.class), any(WorkflowStep.class), any(FieldProfile.class));
-        when(organizationRepo.findAllByOrderByIdAsc()).thenReturn(organizations);
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.removeFieldProfileById(organization1.getId(), workflowStep1.getId(), fieldProfile1.getId());
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -308,8 +304,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         when(workflowStepRepo.reorderFieldProfiles(any(Organization.class), any(WorkflowStep.class), anyInt(), anyInt())).thenReturn(workflowStep1);
 
-        // Warning: Unlike other broadcasts for reorder functions, this one broadcasts using the ID rather than a list.
-        doNothing().when(organizationRepo).broadcast(anyLong());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.reorderFieldProfiles(organization1.getId(), workflowStep1.getId(), 1, 2);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -320,7 +315,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(workflowStepRepo.findById(any(Long.class))).thenReturn(Optional.of(workflowStep1));
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         when(noteRepo.create(any(WorkflowStep.class), anyString(), anyString(), anyBoolean())).thenReturn(note1); 
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.addNote(organization1.getId(), workflowStep1.getId(), note1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -334,7 +329,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         when(workflowStepRepo.update(any(WorkflowStep.class), any(Organization.class))).thenReturn(workflowStep1);
         when(noteRepo.create(any(WorkflowStep.class), anyString(), anyString(), anyBoolean())).thenReturn(note1);
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.addNote(organization1.getId(), workflowStep1.getId(), note1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -344,7 +339,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
     public void testUpdateNoteUpdatingWorkflowStep() throws HeritableModelNonOverrideableException, WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         when(noteRepo.update(any(Note.class), any(Organization.class))).thenReturn(note1);
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.updateNote(organization1.getId(), workflowStep1.getId(), note1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -360,7 +355,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         doNothing().when(noteRepo).removeFromWorkflowStep(any(Organization.class), any(WorkflowStep.class), any(Note.class));
         doNothing().when(noteRepo).delete(any(Note.class));
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.removeNote(organization1.getId(), workflowStep1.getId(), note1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -375,7 +370,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(noteRepo.findById(any(Long.class))).thenReturn(Optional.of(note1));
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         doNothing().when(noteRepo).removeFromWorkflowStep(any(Organization.class), any(WorkflowStep.class), any(Note.class));
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.removeNote(organization1.getId(), workflowStep1.getId(), note1);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
@@ -386,7 +381,7 @@ public class WorkflowStepControllerTest extends AbstractControllerTest {
         when(workflowStepRepo.findById(any(Long.class))).thenReturn(Optional.of(workflowStep1));
         when(organizationRepo.findById(any(Long.class))).thenReturn(Optional.of(organization1));
         when(workflowStepRepo.reorderNotes(any(Organization.class), any(WorkflowStep.class), anyInt(), anyInt())).thenReturn(workflowStep1); 
-        doNothing().when(organizationRepo).broadcast(anyList());
+        doNothing().when(organizationRepo).broadcastUpdate(any(Organization.class));
 
         ApiResponse response = fieldPredicateController.reorderNotes(organization1.getId(), workflowStep1.getId(), 1, 2);
         assertEquals(ApiStatus.SUCCESS, response.getMeta().getStatus());
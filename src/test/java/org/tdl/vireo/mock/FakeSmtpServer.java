@@ -0,0 +1,143 @@
+package org.tdl.vireo.mock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A minimal local SMTP server for tests, accepting every message and recording its recipients.
+ *
+ * Recipients can be rejected to simulate failures. Connections are counted, so tests can check that messages share
+ * a connection.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+
+    private final Thread acceptor;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final List<List<String>> messages = new CopyOnWriteArrayList<>();
+
+    private final Set<String> rejectedRecipients = Collections.synchronizedSet(new HashSet<>());
+
+    public FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::accept, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * @return the recipients of each accepted message, in order of acceptance
+     */
+    public List<List<String>> getMessages() {
+        return messages;
+    }
+
+    public void rejectRecipient(String address) {
+        rejectedRecipients.add(address.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread session = new Thread(() -> converse(socket), "fake-smtp-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                // keep accepting
+            }
+        }
+    }
+
+    private void converse(Socket socket) {
+        try (
+            Socket s = socket;
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream outputStream = s.getOutputStream();
+            PrintWriter out = new PrintWriter(outputStream, true);
+        ) {
+            reply(out, "220 localhost fake SMTP");
+
+            List<String> recipients = new CopyOnWriteArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase(Locale.ROOT);
+
+                if (command.startsWith("EHLO")) {
+                    reply(out, "250-localhost");
+                    reply(out, "250 8BITMIME");
+                } else if (command.startsWith("HELO") || command.startsWith("NOOP")) {
+                    reply(out, "250 OK");
+                } else if (command.startsWith("MAIL FROM")) {
+                    recipients = new CopyOnWriteArrayList<>();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    String address = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                    if (rejectedRecipients.contains(address.toLowerCase(Locale.ROOT))) {
+                        reply(out, "550 No such user");
+                    } else {
+                        recipients.add(address);
+                        reply(out, "250 OK");
+                    }
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // discard the message content
+                    }
+                    messages.add(recipients);
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RSET")) {
+                    recipients = new CopyOnWriteArrayList<>();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // the client went away
+        }
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+
+}
@@ -0,0 +1,237 @@
+package org.tdl.vireo.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A minimal local SWORD v1 server for tests, serving a service document and accepting every deposit to its collection.
+ *
+ * Requests can be delayed to simulate a slow repository, and deposits failed to simulate an unavailable or broken one.
+ * Service document fetches, deposits in progress and connections are counted, so tests can check that service
+ * documents are reused and that deposits run concurrently and share connections.
+ */
+public class FakeSwordServer implements AutoCloseable {
+
+    public static final String SERVICE_DOCUMENT_PATH = "/sword/servicedocument";
+
+    public static final String COLLECTION_PATH = "/sword/deposit/collection";
+
+    private final HttpServer server;
+
+    private final AtomicInteger serviceDocumentFetches = new AtomicInteger();
+
+    private final Map<String, String> collections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger deposits = new AtomicInteger();
+
+    private final AtomicInteger depositing = new AtomicInteger();
+
+    private final AtomicInteger maxDepositing = new AtomicInteger();
+
+    private final AtomicInteger unavailable = new AtomicInteger();
+
+    private final Set<String> connections = Collections.synchronizedSet(new HashSet<>());
+
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+
+    private final Set<String> rejectedContent = Collections.synchronizedSet(new HashSet<>());
+
+    private volatile long latency;
+
+    public FakeSwordServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.createContext(SERVICE_DOCUMENT_PATH, this::serviceDocument);
+        server.createContext(COLLECTION_PATH, this::deposit);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-sword");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+
+        addCollection("Theses", COLLECTION_PATH);
+    }
+
+    public String getRepositoryUrl() {
+        return getUrl(SERVICE_DOCUMENT_PATH);
+    }
+
+    public String getCollectionUrl() {
+        return getUrl(COLLECTION_PATH);
+    }
+
+    public String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * List a collection in the service document, deposits to it are accepted when its path starts with the path of the
+     * default collection.
+     */
+    public void addCollection(String title, String path) {
+        collections.put(title, getUrl(path));
+    }
+
+    public int getServiceDocumentFetchCount() {
+        return serviceDocumentFetches.get();
+    }
+
+    /**
+     * @return the number of deposits received, including those failed
+     */
+    public int getDepositCount() {
+        return deposits.get();
+    }
+
+    /**
+     * @return the most deposits in progress at the same time
+     */
+    public int getMaxConcurrentDeposits() {
+        return maxDepositing.get();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return the content of each accepted deposit, in order of acceptance
+     */
+    public List<String> getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Delay the response to every request.
+     */
+    public void setLatency(long milliseconds) {
+        latency = milliseconds;
+    }
+
+    /**
+     * Answer the next deposits with 503 Service Unavailable.
+     */
+    public void failNext(int count) {
+        unavailable.set(count);
+    }
+
+    /**
+     * Answer deposits whose content contains the text with 500 Internal Server Error.
+     */
+    public void reject(String content) {
+        rejectedContent.add(content);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void serviceDocument(HttpExchange exchange) throws IOException {
+        serviceDocumentFetches.incrementAndGet();
+
+        try (HttpExchange e = exchange) {
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+
+            StringBuilder document = new StringBuilder();
+            document.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            document.append("<service xmlns=\"http://www.w3.org/2007/app\" xmlns:atom=\"http://www.w3.org/2005/Atom\" xmlns:sword=\"http://purl.org/net/sword/\">");
+            document.append("<sword:version>1.3</sword:version>");
+            document.append("<sword:verbose>false</sword:verbose>");
+            document.append("<sword:noOp>false</sword:noOp>");
+            document.append("<workspace>");
+            document.append("<atom:title>Vireo</atom:title>");
+            collections.forEach((title, url) -> {
+                document.append("<collection href=\"" + url + "\">");
+                document.append("<atom:title>" + title + "</atom:title>");
+                document.append("<accept>application/zip</accept>");
+                document.append("<sword:mediation>true</sword:mediation>");
+                document.append("<sword:acceptPackaging q=\"1.0\">http://purl.org/net/sword-types/METSDSpaceSIP</sword:acceptPackaging>");
+                document.append("</collection>");
+            });
+            document.append("</workspace>");
+            document.append("</service>");
+
+            exchange.getResponseHeaders().add("Content-Type", "application/atomsvc+xml");
+            respond(exchange, 200, document.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deposit(HttpExchange exchange) throws IOException {
+        deposits.incrementAndGet();
+        connections.add(exchange.getRemoteAddress().toString());
+
+        int inProgress = depositing.incrementAndGet();
+        maxDepositing.accumulateAndGet(inProgress, Math::max);
+
+        try (HttpExchange e = exchange) {
+            String content;
+            try (InputStream in = exchange.getRequestBody()) {
+                content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+
+            if (unavailable.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                respond(exchange, 503, "Service Unavailable");
+            } else if (rejectedContent.stream().anyMatch(content::contains)) {
+                respond(exchange, 500, "Internal Server Error");
+            } else {
+                accepted.add(content);
+                exchange.getResponseHeaders().add("Content-Type", "application/atom+xml");
+                respond(exchange, 201, entry(accepted.size()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            depositing.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String entry(int item) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<entry xmlns=\"http://www.w3.org/2005/Atom\" xmlns:sword=\"http://purl.org/net/sword/\">"
+            + "<id>http://localhost/123456789/" + item + "</id>"
+            + "<title>Item " + item + "</title>"
+            + "<updated>2020-01-01T00:00:00Z</updated>"
+            + "<author><name>Vireo</name></author>"
+            + "<summary>Deposited item</summary>"
+            + "<content src=\"http://localhost/bitstream/123456789/" + item + "\" type=\"application/zip\"/>"
+            + "<generator uri=\"http://localhost\" version=\"1.3\"/>"
+            + "<sword:treatment>Deposited</sword:treatment>"
+            + "<sword:packaging>http://purl.org/net/sword-types/METSDSpaceSIP</sword:packaging>"
+            + "<sword:noOp>false</sword:noOp>"
+            + "</entry>";
+    }
+
+}
@@ -0,0 +1,203 @@
+package org.tdl.vireo.model.depositor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.exception.SwordDepositNotFoundException;
+import org.tdl.vireo.mock.FakeSwordServer;
+import org.tdl.vireo.model.DepositLocation;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.export.ZipExportPackage;
+
+public class SWORDv1DepositorTest {
+
+    private FakeSwordServer swordServer;
+
+    private DepositLocation depositLocation;
+
+    private Path exportFile;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        swordServer = new FakeSwordServer();
+
+        depositLocation = new DepositLocation();
+        depositLocation.setName("Fake SWORD");
+        depositLocation.setRepository(swordServer.getRepositoryUrl());
+        depositLocation.setCollection(swordServer.getCollectionUrl());
+        depositLocation.setUsername("vireo");
+        depositLocation.setPassword("secret");
+        depositLocation.setDepositorName("SWORDv1Depositor");
+        depositLocation.setTimeout(10);
+
+        exportFile = Files.createTempFile("submission-", ".zip");
+        Files.write(exportFile, "submission".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        swordServer.close();
+        Files.deleteIfExists(exportFile);
+    }
+
+    @Test
+    public void testCollectionsAreCached() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        Map<String, String> collections = depositor.getCollections(depositLocation);
+
+        assertEquals(1, collections.size());
+        assertEquals(swordServer.getCollectionUrl(), collections.get("Theses"));
+
+        swordServer.addCollection("Dissertations", FakeSwordServer.COLLECTION_PATH + "/dissertations");
+
+        assertEquals(collections, depositor.getCollections(depositLocation), "Collections should be answered from the cached service document");
+        assertEquals(1, swordServer.getServiceDocumentFetchCount());
+    }
+
+    @Test
+    public void testRefreshCollections() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        depositor.getCollections(depositLocation);
+
+        swordServer.addCollection("Dissertations", FakeSwordServer.COLLECTION_PATH + "/dissertations");
+
+        Map<String, String> collections = depositor.refreshCollections(depositLocation);
+
+        assertEquals(2, collections.size());
+        assertEquals(2, depositor.getCollections(depositLocation).size());
+        assertEquals(2, swordServer.getServiceDocumentFetchCount());
+    }
+
+    @Test
+    public void testCachedCollectionsExpire() throws Exception {
+        SWORDv1Depositor depositor = new SWORDv1Depositor(100);
+
+        depositor.getCollections(depositLocation);
+        depositor.getCollections(depositLocation);
+
+        assertEquals(1, swordServer.getServiceDocumentFetchCount());
+
+        Thread.sleep(200);
+
+        depositor.getCollections(depositLocation);
+
+        assertEquals(2, swordServer.getServiceDocumentFetchCount());
+    }
+
+    @Test
+    public void testCollectionsAreCachedPerCredentials() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        depositor.getCollections(depositLocation);
+
+        depositLocation.setOnBehalfOf("student");
+
+        depositor.getCollections(depositLocation);
+        depositor.getCollections(depositLocation);
+
+        assertEquals(2, swordServer.getServiceDocumentFetchCount());
+    }
+
+    @Test
+    public void testCacheKeysDoNotHoldPasswords() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        depositor.getCollections(depositLocation);
+
+        @SuppressWarnings("unchecked")
+        Map<String, ?> serviceDocuments = (Map<String, ?>) ReflectionTestUtils.getField(depositor, "serviceDocuments");
+
+        assertEquals(1, serviceDocuments.size());
+        serviceDocuments.keySet().forEach(key -> assertFalse(key.contains("secret"), "The password should not be kept as part of a key"));
+    }
+
+    @Test
+    public void testConcurrentRequestsShareOneFetch() throws Exception {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        swordServer.setLatency(200);
+
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Map<String, String>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return depositor.getCollections(depositLocation);
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Map<String, String>> future : futures) {
+                assertEquals(1, future.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, swordServer.getServiceDocumentFetchCount());
+    }
+
+    @Test
+    public void testDepositDoesNotFetchServiceDocument() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        String depositUrl = depositor.deposit(depositLocation, exportPackage());
+
+        assertTrue(depositUrl.contains("/handle/123456789/"), "Unexpected deposit URL " + depositUrl);
+        assertEquals(0, swordServer.getServiceDocumentFetchCount());
+        assertEquals(1, swordServer.getAccepted().size());
+    }
+
+    @Test
+    public void testDepositToCollectionMissingFromCachedServiceDocument() {
+        SWORDv1Depositor depositor = new SWORDv1Depositor();
+
+        depositor.getCollections(depositLocation);
+
+        depositLocation.setCollection(swordServer.getCollectionUrl() + "/dissertations");
+
+        assertThrows(SwordDepositNotFoundException.class, () -> depositor.deposit(depositLocation, exportPackage()));
+        assertEquals(0, swordServer.getDepositCount());
+
+        swordServer.addCollection("Dissertations", FakeSwordServer.COLLECTION_PATH + "/dissertations");
+        depositor.refreshCollections(depositLocation);
+
+        depositor.deposit(depositLocation, exportPackage());
+
+        assertEquals(1, swordServer.getAccepted().size());
+        assertEquals(2, swordServer.getServiceDocumentFetchCount());
+    }
+
+    private ZipExportPackage exportPackage() {
+        File file = exportFile.toFile();
+        return new ZipExportPackage(new Submission(), "http://purl.org/net/sword-types/METSDSpaceSIP", file);
+    }
+
+}
@@ -55,6 +55,17 @@ public class ActionLogRepoTest extends AbstractRepoTest {
         assertEquals(TEST_ACTION_LOG_FLAG, testActionLog.isPrivateFlag(), "Saved action log does not have the correct flag ");
     }
 
+    @Transactional
+    @Test
+    public void testCreateLinksSubmission() {
+        ActionLog firstActionLog = actionLogRepo.create(testSubmission, testUser, TEST_ACTION_LOG_ACTION_DATE, TEST_ACTION_LOG_ENTRY, TEST_ACTION_LOG_FLAG);
+        ActionLog lastActionLog = actionLogRepo.create(testSubmission, testUser, TEST_ACTION_LOG_ACTION_DATE, TEST_ACTION_LOG_ENTRY, TEST_ACTION_LOG_FLAG);
+
+        assertEquals(testSubmission.getId(), submissionRepo.findByActionLogsId(firstActionLog.getId()).getId(), "The first action log is not linked to the submission");
+        assertEquals(testSubmission.getId(), submissionRepo.findByActionLogsId(lastActionLog.getId()).getId(), "The last action log is not linked to the submission");
+        assertEquals(lastActionLog.getId(), testSubmission.getLastAction().getId(), "The submission does not have the last action log as its last action");
+    }
+
     @Transactional
     @Override
     @Test
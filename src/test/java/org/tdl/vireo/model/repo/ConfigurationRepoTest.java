@@ -1,11 +1,13 @@
 package org.tdl.vireo.model.repo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.tdl.vireo.config.constant.ConfigurationName;
+import org.tdl.vireo.model.Configuration;
 import org.tdl.vireo.model.ManagedConfiguration;
 
 public class ConfigurationRepoTest extends AbstractRepoTest {
@@ -45,6 +47,49 @@ public class ConfigurationRepoTest extends AbstractRepoTest {
     public void testCascade() {
     }
 
+    @Test
+    public void testUpdateInvalidatesCachedSettings() {
+        ManagedConfiguration configuration = configurationRepo.create(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "true", "application");
+
+        assertEquals("true", configurationRepo.getValueByName(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY));
+        assertEquals("true", configurationRepo.getValueByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application"));
+        assertEquals("true", configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application").getValue());
+
+        configuration.setValue("false");
+        configurationRepo.save(configuration);
+
+        assertEquals("false", configurationRepo.getValueByName(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY), "The cached value was not invalidated by the update!");
+        assertEquals("false", configurationRepo.getValueByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application"), "The cached value was not invalidated by the update!");
+        assertEquals("false", configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application").getValue(), "The cached configuration was not invalidated by the update!");
+    }
+
+    @Test
+    public void testDeleteInvalidatesCachedSettings() {
+        ManagedConfiguration configuration = configurationRepo.create(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "true", "application");
+
+        assertEquals("true", configurationRepo.getValueByName(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY));
+        assertEquals("true", configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application").getValue());
+
+        configurationRepo.delete(configuration);
+
+        assertEquals("false", configurationRepo.getValueByName(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY), "The deleted configuration is still cached!");
+        assertEquals("false", configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application").getValue(), "The deleted configuration is still cached!");
+    }
+
+    @Test
+    public void testCachedConfigurationIsACopy() {
+        configurationRepo.create(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "true", "application");
+
+        Configuration first = configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application");
+        ((ManagedConfiguration) first).setValue("false");
+
+        Configuration second = configurationRepo.getByNameAndType(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY, "application");
+
+        assertNotSame(first, second);
+        assertEquals("true", second.getValue(), "A change to a returned configuration should not change the cached one!");
+        assertEquals("true", configurationRepo.findByName(TEST_VIREO_CONFIG_SUBMISSIONS_OPEN_KEY).getValue(), "A change to a returned configuration should not be saved!");
+    }
+
     @AfterEach
     public void cleanUp() {
         configurationRepo.deleteAll();
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -946,6 +948,170 @@ public class FieldProfileRepoTest extends AbstractRepoTest {
 
     }
 
+    @Test
+    public void testOverrideAtOriginatingOrgReplacesAndReoriginatesAcrossSubtree() throws HeritableModelNonOverrideableException, WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
+
+        // this test calls for adding a single workflowstep to the parent organization
+        workflowStepRepo.delete(workflowStep);
+
+        Organization parentOrganization = organizationRepo.create(TEST_PARENT_ORGANIZATION_NAME, parentCategory);
+        parentOrganization.addChildOrganization(organizationRepo.findById(organization.getId()).get());
+        parentOrganization = organizationRepo.save(parentOrganization);
+
+        organization = organizationRepo.findById(organization.getId()).get();
+        Organization grandChildOrganization = organizationRepo.create(TEST_GRAND_CHILD_ORGANIZATION_NAME, organization, parentCategory);
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        Organization greatGrandChildOrganization = organizationRepo.create("TestGreatGrandchildOrganizationName", grandChildOrganization, parentCategory);
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        Organization anotherGreatGrandChildOrganization = organizationRepo.create("AnotherTestGreatGrandchildOrganizationName", grandChildOrganization, parentCategory);
+
+        parentOrganization = organizationRepo.findById(parentOrganization.getId()).get();
+
+        WorkflowStep workflowStep = workflowStepRepo.create(TEST_WORKFLOW_STEP_NAME, parentOrganization);
+
+        FieldPredicate fieldPredicate2 = fieldPredicateRepo.create("foo.bar", Boolean.valueOf(false));
+
+        FieldProfile fp1 = fieldProfileRepo.create(workflowStep, fieldPredicate, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+        workflowStep = workflowStepRepo.findById(workflowStep.getId()).get();
+
+        FieldProfile fp2 = fieldProfileRepo.create(workflowStep, fieldPredicate2, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS_2, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+        workflowStep = workflowStepRepo.findById(workflowStep.getId()).get();
+
+        // the child overrides the first field profile, so it originates a workflow step still aggregating the second
+        fp1.setHelp("child help");
+        fieldProfileRepo.update(fp1, organizationRepo.findById(organization.getId()).get());
+
+        // the grandchild overrides the second field profile on its own workflow step
+        fp2 = fieldProfileRepo.findById(fp2.getId()).get();
+        fp2.setHelp("grandchild help");
+        FieldProfile fp2AtGrandChild = fieldProfileRepo.update(fp2, organizationRepo.findById(grandChildOrganization.getId()).get());
+
+        // the child now overrides the second field profile on the workflow step it originates
+        fp2 = fieldProfileRepo.findById(fp2.getId()).get();
+        fp2.setHelp("child help");
+        FieldProfile fp2AtChild = fieldProfileRepo.update(fp2, organizationRepo.findById(organization.getId()).get());
+
+        parentOrganization = organizationRepo.findById(parentOrganization.getId()).get();
+        organization = organizationRepo.findById(organization.getId()).get();
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        greatGrandChildOrganization = organizationRepo.findById(greatGrandChildOrganization.getId()).get();
+        anotherGreatGrandChildOrganization = organizationRepo.findById(anotherGreatGrandChildOrganization.getId()).get();
+        fp2AtGrandChild = fieldProfileRepo.findById(fp2AtGrandChild.getId()).get();
+
+        assertTrue(parentOrganization.getAggregateWorkflowSteps().get(0).getAggregateFieldProfiles().contains(fp2), "The parent's workflow step lost the field profile overridden below it!");
+
+        WorkflowStep childWorkflowStep = organization.getAggregateWorkflowSteps().get(0);
+        assertEquals(2, childWorkflowStep.getAggregateFieldProfiles().size(), "The child's workflow step has the incorrect number of aggregate field profiles!");
+        assertEquals(fp2AtChild, childWorkflowStep.getAggregateFieldProfiles().get(1), "The child's workflow step didn't replace the field profile in place!");
+        assertFalse(childWorkflowStep.getAggregateFieldProfiles().contains(fp2), "The child's workflow step still aggregates the overridden field profile!");
+
+        assertEquals(fp2AtChild, fp2AtGrandChild.getOriginating(), "The grandchild's override should now originate from the child's override!");
+
+        for (Organization descendant : new Organization[] { grandChildOrganization, greatGrandChildOrganization, anotherGreatGrandChildOrganization }) {
+            List<FieldProfile> fieldProfiles = descendant.getAggregateWorkflowSteps().get(0).getAggregateFieldProfiles();
+            assertEquals(2, fieldProfiles.size(), descendant.getName() + "'s workflow step has the incorrect number of aggregate field profiles!");
+            assertEquals(fp2AtGrandChild, fieldProfiles.get(1), descendant.getName() + "'s workflow step lost the grandchild's override!");
+            assertFalse(fieldProfiles.contains(fp2AtChild), descendant.getName() + "'s workflow step was given the child's override over its own!");
+        }
+    }
+
+    @Test
+    public void testMakeNonOverrideableAddsBackRemovedFieldProfileAcrossSubtree() throws HeritableModelNonOverrideableException, WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
+
+        // this test calls for adding a single workflowstep to the parent organization
+        workflowStepRepo.delete(workflowStep);
+
+        Organization parentOrganization = organizationRepo.create(TEST_PARENT_ORGANIZATION_NAME, parentCategory);
+        parentOrganization.addChildOrganization(organizationRepo.findById(organization.getId()).get());
+        parentOrganization = organizationRepo.save(parentOrganization);
+
+        organization = organizationRepo.findById(organization.getId()).get();
+        Organization grandChildOrganization = organizationRepo.create(TEST_GRAND_CHILD_ORGANIZATION_NAME, organization, parentCategory);
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        Organization greatGrandChildOrganization = organizationRepo.create("TestGreatGrandchildOrganizationName", grandChildOrganization, parentCategory);
+
+        parentOrganization = organizationRepo.findById(parentOrganization.getId()).get();
+
+        WorkflowStep workflowStep = workflowStepRepo.create(TEST_WORKFLOW_STEP_NAME, parentOrganization);
+
+        FieldPredicate fieldPredicate2 = fieldPredicateRepo.create("foo.bar", Boolean.valueOf(false));
+
+        FieldProfile fp1 = fieldProfileRepo.create(workflowStep, fieldPredicate, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+        workflowStep = workflowStepRepo.findById(workflowStep.getId()).get();
+
+        FieldProfile fp2 = fieldProfileRepo.create(workflowStep, fieldPredicate2, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS_2, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+        workflowStep = workflowStepRepo.findById(workflowStep.getId()).get();
+
+        // the grandchild removes the first field profile from its workflow
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        fieldProfileRepo.removeFromWorkflowStep(grandChildOrganization, grandChildOrganization.getAggregateWorkflowSteps().get(0), fieldProfileRepo.findById(fp1.getId()).get());
+
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        assertFalse(grandChildOrganization.getAggregateWorkflowSteps().get(0).getAggregateFieldProfiles().contains(fp1), "The grandchild didn't remove the field profile!");
+
+        // the parent makes it non-overrideable, which puts it back
+        fp1 = fieldProfileRepo.findById(fp1.getId()).get();
+        fp1.setOverrideable(false);
+        fieldProfileRepo.update(fp1, organizationRepo.findById(parentOrganization.getId()).get());
+
+        organization = organizationRepo.findById(organization.getId()).get();
+        grandChildOrganization = organizationRepo.findById(grandChildOrganization.getId()).get();
+        greatGrandChildOrganization = organizationRepo.findById(greatGrandChildOrganization.getId()).get();
+
+        assertEquals(2, organization.getAggregateWorkflowSteps().get(0).getAggregateFieldProfiles().size(), "The child's workflow step should be unchanged!");
+
+        for (Organization descendant : new Organization[] { grandChildOrganization, greatGrandChildOrganization }) {
+            List<FieldProfile> fieldProfiles = descendant.getAggregateWorkflowSteps().get(0).getAggregateFieldProfiles();
+            assertEquals(2, fieldProfiles.size(), descendant.getName() + "'s workflow step has the incorrect number of aggregate field profiles!");
+            assertEquals(fp2, fieldProfiles.get(0), descendant.getName() + "'s workflow step lost its remaining field profile!");
+            assertEquals(fp1, fieldProfiles.get(1), descendant.getName() + "'s workflow step didn't get the non-overrideable field profile back!");
+        }
+    }
+
+    @Test
+    public void testMakeNonOverrideableDoesNotDuplicateFieldProfile() throws HeritableModelNonOverrideableException, WorkflowStepNonOverrideableException, ComponentNotPresentOnOrgException {
+
+        // this test calls for adding a single workflowstep to the parent organization
+        workflowStepRepo.delete(workflowStep);
+
+        Organization parentOrganization = organizationRepo.create(TEST_PARENT_ORGANIZATION_NAME, parentCategory);
+        parentOrganization.addChildOrganization(organizationRepo.findById(organization.getId()).get());
+        parentOrganization = organizationRepo.save(parentOrganization);
+
+        WorkflowStep workflowStep = workflowStepRepo.create(TEST_WORKFLOW_STEP_NAME, parentOrganization);
+
+        FieldPredicate fieldPredicate2 = fieldPredicateRepo.create("foo.bar", Boolean.valueOf(false));
+
+        FieldProfile fp1 = fieldProfileRepo.create(workflowStep, fieldPredicate, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+        workflowStep = workflowStepRepo.findById(workflowStep.getId()).get();
+
+        FieldProfile fp2 = fieldProfileRepo.create(workflowStep, fieldPredicate2, inputType, TEST_FIELD_PROFILE_USAGE, TEST_GLOSS_2, TEST_FIELD_PROFILE_REPEATABLE, TEST_FIELD_PROFILE_OVERRIDEABLE, TEST_FIELD_PROFILE_ENABLED, TEST_FIELD_PROFILE_OPTIONAL, TEST_FIELD_PROFILE_FLAGGED, TEST_FIELD_PROFILE_LOGGED, TEST_FIELD_PROFILE_DEFAULT_VALUE);
+
+        // the child overrides the first field profile, and its workflow step also comes to aggregate the original
+        fp1.setHelp("child help");
+        FieldProfile fp1AtChild = fieldProfileRepo.update(fp1, organizationRepo.findById(organization.getId()).get());
+
+        organization = organizationRepo.findById(organization.getId()).get();
+        WorkflowStep childWorkflowStep = organization.getAggregateWorkflowSteps().get(0);
+        childWorkflowStep.addFieldProfile(fieldProfileRepo.findById(fp1.getId()).get());
+        childWorkflowStep = workflowStepRepo.save(childWorkflowStep);
+
+        assertEquals(3, childWorkflowStep.getAggregateFieldProfiles().size());
+
+        // making the original non-overrideable replaces the override with the original the step already aggregates
+        fp1 = fieldProfileRepo.findById(fp1.getId()).get();
+        fp1.setOverrideable(false);
+        fieldProfileRepo.update(fp1, organizationRepo.findById(parentOrganization.getId()).get());
+
+        childWorkflowStep = workflowStepRepo.findById(childWorkflowStep.getId()).get();
+
+        List<FieldProfile> fieldProfiles = childWorkflowStep.getAggregateFieldProfiles();
+        assertEquals(2, fieldProfiles.size(), "The child's workflow step should aggregate each field profile once!");
+        assertEquals(fp2, fieldProfiles.get(0), "The child's workflow step's remaining field profiles should close the gap left!");
+        assertEquals(fp1, fieldProfiles.get(1), "The child's workflow step lost the non-overrideable field profile!");
+        assertFalse(fieldProfileRepo.findById(fp1AtChild.getId()).isPresent(), "The child's override of a non-overrideable field profile should be removed!");
+    }
+
     @AfterEach
     public void cleanUp() {
 
@@ -0,0 +1,155 @@
+package org.tdl.vireo.model.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.tdl.vireo.model.Organization;
+import org.tdl.vireo.model.repo.impl.OrganizationRepoImpl;
+import org.tdl.vireo.model.response.OrganizationChange;
+
+import edu.tamu.weaver.response.ApiResponse;
+
+@ExtendWith(MockitoExtension.class)
+public class OrganizationChangeBroadcastTest {
+
+    private static final String CHANNEL = "/channel/organization";
+
+    @Mock
+    private SimpMessagingTemplate simpMessagingTemplate;
+
+    @Mock
+    private OrganizationHierarchyRepo organizationHierarchyRepo;
+
+    private OrganizationRepoImpl organizationRepoImpl;
+
+    @BeforeEach
+    public void setup() {
+        organizationRepoImpl = newOrganizationRepoImpl();
+        lenient().when(organizationHierarchyRepo.findDescendantIds(any(Long.class))).thenReturn(Collections.emptyList());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testVersionIncreasesByOneFromOneSource() {
+        organizationRepoImpl.broadcastChange(ids(1L), ids(), ids());
+        organizationRepoImpl.broadcastChange(ids(), ids(1L, 2L), ids());
+        organizationRepoImpl.broadcastChange(ids(), ids(), ids(2L));
+
+        List<OrganizationChange> changes = sentChanges(3);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), changes.stream().map(OrganizationChange::getVersion).collect(Collectors.toList()));
+        assertEquals(1, changes.stream().map(OrganizationChange::getSource).distinct().count(), "Changes from one instance should have one source");
+    }
+
+    @Test
+    public void testCreatedAndDeletedAreNotReportedAsUpdated() {
+        organizationRepoImpl.broadcastChange(ids(1L), ids(1L, 2L, 3L), ids(3L));
+
+        OrganizationChange change = sentChanges(1).get(0);
+
+        assertEquals(ids(1L), change.getCreated());
+        assertEquals(ids(2L), change.getUpdated());
+        assertEquals(ids(3L), change.getDeleted());
+    }
+
+    @Test
+    public void testUpdateIncludesDescendants() {
+        lenient().when(organizationHierarchyRepo.findDescendantIds(1L)).thenReturn(Arrays.asList(2L, 3L));
+
+        Organization organization = new Organization();
+        organization.setId(1L);
+
+        organizationRepoImpl.broadcastUpdate(organization);
+
+        assertEquals(ids(1L, 2L, 3L), sentChanges(1).get(0).getUpdated());
+    }
+
+    @Test
+    public void testChangeIsSentAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        organizationRepoImpl.broadcastChange(ids(), ids(1L), ids());
+
+        verify(simpMessagingTemplate, never()).convertAndSend(eq(CHANNEL), any(Object.class));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1L, sentChanges(1).get(0).getVersion());
+    }
+
+    @Test
+    public void testRolledBackChangeIsNotSentAndUsesNoVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        organizationRepoImpl.broadcastChange(ids(), ids(1L), ids());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        organizationRepoImpl.broadcastChange(ids(), ids(2L), ids());
+
+        assertEquals(1L, sentChanges(1).get(0).getVersion(), "A rolled back change should not skip a version");
+    }
+
+    @Test
+    public void testEachInstanceHasItsOwnSource() {
+        OrganizationRepoImpl otherInstance = newOrganizationRepoImpl();
+
+        organizationRepoImpl.broadcastChange(ids(), ids(1L), ids());
+        otherInstance.broadcastChange(ids(), ids(1L), ids());
+
+        List<OrganizationChange> changes = sentChanges(2);
+
+        assertEquals(changes.get(0).getVersion(), changes.get(1).getVersion());
+        assertNotEquals(changes.get(0).getSource(), changes.get(1).getSource(), "Versions counted by different instances should be told apart");
+    }
+
+    private OrganizationRepoImpl newOrganizationRepoImpl() {
+        OrganizationRepoImpl organizationRepoImpl = new OrganizationRepoImpl();
+        ReflectionTestUtils.setField(organizationRepoImpl, "simpMessagingTemplate", simpMessagingTemplate);
+        ReflectionTestUtils.setField(organizationRepoImpl, "organizationHierarchyRepo", organizationHierarchyRepo);
+        return organizationRepoImpl;
+    }
+
+    private List<OrganizationChange> sentChanges(int count) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(simpMessagingTemplate, times(count)).convertAndSend(eq(CHANNEL), captor.capture());
+        return captor.getAllValues().stream().map(response -> (OrganizationChange) ((ApiResponse) response).getPayload().get("OrganizationChange")).collect(Collectors.toList());
+    }
+
+    private static Set<Long> ids(Long... ids) {
+        return new HashSet<Long>(Arrays.asList(ids));
+    }
+
+}
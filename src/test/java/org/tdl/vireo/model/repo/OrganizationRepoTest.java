@@ -4,20 +4,37 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.tdl.vireo.model.EmailWorkflowRule;
 import org.tdl.vireo.model.FieldProfile;
 import org.tdl.vireo.model.Organization;
 import org.tdl.vireo.model.OrganizationCategory;
+import org.tdl.vireo.model.OrganizationHierarchy;
 import org.tdl.vireo.model.WorkflowStep;
+import org.tdl.vireo.view.TreeOrganizationView;
 
 public class OrganizationRepoTest extends AbstractRepoTest {
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrganizationHierarchyRepo organizationHierarchyRepo;
+
     @BeforeEach
     public void setUp() {
 
@@ -173,7 +190,7 @@ public class OrganizationRepoTest extends AbstractRepoTest {
         assertEquals(true, grandChildOrganization.getAggregateWorkflowSteps().contains(childWorkflowStep), "The grand child organization did not inherit child workflow step!");
 
         // verify parent organization
-        parentOrganization = (Organization) childOrganization.getParentOrganization();
+        parentOrganization = organizationRepo.findById(childOrganization.getParentOrganization().getId()).get();
 
         assertEquals(TEST_PARENT_ORGANIZATION_NAME, parentOrganization.getName(), "The parent organization did not have the correct name!");
         assertEquals(TEST_PARENT_CATEGORY_NAME, parentOrganization.getCategory().getName(), "The parent organization category dit not have the correct name!");
@@ -366,6 +383,78 @@ public class OrganizationRepoTest extends AbstractRepoTest {
         assertEquals(topOrganization, leafOrganization.getParentOrganization(), "Hierarchy was not preserved when middle was deleted.  Leaf node " + leafOrganization.getName() + " (" + leafOrganization.getId() + ") didn't get it's grandparent " + topOrganization.getName() + " (" + topOrganization.getId() + ") as new parent.");
     }
 
+    @Test
+    public void testHierarchy() {
+
+        Organization topOrganization = organizationRepo.create(TEST_PARENT_ORGANIZATION_NAME, parentCategory);
+        Long topOrganizationId = topOrganization.getId();
+        parentCategory = organizationCategoryRepo.findById(parentCategory.getId()).get();
+
+        Organization middleOrganization = organizationRepo.create(TEST_CHILD_ORGANIZATION_NAME, topOrganization, parentCategory);
+        Long middleOrganizationId = middleOrganization.getId();
+        parentCategory = organizationCategoryRepo.findById(parentCategory.getId()).get();
+
+        Organization leafOrganization = organizationRepo.create(TEST_GRAND_CHILD_ORGANIZATION_NAME, middleOrganization, parentCategory);
+        Long leafOrganizationId = leafOrganization.getId();
+
+        assertEquals(Arrays.asList(middleOrganizationId, topOrganizationId), organizationHierarchyRepo.findAncestorIds(leafOrganizationId), "The leaf organization does not have its ancestors!");
+        assertEquals(2, organizationRepo.getDescendantOrganizations(topOrganization).size(), "The top organization does not have its descendants!");
+
+        middleOrganization = organizationRepo.findById(middleOrganizationId).get();
+        organizationRepo.delete(middleOrganization);
+
+        assertEquals(Arrays.asList(topOrganizationId), organizationHierarchyRepo.findAncestorIds(leafOrganizationId), "The leaf organization was not moved to its grandparent!");
+        assertTrue(organizationHierarchyRepo.findByAncestorId(middleOrganizationId).isEmpty(), "The deleted organization is still in the hierarchy!");
+
+        topOrganization = organizationRepo.findById(topOrganizationId).get();
+        leafOrganization = organizationRepo.findById(leafOrganizationId).get();
+        topOrganization.removeChildOrganization(leafOrganization);
+        topOrganization = organizationRepo.save(topOrganization);
+
+        assertTrue(organizationHierarchyRepo.findAncestorIds(leafOrganizationId).isEmpty(), "The removed organization still has ancestors!");
+        assertTrue(organizationRepo.getDescendantOrganizations(topOrganization).isEmpty(), "The top organization still has descendants!");
+    }
+
+    @Test
+    public void testSaveAllHierarchy() {
+
+        Organization topOrganization = organizationRepo.save(new Organization(TEST_PARENT_ORGANIZATION_NAME, parentCategory));
+        Organization leafOrganization = organizationRepo.save(new Organization(TEST_CHILD_ORGANIZATION_NAME, parentCategory));
+        topOrganization.addChildOrganization(leafOrganization);
+
+        organizationRepo.saveAll(Arrays.asList(topOrganization, leafOrganization));
+
+        assertEquals(Arrays.asList(topOrganization.getId()), organizationHierarchyRepo.findAncestorIds(leafOrganization.getId()), "Saving all did not record the leaf organization's parent!");
+
+        Organization otherOrganization = organizationRepo.save(new Organization(TEST_GRAND_CHILD_ORGANIZATION_NAME, parentCategory));
+        organizationRepo.deleteById(otherOrganization.getId());
+
+        assertTrue(organizationHierarchyRepo.findByDescendantId(otherOrganization.getId()).isEmpty(), "The deleted organization is still in the hierarchy!");
+    }
+
+    @Test
+    public void testEnsureHierarchy() {
+
+        Organization topOrganization = organizationRepo.create(TEST_PARENT_ORGANIZATION_NAME, parentCategory);
+        parentCategory = organizationCategoryRepo.findById(parentCategory.getId()).get();
+
+        Organization leafOrganization = organizationRepo.create(TEST_CHILD_ORGANIZATION_NAME, topOrganization, parentCategory);
+
+        // the organization count still matches, only the link to the parent is wrong
+        OrganizationHierarchy link = organizationHierarchyRepo.findByAncestorIdAndDepthLessThanEqual(topOrganization.getId(), 1).stream()
+            .filter(row -> row.getDepth() == 1)
+            .findFirst()
+            .get();
+        link.setDepth(2);
+        organizationHierarchyRepo.save(link);
+
+        organizationRepo.ensureHierarchy();
+
+        assertEquals(1, organizationHierarchyRepo.findByAncestorIdAndDepthLessThanEqual(topOrganization.getId(), 1).stream().filter(row -> row.getDepth() == 1).count(), "The inconsistent row was not rebuilt!");
+        assertEquals(Arrays.asList(topOrganization.getId()), organizationHierarchyRepo.findAncestorIds(leafOrganization.getId()), "The leaf organization does not have its parent!");
+        assertEquals(3, organizationHierarchyRepo.count(), "The hierarchy does not have a row for each link!");
+    }
+
     @Test
     @Transactional
     public void syncWithParent() {
@@ -447,6 +536,58 @@ public class OrganizationRepoTest extends AbstractRepoTest {
         assertEquals(4, parentOrganization.getAggregateWorkflowSteps().size(), "The number of aggregate workflowsteps was off!");
     }
 
+    @Test
+    public void testFindTreeQueryCount() {
+        List<Organization> organizations = new ArrayList<Organization>();
+        for (int i = 0; i < 300; i++) {
+            organizations.add(organizationRepo.save(new Organization(TEST_ORGANIZATION_NAME + " " + i, parentCategory)));
+        }
+        for (int i = 1; i < organizations.size(); i++) {
+            organizations.get((i - 1) / 10).addChildOrganization(organizations.get(i));
+        }
+        organizationRepo.saveAll(organizations);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            List<TreeOrganizationView> projection = organizationRepo.findViewAllByOrderByIdAsc(TreeOrganizationView.class);
+            long projectionQueries = statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            List<TreeOrganizationView> tree = organizationRepo.findTree();
+            long treeQueries = statistics.getPrepareStatementCount();
+
+            assertEquals(projection.size(), tree.size(), "The tree does not have every organization!");
+            assertEquals(1, treeQueries, "The tree was not read with a single query!");
+            assertTrue(treeQueries < projectionQueries, "The tree did not take fewer queries than the projection!");
+
+            statistics.clear();
+            TreeOrganizationView subtree = organizationRepo.findTreeById(organizations.get(1).getId());
+
+            assertEquals(1, statistics.getPrepareStatementCount(), "The subtree was not read with a single query!");
+            assertEquals(organizations.get(0).getId(), subtree.getParentOrganization().getId(), "The subtree does not have its parent!");
+            assertEquals(10, subtree.getChildrenOrganizations().size(), "The subtree does not have its children!");
+
+            statistics.clear();
+            Organization organization = organizationRepo.findById(organizations.get(29).getId()).get();
+
+            assertTrue(statistics.getEntityLoadCount() < organizations.size(), "Reading one organization loaded the whole hierarchy!");
+            assertEquals(9, organization.getChildrenOrganizations().size(), "The organization does not have its children!");
+            assertTrue(organization.getChildrenOrganizations().stream().allMatch(child -> child.getChildrenOrganizations().isEmpty()), "The organization's children do not have theirs!");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        TreeOrganizationView root = organizationRepo.findTreeById(organizations.get(0).getId());
+        assertEquals(10, root.getChildrenOrganizations().size(), "The root does not have its children!");
+        assertEquals(null, root.getParentOrganization(), "The root has a parent!");
+
+        TreeOrganizationView leaf = organizationRepo.findTreeById(organizations.get(299).getId());
+        assertEquals(organizations.get(29).getId(), leaf.getParentOrganization().getId(), "The leaf does not have its parent!");
+        assertTrue(leaf.getChildrenOrganizations().isEmpty(), "The leaf has children!");
+    }
+
     @AfterEach
     public void cleanUp() {
 
@@ -2,7 +2,10 @@ package org.tdl.vireo.model.repo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +20,8 @@ import org.tdl.vireo.model.CustomActionValue;
 import org.tdl.vireo.model.FieldValue;
 import org.tdl.vireo.model.Submission;
 import org.tdl.vireo.model.SubmissionFieldProfile;
+import org.tdl.vireo.model.SubmissionState;
+import org.tdl.vireo.model.SubmissionStatus;
 import org.tdl.vireo.model.SubmissionWorkflowStep;
 import org.tdl.vireo.model.WorkflowStep;
 
@@ -227,6 +232,40 @@ public class SubmissionRepoTest extends AbstractRepoTest {
         assertEquals(1, fieldPredicateRepo.count(), "The field predicate was deleted!");
     }
 
+    @Test
+    public void testBatchUpdateStatus() throws OrganizationDoesNotAcceptSubmissionsException {
+        List<CustomActionDefinition> actions = customActionDefinitionRepo.findAll();
+
+        Submission first = submissionRepo.create(submitter, organization, submissionStatus, getCredentials(), actions);
+        Submission second = submissionRepo.create(submitter, organization, submissionStatus, getCredentials(), actions);
+        Submission untouched = submissionRepo.create(submitter, organization, submissionStatus, getCredentials(), actions);
+
+        SubmissionStatus approvedStatus = submissionStatusRepo.create("Test Approved Status", TEST_SUBMISSION_STATUS_ARCHIVED, TEST_SUBMISSION_STATUS_PUBLISHABLE, TEST_SUBMISSION_STATUS_DELETABLE, TEST_SUBMISSION_STATUS_EDITABLE_BY_REVIEWER, TEST_SUBMISSION_STATUS_EDITABLE_BY_STUDENT, TEST_SUBMISSION_STATUS_ACTIVE, SubmissionState.APPROVED);
+
+        int updated = submissionRepo.batchUpdateStatus(Arrays.asList(first.getId(), second.getId()), approvedStatus, submitter);
+
+        assertEquals(2, updated, "The batch update did not change the status of both submissions!");
+
+        String entry = "Submission status was changed from " + TEST_SUBMISSION_STATUS_NAME + " to " + approvedStatus.getName();
+
+        for (Long id : Arrays.asList(first.getId(), second.getId())) {
+            Submission submission = submissionRepo.findById(id).get();
+
+            assertEquals(approvedStatus, submission.getSubmissionStatus(), "The batch update did not change the status!");
+            assertTrue(submission.isApproveApplication(), "The batch update did not approve the application!");
+            assertNotNull(submission.getApproveApplicationDate(), "The batch update did not set the approval date!");
+
+            assertNotNull(submission.getLastAction(), "The batch update did not set the last action!");
+            assertEquals(entry, submission.getLastAction().getEntry(), "The last action is not the status change!");
+            assertEquals(1, submission.getActionLogs().stream().filter(actionLog -> actionLog.getEntry().equals(entry)).count(), "The status change was not logged once on the submission!");
+        }
+
+        untouched = submissionRepo.findById(untouched.getId()).get();
+
+        assertEquals(submissionStatus, untouched.getSubmissionStatus(), "The batch update changed a submission it was not given!");
+        assertTrue(untouched.getActionLogs().stream().noneMatch(actionLog -> actionLog.getEntry().equals(entry)), "The batch update logged a change on a submission it was not given!");
+    }
+
     @Test
     @Transactional
     public void testMultiple() throws OrganizationDoesNotAcceptSubmissionsException {
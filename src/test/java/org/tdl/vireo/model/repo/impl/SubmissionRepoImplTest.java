@@ -0,0 +1,316 @@
+package org.tdl.vireo.model.repo.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.config.AppFilterConfig;
+import org.tdl.vireo.config.VireoDatabaseConfig;
+import org.tdl.vireo.model.FieldPredicate;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.FilterCriterion;
+import org.tdl.vireo.model.InputType;
+import org.tdl.vireo.model.NamedSearchFilter;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Sort;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.repo.FieldPredicateRepo;
+import org.tdl.vireo.model.repo.SubmissionListColumnRepo;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.model.response.KeysetPage;
+import org.tdl.vireo.service.SubmissionListRowService;
+
+@ExtendWith(MockitoExtension.class)
+public class SubmissionRepoImplTest {
+
+    @Mock
+    private SubmissionRepo submissionRepo;
+
+    @Mock
+    private SubmissionListColumnRepo submissionListColumnRepo;
+
+    @Mock
+    private FieldPredicateRepo fieldPredicateRepo;
+
+    @Mock
+    private AppFilterConfig appFilterConfig;
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SubmissionRepoImpl submissionRepoImpl;
+
+    private FieldPredicate title;
+
+    private FieldPredicate keywords;
+
+    private final Map<Long, Submission> submissions = new HashMap<>();
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // only what the dynamic query reads for field value columns
+        jdbcTemplate.execute("CREATE TABLE submission (id BIGINT NOT NULL PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE field_value (id BIGINT NOT NULL PRIMARY KEY, field_predicate_id BIGINT, value VARCHAR(4000))");
+        jdbcTemplate.execute("CREATE TABLE submission_field_values (submission_id BIGINT NOT NULL, field_values_id BIGINT NOT NULL)");
+
+        VireoDatabaseConfig vireoDatabaseConfig = new VireoDatabaseConfig();
+        vireoDatabaseConfig.setPlatform("h2");
+
+        title = predicate(1L, "dc.title");
+        keywords = predicate(2L, "keywords");
+
+        lenient().when(submissionListColumnRepo.findAll()).thenAnswer(invocation -> columns());
+        lenient().when(submissionRepo.findAllById(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+            .map(submissions::get)
+            .collect(Collectors.toList()));
+
+        // the projection is disabled, so the field values are joined, one row per value
+        SubmissionListRowService submissionListRowService = new SubmissionListRowService(dataSource);
+        ReflectionTestUtils.setField(submissionListRowService, "enabled", false);
+
+        submissionRepoImpl = new SubmissionRepoImpl(dataSource);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionRepo", submissionRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionListColumnRepo", submissionListColumnRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "fieldPredicateRepo", fieldPredicateRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionListRowService", submissionListRowService);
+        ReflectionTestUtils.setField(submissionRepoImpl, "appFilterConfig", appFilterConfig);
+        ReflectionTestUtils.setField(submissionRepoImpl, "vireoDatabaseConfig", vireoDatabaseConfig);
+        ReflectionTestUtils.setField(submissionRepoImpl, "queryShapeCacheSize", 256);
+        ReflectionTestUtils.setField(submissionRepoImpl, "countCacheDuration", 60000L);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void testSeekBreaksTiesById() {
+        insert(1L, "Apple");
+        insert(2L, "Apple");
+        insert(3L, "Banana");
+        insert(4L, "Banana");
+        insert(5L, "Banana");
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), seekAll(sortedBy(0, Sort.ASC), 2), "Submissions with equal sort values should each be returned once, in id order");
+    }
+
+    @Test
+    public void testSeekOnMultiValuedColumn() {
+        insert(1L, "One", "b", "z");
+        insert(2L, "Two", "a");
+        insert(3L, "Three", "c", "d");
+        insert(4L, "Four");
+
+        assertEquals(Arrays.asList(2L, 1L, 3L, 4L), seekAll(sortedBy(1, Sort.ASC), 1), "Submissions should be ordered by their first value, without repeats");
+        assertEquals(Arrays.asList(1L, 3L, 2L, 4L), seekAll(sortedBy(1, Sort.DESC), 1), "Submissions should be ordered by their last value, without repeats");
+    }
+
+    @Test
+    public void testSeekCountsOnRequest() {
+        insert(1L, "One", "a", "b");
+        insert(2L, "Two", "c");
+
+        KeysetPage<Submission> page = submissionRepoImpl.keysetDynamicSubmissionQuery(null, sortedBy(1, Sort.ASC), null, 1, true);
+
+        assertEquals(2L, page.getTotalElements(), "Submissions with several values should be counted once");
+        assertNotNull(page.getCursor());
+
+        page = submissionRepoImpl.keysetDynamicSubmissionQuery(null, sortedBy(1, Sort.ASC), page.getCursor(), 1, false);
+
+        assertNull(page.getTotalElements(), "The count should only be run when requested");
+        assertTrue(page.isLast());
+    }
+
+    @Test
+    public void testCursorOfAnotherSortRestarts() {
+        insert(1L, "Banana");
+        insert(2L, "Apple");
+
+        KeysetPage<Submission> page = submissionRepoImpl.keysetDynamicSubmissionQuery(null, sortedBy(0, Sort.ASC), null, 1, false);
+        page = submissionRepoImpl.keysetDynamicSubmissionQuery(null, sortedBy(0, Sort.DESC), page.getCursor(), 1, false);
+
+        assertEquals(Arrays.asList(1L), ids(page), "A cursor from another sort should start from the first page");
+    }
+
+    @Test
+    public void testBatchIdQueryReturnsEachSubmissionOnce() {
+        insert(1L, "One", "a", "b");
+        insert(2L, "Two", "c");
+
+        List<Long> ids = submissionRepoImpl.batchDynamicSubmissionIdQuery(null, sortedBy(1, Sort.ASC));
+
+        assertEquals(2, ids.size(), "A submission with several values should be exported once");
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(ids));
+    }
+
+    @Test
+    public void testQueryShapeIsReusedForOtherFilterValues() throws Exception {
+        insert(1L, "Apple", "a");
+        insert(2L, "Banana", "b");
+
+        submissionRepoImpl.pageableDynamicSubmissionQuery(filteredBy("app"), columns(), PageRequest.of(0, 10));
+        Object queryShape = queryShapeCache().values().iterator().next();
+
+        Page<Submission> page = submissionRepoImpl.pageableDynamicSubmissionQuery(filteredBy("ban"), columns(), PageRequest.of(0, 10));
+
+        assertEquals(1, queryShapeCache().size(), "A filter value of the same kind should not compile another shape");
+        assertSame(queryShape, queryShapeCache().values().iterator().next());
+        assertEquals(Arrays.asList(2L), ids(page.getContent()), "The cached shape should be bound to the new filter value");
+    }
+
+    @Test
+    public void testQueryShapeChangesWithColumnsAndFilters() throws Exception {
+        insert(1L, "Apple", "a");
+
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, columns(), PageRequest.of(0, 10));
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, sortedBy(0, Sort.ASC), PageRequest.of(0, 10));
+        submissionRepoImpl.pageableDynamicSubmissionQuery(filteredBy("app"), columns(), PageRequest.of(0, 10));
+
+        List<SubmissionListColumn> hidden = columns();
+        hidden.get(1).setVisible(false);
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, hidden, PageRequest.of(0, 10));
+
+        assertEquals(4, queryShapeCache().size(), "A change of sort, filter or columns should compile another shape");
+    }
+
+    @Test
+    public void testQueryShapeCacheEvictsLeastRecentlyUsed() throws Exception {
+        ReflectionTestUtils.setField(submissionRepoImpl, "queryShapeCacheSize", 2);
+
+        insert(1L, "Apple", "a");
+
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, columns(), PageRequest.of(0, 10));
+        String firstShapeKey = queryShapeCache().keySet().iterator().next();
+
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, sortedBy(0, Sort.ASC), PageRequest.of(0, 10));
+        Set<String> secondShapeKeys = new HashSet<>(queryShapeCache().keySet());
+        secondShapeKeys.remove(firstShapeKey);
+
+        // use the first shape again, so the second is the least recently used
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, columns(), PageRequest.of(0, 10));
+        submissionRepoImpl.pageableDynamicSubmissionQuery(null, sortedBy(0, Sort.DESC), PageRequest.of(0, 10));
+
+        assertEquals(2, queryShapeCache().size(), "The cache should be bounded");
+        assertTrue(queryShapeCache().containsKey(firstShapeKey), "The shape used again should be kept");
+        assertTrue(Collections.disjoint(secondShapeKeys, queryShapeCache().keySet()), "The least recently used shape should be evicted");
+    }
+
+    private List<Long> seekAll(List<SubmissionListColumn> columns, int size) {
+        List<Long> ids = new ArrayList<>();
+
+        String cursor = null;
+        do {
+            KeysetPage<Submission> page = submissionRepoImpl.keysetDynamicSubmissionQuery(null, columns, cursor, size, false);
+            ids.addAll(ids(page));
+            cursor = page.getCursor();
+        } while (cursor != null && ids.size() <= submissions.size());
+
+        return ids;
+    }
+
+    private List<SubmissionListColumn> sortedBy(int index, Sort sort) {
+        List<SubmissionListColumn> columns = columns();
+        columns.get(index).setSort(sort);
+        columns.get(index).setSortOrder(1);
+        return columns;
+    }
+
+    private FieldPredicate predicate(Long id, String value) {
+        FieldPredicate fieldPredicate = new FieldPredicate(value, false);
+        fieldPredicate.setId(id);
+        lenient().when(fieldPredicateRepo.findByValue(value)).thenReturn(fieldPredicate);
+        return fieldPredicate;
+    }
+
+    private List<SubmissionListColumn> columns() {
+        SubmissionListColumn titleColumn = new SubmissionListColumn("Title", Sort.NONE, title.getValue(), new InputType("INPUT_TEXT"));
+        titleColumn.setId(10L);
+
+        SubmissionListColumn keywordsColumn = new SubmissionListColumn("Keywords", Sort.NONE, keywords.getValue(), new InputType("INPUT_TEXT"));
+        keywordsColumn.setId(11L);
+
+        return new ArrayList<>(Arrays.asList(titleColumn, keywordsColumn));
+    }
+
+    private void insert(Long id, String titleValue, String... keywordValues) {
+        Submission submission = new Submission();
+        submission.setId(id);
+
+        jdbcTemplate.update("INSERT INTO submission (id) VALUES (?)", id);
+
+        long fieldValueId = id * 100;
+
+        addFieldValue(submission, fieldValueId++, title, titleValue);
+
+        for (String keywordValue : keywordValues) {
+            addFieldValue(submission, fieldValueId++, keywords, keywordValue);
+        }
+
+        submissions.put(id, submission);
+    }
+
+    private void addFieldValue(Submission submission, Long id, FieldPredicate fieldPredicate, String value) {
+        FieldValue fieldValue = new FieldValue(fieldPredicate);
+        fieldValue.setId(id);
+        fieldValue.setValue(value);
+        submission.addFieldValue(fieldValue);
+
+        jdbcTemplate.update("INSERT INTO field_value (id, field_predicate_id, value) VALUES (?, ?, ?)", id, fieldPredicate.getId(), value);
+        jdbcTemplate.update("INSERT INTO submission_field_values (submission_id, field_values_id) VALUES (?, ?)", submission.getId(), id);
+    }
+
+    private NamedSearchFilterGroup filteredBy(String value) {
+        NamedSearchFilter titleFilter = new NamedSearchFilter(columns().get(0));
+        titleFilter.addFilter(new FilterCriterion(value));
+
+        NamedSearchFilterGroup filter = new NamedSearchFilterGroup();
+        filter.setNamedSearchFilters(Collections.singleton(titleFilter));
+        return filter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> queryShapeCache() {
+        return (Map<String, Object>) ReflectionTestUtils.getField(submissionRepoImpl, "queryShapeCache");
+    }
+
+    private List<Long> ids(KeysetPage<Submission> page) {
+        return ids(page.getContent());
+    }
+
+    private List<Long> ids(List<Submission> submissions) {
+        return submissions.stream().map(Submission::getId).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,356 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.Application;
+import org.tdl.vireo.model.AssetBlob;
+import org.tdl.vireo.model.StoredAsset;
+import org.tdl.vireo.model.repo.AssetBlobRepo;
+import org.tdl.vireo.model.repo.StoredAssetRepo;
+
+@ExtendWith(MockitoExtension.class)
+public class AssetBlobServiceTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssetBlobServiceTest.class);
+
+    @Mock
+    private StoredAssetRepo storedAssetRepo;
+
+    @Mock
+    private AssetBlobRepo assetBlobRepo;
+
+    @InjectMocks
+    private AssetBlobService assetBlobService;
+
+    @TempDir
+    Path assets;
+
+    private String assetsPath;
+
+    private final Map<String, StoredAsset> storedAssets = new ConcurrentHashMap<>();
+
+    private final Map<String, AssetBlob> assetBlobs = new ConcurrentHashMap<>();
+
+    private Runnable afterListing = () -> { };
+
+    private Runnable onDuplicateBlob = () -> { };
+
+    @BeforeEach
+    public void setup() {
+        assetsPath = Application.getAssetsPath();
+        ReflectionTestUtils.setField(Application.class, "assetsPath", assets.toString() + "/");
+
+        ReflectionTestUtils.setField(assetBlobService, "blobFolder", "blobs");
+        ReflectionTestUtils.setField(assetBlobService, "documentFolder", "private");
+
+        lenient().when(storedAssetRepo.findByUri(anyString())).thenAnswer(invocation -> Optional.ofNullable(storedAssets.get(invocation.getArgument(0))));
+        lenient().when(storedAssetRepo.save(any(StoredAsset.class))).thenAnswer(invocation -> {
+            StoredAsset storedAsset = invocation.getArgument(0);
+            storedAssets.put(storedAsset.getUri(), storedAsset);
+            return storedAsset;
+        });
+        lenient().when(storedAssetRepo.deleteByUri(anyString())).thenAnswer(invocation -> storedAssets.remove(invocation.getArgument(0)) == null ? 0 : 1);
+        lenient().when(storedAssetRepo.updateUri(anyString(), anyString())).thenAnswer(invocation -> {
+            StoredAsset storedAsset = storedAssets.remove(invocation.getArgument(0));
+            if (storedAsset == null) {
+                return 0;
+            }
+            storedAsset.setUri(invocation.getArgument(1));
+            storedAssets.put(storedAsset.getUri(), storedAsset);
+            return 1;
+        });
+
+        lenient().when(assetBlobRepo.findBySha256(anyString())).thenAnswer(invocation -> Optional.ofNullable(assetBlobs.get(invocation.getArgument(0))));
+        lenient().when(assetBlobRepo.save(any(AssetBlob.class))).thenAnswer(invocation -> {
+            AssetBlob assetBlob = invocation.getArgument(0);
+            if (assetBlobs.putIfAbsent(assetBlob.getSha256(), assetBlob) != null) {
+                onDuplicateBlob.run();
+                throw new DataIntegrityViolationException("Duplicate sha256 " + assetBlob.getSha256());
+            }
+            return assetBlob;
+        });
+        lenient().when(assetBlobRepo.addReference(anyString())).thenAnswer(invocation -> {
+            AssetBlob assetBlob = assetBlobs.get(invocation.getArgument(0));
+            if (assetBlob == null || assetBlob.getReferenceCount() < 0) {
+                return 0;
+            }
+            assetBlob.setReferenceCount(assetBlob.getReferenceCount() + 1);
+            return 1;
+        });
+        lenient().when(assetBlobRepo.removeReference(anyString())).thenAnswer(invocation -> {
+            AssetBlob assetBlob = assetBlobs.get(invocation.getArgument(0));
+            if (assetBlob == null || assetBlob.getReferenceCount() <= 0) {
+                return 0;
+            }
+            assetBlob.setReferenceCount(assetBlob.getReferenceCount() - 1);
+            return 1;
+        });
+        lenient().when(assetBlobRepo.findByReferenceCountLessThanEqual(anyLong())).thenAnswer(invocation -> {
+            long referenceCount = invocation.getArgument(0);
+            // copies, as rows read from the database do not follow later updates
+            List<AssetBlob> listed = assetBlobs.values().stream()
+                .filter(b -> b.getReferenceCount() <= referenceCount)
+                .map(b -> new AssetBlob(b.getSha256(), b.getSize(), b.getReferenceCount()))
+                .collect(Collectors.toList());
+            afterListing.run();
+            return listed;
+        });
+        lenient().when(assetBlobRepo.markSwept(anyString())).thenAnswer(invocation -> {
+            AssetBlob assetBlob = assetBlobs.get(invocation.getArgument(0));
+            if (assetBlob == null || assetBlob.getReferenceCount() != 0) {
+                return 0;
+            }
+            assetBlob.setReferenceCount(-1);
+            return 1;
+        });
+        lenient().when(assetBlobRepo.deleteSwept(anyString())).thenAnswer(invocation -> {
+            AssetBlob assetBlob = assetBlobs.get(invocation.getArgument(0));
+            return assetBlob != null && assetBlob.getReferenceCount() == -1 && assetBlobs.remove(assetBlob.getSha256(), assetBlob) ? 1 : 0;
+        });
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ReflectionTestUtils.setField(Application.class, "assetsPath", assetsPath);
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws Exception {
+        byte[] content = "The same license for every submission.".getBytes(StandardCharsets.UTF_8);
+
+        StoredAsset first = store(content, "private/1/license.txt");
+        StoredAsset second = store(content, "private/2/license.txt");
+
+        assertEquals(first.getSha256(), second.getSha256());
+        assertEquals(1, assetBlobs.size());
+        assertEquals(2, assetBlobs.get(first.getSha256()).getReferenceCount());
+        assertEquals(1, countBlobFiles());
+
+        Path blobPath = assetBlobService.getBlobPath(first.getSha256());
+        assertTrue(blobPath.startsWith(assets.resolve("blobs").resolve(first.getSha256().substring(0, 2)).resolve(first.getSha256().substring(2, 4))), "Blobs should be sharded by their checksum");
+        assertTrue(Files.isSameFile(blobPath, path("private/1/license.txt")), "The asset should be a link to its blob");
+        assertTrue(Files.isSameFile(blobPath, path("private/2/license.txt")), "The asset should be a link to its blob");
+        assertArrayEquals(content, Files.readAllBytes(path("private/2/license.txt")));
+    }
+
+    @Test
+    public void testReplacedContentReleasesBlob() throws Exception {
+        StoredAsset first = store(bytes("first"), "private/1/thesis.pdf");
+        StoredAsset second = store(bytes("second"), "private/1/thesis.pdf");
+
+        assertEquals(0, assetBlobs.get(first.getSha256()).getReferenceCount());
+        assertEquals(1, assetBlobs.get(second.getSha256()).getReferenceCount());
+        assertArrayEquals(bytes("second"), Files.readAllBytes(path("private/1/thesis.pdf")));
+    }
+
+    @Test
+    public void testGarbageCollectionReclaimsUnreferencedBlobs() throws Exception {
+        byte[] shared = bytes("shared content");
+        byte[] unique = bytes("unique content, a little longer");
+
+        StoredAsset sharedAsset = store(shared, "private/1/shared.txt");
+        store(shared, "private/2/shared.txt");
+        StoredAsset uniqueAsset = store(unique, "private/3/unique.txt");
+
+        remove("private/1/shared.txt");
+        remove("private/3/unique.txt");
+
+        assertEquals(1, assetBlobs.get(sharedAsset.getSha256()).getReferenceCount());
+        assertEquals(0, assetBlobs.get(uniqueAsset.getSha256()).getReferenceCount());
+
+        assertEquals(unique.length, assetBlobService.collectGarbage());
+
+        assertFalse(assetBlobs.containsKey(uniqueAsset.getSha256()));
+        assertFalse(Files.exists(assetBlobService.getBlobPath(uniqueAsset.getSha256())));
+        assertTrue(Files.exists(assetBlobService.getBlobPath(sharedAsset.getSha256())), "A referenced blob should be kept");
+        assertArrayEquals(shared, Files.readAllBytes(path("private/2/shared.txt")));
+
+        assertEquals(0, assetBlobService.collectGarbage());
+    }
+
+    @Test
+    public void testSweepKeepsBlobReferencedSinceListed() throws Exception {
+        StoredAsset storedAsset = store(bytes("content"), "private/1/thesis.pdf");
+        remove("private/1/thesis.pdf");
+
+        // another instance stores the same content between the sweep listing the blob and removing it
+        afterListing = () -> assertEquals(1, assetBlobRepo.addReference(storedAsset.getSha256()));
+
+        assertEquals(0, assetBlobService.collectGarbage());
+
+        assertEquals(1, assetBlobs.get(storedAsset.getSha256()).getReferenceCount());
+        assertTrue(Files.exists(assetBlobService.getBlobPath(storedAsset.getSha256())), "A blob referenced since it was listed should be kept");
+    }
+
+    @Test
+    public void testBlobBeingSweptIsStoredAgainOnceRemoved() throws Exception {
+        StoredAsset storedAsset = store(bytes("content"), "private/1/thesis.pdf");
+        remove("private/1/thesis.pdf");
+
+        // another instance has marked the blob and finishes sweeping it while this one waits
+        String sha256 = storedAsset.getSha256();
+        assertEquals(1, assetBlobRepo.markSwept(sha256));
+        onDuplicateBlob = () -> {
+            try {
+                Files.deleteIfExists(assetBlobService.getBlobPath(sha256));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            assetBlobRepo.deleteSwept(sha256);
+        };
+
+        StoredAsset restored = store(bytes("content"), "private/2/thesis.pdf");
+
+        assertEquals(sha256, restored.getSha256());
+        assertEquals(1, assetBlobs.get(sha256).getReferenceCount());
+        assertTrue(Files.isSameFile(assetBlobService.getBlobPath(sha256), path("private/2/thesis.pdf")), "The asset should be linked to the blob stored again");
+        assertArrayEquals(bytes("content"), Files.readAllBytes(path("private/2/thesis.pdf")));
+    }
+
+    @Test
+    public void testStoresPlainFilesWhereLinksAreUnsupported() throws Exception {
+        ReflectionTestUtils.setField(assetBlobService, "linkSupported", Boolean.FALSE);
+
+        StoredAsset first = store(bytes("license"), "private/1/license.txt");
+        StoredAsset second = store(bytes("license"), "private/2/license.txt");
+
+        assertFalse(first.isDeduplicated());
+        assertEquals(first.getSha256(), second.getSha256());
+        assertTrue(assetBlobs.isEmpty(), "No blob should be referenced by an asset that is not linked to it");
+        assertFalse(Files.exists(assetBlobService.getBlobPath(first.getSha256())), "No copy of the content should be kept in the blob store");
+        assertArrayEquals(bytes("license"), Files.readAllBytes(path("private/2/license.txt")));
+
+        assertThrows(IllegalStateException.class, () -> assetBlobService.migrate(), "Migrating without links would store every asset twice");
+    }
+
+    @Test
+    public void testRenameKeepsReference() throws Exception {
+        StoredAsset storedAsset = store(bytes("content"), "private/1/old.pdf");
+        Files.move(path("private/1/old.pdf"), path("private/1/new.pdf"));
+
+        assetBlobService.rename("private/1/old.pdf", "private/1/new.pdf");
+        remove("private/1/new.pdf");
+
+        assertEquals(0, assetBlobs.get(storedAsset.getSha256()).getReferenceCount());
+    }
+
+    @Test
+    public void testMigrateExistingAssets() throws Exception {
+        write("private/1/license.txt", bytes("license"));
+        write("private/2/license.txt", bytes("license"));
+        write("private/3/thesis.pdf", bytes("thesis"));
+        write("private/3/.hidden", bytes("hidden"));
+
+        assertEquals(3, assetBlobService.migrate());
+
+        assertEquals(2, assetBlobs.size());
+        assertEquals(2, countBlobFiles());
+        assertTrue(Files.isSameFile(path("private/1/license.txt"), path("private/2/license.txt")), "Duplicate assets should be linked to one blob");
+        assertArrayEquals(bytes("license"), Files.readAllBytes(path("private/2/license.txt")));
+        assertArrayEquals(bytes("thesis"), Files.readAllBytes(path("private/3/thesis.pdf")));
+        assertTrue(storedAssets.get("private/1/license.txt").isDeduplicated());
+
+        assertEquals(0, assetBlobService.migrate(), "Migrated assets should be skipped");
+        assertEquals(2, assetBlobs.get(storedAssets.get("private/1/license.txt").getSha256()).getReferenceCount());
+    }
+
+    @Test
+    public void testWriteAndDedupThroughput() throws Exception {
+        int assetCount = 200;
+        int distinctCount = 20;
+        int assetSize = 256 * 1024;
+
+        Random random = new Random(0);
+        byte[][] distinct = new byte[distinctCount][assetSize];
+        for (byte[] content : distinct) {
+            random.nextBytes(content);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < assetCount; i++) {
+            store(distinct[i % distinctCount], "private/" + i + "/file.bin");
+        }
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+
+        long written = (long) assetCount * assetSize;
+        long stored = 0;
+        try (Stream<Path> files = Files.walk(assets.resolve("blobs"))) {
+            for (Path blob : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                stored += Files.size(blob);
+            }
+        }
+
+        double megabytes = written / (1024.0 * 1024.0);
+        LOG.info(String.format("Wrote %d assets, %.1f MB in %d ms, %.1f MB/s, stored in %d blobs, %.1f:1 deduplication",
+            assetCount, megabytes, elapsed / 1000000, megabytes / (elapsed / 1e9), countBlobFiles(), (double) written / stored));
+
+        assertEquals(distinctCount, assetBlobs.size());
+        assertEquals(distinctCount, countBlobFiles());
+        assertEquals((long) distinctCount * assetSize, stored);
+        for (AssetBlob assetBlob : assetBlobs.values()) {
+            assertEquals(assetCount / distinctCount, assetBlob.getReferenceCount());
+        }
+    }
+
+    private StoredAsset store(byte[] content, String relativePath) throws IOException {
+        return assetBlobService.store(new ByteArrayInputStream(content), relativePath, path(relativePath));
+    }
+
+    private void remove(String relativePath) throws IOException {
+        Files.delete(path(relativePath));
+        assetBlobService.unlink(relativePath);
+    }
+
+    private void write(String relativePath, byte[] content) throws IOException {
+        Files.createDirectories(path(relativePath).getParent());
+        Files.write(path(relativePath), content);
+    }
+
+    private Path path(String relativePath) {
+        return assets.resolve(relativePath);
+    }
+
+    private long countBlobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(assets.resolve("blobs"))) {
+            return files.filter(Files::isRegularFile).filter(file -> !file.getParent().getFileName().toString().equals(".tmp")).count();
+        }
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
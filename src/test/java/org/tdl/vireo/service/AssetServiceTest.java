@@ -0,0 +1,205 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.Application;
+import org.tdl.vireo.model.StoredAsset;
+import org.tdl.vireo.model.repo.AssetBlobRepo;
+import org.tdl.vireo.model.repo.StoredAssetRepo;
+
+@ExtendWith(MockitoExtension.class)
+public class AssetServiceTest {
+
+    private static final String URI = "private/1234/1600000000000-thesis.pdf";
+
+    @Mock
+    private StoredAssetRepo storedAssetRepo;
+
+    @Mock
+    private AssetBlobRepo assetBlobRepo;
+
+    @InjectMocks
+    private AssetBlobService assetBlobService;
+
+    private AssetService assetService;
+
+    @TempDir
+    Path assets;
+
+    private String assetsPath;
+
+    @BeforeEach
+    public void setup() {
+        assetsPath = Application.getAssetsPath();
+        ReflectionTestUtils.setField(Application.class, "assetsPath", assets.toString() + "/");
+
+        ReflectionTestUtils.setField(assetBlobService, "blobFolder", "blobs");
+        ReflectionTestUtils.setField(assetBlobService, "documentFolder", "private");
+
+        assetService = new AssetService();
+        ReflectionTestUtils.setField(assetService, "assetBlobService", assetBlobService);
+
+        lenient().when(storedAssetRepo.findByUri(anyString())).thenReturn(Optional.empty());
+        lenient().when(storedAssetRepo.save(any(StoredAsset.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ReflectionTestUtils.setField(Application.class, "assetsPath", assetsPath);
+    }
+
+    @Test
+    public void testStoreRecordsChecksumAndSize() throws Exception {
+        byte[] content = "A thesis about streaming.".getBytes(StandardCharsets.UTF_8);
+
+        StoredAsset storedAsset = assetService.store(new ByteArrayInputStream(content), URI);
+
+        assertEquals(URI, storedAsset.getUri());
+        assertEquals(content.length, storedAsset.getSize());
+        assertEquals(sha256(content), storedAsset.getSha256());
+        assertArrayEquals(content, Files.readAllBytes(assetService.getAssetsAbsolutePath(URI)));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testStoreStreamsLargeContent() throws Exception {
+        long length = 64L * 1024 * 1024 + 17;
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        StoredAsset storedAsset = assetService.store(new GeneratedInputStream(length, digest), URI);
+
+        assertEquals(length, storedAsset.getSize());
+        assertEquals(length, Files.size(assetService.getAssetsAbsolutePath(URI)));
+        assertEquals(toHex(digest.digest()), storedAsset.getSha256());
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testStoreReplacesExistingAsset() throws Exception {
+        StoredAsset existing = new StoredAsset(URI, sha256(new byte[0]), 0);
+        lenient().when(storedAssetRepo.findByUri(URI)).thenReturn(Optional.of(existing));
+
+        Path path = assetService.getAssetsAbsolutePath(URI);
+        Files.createDirectories(path.getParent());
+        Files.write(path, "first".getBytes(StandardCharsets.UTF_8));
+
+        byte[] content = "second".getBytes(StandardCharsets.UTF_8);
+
+        StoredAsset storedAsset = assetService.store(new ByteArrayInputStream(content), URI);
+
+        assertSame(existing, storedAsset);
+        assertEquals(sha256(content), storedAsset.getSha256());
+        assertArrayEquals(content, Files.readAllBytes(path));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    public void testFailedStoreLeavesNothingBehind() throws Exception {
+        InputStream failing = new GeneratedInputStream(1024 * 1024, null) {
+            private long read;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if ((read += length) > 256 * 1024) {
+                    throw new IOException("Connection reset");
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        assertThrows(IOException.class, () -> assetService.store(failing, URI));
+
+        assertFalse(Files.exists(assetService.getAssetsAbsolutePath(URI)), "A failed upload should not be moved into place");
+        assertNoTemporaryFiles();
+        verify(storedAssetRepo, never()).save(any(StoredAsset.class));
+    }
+
+    private void assertNoTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(assets)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")), "Temporary upload files should be removed");
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Content generated as it is read, so the test itself never holds it in memory.
+     */
+    private static class GeneratedInputStream extends InputStream {
+
+        private final long length;
+
+        private final MessageDigest digest;
+
+        private long position;
+
+        GeneratedInputStream(long length, MessageDigest digest) {
+            this.length = length;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (position >= length) {
+                return -1;
+            }
+            int read = (int) Math.min(count, length - position);
+            for (int i = 0; i < read; i++) {
+                buffer[offset + i] = (byte) ((position + i) * 31 % 251);
+            }
+            if (digest != null) {
+                digest.update(buffer, offset, read);
+            }
+            position += read;
+            return read;
+        }
+
+    }
+
+}
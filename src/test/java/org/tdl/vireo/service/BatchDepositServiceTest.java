@@ -0,0 +1,268 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.httpclient.ConnectTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.tdl.vireo.exception.SwordDepositBadRequestException;
+import org.tdl.vireo.exception.SwordDepositForbiddenException;
+import org.tdl.vireo.exception.SwordDepositGatewayTimeoutException;
+import org.tdl.vireo.exception.SwordDepositRequestTimeoutException;
+import org.tdl.vireo.exception.SwordDepositServiceUnavailableException;
+import org.tdl.vireo.exception.SwordDepositUnauthorizedException;
+import org.tdl.vireo.mock.FakeSwordServer;
+import org.tdl.vireo.model.DepositLocation;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionStatus;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.depositor.SWORDv1Depositor;
+import org.tdl.vireo.model.export.ZipExportPackage;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.model.response.BatchDepositReport;
+import org.tdl.vireo.model.response.BatchDepositReport.SubmissionResult;
+import org.tdl.vireo.utility.PackagerUtility;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchDepositServiceTest {
+
+    private static final int DEPOSIT_WORKERS = 4;
+
+    private static final int DEPOSIT_ATTEMPTS = 3;
+
+    @Mock
+    private SubmissionRepo submissionRepo;
+
+    @Mock
+    private PackagerUtility packagerUtility;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FakeSwordServer swordServer;
+
+    private BatchDepositService batchDepositService;
+
+    private DepositLocation depositLocation;
+
+    private SubmissionStatus published;
+
+    private User user;
+
+    private List<Path> packages;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        swordServer = new FakeSwordServer();
+
+        batchDepositService = new BatchDepositService();
+        ReflectionTestUtils.setField(batchDepositService, "depositWorkers", DEPOSIT_WORKERS);
+        ReflectionTestUtils.setField(batchDepositService, "depositAttempts", DEPOSIT_ATTEMPTS);
+        ReflectionTestUtils.setField(batchDepositService, "retryDelay", 10L);
+        ReflectionTestUtils.setField(batchDepositService, "submissionRepo", submissionRepo);
+        ReflectionTestUtils.setField(batchDepositService, "packagerUtility", packagerUtility);
+        ReflectionTestUtils.setField(batchDepositService, "transactionManager", transactionManager);
+        batchDepositService.init();
+
+        depositLocation = new DepositLocation();
+        depositLocation.setId(1L);
+        depositLocation.setName("Fake SWORD");
+        depositLocation.setRepository(swordServer.getRepositoryUrl());
+        depositLocation.setCollection(swordServer.getCollectionUrl());
+        depositLocation.setUsername("vireo");
+        depositLocation.setPassword("secret");
+        depositLocation.setDepositorName("SWORDv1Depositor");
+        depositLocation.setTimeout(10);
+
+        published = new SubmissionStatus();
+        published.setName("Published");
+
+        user = new User();
+
+        packages = new CopyOnWriteArrayList<>();
+
+        lenient().when(submissionRepo.findById(anyLong())).thenAnswer(invocation -> {
+            Submission submission = new Submission();
+            submission.setId(invocation.getArgument(0));
+            return Optional.of(submission);
+        });
+        lenient().when(packagerUtility.packageExport(any(), any(Submission.class))).thenAnswer(invocation -> {
+            Submission submission = invocation.getArgument(1);
+            Path file = Files.createTempFile("submission-" + submission.getId() + "-", ".zip");
+            Files.write(file, ("submission-" + submission.getId() + ";").getBytes(StandardCharsets.UTF_8));
+            packages.add(file);
+            return new ZipExportPackage(submission, "http://purl.org/net/sword-types/METSDSpaceSIP", file.toFile());
+        });
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        batchDepositService.shutdown();
+        swordServer.close();
+    }
+
+    @Test
+    public void testDepositsConcurrentlyOverPooledConnections() {
+        swordServer.setLatency(200);
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= DEPOSIT_WORKERS * 3; id++) {
+            ids.add(id);
+        }
+
+        BatchDepositReport report = deposit(ids);
+
+        assertEquals(ids.size(), report.getDeposited());
+        assertEquals(0, report.getFailed());
+        for (int i = 0; i < ids.size(); i++) {
+            SubmissionResult result = report.getResults().get(i);
+            assertEquals(ids.get(i), result.getSubmissionId(), "Results should be in the order of the submissions");
+            assertEquals(1, result.getAttempts());
+            assertTrue(result.getDepositUrl().contains("/handle/123456789/"), "Unexpected deposit URL " + result.getDepositUrl());
+        }
+
+        assertEquals(ids.size(), swordServer.getAccepted().size());
+        assertTrue(swordServer.getMaxConcurrentDeposits() > 1, "Submissions should be deposited concurrently");
+        assertTrue(swordServer.getMaxConcurrentDeposits() <= DEPOSIT_WORKERS, "No more than one deposit should be in progress per worker");
+        assertTrue(swordServer.getConnectionCount() <= DEPOSIT_WORKERS, "Deposits should reuse connections, but used " + swordServer.getConnectionCount());
+
+        verify(submissionRepo, times(ids.size())).updateStatus(any(Submission.class), eq(published), eq(user));
+        assertPackagesDeleted();
+    }
+
+    @Test
+    public void testRetriesUnavailableRepository() throws Exception {
+        swordServer.failNext(DEPOSIT_ATTEMPTS - 1);
+
+        BatchDepositReport report = deposit(Arrays.asList(1L));
+
+        SubmissionResult result = report.getResults().get(0);
+        assertTrue(result.isDeposited());
+        assertEquals(DEPOSIT_ATTEMPTS, result.getAttempts());
+        assertNotNull(result.getDepositUrl());
+        assertNull(result.getMessage());
+
+        assertEquals(DEPOSIT_ATTEMPTS, swordServer.getDepositCount());
+        assertEquals(1, swordServer.getAccepted().size(), "The submission should be packaged once and deposited once");
+        verify(packagerUtility, times(1)).packageExport(any(), any(Submission.class));
+        assertPackagesDeleted();
+    }
+
+    @Test
+    public void testRetriesRefusedConnection() throws Exception {
+        int closedPort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            closedPort = serverSocket.getLocalPort();
+        }
+        depositLocation.setRepository("http://localhost:" + closedPort + FakeSwordServer.SERVICE_DOCUMENT_PATH);
+        depositLocation.setCollection("http://localhost:" + closedPort + FakeSwordServer.COLLECTION_PATH);
+
+        BatchDepositReport report = deposit(Arrays.asList(1L));
+
+        SubmissionResult result = report.getResults().get(0);
+        assertFalse(result.isDeposited());
+        assertEquals(DEPOSIT_ATTEMPTS, result.getAttempts(), "A refused connection should be retried, the package was not sent");
+        assertPackagesDeleted();
+    }
+
+    @Test
+    public void testGivesUpAfterLastAttempt() {
+        swordServer.failNext(DEPOSIT_ATTEMPTS * 2);
+
+        BatchDepositReport report = deposit(Arrays.asList(1L));
+
+        SubmissionResult result = report.getResults().get(0);
+        assertFalse(result.isDeposited());
+        assertEquals(DEPOSIT_ATTEMPTS, result.getAttempts());
+        assertNull(result.getDepositUrl());
+        assertNotNull(result.getMessage());
+
+        assertEquals(DEPOSIT_ATTEMPTS, swordServer.getDepositCount());
+        verify(submissionRepo, times(0)).updateStatus(any(Submission.class), any(SubmissionStatus.class), any(User.class));
+        assertPackagesDeleted();
+    }
+
+    @Test
+    public void testFailedSubmissionDoesNotStopBatch() {
+        swordServer.reject("submission-2;");
+
+        BatchDepositReport report = deposit(Arrays.asList(1L, 2L, 3L));
+
+        assertEquals(2, report.getDeposited());
+        assertEquals(1, report.getFailed());
+
+        assertTrue(report.getResults().get(0).isDeposited());
+        assertFalse(report.getResults().get(1).isDeposited());
+        assertEquals(1, report.getResults().get(1).getAttempts(), "A server error should not be retried");
+        assertTrue(report.getResults().get(2).isDeposited());
+
+        verify(submissionRepo, times(2)).updateStatus(any(Submission.class), eq(published), eq(user));
+        assertPackagesDeleted();
+    }
+
+    @Test
+    public void testSubmissionFailingToPackageIsReported() throws Exception {
+        lenient().doThrow(new IllegalStateException("Unable to package")).when(packagerUtility).packageExport(any(), any(Submission.class));
+
+        BatchDepositReport report = deposit(Arrays.asList(1L));
+
+        SubmissionResult result = report.getResults().get(0);
+        assertFalse(result.isDeposited());
+        assertEquals(0, result.getAttempts());
+        assertEquals(0, swordServer.getDepositCount());
+    }
+
+    @Test
+    public void testIsTransient() {
+        assertTrue(BatchDepositService.isTransient(new SwordDepositServiceUnavailableException("Service unavailable")));
+        assertTrue(BatchDepositService.isTransient(new SwordDepositForbiddenException("Connection refused")));
+        assertTrue(BatchDepositService.isTransient(new SwordDepositBadRequestException("Unable to publish", new ConnectException("Connection refused"))));
+        assertTrue(BatchDepositService.isTransient(new SwordDepositBadRequestException("Unable to publish", new ConnectTimeoutException("Connect timed out"))));
+        assertFalse(BatchDepositService.isTransient(new SwordDepositBadRequestException("Unable to publish", new IOException("Connection reset"))), "A deposit whose connection dropped may have been made");
+        assertFalse(BatchDepositService.isTransient(new SwordDepositBadRequestException("Unable to publish", new SocketTimeoutException("Read timed out"))), "A deposit whose response timed out may have been made");
+        assertFalse(BatchDepositService.isTransient(new SwordDepositGatewayTimeoutException("Gateway Timeout")));
+        assertFalse(BatchDepositService.isTransient(new SwordDepositRequestTimeoutException("Request timed out")));
+        assertFalse(BatchDepositService.isTransient(new SwordDepositUnauthorizedException("Unauthorized credentials")));
+        assertFalse(BatchDepositService.isTransient(new SwordDepositBadRequestException("Bad request")));
+    }
+
+    private BatchDepositReport deposit(List<Long> ids) {
+        return batchDepositService.deposit(user, depositLocation, new SWORDv1Depositor(), published, ids);
+    }
+
+    private void assertPackagesDeleted() {
+        for (Path file : packages) {
+            assertFalse(Files.exists(file), "The package " + file + " should be deleted once deposited");
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Role;
+import org.tdl.vireo.model.Sort;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.export.ExcelExportPackage;
+import org.tdl.vireo.model.packager.ExcelPackager;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.utility.PackagerUtility;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchExportServiceTest {
+
+    private static final int SUBMISSIONS = 40;
+
+    @Mock
+    private SubmissionRepo submissionRepo;
+
+    @Mock
+    private PackagerUtility packagerUtility;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchExportService batchExportService;
+
+    private User user;
+
+    private NamedSearchFilterGroup filter;
+
+    private AtomicInteger packaging;
+
+    private AtomicInteger mostPackaging;
+
+    private Map<Thread, AtomicInteger> openTransactions;
+
+    private AtomicInteger mostOpenTransactions;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        user = new User("user1@example.com", "User", "One", Role.ROLE_REVIEWER);
+
+        filter = new NamedSearchFilterGroup();
+        filter.setColumnsFlag(true);
+        filter.setSavedColumns(new ArrayList<>(Arrays.asList(new SubmissionListColumn("Title", Sort.NONE))));
+
+        packaging = new AtomicInteger();
+        mostPackaging = new AtomicInteger();
+        openTransactions = new ConcurrentHashMap<>();
+        mostOpenTransactions = new AtomicInteger();
+
+        List<Long> ids = LongStream.rangeClosed(1, SUBMISSIONS).boxed().collect(Collectors.toList());
+
+        lenient().when(submissionRepo.batchDynamicSubmissionIdQuery(any(NamedSearchFilterGroup.class), anyList())).thenReturn(ids);
+        lenient().when(submissionRepo.findById(anyLong())).thenAnswer(invocation -> {
+            Submission submission = new Submission();
+            submission.setId(invocation.getArgument(0));
+            return Optional.of(submission);
+        });
+
+        lenient().when(packagerUtility.getPackager("Excel")).thenReturn(new ExcelPackager("Excel"));
+        lenient().when(packagerUtility.packageExport(any(), any(Submission.class), anyList())).thenAnswer(invocation -> {
+            Submission submission = invocation.getArgument(1);
+            mostPackaging.accumulateAndGet(packaging.incrementAndGet(), Math::max);
+            try {
+                // later submissions finish first, to show rows are written in the order of the ids
+                Thread.sleep(5 + (SUBMISSIONS - submission.getId()) % 4 * 5);
+            } finally {
+                packaging.decrementAndGet();
+            }
+            return new ExcelExportPackage(submission, "xls", Collections.singletonMap("Title", "Submission " + submission.getId()));
+        });
+
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.computeIfAbsent(Thread.currentThread(), thread -> new AtomicInteger()).incrementAndGet();
+            mostOpenTransactions.accumulateAndGet(openTransactions.values().stream().mapToInt(AtomicInteger::get).sum(), Math::max);
+            return null;
+        });
+        lenient().doAnswer(invocation -> openTransactions.get(Thread.currentThread()).decrementAndGet()).when(transactionManager).commit(any());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (batchExportService != null) {
+            batchExportService.shutdown();
+        }
+    }
+
+    @Test
+    public void testPackagesConcurrentlyAndWritesInOrder() throws Exception {
+        batchExportService = newBatchExportService(3, 10);
+
+        List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        batchExportService.export("Excel", user, filter, out, (processed, total) -> progress.add(processed));
+
+        HSSFSheet sheet = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray())).getSheetAt(0);
+
+        assertEquals("Title", sheet.getRow(0).getCell(0).getStringCellValue());
+        for (int i = 1; i <= SUBMISSIONS; i++) {
+            assertEquals("Submission " + i, sheet.getRow(i).getCell(0).getStringCellValue(), "Rows should be written in the order of the ids");
+        }
+
+        assertEquals(IntStream.rangeClosed(1, SUBMISSIONS).boxed().collect(Collectors.toList()), progress);
+        assertTrue(mostPackaging.get() > 1, "Submissions should be packaged concurrently");
+        assertTrue(mostPackaging.get() <= 3, "No more submissions than workers should be packaged at a time");
+        assertTrue(mostOpenTransactions.get() <= 3, "No more connections than workers should be held by packaging");
+    }
+
+    @Test
+    public void testExportsAtTheSameTimeShareTheWorkers() throws Exception {
+        batchExportService = newBatchExportService(2, 10);
+
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> exports = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Thread export = new Thread(() -> {
+                try {
+                    batchExportService.export("Excel", user, filter, new ByteArrayOutputStream(), null);
+                } catch (Exception e) {
+                    errors.add(e);
+                }
+            });
+            exports.add(export);
+            export.start();
+        }
+
+        for (Thread export : exports) {
+            export.join(30000);
+        }
+
+        assertTrue(errors.isEmpty(), "No export should fail");
+        assertTrue(mostPackaging.get() <= 2, "Concurrent exports should not package more submissions than workers at a time");
+        assertTrue(mostOpenTransactions.get() <= 2, "Concurrent exports should not hold more connections than workers");
+    }
+
+    @Test
+    public void testWorkersAreLimitedToHalfOfThePool() {
+        batchExportService = newBatchExportService(32, 10);
+
+        assertEquals(5, ReflectionTestUtils.getField(batchExportService, "packagingConcurrency"));
+    }
+
+    @Test
+    public void testAtLeastOneWorker() {
+        batchExportService = newBatchExportService(0, 1);
+
+        assertEquals(1, ReflectionTestUtils.getField(batchExportService, "packagingConcurrency"));
+    }
+
+    private BatchExportService newBatchExportService(int packagingWorkers, int maximumPoolSize) {
+        BatchExportService batchExportService = new BatchExportService();
+        ReflectionTestUtils.setField(batchExportService, "packagingWorkers", packagingWorkers);
+        ReflectionTestUtils.setField(batchExportService, "maximumPoolSize", maximumPoolSize);
+        ReflectionTestUtils.setField(batchExportService, "submissionRepo", submissionRepo);
+        ReflectionTestUtils.setField(batchExportService, "packagerUtility", packagerUtility);
+        ReflectionTestUtils.setField(batchExportService, "transactionManager", transactionManager);
+        batchExportService.init();
+        return batchExportService;
+    }
+
+}
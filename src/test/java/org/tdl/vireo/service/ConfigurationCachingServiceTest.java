@@ -0,0 +1,62 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ConfigurationCachingServiceTest {
+
+    private ConfigurationCachingService configurationCachingService;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setup() {
+        configurationCachingService = new ConfigurationCachingService();
+        ReflectionTestUtils.setField(configurationCachingService, "cacheDuration", 60000L);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testCachesSettingsAndMisses() {
+        assertEquals("value", configurationCachingService.get("value:name", () -> load("value")));
+        assertEquals("value", configurationCachingService.get("value:name", () -> load("changed")));
+        assertNull(configurationCachingService.get("value:missing", () -> load(null)));
+        assertNull(configurationCachingService.get("value:missing", () -> load("changed")));
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, configurationCachingService.getStatistics().get("hits"));
+        assertEquals(2L, configurationCachingService.getStatistics().get("misses"));
+    }
+
+    @Test
+    public void testClearCacheLoadsAgain() {
+        configurationCachingService.get("value:name", () -> load("value"));
+
+        configurationCachingService.clearCache();
+
+        assertEquals("changed", configurationCachingService.get("value:name", () -> load("changed")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testExpiredSettingsLoadAgain() {
+        ReflectionTestUtils.setField(configurationCachingService, "cacheDuration", 0L);
+
+        configurationCachingService.get("value:name", () -> load("value"));
+
+        assertEquals("changed", configurationCachingService.get("value:name", () -> load("changed")), "A setting changed on another instance should be seen once the cached one expires");
+        assertEquals(2, loads.get());
+    }
+
+    private String load(String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+}
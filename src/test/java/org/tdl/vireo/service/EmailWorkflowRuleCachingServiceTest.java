@@ -0,0 +1,131 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.tdl.vireo.model.EmailRecipientPlainAddress;
+import org.tdl.vireo.model.EmailTemplate;
+import org.tdl.vireo.model.EmailWorkflowRule;
+import org.tdl.vireo.model.Organization;
+import org.tdl.vireo.model.SubmissionStatus;
+import org.tdl.vireo.model.repo.EmailWorkflowRuleRepo;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailWorkflowRuleCachingServiceTest {
+
+    @Mock
+    private EmailWorkflowRuleRepo emailWorkflowRuleRepo;
+
+    @InjectMocks
+    private EmailWorkflowRuleCachingService emailWorkflowRuleCachingService;
+
+    private Map<Long, EmailWorkflowRule> rules;
+
+    private SubmissionStatus submitted;
+
+    private SubmissionStatus approved;
+
+    private Organization parent;
+
+    private Organization organization;
+
+    private long nextId;
+
+    @BeforeEach
+    public void setup() {
+        rules = new HashMap<Long, EmailWorkflowRule>();
+        nextId = 1L;
+
+        submitted = new SubmissionStatus();
+        submitted.setId(nextId++);
+        approved = new SubmissionStatus();
+        approved.setId(nextId++);
+
+        parent = new Organization();
+        parent.setId(nextId++);
+        organization = new Organization();
+        organization.setId(nextId++);
+        organization.setParentOrganization(parent);
+
+        lenient().when(emailWorkflowRuleRepo.findAllById(any())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false).map(rules::get).filter(Objects::nonNull).collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void testGetEnabledRulesByStatus() {
+        EmailWorkflowRule own = addRule(organization, submitted, "student@example.com", "Submitted", false);
+        EmailWorkflowRule inherited = addRule(parent, submitted, "manager@example.com", "Submitted", false);
+        addRule(parent, submitted, "disabled@example.com", "Submitted", true);
+        EmailWorkflowRule other = addRule(parent, approved, "student@example.com", "Approved", false);
+
+        assertEquals(Arrays.asList(own, inherited), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+        assertEquals(Arrays.asList(other), emailWorkflowRuleCachingService.getEnabledRules(organization, approved));
+        assertEquals(Arrays.asList(other), emailWorkflowRuleCachingService.getEnabledRules(parent, approved));
+    }
+
+    @Test
+    public void testOverriddenAncestorRuleIsLeftOut() {
+        EmailWorkflowRule own = addRule(organization, submitted, "student@example.com", "Submitted", false);
+        addRule(parent, submitted, "student@example.com", "Submitted", false);
+
+        assertEquals(Arrays.asList(own), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+    }
+
+    @Test
+    public void testIndexIsCachedUntilCleared() {
+        EmailWorkflowRule own = addRule(organization, submitted, "student@example.com", "Submitted", false);
+
+        assertEquals(Arrays.asList(own), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+
+        EmailWorkflowRule added = addRule(parent, submitted, "manager@example.com", "Submitted", false);
+
+        assertEquals(Arrays.asList(own), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+
+        emailWorkflowRuleCachingService.clearCache();
+
+        assertEquals(Arrays.asList(own, added), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+    }
+
+    @Test
+    public void testDeletedRuleIsSkipped() {
+        EmailWorkflowRule own = addRule(organization, submitted, "student@example.com", "Submitted", false);
+
+        assertEquals(Arrays.asList(own), emailWorkflowRuleCachingService.getEnabledRules(organization, submitted));
+
+        rules.remove(own.getId());
+
+        assertTrue(emailWorkflowRuleCachingService.getEnabledRules(organization, submitted).isEmpty());
+    }
+
+    private EmailWorkflowRule addRule(Organization owner, SubmissionStatus submissionStatus, String address, String templateName, boolean disabled) {
+        EmailTemplate emailTemplate = new EmailTemplate(templateName, templateName, templateName);
+        emailTemplate.setId(nextId++);
+
+        EmailWorkflowRule rule = new EmailWorkflowRule(submissionStatus, new EmailRecipientPlainAddress(address), emailTemplate);
+        rule.setId(nextId++);
+        rule.isDisabled(disabled);
+
+        owner.addEmailWorkflowRule(rule);
+        rules.put(rule.getId(), rule);
+
+        return rule;
+    }
+
+}
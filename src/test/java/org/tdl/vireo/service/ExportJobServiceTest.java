@@ -0,0 +1,231 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.tdl.vireo.model.ExportJob;
+import org.tdl.vireo.model.ExportJobState;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Role;
+import org.tdl.vireo.model.User;
+import org.tdl.vireo.model.repo.ExportJobRepo;
+import org.tdl.vireo.model.repo.NamedSearchFilterGroupRepo;
+
+@ExtendWith(MockitoExtension.class)
+public class ExportJobServiceTest {
+
+    private static final long HEARTBEAT_LEASE = 300000;
+
+    @Mock
+    private ExportJobRepo exportJobRepo;
+
+    @Mock
+    private NamedSearchFilterGroupRepo namedSearchFilterGroupRepo;
+
+    @Mock
+    private BatchExportService batchExportService;
+
+    @Mock
+    private AssetService assetService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path assetsPath;
+
+    private ExportJobService exportJobService;
+
+    private User user;
+
+    private Map<Long, ExportJob> jobs;
+
+    private AtomicInteger openTransactions;
+
+    @BeforeEach
+    public void setup() {
+        user = new User("user1@example.com", "User", "One", Role.ROLE_REVIEWER);
+        user.setId(1L);
+
+        jobs = new HashMap<>();
+        openTransactions = new AtomicInteger();
+
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            return null;
+        });
+        lenient().doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).commit(any());
+
+        lenient().when(exportJobRepo.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.getArgument(0))));
+        lenient().when(exportJobRepo.findAllByStateInOrderByIdAsc(any())).thenAnswer(invocation -> jobs.values().stream()
+            .filter(exportJob -> exportJob.getState() == ExportJobState.QUEUED || exportJob.getState() == ExportJobState.RUNNING)
+            .collect(Collectors.toList()));
+        lenient().when(exportJobRepo.update(any(ExportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(exportJobRepo.claim(anyLong(), anyString(), any(Calendar.class), any(Calendar.class))).thenAnswer(invocation -> {
+            ExportJob exportJob = jobs.get(invocation.getArgument(0));
+            String owner = invocation.getArgument(1);
+            Calendar heartbeatBefore = invocation.getArgument(3);
+            if (exportJob.getState() != ExportJobState.QUEUED && exportJob.getState() != ExportJobState.RUNNING) {
+                return 0;
+            }
+            if (exportJob.getOwner() != null && (exportJob.getOwner().equals(owner) || !exportJob.getHeartbeatDate().before(heartbeatBefore))) {
+                return 0;
+            }
+            exportJob.setOwner(owner);
+            exportJob.setHeartbeatDate(invocation.getArgument(2));
+            return 1;
+        });
+
+        lenient().when(assetService.getAssetsAbsolutePath(anyString())).thenAnswer(invocation -> assetsPath.resolve((String) invocation.getArgument(0)));
+
+        exportJobService = newExportJobService();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        exportJobService.shutdown();
+    }
+
+    @Test
+    public void testRecoverClaimsAbandonedJobOnce() {
+        ExportJob abandoned = job(1L, ExportJobState.RUNNING, "stopped", HEARTBEAT_LEASE * 2);
+
+        ExportJobService otherInstance = newExportJobService();
+
+        try {
+            exportJobService.recover();
+            otherInstance.recover();
+        } finally {
+            otherInstance.shutdown();
+        }
+
+        assertEquals(ExportJobState.FAILED, abandoned.getState());
+        assertEquals(ReflectionTestUtils.getField(exportJobService, "instanceId"), abandoned.getOwner(), "Only the first instance to recover should claim the job");
+        verify(exportJobRepo).update(abandoned);
+    }
+
+    @Test
+    public void testRecoverLeavesJobsOfRunningInstances() {
+        ExportJob running = job(1L, ExportJobState.RUNNING, "running", 0);
+
+        exportJobService.recover();
+
+        assertEquals(ExportJobState.RUNNING, running.getState());
+        assertEquals("running", running.getOwner());
+        verify(exportJobRepo, never()).update(any(ExportJob.class));
+    }
+
+    @Test
+    public void testExportHoldsNoTransactionAndDeletesCopyOfFilter() throws Exception {
+        ExportJob exportJob = job(1L, ExportJobState.QUEUED, null, 0);
+        NamedSearchFilterGroup snapshot = filter(exportJob.getFilterId(), ExportJob.FILTER_NAME_PREFIX + "copy");
+
+        lenient().when(exportJobRepo.create(user, "DSpaceSimple", snapshot)).thenReturn(exportJob);
+        lenient().when(batchExportService.getFileName("DSpaceSimple")).thenReturn("export.zip");
+
+        AtomicInteger transactionsOpenWhileExporting = new AtomicInteger(-1);
+
+        doAnswer(invocation -> {
+            transactionsOpenWhileExporting.set(openTransactions.get());
+            ((OutputStream) invocation.getArgument(3)).write("export".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(batchExportService).export(eq("DSpaceSimple"), eq(user), eq(snapshot), any(OutputStream.class), any());
+
+        exportJobService.enqueue(user, "DSpaceSimple", snapshot);
+
+        awaitWorkers(exportJobService);
+
+        assertEquals(ExportJobState.COMPLETED, exportJob.getState());
+        assertEquals(0, transactionsOpenWhileExporting.get(), "No transaction should be held while the submissions are exported");
+        assertTrue(Files.exists(exportJobService.getExportPath(exportJob)));
+        verify(namedSearchFilterGroupRepo).delete(snapshot);
+    }
+
+    @Test
+    public void testFailedJobKeepsFilterOfUser() {
+        ExportJob exportJob = job(1L, ExportJobState.RUNNING, "stopped", HEARTBEAT_LEASE * 2);
+        filter(exportJob.getFilterId(), "Saved by the user");
+
+        exportJobService.recover();
+
+        assertEquals(ExportJobState.FAILED, exportJob.getState());
+        verify(namedSearchFilterGroupRepo, never()).delete(any(NamedSearchFilterGroup.class));
+    }
+
+    private ExportJobService newExportJobService() {
+        ExportJobService exportJobService = new ExportJobService();
+        ReflectionTestUtils.setField(exportJobService, "workers", 1);
+        ReflectionTestUtils.setField(exportJobService, "queueCapacity", 5);
+        ReflectionTestUtils.setField(exportJobService, "exportFolder", "exports");
+        ReflectionTestUtils.setField(exportJobService, "resumeOnRestart", false);
+        ReflectionTestUtils.setField(exportJobService, "heartbeatLease", HEARTBEAT_LEASE);
+        ReflectionTestUtils.setField(exportJobService, "exportJobRepo", exportJobRepo);
+        ReflectionTestUtils.setField(exportJobService, "namedSearchFilterGroupRepo", namedSearchFilterGroupRepo);
+        ReflectionTestUtils.setField(exportJobService, "batchExportService", batchExportService);
+        ReflectionTestUtils.setField(exportJobService, "assetService", assetService);
+        ReflectionTestUtils.setField(exportJobService, "transactionManager", transactionManager);
+        exportJobService.init();
+        return exportJobService;
+    }
+
+    private ExportJob job(Long id, ExportJobState state, String owner, long heartbeatAge) {
+        ExportJob exportJob = new ExportJob(user, "DSpaceSimple", id + 100);
+        exportJob.setId(id);
+        exportJob.setState(state);
+        exportJob.setOwner(owner);
+        if (owner != null) {
+            Calendar heartbeatDate = Calendar.getInstance();
+            heartbeatDate.setTimeInMillis(heartbeatDate.getTimeInMillis() - heartbeatAge);
+            exportJob.setHeartbeatDate(heartbeatDate);
+        }
+        jobs.put(id, exportJob);
+        return exportJob;
+    }
+
+    private NamedSearchFilterGroup filter(Long id, String name) {
+        NamedSearchFilterGroup filter = new NamedSearchFilterGroup();
+        filter.setId(id);
+        filter.setUser(user);
+        filter.setName(name);
+        filter.setColumnsFlag(true);
+        lenient().when(namedSearchFilterGroupRepo.findById(id)).thenReturn(Optional.of(filter));
+        return filter;
+    }
+
+    private void awaitWorkers(ExportJobService exportJobService) throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(exportJobService, "executor");
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,252 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.tdl.vireo.config.VireoEmailConfig;
+import org.tdl.vireo.mock.FakeSmtpServer;
+import org.tdl.vireo.model.OutboundEmail;
+import org.tdl.vireo.model.OutboundEmailState;
+import org.tdl.vireo.model.repo.OutboundEmailRepo;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboundEmailServiceTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private OutboundEmailRepo outboundEmailRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FakeSmtpServer smtpServer;
+
+    private VireoEmailConfig vireoEmailConfig;
+
+    private OutboundEmailService outboundEmailService;
+
+    private List<OutboundEmail> queue;
+
+    private AtomicInteger openTransactions;
+
+    private AtomicInteger transactionsOpenWhileSending;
+
+    private Set<Long> otherInstanceClaims;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        smtpServer = new FakeSmtpServer();
+
+        vireoEmailConfig = new VireoEmailConfig();
+        vireoEmailConfig.setHost("localhost");
+        vireoEmailConfig.setPort(smtpServer.getPort());
+        vireoEmailConfig.setProtocol("smtp");
+        vireoEmailConfig.setChannel("clear");
+        vireoEmailConfig.setEncoding("UTF-8");
+        vireoEmailConfig.setFrom("noreply@example.com");
+        vireoEmailConfig.setReplyTo("helpdesk@example.com");
+
+        VireoEmailSender emailSender = spy(new VireoEmailSender());
+        ReflectionTestUtils.setField(emailSender, "vireoEmailConfig", vireoEmailConfig);
+
+        outboundEmailService = new OutboundEmailService();
+        ReflectionTestUtils.setField(outboundEmailService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(outboundEmailService, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(outboundEmailService, "retryDelay", 60000L);
+        ReflectionTestUtils.setField(outboundEmailService, "claimLease", 600000L);
+        ReflectionTestUtils.setField(outboundEmailService, "outboundEmailRepo", outboundEmailRepo);
+        ReflectionTestUtils.setField(outboundEmailService, "emailSender", emailSender);
+        ReflectionTestUtils.setField(outboundEmailService, "transactionManager", transactionManager);
+
+        queue = new ArrayList<>();
+        openTransactions = new AtomicInteger();
+        transactionsOpenWhileSending = new AtomicInteger();
+        otherInstanceClaims = new HashSet<>();
+
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            return null;
+        });
+        lenient().doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).commit(any());
+        lenient().doAnswer(invocation -> {
+            transactionsOpenWhileSending.addAndGet(openTransactions.get());
+            return invocation.callRealMethod();
+        }).when(emailSender).send(any(MimeMessage[].class));
+
+        lenient().when(outboundEmailRepo.releaseExpiredClaims(any(Calendar.class))).thenAnswer(invocation -> {
+            Calendar claimedBefore = invocation.getArgument(0);
+            int released = 0;
+            for (OutboundEmail outboundEmail : queue) {
+                if (outboundEmail.getState() == OutboundEmailState.SENDING && outboundEmail.getClaimedDate().before(claimedBefore)) {
+                    outboundEmail.setState(OutboundEmailState.QUEUED);
+                    outboundEmail.setClaimedDate(null);
+                    released++;
+                }
+            }
+            return released;
+        });
+        lenient().when(outboundEmailRepo.claim(anyLong(), any(Calendar.class))).thenAnswer(invocation -> {
+            long id = invocation.getArgument(0);
+            for (OutboundEmail outboundEmail : queue) {
+                if (outboundEmail.getId() == id && outboundEmail.getState() == OutboundEmailState.QUEUED) {
+                    if (otherInstanceClaims.contains(id)) {
+                        // another instance claimed it between the query and the claim
+                        outboundEmail.setState(OutboundEmailState.SENDING);
+                        outboundEmail.setClaimedDate(Calendar.getInstance());
+                        return 0;
+                    }
+                    return 1;
+                }
+            }
+            return 0;
+        });
+
+        lenient().when(outboundEmailRepo.findByStateAndNextAttemptDateLessThanEqualOrderByIdAsc(eq(OutboundEmailState.QUEUED), any(Calendar.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Calendar now = invocation.getArgument(1);
+            Pageable pageable = invocation.getArgument(2);
+            return queue.stream()
+                .filter(outboundEmail -> outboundEmail.getState() == OutboundEmailState.QUEUED && !outboundEmail.getNextAttemptDate().after(now))
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+        });
+        lenient().when(outboundEmailRepo.save(any(OutboundEmail.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().doAnswer(invocation -> queue.remove((OutboundEmail) invocation.getArgument(0))).when(outboundEmailRepo).delete(any(OutboundEmail.class));
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    public void testDispatchSendsEachBatchOverOneConnection() {
+        int total = BATCH_SIZE * 4 + 10;
+        for (int i = 0; i < total; i++) {
+            queue(i + 1, "recipient" + i + "@example.com");
+        }
+
+        int sent = outboundEmailService.dispatch();
+
+        assertEquals(total, sent);
+        assertEquals(total, smtpServer.getMessages().size());
+        assertEquals(total, smtpServer.getMessages().stream().map(recipients -> recipients.get(0)).distinct().count(), "Each email should be sent once");
+        assertEquals(5, smtpServer.getConnectionCount(), "Each batch should use a single connection");
+        assertEquals(0, transactionsOpenWhileSending.get(), "No transaction should be held while the mail server is talked to");
+        assertTrue(queue.isEmpty(), "Sent emails should be removed from the queue");
+    }
+
+    @Test
+    public void testDispatchSkipsEmailClaimedByAnotherInstance() {
+        queue(1, "first@example.com");
+        OutboundEmail claimed = queue(2, "claimed@example.com");
+        queue(3, "third@example.com");
+
+        otherInstanceClaims.add(2L);
+
+        assertEquals(2, outboundEmailService.dispatch());
+        assertEquals(Arrays.asList(Arrays.asList("first@example.com"), Arrays.asList("third@example.com")), smtpServer.getMessages());
+        assertEquals(1, queue.size());
+        assertEquals(OutboundEmailState.SENDING, claimed.getState(), "An email claimed by another instance should be left to it");
+        assertEquals(0, claimed.getAttempts());
+    }
+
+    @Test
+    public void testDispatchQueuesExpiredClaimAgain() {
+        OutboundEmail abandoned = queue(1, "abandoned@example.com");
+        Calendar claimedDate = Calendar.getInstance();
+        claimedDate.add(Calendar.HOUR, -1);
+        abandoned.setState(OutboundEmailState.SENDING);
+        abandoned.setClaimedDate(claimedDate);
+
+        OutboundEmail sending = queue(2, "sending@example.com");
+        sending.setState(OutboundEmailState.SENDING);
+        sending.setClaimedDate(Calendar.getInstance());
+
+        assertEquals(1, outboundEmailService.dispatch());
+        assertEquals(Arrays.asList(Arrays.asList("abandoned@example.com")), smtpServer.getMessages());
+        assertEquals(OutboundEmailState.SENDING, sending.getState(), "An email within its claim lease should not be sent again");
+    }
+
+    @Test
+    public void testDispatchReschedulesRejectedEmail() {
+        queue(1, "first@example.com");
+        OutboundEmail rejected = queue(2, "rejected@example.com");
+        queue(3, "third@example.com");
+
+        smtpServer.rejectRecipient("rejected@example.com");
+
+        int sent = outboundEmailService.dispatch();
+
+        assertEquals(2, sent);
+        assertEquals(2, smtpServer.getMessages().size());
+        assertEquals(1, queue.size());
+        assertEquals(OutboundEmailState.QUEUED, rejected.getState());
+        assertEquals(1, rejected.getAttempts());
+        assertNotNull(rejected.getLastError());
+        assertTrue(rejected.getNextAttemptDate().after(Calendar.getInstance()), "A rejected email should be retried later");
+    }
+
+    @Test
+    public void testDispatchFailsEmailAfterLastAttempt() {
+        OutboundEmail rejected = queue(1, "rejected@example.com");
+        rejected.setAttempts(MAX_ATTEMPTS - 1);
+
+        smtpServer.rejectRecipient("rejected@example.com");
+
+        assertEquals(0, outboundEmailService.dispatch());
+        assertEquals(OutboundEmailState.FAILED, rejected.getState());
+        assertEquals(MAX_ATTEMPTS, rejected.getAttempts());
+    }
+
+    @Test
+    public void testDispatchReschedulesEverythingWhenServerIsDown() throws IOException {
+        smtpServer.close();
+
+        OutboundEmail first = queue(1, "first@example.com");
+        OutboundEmail second = queue(2, "second@example.com");
+
+        assertEquals(0, outboundEmailService.dispatch());
+        assertEquals(1, first.getAttempts());
+        assertEquals(1, second.getAttempts());
+        assertEquals(OutboundEmailState.QUEUED, first.getState());
+        assertEquals(OutboundEmailState.QUEUED, second.getState());
+    }
+
+    private OutboundEmail queue(long id, String recipient) {
+        OutboundEmail outboundEmail = new OutboundEmail(recipient, null, null, "Subject " + id, "Content " + id);
+        outboundEmail.setId(id);
+        queue.add(outboundEmail);
+        return outboundEmail;
+    }
+
+}
@@ -1,8 +1,8 @@
 package org.tdl.vireo.service;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.isNull;
-import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -284,6 +285,12 @@ public class SubmissionEmailServiceTest extends MockData {
     @MockBean
     private VireoEmailSender mockEmailSender;
 
+    @MockBean
+    private OutboundEmailService mockOutboundEmailService;
+
+    @MockBean
+    private EmailWorkflowRuleCachingService mockEmailWorkflowRuleCachingService;
+
     @Mock
     private Organization mockOrganization;
 
@@ -312,6 +319,13 @@ public class SubmissionEmailServiceTest extends MockData {
         lenient().when(mockOrganization.getCategory()).thenReturn(TEST_ORGANIZATION_CATEGORY1);
         lenient().when(mockOrganization.getAggregateEmailWorkflowRules()).thenReturn(mockEmailWorkflowRules);
 
+        lenient().when(mockEmailWorkflowRuleCachingService.getEnabledRules(any(Organization.class), any(SubmissionStatus.class))).thenAnswer(invocation -> {
+            SubmissionStatus submissionStatus = invocation.getArgument(1);
+            return mockEmailWorkflowRules.stream()
+                .filter(rule -> rule.getSubmissionStatus().equals(submissionStatus) && !rule.isDisabled())
+                .collect(Collectors.toList());
+        });
+
         lenient().when(mockSubmission.getOrganization()).thenReturn(mockOrganization);
         lenient().when(mockSubmission.getSubmissionStatus()).thenReturn(TEST_SUBMISSION_STATUS1);
         lenient().when(mockSubmission.getSubmitter()).thenReturn(TEST_USER);
@@ -454,37 +468,35 @@ public class SubmissionEmailServiceTest extends MockData {
 
     @Test
     public void testSendWorkflowEmails() throws MessagingException {
-        doCallRealMethod().when(mockEmailSender).sendEmail(any(String.class), any(String.class), any(String.class));
-
         submissionEmailService.sendWorkflowEmails(TEST_USER, mockSubmission.getId());
-        verify(mockEmailSender, times(1)).sendEmail(any(String.class), isNull(), isNull());
-        reset(mockEmailSender);
+        verify(mockOutboundEmailService, times(1)).enqueue(any(String[].class), argThat(cc -> cc.length == 0), argThat(bcc -> bcc.length == 0), isNull(), isNull());
+        reset(mockOutboundEmailService);
 
         TEST_USER.setSettings(TEST_USER1_SETTINGS2);
 
         submissionEmailService.sendWorkflowEmails(TEST_USER, mockSubmission.getId());
-        verify(mockEmailSender, times(1)).sendEmail(any(String.class), any(String[].class), isNull(), isNull());
-        reset(mockEmailSender);
+        verify(mockOutboundEmailService, times(1)).enqueue(any(String[].class), argThat(cc -> cc.length == 0), argThat(bcc -> bcc.length == 1), isNull(), isNull());
+        reset(mockOutboundEmailService);
 
         TEST_USER.setSettings(TEST_USER1_SETTINGS3);
 
         submissionEmailService.sendWorkflowEmails(TEST_USER, mockSubmission.getId());
-        verify(mockEmailSender, times(1)).sendEmail(any(String.class), any(String[].class), isNull(), isNull());
-        reset(mockEmailSender);
+        verify(mockOutboundEmailService, times(1)).enqueue(any(String[].class), argThat(cc -> cc.length == 0), argThat(bcc -> bcc.length == 1), isNull(), isNull());
+        reset(mockOutboundEmailService);
 
         mockEmailWorkflowRules.clear();
 
         submissionEmailService.sendWorkflowEmails(TEST_USER, mockSubmission.getId());
-        verify(mockEmailSender, never()).sendEmail(any(String.class), any(String[].class), any(String.class), any(String.class));
-        reset(mockEmailSender);
+        verify(mockOutboundEmailService, never()).enqueue(any(String[].class), any(String[].class), any(String[].class), any(), any());
+        reset(mockOutboundEmailService);
     }
 
     @Test
-    public void testSendWorkflowEmailsThrowMessagingException() throws MessagingException, JsonProcessingException, IOException {
-        doThrow(MessagingException.class).when(mockEmailSender).sendEmail(any(String.class), any(String.class), any(String.class));
-
+    public void testSendWorkflowEmailsDoesNotSendSynchronously() throws MessagingException {
         submissionEmailService.sendWorkflowEmails(TEST_USER, mockSubmission.getId());
-        verify(mockEmailSender, times(1)).sendEmail(any(String.class), isNull(), isNull());
+        verify(mockEmailSender, never()).sendEmail(any(String.class), any(), any());
+        verify(mockEmailSender, never()).sendEmail(any(String.class), any(String[].class), any(), any());
+        verify(mockEmailSender, never()).send(any(MimeMessage.class));
         reset(mockEmailSender);
     }
 
@@ -0,0 +1,294 @@
+package org.tdl.vireo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.config.AppFilterConfig;
+import org.tdl.vireo.config.VireoDatabaseConfig;
+import org.tdl.vireo.model.ActionLog;
+import org.tdl.vireo.model.FieldPredicate;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.FilterCriterion;
+import org.tdl.vireo.model.InputType;
+import org.tdl.vireo.model.NamedSearchFilter;
+import org.tdl.vireo.model.NamedSearchFilterGroup;
+import org.tdl.vireo.model.Sort;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.SubmissionListColumn;
+import org.tdl.vireo.model.repo.FieldPredicateRepo;
+import org.tdl.vireo.model.repo.SubmissionListColumnRepo;
+import org.tdl.vireo.model.repo.SubmissionRepo;
+import org.tdl.vireo.model.repo.impl.SubmissionRepoImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class SubmissionListRowServiceTest {
+
+    @Mock
+    private SubmissionListColumnRepo submissionListColumnRepo;
+
+    @Mock
+    private FieldPredicateRepo fieldPredicateRepo;
+
+    @Mock
+    private SubmissionRepo submissionRepo;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AppFilterConfig appFilterConfig;
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private VireoDatabaseConfig vireoDatabaseConfig;
+
+    private SubmissionListRowService submissionListRowService;
+
+    private FieldPredicate title;
+
+    private FieldPredicate keywords;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // only what the dynamic query reads, the field value tables are left empty so matches come from the projection
+        jdbcTemplate.execute("CREATE TABLE submission (id BIGINT NOT NULL PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE field_value (id BIGINT NOT NULL PRIMARY KEY, field_predicate_id BIGINT, value VARCHAR(4000))");
+        jdbcTemplate.execute("CREATE TABLE submission_field_values (submission_id BIGINT NOT NULL, field_values_id BIGINT NOT NULL)");
+
+        vireoDatabaseConfig = new VireoDatabaseConfig();
+        vireoDatabaseConfig.setPlatform("h2");
+
+        title = predicate(1L, "dc.title");
+        keywords = predicate(2L, "keywords");
+
+        lenient().when(submissionListColumnRepo.findAll()).thenAnswer(invocation -> columns());
+
+        submissionListRowService = new SubmissionListRowService(dataSource);
+        ReflectionTestUtils.setField(submissionListRowService, "enabled", true);
+        ReflectionTestUtils.setField(submissionListRowService, "submissionListColumnRepo", submissionListColumnRepo);
+        ReflectionTestUtils.setField(submissionListRowService, "fieldPredicateRepo", fieldPredicateRepo);
+        ReflectionTestUtils.setField(submissionListRowService, "submissionRepo", submissionRepo);
+        ReflectionTestUtils.setField(submissionListRowService, "vireoDatabaseConfig", vireoDatabaseConfig);
+        ReflectionTestUtils.setField(submissionListRowService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(submissionListRowService, "entityManager", entityManager);
+        submissionListRowService.ensureSchema();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    public void testRefreshJoinsValuesInTheOrderOfTheirIds() {
+        String longTitle = StringUtils.repeat("t", SubmissionListRowService.SORT_KEY_LENGTH + 45);
+
+        Submission submission = submission(1L, longTitle, "second", "first");
+        submission.setLastAction(new ActionLog(null, Calendar.getInstance(), "Submitted", false));
+
+        submissionListRowService.refresh(submission);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 1");
+
+        assertEquals("second, first", row.get("P_2"), "Values should be joined in the order of their ids");
+        assertEquals(longTitle, row.get("P_1"));
+        assertEquals(longTitle.substring(0, SubmissionListRowService.SORT_KEY_LENGTH), row.get("S_1"), "The sort key should be bounded to be indexed");
+        assertEquals("Submitted", row.get("LAST_ACTION_ENTRY"));
+    }
+
+    @Test
+    public void testRemove() {
+        submissionListRowService.refresh(submission(1L, "Title"));
+
+        submissionListRowService.remove(1L);
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testRebuildProjectsEverySubmissionAndRemovesOthers() {
+        Submission first = submission(1L, "First");
+        Submission second = submission(2L, "Second");
+        jdbcTemplate.update("INSERT INTO submission (id) VALUES (1), (2)");
+
+        // a row left behind by a submission deleted while the projection was disabled
+        submissionListRowService.refresh(submission(3L, "Deleted"));
+
+        lenient().when(submissionRepo.findAllById(anyList())).thenReturn(Arrays.asList(first, second));
+
+        assertEquals(2, submissionListRowService.rebuild());
+
+        assertEquals(Arrays.asList(1L, 2L), jdbcTemplate.queryForList("SELECT submission_id FROM " + SubmissionListRowService.TABLE + " ORDER BY submission_id", Long.class));
+        assertEquals("Second", jdbcTemplate.queryForObject("SELECT p_1 FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 2", String.class));
+    }
+
+    @Test
+    public void testSortColumnIsAddedToExistingProjection() {
+        submissionListRowService.refresh(submission(1L, "Title"));
+
+        jdbcTemplate.execute("DROP INDEX " + SubmissionListRowService.TABLE + "_s_1");
+        jdbcTemplate.execute("ALTER TABLE " + SubmissionListRowService.TABLE + " DROP COLUMN s_1");
+
+        submissionListRowService.ensureSchema();
+
+        assertEquals("Title", jdbcTemplate.queryForObject("SELECT s_1 FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 1", String.class), "A sort column added later should be filled from the values");
+    }
+
+    @Test
+    public void testValueColumnIsFilledBeforeItIsRead() {
+        Submission submission = submission(1L, "Title", "apple", "pear");
+        submissionListRowService.refresh(submission);
+
+        // the keywords are listed after the submission was projected
+        jdbcTemplate.execute("DROP INDEX " + SubmissionListRowService.TABLE + "_s_2");
+        jdbcTemplate.execute("ALTER TABLE " + SubmissionListRowService.TABLE + " DROP COLUMN s_2");
+        jdbcTemplate.execute("ALTER TABLE " + SubmissionListRowService.TABLE + " DROP COLUMN p_2");
+
+        lenient().when(submissionRepo.findAllById(anyList())).thenReturn(Collections.singletonList(submission));
+
+        submissionListRowService.ensureSchema();
+
+        assertEquals("p_2", submissionListRowService.getProjectedColumn("keywords"));
+        assertEquals("apple, pear", jdbcTemplate.queryForObject("SELECT p_2 FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 1", String.class), "A value column added later should be filled from the submissions");
+        assertEquals("apple, pear", jdbcTemplate.queryForObject("SELECT s_2 FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 1", String.class));
+        assertEquals("Title", jdbcTemplate.queryForObject("SELECT p_1 FROM " + SubmissionListRowService.TABLE + " WHERE submission_id = 1", String.class));
+    }
+
+    @Test
+    public void testDisabledProjectionIsNotRead() {
+        ReflectionTestUtils.setField(submissionListRowService, "enabled", false);
+
+        assertNull(submissionListRowService.getProjectedColumn("dc.title"));
+        assertNull(submissionListRowService.getSortColumn("dc.title"));
+        assertEquals(-1, submissionListRowService.getSchemaVersion());
+    }
+
+    @Test
+    public void testQuerySortsAndFiltersOnProjection() throws Exception {
+        Map<Long, Submission> submissions = new HashMap<>();
+        submissions.put(1L, submission(1L, "Cherry", "apple"));
+        submissions.put(2L, submission(2L, "Apricot", "pear", "apple"));
+        submissions.put(3L, submission(3L, "Banana", "plum"));
+
+        jdbcTemplate.update("INSERT INTO submission (id) VALUES (1), (2), (3)");
+        submissions.values().forEach(submissionListRowService::refresh);
+
+        lenient().when(submissionRepo.findAllById(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+            .map(submissions::get)
+            .collect(Collectors.toList()));
+
+        SubmissionRepoImpl submissionRepoImpl = newSubmissionRepoImpl();
+
+        List<SubmissionListColumn> sortedByTitle = columns();
+        sortedByTitle.get(0).setSort(Sort.ASC);
+        sortedByTitle.get(0).setSortOrder(1);
+
+        Page<Submission> page = submissionRepoImpl.pageableDynamicSubmissionQuery(null, sortedByTitle, PageRequest.of(0, 10));
+
+        assertEquals(Arrays.asList(2L, 3L, 1L), ids(page));
+        assertEquals(3, page.getTotalElements());
+
+        NamedSearchFilter keywordFilter = new NamedSearchFilter(columns().get(1));
+        keywordFilter.addFilter(new FilterCriterion("APP"));
+
+        NamedSearchFilterGroup filter = new NamedSearchFilterGroup();
+        filter.setNamedSearchFilters(Collections.singleton(keywordFilter));
+
+        page = submissionRepoImpl.pageableDynamicSubmissionQuery(filter, sortedByTitle, PageRequest.of(0, 10));
+
+        assertEquals(Arrays.asList(2L, 1L), ids(page), "Submissions with any value like the filter should be matched");
+        assertEquals(2, page.getTotalElements(), "The count should be filtered on the projection as well");
+    }
+
+    private SubmissionRepoImpl newSubmissionRepoImpl() {
+        SubmissionRepoImpl submissionRepoImpl = new SubmissionRepoImpl(dataSource);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionRepo", submissionRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionListColumnRepo", submissionListColumnRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "fieldPredicateRepo", fieldPredicateRepo);
+        ReflectionTestUtils.setField(submissionRepoImpl, "submissionListRowService", submissionListRowService);
+        ReflectionTestUtils.setField(submissionRepoImpl, "appFilterConfig", appFilterConfig);
+        ReflectionTestUtils.setField(submissionRepoImpl, "vireoDatabaseConfig", vireoDatabaseConfig);
+        ReflectionTestUtils.setField(submissionRepoImpl, "queryShapeCacheSize", 256);
+        return submissionRepoImpl;
+    }
+
+    private FieldPredicate predicate(Long id, String value) {
+        FieldPredicate fieldPredicate = new FieldPredicate(value, false);
+        fieldPredicate.setId(id);
+        lenient().when(fieldPredicateRepo.findByValue(value)).thenReturn(fieldPredicate);
+        return fieldPredicate;
+    }
+
+    private List<SubmissionListColumn> columns() {
+        SubmissionListColumn titleColumn = new SubmissionListColumn("Title", Sort.NONE, title.getValue(), new InputType("INPUT_TEXT"));
+        titleColumn.setId(10L);
+
+        SubmissionListColumn keywordsColumn = new SubmissionListColumn("Keywords", Sort.NONE, keywords.getValue(), new InputType("INPUT_TEXT"));
+        keywordsColumn.setId(11L);
+
+        return new ArrayList<>(Arrays.asList(titleColumn, keywordsColumn));
+    }
+
+    private Submission submission(Long id, String titleValue, String... keywordValues) {
+        Submission submission = new Submission();
+        submission.setId(id);
+
+        long fieldValueId = id * 100;
+
+        submission.addFieldValue(fieldValue(fieldValueId++, title, titleValue));
+
+        for (String keywordValue : keywordValues) {
+            submission.addFieldValue(fieldValue(fieldValueId++, keywords, keywordValue));
+        }
+
+        return submission;
+    }
+
+    private FieldValue fieldValue(Long id, FieldPredicate fieldPredicate, String value) {
+        FieldValue fieldValue = new FieldValue(fieldPredicate);
+        fieldValue.setId(id);
+        fieldValue.setValue(value);
+        return fieldValue;
+    }
+
+    private List<Long> ids(Page<Submission> page) {
+        return page.getContent().stream().map(Submission::getId).collect(Collectors.toList());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + SubmissionListRowService.TABLE, Integer.class);
+    }
+
+}
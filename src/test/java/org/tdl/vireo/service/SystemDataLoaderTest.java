@@ -213,7 +213,7 @@ public class SystemDataLoaderTest {
                 ? "Incorrect number of organization found after reload"
                 : "Incorrect number of organization found");
 
-        Organization institution = organizationRepo.findAll().get(0);
+        Organization institution = organizationRepo.findById(organizationRepo.findAll().get(0).getId()).get();
 
         assertEquals(false, institution.getAcceptsSubmissions(),
             isReload
@@ -0,0 +1,58 @@
+package org.tdl.vireo.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CompiledTemplateTest {
+
+    @Test
+    public void testRenderReplacesEveryPlaceholder() {
+        CompiledTemplate template = CompiledTemplate.compile("Dear {FIRST_NAME} {LAST_NAME}, your {dc.title} is {SUBMISSION_STATUS}. Thanks {FIRST_NAME}!");
+
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("FIRST_NAME", "Jane");
+        values.put("LAST_NAME", "Doe");
+        values.put("dc.title", "A Title");
+        values.put("SUBMISSION_STATUS", "Approved");
+
+        assertEquals(Arrays.asList("FIRST_NAME", "LAST_NAME", "dc.title", "SUBMISSION_STATUS", "FIRST_NAME"), template.getPlaceholders());
+        assertEquals("Dear Jane Doe, your A Title is Approved. Thanks Jane!", template.render(values::get));
+    }
+
+    @Test
+    public void testRenderLeavesUnknownPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("Deposited at {DEPOSIT_URI}");
+
+        assertEquals("Deposited at {DEPOSIT_URI}", template.render(name -> null));
+    }
+
+    @Test
+    public void testRenderInsertsValuesLiterally() {
+        CompiledTemplate template = CompiledTemplate.compile("{FULL_NAME}");
+
+        assertEquals("$1 \\ {LAST_NAME}", template.render(name -> name.equals("FULL_NAME") ? "$1 \\ {LAST_NAME}" : "Doe"));
+    }
+
+    @Test
+    public void testCompileKeepsStrayBraces() {
+        CompiledTemplate template = CompiledTemplate.compile("{} {not {FIRST_NAME} closed {");
+
+        assertEquals(Arrays.asList("FIRST_NAME"), template.getPlaceholders());
+        assertEquals("{} {not Jane closed {", template.render(name -> "Jane"));
+    }
+
+    @Test
+    public void testCompileWithoutPlaceholders() {
+        CompiledTemplate template = CompiledTemplate.compile("Plain text");
+
+        assertTrue(template.getPlaceholders().isEmpty());
+        assertEquals("Plain text", template.render(name -> "unused"));
+    }
+
+}
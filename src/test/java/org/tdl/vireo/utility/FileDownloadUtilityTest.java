@@ -0,0 +1,269 @@
+package org.tdl.vireo.utility;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class FileDownloadUtilityTest {
+
+    private static final String ETAG = "\"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\"";
+
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @TempDir
+    Path folder;
+
+    private Path path;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        path = folder.resolve("thesis.pdf");
+        Files.write(path, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testDownloadWholeFile() throws Exception {
+        download(ETAG);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals("application/pdf", response.getContentType());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+    }
+
+    @Test
+    public void testDownloadSingleRange() throws Exception {
+        request.addHeader("Range", "bytes=10-15");
+
+        download(ETAG);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("abcdef", response.getContentAsString());
+        assertEquals(6, response.getContentLengthLong());
+        assertEquals("bytes 10-15/36", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void testDownloadOpenAndSuffixRanges() throws Exception {
+        request.addHeader("Range", "bytes=30-");
+        download(ETAG);
+        assertEquals("uvwxyz", response.getContentAsString());
+        assertEquals("bytes 30-35/36", response.getHeader("Content-Range"));
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("Range", "bytes=-4");
+        download(ETAG);
+        assertEquals("wxyz", response.getContentAsString());
+        assertEquals("bytes 32-35/36", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void testDownloadMultipleRanges() throws Exception {
+        request.addHeader("Range", "bytes=0-1, 10-12");
+
+        download(ETAG);
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+
+        String boundary = response.getContentType().substring("multipart/byteranges; boundary=".length());
+        String expected = "\r\n--" + boundary + "\r\nContent-Type: application/pdf\r\nContent-Range: bytes 0-1/36\r\n\r\n01"
+            + "\r\n--" + boundary + "\r\nContent-Type: application/pdf\r\nContent-Range: bytes 10-12/36\r\n\r\nabc"
+            + "\r\n--" + boundary + "--\r\n";
+
+        assertEquals(expected, response.getContentAsString());
+        assertEquals(expected.length(), response.getContentLengthLong());
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        request.addHeader("Range", "bytes=100-200");
+
+        download(ETAG);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */36", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void testInvalidOrExcessiveRangesAreIgnored() throws Exception {
+        request.addHeader("Range", "lines=1-2");
+        download(ETAG);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+
+        StringBuilder ranges = new StringBuilder("bytes=");
+        for (int i = 0; i <= FileDownloadUtility.MAX_RANGES; i++) {
+            ranges.append(i == 0 ? "" : ",").append(i).append("-").append(i);
+        }
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("Range", ranges.toString());
+        download(ETAG);
+        assertEquals(200, response.getStatus());
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("Range", "bytes=0-35,0-35");
+        download(ETAG);
+        assertEquals(200, response.getStatus(), "Overlapping ranges adding up to more than the file should be answered with the file");
+    }
+
+    @Test
+    public void testIfNoneMatch() throws Exception {
+        request.addHeader("If-None-Match", "\"other\", " + ETAG);
+
+        download(ETAG);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(ETAG, response.getHeader("ETag"));
+    }
+
+    @Test
+    public void testIfModifiedSince() throws Exception {
+        request.addHeader("If-Modified-Since", Files.getLastModifiedTime(path).toMillis());
+        download(null);
+        assertEquals(304, response.getStatus());
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("If-Modified-Since", Files.getLastModifiedTime(path).toMillis() - 60000);
+        download(null);
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testIfRangeOfChangedFileReturnsWholeFile() throws Exception {
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", "\"stale\"");
+        download(ETAG);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", ETAG);
+        download(ETAG);
+        assertEquals(206, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+    }
+
+    @Test
+    public void testIfMatch() throws Exception {
+        request.addHeader("If-Match", "\"stale\"");
+
+        download(ETAG);
+
+        assertEquals(412, response.getStatus());
+    }
+
+    @Test
+    public void testWeakEtagWithoutChecksum() throws Exception {
+        download(null);
+
+        String etag = response.getHeader("ETag");
+        assertTrue(etag.startsWith("W/\""), "A file without a checksum should have a weak ETag, not " + etag);
+
+        request = new MockHttpServletRequest("GET", "/submission/file");
+        response = new MockHttpServletResponse();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", etag);
+        download(null);
+        assertEquals(200, response.getStatus(), "A weak ETag cannot validate a range request");
+    }
+
+    @Test
+    public void testSendfileWhenSupported() throws Exception {
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-15");
+
+        download(ETAG);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length, "Content should be left to the container to send");
+        assertEquals(path.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(16L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    public void testHeadSendsNoContent() throws Exception {
+        request.setMethod("HEAD");
+
+        download(ETAG);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT.length(), response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        FileDownloadUtility.download(request, response, folder.resolve("missing.pdf"), "application/pdf", null);
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    public void testLargeRangeIsTransferredExactly() throws Exception {
+        byte[] content = new byte[8 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31 % 251);
+        }
+        Files.write(path, content);
+
+        request.addHeader("Range", "bytes=1000000-");
+
+        download(ETAG);
+
+        assertEquals(206, response.getStatus());
+        assertArrayEquals(Arrays.copyOfRange(content, 1000000, content.length), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testParseRanges() {
+        assertNull(FileDownloadUtility.parseRanges("bytes=", 10));
+        assertNull(FileDownloadUtility.parseRanges("bytes=5-2", 10));
+        assertNull(FileDownloadUtility.parseRanges("bytes=a-b", 10));
+        assertNull(FileDownloadUtility.parseRanges("bytes=+1-2", 10));
+
+        List<long[]> ranges = FileDownloadUtility.parseRanges("bytes=2-100, -3, 20-", 10);
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new long[] { 2, 9 }, ranges.get(0));
+        assertArrayEquals(new long[] { 7, 9 }, ranges.get(1));
+
+        assertTrue(FileDownloadUtility.parseRanges("bytes=0-0", 0).isEmpty(), "No range of an empty file can be satisfied");
+    }
+
+    private void download(String etag) throws Exception {
+        FileDownloadUtility.download(request, response, path, "application/pdf", etag);
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.tdl.vireo.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.tdl.vireo.model.Submission;
+import org.tdl.vireo.model.formatter.Formatter;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+
+public class FormatterUtilityTest {
+
+    private static final String NAME = "Jane & Joe";
+
+    private static final String TEXT_RENDER = "Dear Jane & Joe, from text\n";
+
+    private static final String XML_RENDER = "<name>Jane &amp; Joe</name>\n";
+
+    private FormatterUtility formatterUtility;
+
+    @BeforeEach
+    public void setup() {
+        formatterUtility = new FormatterUtility();
+        ReflectionTestUtils.setField(formatterUtility, "applicationContext", new GenericApplicationContext());
+    }
+
+    @Test
+    public void testRenderUsesTheSuffixAndTemplateModeOfEachFormatter() throws Exception {
+        assertEquals(TEXT_RENDER, formatterUtility.renderManifestMap(new TextFormatter(), null).get("manifest"));
+        assertEquals(XML_RENDER, formatterUtility.renderManifestMap(new XmlFormatter(), null).get("manifest"));
+    }
+
+    @Test
+    public void testConcurrentRendersOfDifferentFormatters() throws Exception {
+        Formatter textFormatter = new TextFormatter();
+        Formatter xmlFormatter = new XmlFormatter();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String[]>> renders = new ArrayList<Callable<String[]>>();
+            for (int i = 0; i < 200; i++) {
+                Formatter formatter = i % 2 == 0 ? textFormatter : xmlFormatter;
+                String expected = i % 2 == 0 ? TEXT_RENDER : XML_RENDER;
+                renders.add(() -> new String[] { expected, formatterUtility.renderManifestMap(formatter, null).get("manifest") });
+            }
+
+            for (Future<String[]> render : executor.invokeAll(renders)) {
+                String[] result = render.get();
+                assertEquals(result[0], result[1]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEngineIsReplacedWhenTemplatesChange() throws Exception {
+        TextFormatter formatter = new TextFormatter();
+
+        SpringTemplateEngine engine = getTemplateEngine(formatter);
+        formatter.setTemplates(templates("manifest", "formatter_utility"));
+
+        assertSame(engine, getTemplateEngine(formatter), "An equal templates map should keep the engine");
+
+        formatter.setTemplates(templates("manifest", "formatter_utility_changed"));
+
+        assertNotSame(engine, getTemplateEngine(formatter), "A changed templates map should replace the engine");
+        assertEquals("Changed Jane & Joe\n", formatterUtility.renderManifestMap(formatter, null).get("manifest"));
+    }
+
+    private SpringTemplateEngine getTemplateEngine(Formatter formatter) {
+        return ReflectionTestUtils.invokeMethod(formatterUtility, "getTemplateEngine", formatter, formatter.getTemplates());
+    }
+
+    private static Map<String, String> templates(String key, String template) {
+        Map<String, String> templates = new HashMap<String, String>();
+        templates.put(key, template);
+        return templates;
+    }
+
+    private static class TextFormatter implements Formatter {
+
+        private Map<String, String> templates = templates("manifest", "formatter_utility");
+
+        @Override
+        public String getName() {
+            return "text";
+        }
+
+        @Override
+        public Map<String, String> getTemplates() {
+            return templates;
+        }
+
+        public void setTemplates(Map<String, String> templates) {
+            this.templates = templates;
+        }
+
+        @Override
+        public void populateContext(Context context, Submission submission) {
+            context.setVariable("NAME", NAME);
+            context.setVariable("FORMAT", getName());
+        }
+
+        @Override
+        public String getSuffix() {
+            return ".txt";
+        }
+
+        @Override
+        public String getTemplateMode() {
+            return "TEXT";
+        }
+
+    }
+
+    private static class XmlFormatter extends TextFormatter {
+
+        @Override
+        public String getName() {
+            return "xml";
+        }
+
+        @Override
+        public String getSuffix() {
+            return ".xml";
+        }
+
+        @Override
+        public String getTemplateMode() {
+            return "XML";
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.tdl.vireo.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tdl.vireo.model.FieldPredicate;
+import org.tdl.vireo.model.FieldValue;
+import org.tdl.vireo.model.Submission;
+
+public class SubmissionSnapshotTest {
+
+    private Submission submission;
+
+    private long nextId;
+
+    @BeforeEach
+    public void setup() {
+        submission = new Submission();
+        nextId = 1L;
+    }
+
+    @Test
+    public void testGetFieldValuesMatchesSubmission() {
+        addFieldValue("dc.subject", "Physics", null);
+        addFieldValue("dc.subject", "Chemistry", null);
+        addFieldValue("dc.title", "A Title", null);
+
+        SubmissionSnapshot snapshot = new SubmissionSnapshot(submission);
+
+        assertEquals(submission.getFieldValuesByPredicateValue("dc.subject"), snapshot.getFieldValues("dc.subject"));
+        assertEquals(Optional.of("A Title"), snapshot.getFirstValue("dc.title"));
+        assertTrue(snapshot.getFieldValues("keywords").isEmpty());
+        assertFalse(snapshot.getFirstValue("keywords").isPresent());
+    }
+
+    @Test
+    public void testGetFieldValuesStartingWith() {
+        addFieldValue("dc.contributor.advisor", "Advisor", null);
+        addFieldValue("dc.contributor.committeeMember", "Member", null);
+        addFieldValue("dc.contributor.committeeMemberExternal", "External Member", null);
+
+        SubmissionSnapshot snapshot = new SubmissionSnapshot(submission);
+
+        List<FieldValue> members = snapshot.getFieldValuesStartingWith("dc.contributor.committeeMember");
+        assertEquals(2, members.size());
+        assertEquals(submission.getFieldValuesByPredicateValueStartsWith("dc.contributor.committeeMember").size(), members.size());
+    }
+
+    @Test
+    public void testEmbargoDurations() {
+        addFieldValue(SubmissionSnapshot.PROQUEST_EMBARGO_PREDICATE, "6 months", "6");
+        addFieldValue(SubmissionSnapshot.DEFAULT_EMBARGO_PREDICATE, "None", null);
+
+        SubmissionSnapshot snapshot = new SubmissionSnapshot(submission);
+
+        assertEquals(Optional.of(6), snapshot.getProquestEmbargoDuration());
+        assertFalse(snapshot.getDefaultEmbargoDuration().isPresent());
+    }
+
+    @Test
+    public void testEmbargoLiftDate() {
+        addFieldValue(SubmissionSnapshot.DATE_ISSUED_PREDICATE, "May 2020", null);
+        addFieldValue(SubmissionSnapshot.PROQUEST_EMBARGO_PREDICATE, "6 months", "6");
+        addFieldValue(SubmissionSnapshot.DEFAULT_EMBARGO_PREDICATE, "1 year", "12");
+
+        SubmissionHelperUtility submissionHelperUtility = new SubmissionHelperUtility(submission);
+
+        assertEquals("2021-05-01", submissionHelperUtility.getEmbargoLiftDate());
+        assertEquals("11/01/2020", submissionHelperUtility.getProQuestFormatRestrictionRemove());
+        assertEquals("2020", submissionHelperUtility.getGraduationYearString());
+    }
+
+    @Test
+    public void testEmbargoLiftDateWithoutDateIssued() {
+        addFieldValue(SubmissionSnapshot.PROQUEST_EMBARGO_PREDICATE, "6 months", "6");
+
+        SubmissionHelperUtility submissionHelperUtility = new SubmissionHelperUtility(submission);
+
+        assertNull(submissionHelperUtility.getEmbargoLiftDate());
+        assertEquals("", submissionHelperUtility.getProQuestFormatRestrictionRemove());
+    }
+
+    @Test
+    public void testCommitteeApprovedEmbargoLiftDateLeavesApprovalDate() {
+        Calendar approveEmbargoDate = Calendar.getInstance();
+        approveEmbargoDate.set(2020, Calendar.JANUARY, 15);
+        submission.setApproveEmbargoDate(approveEmbargoDate);
+        addFieldValue(SubmissionSnapshot.DEFAULT_EMBARGO_PREDICATE, "Journal Hold", "12");
+
+        SubmissionHelperUtility submissionHelperUtility = new SubmissionHelperUtility(submission);
+
+        assertEquals("01/15/2021", submissionHelperUtility.getFormattedCommitteeApprovedEmbargoLiftDateString());
+        assertEquals(2020, submission.getApproveEmbargoDate().get(Calendar.YEAR));
+    }
+
+    private void addFieldValue(String predicate, String value, String identifier) {
+        FieldPredicate fieldPredicate = new FieldPredicate(predicate, false);
+        fieldPredicate.setId(nextId++);
+
+        FieldValue fieldValue = new FieldValue(fieldPredicate);
+        fieldValue.setId(nextId++);
+        fieldValue.setValue(value);
+        fieldValue.setIdentifier(identifier);
+
+        submission.addFieldValue(fieldValue);
+    }
+
+}